@@ -1,18 +1,179 @@
 package by.task;
 
+import by.task.dao.UserLookupDao;
+import by.task.dao.impl.CoalescingSettings;
+import by.task.dao.impl.CoalescingUserDao;
+import by.task.dao.impl.OffHeapSettings;
+import by.task.dao.impl.OffHeapUserDao;
+import by.task.dao.impl.ResilienceSettings;
+import by.task.dao.impl.ResilientUserDao;
+import by.task.dao.impl.ShardRebalancer;
+import by.task.dao.impl.ShardedUserDao;
+import by.task.dao.impl.UserDao;
+import by.task.dao.impl.WriteBehindUserDao;
+import by.task.http.UserHttpServer;
+import by.task.metrics.MeteredDao;
+import by.task.metrics.MeteredUserService;
+import by.task.metrics.MetricsRegistry;
+import by.task.metrics.MetricsReporter;
+import by.task.outbox.FileChangeSink;
+import by.task.outbox.OutboxRelay;
+import by.task.outbox.OutboxSettings;
+import by.task.outbox.UserChangeFeed;
 import by.task.services.UserMenuManager;
 import by.task.services.UserService;
 import by.task.util.HibernateUtil;
+import by.task.util.SchemaMigrator;
+import org.flywaydb.core.api.output.MigrateResult;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Scanner;
+import java.util.concurrent.CountDownLatch;
 
 public class Main {
-    private static final Scanner scanner = new Scanner(System.in);
-    private static final UserService userService = new UserService();
-    private static final UserMenuManager menuManager = new UserMenuManager(scanner, userService);
+    private static final MetricsRegistry metrics = new MetricsRegistry("by.task");
+    private static ShardedUserDao shardedDao;
 
-    public static void main(String[] args) {
-        menuManager.run();
+    public static void main(String[] args) throws IOException, InterruptedException {
+        List<String> options = Arrays.asList(args);
+        if (options.contains("--migrate")) {
+            MigrateResult result = SchemaMigrator.migrate();
+            System.out.println("Применено миграций: " + result.migrationsExecuted + ", версия схемы: " + result.targetSchemaVersion);
+            for (String url : HibernateUtil.getShardUrls()) {
+                result = SchemaMigrator.migrate(url);
+                System.out.println(url + ": применено миграций: " + result.migrationsExecuted + ", версия схемы: " + result.targetSchemaVersion);
+            }
+            return;
+        }
+        if (options.contains("--warmup")) {
+            // Поднимает SessionFactory и завершается: тренировочный запуск для архива AppCDS
+            HibernateUtil.getSessionFactory();
+            HibernateUtil.shutdown();
+            return;
+        }
+
+        // SessionFactory строится в фоне, пока пользователь работает с меню. Цепочка DAO собирается только здесь:
+        // --migrate и --warmup выше не должны зависеть от схемы, которую они же и создают
+        HibernateUtil.initializeAsync();
+        UserService userService = new MeteredUserService(MeteredDao.wrap(createUserDao(), metrics, "dao"), metrics);
+        startOutboxRelay();
+        startShardMove();
+        Duration reportInterval = Duration.ofSeconds(Long.getLong("metrics.report.interval", 60));
+        try (MetricsReporter ignored = new MetricsReporter(metrics, reportInterval)) {
+            if (options.contains("--http")) {
+                runHttpServer(userService);
+            } else {
+                new UserMenuManager(new Scanner(System.in), userService).run();
+            }
+        }
+        metrics.close();
         HibernateUtil.shutdown();
     }
-}
\ No newline at end of file
+
+    private static UserLookupDao createUserDao() {
+        UserLookupDao dao = new UserDao();
+        if (!HibernateUtil.getShardUrls().isEmpty()) {
+            if (Boolean.getBoolean("dao.offHeap")) {
+                // Лента изменений читается только с основной БД, изменения других шардов в неё не попадают
+                throw new IllegalStateException("dao.offHeap не поддерживается вместе с db.shards");
+            }
+            shardedDao = new ShardedUserDao(HibernateUtil::getShardSessionFactories, Integer.getInteger("db.shards.worker", 0));
+            HibernateUtil.registerBeforeShutdown(shardedDao);
+            dao = shardedDao;
+        }
+        if (Boolean.getBoolean("dao.resilience")) {
+            // Оборачивает именно обращения к БД: кэши и буферы выше по цепочке не повторяются и не отключаются
+            ResilienceSettings defaults = ResilienceSettings.DEFAULTS;
+            dao = new ResilientUserDao(dao, new ResilienceSettings(
+                    Integer.getInteger("dao.resilience.maxAttempts", defaults.maxAttempts()),
+                    defaults.initialBackoff(), defaults.maxBackoff(),
+                    Duration.ofMillis(Long.getLong("dao.resilience.timeoutMillis", defaults.operationTimeout().toMillis())),
+                    defaults.breakerWindow(), defaults.breakerMinimumCalls(),
+                    Double.parseDouble(System.getProperty("dao.resilience.failureRate", String.valueOf(defaults.breakerFailureRate()))),
+                    Duration.ofMillis(Long.getLong("dao.resilience.openMillis", defaults.breakerOpenDuration().toMillis())),
+                    defaults.breakerProbes()), metrics);
+        }
+        if (Boolean.getBoolean("dao.offHeap")) {
+            // Все пользователи загружаются в фоне, пока поиск идёт в БД; дальше изменения приходят из ленты outbox
+            OffHeapSettings defaults = OffHeapSettings.DEFAULTS;
+            OffHeapUserDao offHeap = new OffHeapUserDao(dao, new UserChangeFeed(HibernateUtil::getSessionFactory), new OffHeapSettings(
+                    Duration.ofMillis(Long.getLong("dao.offHeap.refreshMillis", defaults.refreshInterval().toMillis())),
+                    defaults.feedBatchSize(), defaults.warmupFetchSize(), defaults.chunkBytes()));
+            HibernateUtil.registerBeforeShutdown(offHeap);
+            offHeap.start();
+            dao = offHeap;
+        }
+        if (Boolean.getBoolean("dao.writeBehind")) {
+            WriteBehindUserDao writeBehind = new WriteBehindUserDao(dao);
+            HibernateUtil.registerBeforeShutdown(writeBehind);
+            writeBehind.start();
+            dao = writeBehind;
+        }
+        if (Boolean.getBoolean("dao.coalesce")) {
+            // Окно 0 — только single-flight, больше 0 — ещё и сбор разных ID в один запрос
+            CoalescingUserDao coalescing = new CoalescingUserDao(dao, new CoalescingSettings(
+                    Duration.ofMillis(Long.getLong("dao.coalesce.windowMillis", 0)),
+                    Integer.getInteger("dao.coalesce.maxBatch", UserDao.DEFAULT_BATCH_SIZE)),
+                    () -> HibernateUtil.getSessionRouter().isPinnedToPrimary());
+            HibernateUtil.registerBeforeShutdown(coalescing);
+            dao = coalescing;
+        }
+        return dao;
+    }
+
+    // -Ddb.shards.move=0-255:1 — перенести бакеты 0..255 на шард 1. Перенос идёт в этом же процессе и сразу
+    // переключает его на новую карту; остальные процессы перечитают её при первой записи по старой версии
+    private static void startShardMove() {
+        String move = System.getProperty("db.shards.move");
+        if (move == null || shardedDao == null) return;
+        if (!move.matches("\\d+-\\d+:\\d+")) {
+            throw new IllegalArgumentException("Некорректный перенос шардов: " + move + ", ожидается <первый бакет>-<последний бакет>:<шард>");
+        }
+        String[] parts = move.split("[-:]");
+        Thread.ofPlatform().name("user-shard-rebalance").daemon().start(() -> {
+            try {
+                new ShardRebalancer(shardedDao, ShardRebalancer.DEFAULT_CHUNK_SIZE, Duration.ofMillis(Long.getLong(
+                        "db.shards.move.timeoutMillis", ShardRebalancer.DEFAULT_STATEMENT_TIMEOUT.toMillis())))
+                        .move(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+            } catch (RuntimeException e) {
+                System.err.println("Ошибка переноса бакетов " + move + ": " + e);
+            }
+        });
+    }
+
+    private static void startOutboxRelay() throws IOException {
+        String file = System.getProperty("outbox.file");
+        if (file == null) return;
+        FileChangeSink sink = new FileChangeSink(Path.of(file));
+        HibernateUtil.registerBeforeShutdown(sink);
+        OutboxRelay relay = new OutboxRelay(HibernateUtil::getSessionFactory, sink, new OutboxSettings(
+                Integer.getInteger("outbox.batchSize", OutboxSettings.DEFAULTS.batchSize()),
+                Duration.ofMillis(Long.getLong("outbox.pollMillis", OutboxSettings.DEFAULTS.pollInterval().toMillis()))));
+        // Хуки закрываются в обратном порядке: relay останавливается раньше, чем закрывается файл
+        HibernateUtil.registerBeforeShutdown(relay);
+        relay.start();
+    }
+
+    private static void runHttpServer(UserService userService) throws IOException, InterruptedException {
+        int port = Integer.getInteger("http.port", UserHttpServer.DEFAULT_PORT);
+        CountDownLatch stopped = new CountDownLatch(1);
+        try (UserHttpServer server = new UserHttpServer(userService, port)) {
+            Thread mainThread = Thread.currentThread();
+            // По Ctrl+C/SIGTERM отпускаем основной поток и ждём, пока он закроет сервер и пул соединений
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                stopped.countDown();
+                try {
+                    mainThread.join();
+                } catch (InterruptedException ignored) {
+                }
+            }));
+            server.start();
+            System.out.println("HTTP-сервер запущен на порту " + server.getPort());
+            stopped.await();
+        }
+    }
+}
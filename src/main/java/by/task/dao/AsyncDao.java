@@ -0,0 +1,34 @@
+package by.task.dao;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletionStage;
+
+// Неблокирующий аналог Dao: результаты завершаются на потоках event loop драйвера,
+// поэтому в продолжениях нельзя блокироваться
+public interface AsyncDao<T, ID> {
+    CompletionStage<Void> save(T entity);
+
+    CompletionStage<Void> saveAll(List<T> entities);
+
+    CompletionStage<Optional<T>> findById(ID id);
+
+    CompletionStage<List<T>> findAllById(Collection<ID> ids);
+
+    CompletionStage<Boolean> existsById(ID id);
+
+    CompletionStage<List<T>> findAll();
+
+    CompletionStage<Page<T>> findPage(String cursor, int size);
+
+    CompletionStage<Boolean> update(T entity);
+
+    CompletionStage<Void> updateAll(List<T> entities);
+
+    CompletionStage<Boolean> delete(T entity);
+
+    CompletionStage<Boolean> deleteById(ID id);
+
+    CompletionStage<Void> deleteAllById(List<ID> ids);
+}
@@ -0,0 +1,16 @@
+package by.task.dao;
+
+import by.task.models.User;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletionStage;
+
+// Неблокирующий аналог UserLookupDao
+public interface AsyncUserLookupDao extends AsyncDao<User, Long> {
+    CompletionStage<Optional<User>> findByEmail(String email);
+
+    CompletionStage<Boolean> existsByEmail(String email);
+
+    CompletionStage<List<User>> findByFilter(UserFilter filter);
+}
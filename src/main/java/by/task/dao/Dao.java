@@ -1,16 +1,41 @@
 package by.task.dao;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 public interface Dao<T, ID> {
     void save(T entity);
 
+    void saveAll(List<T> entities);
+
     Optional<T> findById(ID id);
 
+    default List<T> findAllById(Collection<ID> ids) {
+        return ids.stream().distinct().map(this::findById).flatMap(Optional::stream).toList();
+    }
+
+    boolean existsById(ID id);
+
     List<T> findAll();
 
-    void update(T entity);
+    Page<T> findPage(String cursor, int size);
+
+    Stream<T> streamAll(int fetchSize);
+
+    boolean update(T entity);
+
+    default CompletableFuture<Boolean> updateAsync(T entity) {
+        return CompletableFuture.completedFuture(update(entity));
+    }
+
+    void updateAll(List<T> entities);
+
+    boolean delete(T entity);
+
+    boolean deleteById(ID id);
 
-    void delete(T entity);
-}
\ No newline at end of file
+    void deleteAllById(List<ID> ids);
+}
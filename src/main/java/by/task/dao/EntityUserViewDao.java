@@ -0,0 +1,35 @@
+package by.task.dao;
+
+import by.task.models.UserView;
+
+import java.util.List;
+import java.util.Optional;
+
+// Проекции для DAO без собственных запросов проекций: сущности читаются целиком и преобразуются
+final class EntityUserViewDao implements UserViewDao {
+    private final UserLookupDao dao;
+
+    EntityUserViewDao(UserLookupDao dao) {
+        this.dao = dao;
+    }
+
+    @Override
+    public Optional<UserView> findViewById(Long id) {
+        return dao.findById(id).map(UserView::of);
+    }
+
+    @Override
+    public List<UserView> findAllViews() {
+        return dao.findAll().stream().map(UserView::of).toList();
+    }
+
+    @Override
+    public Page<UserView> findViewPage(String cursor, int size) {
+        return dao.findPage(cursor, size).map(UserView::of);
+    }
+
+    @Override
+    public List<UserView> findViewsByFilter(UserFilter filter) {
+        return dao.findByFilter(filter).stream().map(UserView::of).toList();
+    }
+}
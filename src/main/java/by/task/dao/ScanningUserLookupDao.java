@@ -0,0 +1,135 @@
+package by.task.dao;
+
+import by.task.models.User;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+// Поиск по полям для обычного Dao<User, Long>: без собственных запросов пользователи перебираются через streamAll
+final class ScanningUserLookupDao implements UserLookupDao {
+    static final int FETCH_SIZE = 500;
+
+    private final Dao<User, Long> dao;
+
+    ScanningUserLookupDao(Dao<User, Long> dao) {
+        this.dao = dao;
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        try (Stream<User> users = dao.streamAll(FETCH_SIZE)) {
+            return users.filter(user -> email.equals(user.getEmail())).findFirst();
+        }
+    }
+
+    @Override
+    public boolean existsByEmail(String email) {
+        return findByEmail(email).isPresent();
+    }
+
+    @Override
+    public List<User> findByFilter(UserFilter filter) {
+        try (Stream<User> users = dao.streamAll(FETCH_SIZE)) {
+            return users.filter(matches(filter)).sorted(order(filter)).limit(filter.limit()).toList();
+        }
+    }
+
+    // Те же условия, что у запроса UserDao.findByFilter: префикс имени и домен email без учёта регистра
+    private static Predicate<User> matches(UserFilter filter) {
+        String namePrefix = filter.namePrefix() == null ? null : filter.namePrefix().toLowerCase(Locale.ROOT);
+        String emailSuffix = filter.emailDomain() == null ? null : "@" + filter.emailDomain().toLowerCase(Locale.ROOT);
+        return user -> (namePrefix == null || user.getName().toLowerCase(Locale.ROOT).startsWith(namePrefix))
+                && (emailSuffix == null || user.getEmail().toLowerCase(Locale.ROOT).endsWith(emailSuffix))
+                && (filter.minAge() == null || user.getAge() >= filter.minAge())
+                && (filter.maxAge() == null || user.getAge() <= filter.maxAge())
+                && (filter.createdFrom() == null || !user.getCreatedAt().isBefore(filter.createdFrom()))
+                && (filter.createdTo() == null || user.getCreatedAt().isBefore(filter.createdTo()));
+    }
+
+    private static Comparator<User> order(UserFilter filter) {
+        Comparator<User> bySortKey = switch (filter.sortBy()) {
+            case CREATED_AT -> Comparator.comparing(User::getCreatedAt);
+            case NAME -> Comparator.comparing(User::getName);
+            case EMAIL -> Comparator.comparing(User::getEmail);
+            case AGE -> Comparator.comparing(User::getAge);
+        };
+        Comparator<User> order = bySortKey.thenComparing(User::getId);
+        return filter.descending() ? order.reversed() : order;
+    }
+
+    @Override
+    public void save(User entity) {
+        dao.save(entity);
+    }
+
+    @Override
+    public void saveAll(List<User> entities) {
+        dao.saveAll(entities);
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        return dao.findById(id);
+    }
+
+    @Override
+    public List<User> findAllById(Collection<Long> ids) {
+        return dao.findAllById(ids);
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return dao.existsById(id);
+    }
+
+    @Override
+    public List<User> findAll() {
+        return dao.findAll();
+    }
+
+    @Override
+    public Page<User> findPage(String cursor, int size) {
+        return dao.findPage(cursor, size);
+    }
+
+    @Override
+    public Stream<User> streamAll(int fetchSize) {
+        return dao.streamAll(fetchSize);
+    }
+
+    @Override
+    public boolean update(User entity) {
+        return dao.update(entity);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> updateAsync(User entity) {
+        return dao.updateAsync(entity);
+    }
+
+    @Override
+    public void updateAll(List<User> entities) {
+        dao.updateAll(entities);
+    }
+
+    @Override
+    public boolean delete(User entity) {
+        return dao.delete(entity);
+    }
+
+    @Override
+    public boolean deleteById(Long id) {
+        return dao.deleteById(id);
+    }
+
+    @Override
+    public void deleteAllById(List<Long> ids) {
+        dao.deleteAllById(ids);
+    }
+}
@@ -0,0 +1,59 @@
+package by.task.dao;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Strings;
+
+import java.time.LocalDateTime;
+
+public record UserFilter(String namePrefix, String emailDomain, Integer minAge, Integer maxAge,
+                         LocalDateTime createdFrom, LocalDateTime createdTo,
+                         SortField sortBy, boolean descending, int limit) {
+    public static final int DEFAULT_LIMIT = 50;
+    public static final UserFilter ANY = new UserFilter(null, null, null, null, null, null, SortField.CREATED_AT, false, DEFAULT_LIMIT);
+
+    public enum SortField {
+        CREATED_AT, NAME, EMAIL, AGE
+    }
+
+    public UserFilter {
+        namePrefix = StringUtils.isBlank(namePrefix) ? null : namePrefix;
+        emailDomain = StringUtils.isBlank(emailDomain) ? null : Strings.CS.removeStart(emailDomain.trim(), "@");
+        if (sortBy == null) {
+            throw new IllegalArgumentException("Поле сортировки обязательно");
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Лимит выборки должен быть положительным: " + limit);
+        }
+        if (minAge != null && maxAge != null && minAge > maxAge) {
+            throw new IllegalArgumentException("Некорректный диапазон возраста: " + minAge + "-" + maxAge);
+        }
+        if (createdFrom != null && createdTo != null && !createdFrom.isBefore(createdTo)) {
+            throw new IllegalArgumentException("Некорректный диапазон даты создания: " + createdFrom + " - " + createdTo);
+        }
+    }
+
+    public UserFilter withNamePrefix(String namePrefix) {
+        return new UserFilter(namePrefix, emailDomain, minAge, maxAge, createdFrom, createdTo, sortBy, descending, limit);
+    }
+
+    public UserFilter withEmailDomain(String emailDomain) {
+        return new UserFilter(namePrefix, emailDomain, minAge, maxAge, createdFrom, createdTo, sortBy, descending, limit);
+    }
+
+    public UserFilter withAgeBetween(Integer minAge, Integer maxAge) {
+        return new UserFilter(namePrefix, emailDomain, minAge, maxAge, createdFrom, createdTo, sortBy, descending, limit);
+    }
+
+    // Интервал полуоткрытый: [createdFrom, createdTo)
+    public UserFilter withCreatedBetween(LocalDateTime createdFrom, LocalDateTime createdTo) {
+        return new UserFilter(namePrefix, emailDomain, minAge, maxAge, createdFrom, createdTo, sortBy, descending, limit);
+    }
+
+    public UserFilter sortedBy(SortField sortBy, boolean descending) {
+        return new UserFilter(namePrefix, emailDomain, minAge, maxAge, createdFrom, createdTo, sortBy, descending, limit);
+    }
+
+    public UserFilter withLimit(int limit) {
+        return new UserFilter(namePrefix, emailDomain, minAge, maxAge, createdFrom, createdTo, sortBy, descending, limit);
+    }
+}
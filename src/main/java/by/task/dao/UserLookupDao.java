@@ -0,0 +1,20 @@
+package by.task.dao;
+
+import by.task.models.User;
+
+import java.util.List;
+import java.util.Optional;
+
+// Поиск по полям пользователя: обобщённый Dao<T, ID> ничего не знает о структуре сущности
+public interface UserLookupDao extends Dao<User, Long> {
+    Optional<User> findByEmail(String email);
+
+    boolean existsByEmail(String email);
+
+    List<User> findByFilter(UserFilter filter);
+
+    // Поиск самого DAO, если он его поддерживает; иначе пользователи перебираются через streamAll
+    static UserLookupDao of(Dao<User, Long> dao) {
+        return dao instanceof UserLookupDao lookup ? lookup : new ScanningUserLookupDao(dao);
+    }
+}
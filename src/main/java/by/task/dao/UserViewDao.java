@@ -0,0 +1,21 @@
+package by.task.dao;
+
+import by.task.models.UserView;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface UserViewDao {
+    Optional<UserView> findViewById(Long id);
+
+    List<UserView> findAllViews();
+
+    Page<UserView> findViewPage(String cursor, int size);
+
+    List<UserView> findViewsByFilter(UserFilter filter);
+
+    // Проекции самого DAO, если он их поддерживает; иначе они строятся из сущностей
+    static UserViewDao of(UserLookupDao dao) {
+        return dao instanceof UserViewDao views ? views : new EntityUserViewDao(dao);
+    }
+}
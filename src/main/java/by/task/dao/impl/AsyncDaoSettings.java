@@ -0,0 +1,12 @@
+package by.task.dao.impl;
+
+public record AsyncDaoSettings(int eventLoops, int maxConnections, int pipeliningLimit) {
+    // Несколько соединений с конвейером запросов обслуживают тысячи одновременных чтений
+    public static final AsyncDaoSettings DEFAULTS = new AsyncDaoSettings(2, 4, 256);
+
+    public AsyncDaoSettings {
+        if (eventLoops <= 0 || maxConnections <= 0 || pipeliningLimit <= 0) {
+            throw new IllegalArgumentException("Некорректные параметры асинхронного доступа к БД");
+        }
+    }
+}
@@ -0,0 +1,356 @@
+package by.task.dao.impl;
+
+import by.task.dao.AsyncUserLookupDao;
+import by.task.dao.Page;
+import by.task.dao.UserFilter;
+import by.task.exceptions.dao.DaoException;
+import by.task.exceptions.dao.UserConcurrentModificationException;
+import by.task.exceptions.dao.UserPersistenceException;
+import by.task.exceptions.dao.UserQueryException;
+import by.task.models.OutboxEvent;
+import by.task.models.User;
+import by.task.outbox.OutboxEvents;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.VertxOptions;
+import io.vertx.pgclient.PgBuilder;
+import io.vertx.pgclient.PgConnectOptions;
+import io.vertx.sqlclient.Pool;
+import io.vertx.sqlclient.PoolOptions;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowSet;
+import io.vertx.sqlclient.SqlClient;
+import io.vertx.sqlclient.SqlConnection;
+import io.vertx.sqlclient.Tuple;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+// Неблокирующий доступ к users через реактивный драйвер PostgreSQL (Vert.x): запросы не занимают поток на время
+// ожидания БД. Чтения идут через клиент с конвейером запросов на соединении, записи — через пул с транзакциями;
+// как и UserDao, каждая запись пишет событие в user_outbox той же транзакцией.
+// Кэш второго уровня Hibernate не используется и не сбрасывается, поэтому смешивать с UserDao в одном процессе
+// можно только при выключенном кэше
+public class AsyncUserDao implements AsyncUserLookupDao, AutoCloseable {
+    private static final String COLUMNS = "id, name, email, age, created_at, version";
+    private static final String SELECT = "select " + COLUMNS + " from users";
+    private static final String INSERT = "insert into users (" + COLUMNS + ") "
+            + "values (coalesce($1, nextval('users_seq')), $2, $3, $4, $5, 0) returning id";
+    private static final String INSERT_EVENT = "insert into user_outbox (id, user_id, event_type, payload, occurred_at) "
+            + "values (nextval('user_outbox_seq'), $1, $2, $3, $4)";
+    private static final String UPDATE = "update users set name = $1, email = $2, age = $3, version = version + 1 "
+            + "where id = $4 and ($5::bigint is null or version = $5) returning " + COLUMNS;
+    private static final String DELETE = "delete from users where id = $1 and ($2::bigint is null or version = $2) returning version";
+
+    private final Vertx vertx;
+    private final SqlClient reads;
+    private final Pool writes;
+
+    public AsyncUserDao(String jdbcUrl, String username, String password) {
+        this(jdbcUrl, username, password, AsyncDaoSettings.DEFAULTS);
+    }
+
+    public AsyncUserDao(String jdbcUrl, String username, String password, AsyncDaoSettings settings) {
+        // Параметры после ? относятся к JDBC-драйверу, Vert.x передал бы их серверу как настройки сессии
+        PgConnectOptions connectOptions = PgConnectOptions.fromUri(jdbcUrl.replaceFirst("^jdbc:", "").replaceFirst("\\?.*$", ""))
+                .setUser(username)
+                .setPassword(password)
+                .setCachePreparedStatements(true)
+                .setPipeliningLimit(settings.pipeliningLimit());
+        PoolOptions poolOptions = new PoolOptions().setMaxSize(settings.maxConnections());
+        this.vertx = Vertx.vertx(new VertxOptions().setEventLoopPoolSize(settings.eventLoops()));
+        this.reads = PgBuilder.client().with(poolOptions).connectingTo(connectOptions).using(vertx).build();
+        this.writes = PgBuilder.pool().with(poolOptions).connectingTo(connectOptions).using(vertx).build();
+    }
+
+    @Override
+    public CompletionStage<Void> save(User user) {
+        LocalDateTime createdAt = createdAt(user);
+        return write("Ошибка при сохранении пользователя", writes.withTransaction(connection -> connection
+                .preparedQuery(INSERT).execute(insertParams(user, createdAt))
+                .compose(rows -> {
+                    user.setId(rows.iterator().next().getLong(0));
+                    user.setVersion(0L);
+                    return insertEvents(connection, List.of(created(user, createdAt)));
+                })));
+    }
+
+    @Override
+    public CompletionStage<Void> saveAll(List<User> users) {
+        if (users.isEmpty()) return CompletableFuture.completedStage(null);
+        return write("Ошибка при пакетном сохранении пользователей", writes.withTransaction(connection -> {
+            List<Tuple> params = new ArrayList<>(users.size());
+            List<LocalDateTime> createdAt = new ArrayList<>(users.size());
+            for (User user : users) {
+                createdAt.add(createdAt(user));
+                params.add(insertParams(user, createdAt.getLast()));
+            }
+            return connection.preparedQuery(INSERT).executeBatch(params)
+                    .compose(rows -> {
+                        List<OutboxEvent> events = new ArrayList<>(users.size());
+                        RowSet<Row> result = rows;
+                        for (int i = 0; i < users.size(); i++) {
+                            User user = users.get(i);
+                            user.setId(result.iterator().next().getLong(0));
+                            user.setVersion(0L);
+                            events.add(created(user, createdAt.get(i)));
+                            result = result.next();
+                        }
+                        return insertEvents(connection, events);
+                    });
+        }));
+    }
+
+    @Override
+    public CompletionStage<Optional<User>> findById(Long id) {
+        return read("Ошибка при поиске пользователя по ID: " + id,
+                reads.preparedQuery(SELECT + " where id = $1").execute(Tuple.of(id)).map(AsyncUserDao::first));
+    }
+
+    @Override
+    public CompletionStage<List<User>> findAllById(Collection<Long> ids) {
+        // Порядок входного списка сохраняется, повторяющиеся ID загружаются один раз
+        List<Long> distinct = List.copyOf(new LinkedHashSet<>(ids));
+        if (distinct.isEmpty()) return CompletableFuture.completedStage(List.of());
+        return read("Ошибка при поиске пользователей по списку ID",
+                reads.preparedQuery(SELECT + " where id = any($1)").execute(Tuple.of(distinct.toArray(Long[]::new)))
+                        .map(rows -> {
+                            Map<Long, User> found = new HashMap<>(rows.size() * 2);
+                            rows.forEach(row -> found.put(row.getLong("id"), toUser(row)));
+                            List<User> ordered = new ArrayList<>(found.size());
+                            for (Long id : distinct) {
+                                User user = found.get(id);
+                                if (user != null) ordered.add(user);
+                            }
+                            return ordered;
+                        }));
+    }
+
+    @Override
+    public CompletionStage<Optional<User>> findByEmail(String email) {
+        return read("Ошибка при поиске пользователя по email: " + email,
+                reads.preparedQuery(SELECT + " where email = $1").execute(Tuple.of(email)).map(AsyncUserDao::first));
+    }
+
+    @Override
+    public CompletionStage<Boolean> existsById(Long id) {
+        return read("Ошибка при проверке существования пользователя по ID: " + id,
+                reads.preparedQuery("select 1 from users where id = $1").execute(Tuple.of(id)).map(rows -> rows.size() > 0));
+    }
+
+    @Override
+    public CompletionStage<Boolean> existsByEmail(String email) {
+        return read("Ошибка при проверке существования пользователя по email: " + email,
+                reads.preparedQuery("select 1 from users where email = $1").execute(Tuple.of(email)).map(rows -> rows.size() > 0));
+    }
+
+    @Override
+    public CompletionStage<List<User>> findAll() {
+        return read("Ошибка при получении списка пользователей",
+                reads.query(SELECT).execute().map(AsyncUserDao::toUsers));
+    }
+
+    @Override
+    public CompletionStage<Page<User>> findPage(String cursor, int size) {
+        UserCursor after;
+        try {
+            after = cursor == null ? null : UserCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedStage(e);
+        }
+        Future<RowSet<Row>> rows = after == null
+                ? reads.preparedQuery(SELECT + " order by created_at, id limit $1").execute(Tuple.of(size + 1))
+                : reads.preparedQuery(SELECT + " where (created_at, id) > ($1, $2) order by created_at, id limit $3")
+                .execute(Tuple.of(after.createdAt(), after.id(), size + 1));
+        return read("Ошибка при получении страницы пользователей", rows.map(result -> {
+            List<User> users = toUsers(result);
+            if (users.size() <= size) return new Page<>(users, null);
+            List<User> items = List.copyOf(users.subList(0, size));
+            return new Page<>(items, UserCursor.of(items.get(size - 1)).encode());
+        }));
+    }
+
+    @Override
+    public CompletionStage<List<User>> findByFilter(UserFilter filter) {
+        // Выражения совпадают с индексами из V2__add_user_search_indexes.sql, как и в UserDao
+        StringBuilder sql = new StringBuilder(SELECT).append(" where true");
+        List<Object> params = new ArrayList<>();
+        if (filter.namePrefix() != null) {
+            params.add(UserDao.escapeLike(filter.namePrefix().toLowerCase(Locale.ROOT)) + "%");
+            sql.append(" and lower(name) like $").append(params.size());
+        }
+        if (filter.emailDomain() != null) {
+            params.add("%@" + UserDao.escapeLike(filter.emailDomain().toLowerCase(Locale.ROOT)));
+            sql.append(" and lower(email) like $").append(params.size());
+        }
+        if (filter.minAge() != null) {
+            params.add(filter.minAge());
+            sql.append(" and age >= $").append(params.size());
+        }
+        if (filter.maxAge() != null) {
+            params.add(filter.maxAge());
+            sql.append(" and age <= $").append(params.size());
+        }
+        if (filter.createdFrom() != null) {
+            params.add(filter.createdFrom());
+            sql.append(" and created_at >= $").append(params.size());
+        }
+        if (filter.createdTo() != null) {
+            params.add(filter.createdTo());
+            sql.append(" and created_at < $").append(params.size());
+        }
+        String direction = filter.descending() ? " desc" : "";
+        String sortKey = switch (filter.sortBy()) {
+            case CREATED_AT -> "created_at";
+            case NAME -> "name";
+            case EMAIL -> "email";
+            case AGE -> "age";
+        };
+        params.add(filter.limit());
+        sql.append(" order by ").append(sortKey).append(direction).append(", id").append(direction)
+                .append(" limit $").append(params.size());
+        return read("Ошибка при поиске пользователей по фильтру",
+                reads.preparedQuery(sql.toString()).execute(Tuple.from(params)).map(AsyncUserDao::toUsers));
+    }
+
+    @Override
+    public CompletionStage<Boolean> update(User user) {
+        if (user.getId() == null) return CompletableFuture.completedStage(false);
+        return write("Ошибка при обновлении пользователя",
+                writes.withTransaction(connection -> update(connection, user)));
+    }
+
+    @Override
+    public CompletionStage<Void> updateAll(List<User> users) {
+        return write("Ошибка при пакетном обновлении пользователей", writes.withTransaction(connection -> {
+            Future<Void> chain = Future.succeededFuture();
+            for (User user : users) {
+                chain = chain.compose(ignored -> update(connection, user)).compose(updated -> updated
+                        ? Future.succeededFuture()
+                        : Future.failedFuture(new IllegalStateException("Пользователь с ID " + user.getId() + " не найден")));
+            }
+            return chain;
+        }));
+    }
+
+    @Override
+    public CompletionStage<Boolean> delete(User user) {
+        return delete(user.getId(), user.getVersion());
+    }
+
+    @Override
+    public CompletionStage<Boolean> deleteById(Long id) {
+        return delete(id, null);
+    }
+
+    @Override
+    public CompletionStage<Void> deleteAllById(List<Long> ids) {
+        if (ids.isEmpty()) return CompletableFuture.completedStage(null);
+        return write("Ошибка при пакетном удалении пользователей", writes.withTransaction(connection -> connection
+                .preparedQuery("delete from users where id = any($1) returning id, version")
+                .execute(Tuple.of(ids.toArray(Long[]::new)))
+                // События пишутся ровно для удалённых строк: RETURNING возвращает их вместе с версиями
+                .compose(rows -> {
+                    List<OutboxEvent> events = new ArrayList<>(rows.size());
+                    rows.forEach(row -> events.add(OutboxEvents.deleted(row.getLong("id"), row.getLong("version"))));
+                    return insertEvents(connection, events);
+                })));
+    }
+
+    @Override
+    public void close() {
+        // Клиенты созданы на собственном Vertx и закрываются вместе с ним
+        vertx.close().toCompletionStage().toCompletableFuture().join();
+    }
+
+    private CompletionStage<Boolean> delete(Long id, Long expectedVersion) {
+        return write("Ошибка при удалении пользователя", writes.withTransaction(connection -> connection
+                .preparedQuery(DELETE).execute(Tuple.of(id, expectedVersion))
+                .compose(rows -> {
+                    if (rows.size() == 0) {
+                        return staleOrMissing(connection, id, expectedVersion);
+                    }
+                    Long version = rows.iterator().next().getLong("version");
+                    return insertEvents(connection, List.of(OutboxEvents.deleted(id, version))).map(true);
+                })));
+    }
+
+    private Future<Boolean> update(SqlConnection connection, User user) {
+        // Без версии в объекте обновление безусловное, как merge в UserDao
+        return connection.preparedQuery(UPDATE)
+                .execute(Tuple.of(user.getName(), user.getEmail(), user.getAge(), user.getId(), user.getVersion()))
+                .compose(rows -> {
+                    if (rows.size() == 0) {
+                        return staleOrMissing(connection, user.getId(), user.getVersion());
+                    }
+                    User updated = toUser(rows.iterator().next());
+                    user.setVersion(updated.getVersion());
+                    return insertEvents(connection, List.of(OutboxEvents.updated(updated))).map(true);
+                });
+    }
+
+    // Строка не изменена: либо её нет, либо версия уже другая
+    private static Future<Boolean> staleOrMissing(SqlConnection connection, Long id, Long expectedVersion) {
+        if (expectedVersion == null) return Future.succeededFuture(false);
+        return connection.preparedQuery("select 1 from users where id = $1").execute(Tuple.of(id))
+                .compose(rows -> rows.size() == 0
+                        ? Future.succeededFuture(false)
+                        : Future.failedFuture(new UserConcurrentModificationException(
+                        "Пользователь был изменён другой транзакцией", null)));
+    }
+
+    private static Future<Void> insertEvents(SqlConnection connection, List<OutboxEvent> events) {
+        if (events.isEmpty()) return Future.succeededFuture();
+        List<Tuple> params = new ArrayList<>(events.size());
+        for (OutboxEvent event : events) {
+            params.add(Tuple.of(event.getUserId(), event.getType().name(), event.getPayload(), event.getOccurredAt()));
+        }
+        return connection.preparedQuery(INSERT_EVENT).executeBatch(params).mapEmpty();
+    }
+
+    // Время создания из конструктора User; у объекта без него — текущее, как в @PrePersist
+    private static LocalDateTime createdAt(User user) {
+        return user.getCreatedAt() != null ? user.getCreatedAt() : LocalDateTime.now();
+    }
+
+    private static Tuple insertParams(User user, LocalDateTime createdAt) {
+        return Tuple.of(user.getId(), user.getName(), user.getEmail(), user.getAge(), createdAt);
+    }
+
+    private static OutboxEvent created(User user, LocalDateTime createdAt) {
+        return OutboxEvents.created(new User(user.getId(), user.getName(), user.getEmail(), user.getAge(), createdAt, 0L));
+    }
+
+    private static Optional<User> first(RowSet<Row> rows) {
+        return rows.size() == 0 ? Optional.empty() : Optional.of(toUser(rows.iterator().next()));
+    }
+
+    private static List<User> toUsers(RowSet<Row> rows) {
+        List<User> users = new ArrayList<>(rows.size());
+        rows.forEach(row -> users.add(toUser(row)));
+        return users;
+    }
+
+    private static User toUser(Row row) {
+        return new User(row.getLong("id"), row.getString("name"), row.getString("email"), row.getInteger("age"),
+                row.getLocalDateTime("created_at"), row.getLong("version"));
+    }
+
+    private static <R> CompletionStage<R> read(String message, Future<R> query) {
+        return query.recover(e -> Future.failedFuture(new UserQueryException(message, e))).toCompletionStage();
+    }
+
+    private static <R> CompletionStage<R> write(String message, Future<R> command) {
+        return command.recover(e -> Future.failedFuture(e instanceof DaoException ? e : new UserPersistenceException(message, e)))
+                .toCompletionStage();
+    }
+}
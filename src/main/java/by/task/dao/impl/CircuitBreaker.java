@@ -0,0 +1,104 @@
+package by.task.dao.impl;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+
+// Автомат отключения по доле отказов среди последних вызовов: CLOSED -> OPEN на время паузы -> HALF_OPEN (пробные вызовы)
+public class CircuitBreaker {
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final ResilienceSettings settings;
+    private final LongSupplier nanoClock;
+    private final boolean[] window;
+    private int position;
+    private int calls;
+    private int failures;
+    private State state = State.CLOSED;
+    private long openUntil;
+    private int probesLeft;
+    private int probesSucceeded;
+
+    public CircuitBreaker(ResilienceSettings settings) {
+        this(settings, System::nanoTime);
+    }
+
+    CircuitBreaker(ResilienceSettings settings, LongSupplier nanoClock) {
+        this.settings = settings;
+        this.nanoClock = nanoClock;
+        this.window = new boolean[settings.breakerWindow()];
+    }
+
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (nanoClock.getAsLong() - openUntil < 0) return false;
+            state = State.HALF_OPEN;
+            probesLeft = settings.breakerProbes();
+            probesSucceeded = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesLeft == 0) return false;
+            probesLeft--;
+        }
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            if (++probesSucceeded == settings.breakerProbes()) {
+                state = State.CLOSED;
+                resetWindow();
+            }
+            return;
+        }
+        if (state == State.CLOSED) record(false);
+    }
+
+    // true, если этот отказ разомкнул автомат
+    public synchronized boolean onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+            return true;
+        }
+        if (state != State.CLOSED) return false;
+        record(true);
+        if (calls >= settings.breakerMinimumCalls() && failures >= settings.breakerFailureRate() * calls) {
+            open();
+            return true;
+        }
+        return false;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized Duration getRemainingOpen() {
+        if (state != State.OPEN) return Duration.ZERO;
+        return Duration.ofNanos(Math.max(openUntil - nanoClock.getAsLong(), 0));
+    }
+
+    private void record(boolean failure) {
+        if (calls == window.length) {
+            if (window[position]) failures--;
+        } else {
+            calls++;
+        }
+        window[position] = failure;
+        if (failure) failures++;
+        position = (position + 1) % window.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openUntil = nanoClock.getAsLong() + settings.breakerOpenDuration().toNanos();
+        resetWindow();
+    }
+
+    private void resetWindow() {
+        Arrays.fill(window, false);
+        position = 0;
+        calls = 0;
+        failures = 0;
+    }
+}
@@ -0,0 +1,22 @@
+package by.task.dao.impl;
+
+import java.time.Duration;
+
+public record CoalescingSettings(Duration batchWindow, int maxBatchSize) {
+    // Только single-flight: одинаковые запросы склеиваются, разные ID не собираются в пакет
+    public static final CoalescingSettings DEFAULTS = new CoalescingSettings(Duration.ZERO, UserDao.DEFAULT_BATCH_SIZE);
+
+    public CoalescingSettings {
+        if (batchWindow.isNegative() || maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Некорректные параметры склейки запросов");
+        }
+    }
+
+    public static CoalescingSettings microBatching(Duration batchWindow, int maxBatchSize) {
+        return new CoalescingSettings(batchWindow, maxBatchSize);
+    }
+
+    public boolean batching() {
+        return !batchWindow.isZero();
+    }
+}
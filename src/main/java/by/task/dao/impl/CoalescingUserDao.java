@@ -0,0 +1,331 @@
+package by.task.dao.impl;
+
+import by.task.dao.Page;
+import by.task.dao.UserFilter;
+import by.task.dao.UserLookupDao;
+import by.task.dao.UserViewDao;
+import by.task.models.User;
+import by.task.models.UserView;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class CoalescingUserDao implements UserLookupDao, UserViewDao, AutoCloseable {
+    private final UserLookupDao delegate;
+    private final UserViewDao views;
+    private final CoalescingSettings settings;
+    private final BooleanSupplier readsFromPrimary;
+    private final Map<Long, CompletableFuture<Optional<User>>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition batchDue = lock.newCondition();
+    private final Map<Long, CompletableFuture<Optional<User>>> batch = new LinkedHashMap<>();
+    private long batchOpenedAt;
+    private boolean closed;
+    private final Thread dispatcher;
+    private final ExecutorService loaders;
+
+    public CoalescingUserDao(UserLookupDao delegate) {
+        this(delegate, CoalescingSettings.DEFAULTS);
+    }
+
+    public CoalescingUserDao(UserLookupDao delegate, CoalescingSettings settings) {
+        this(delegate, settings, () -> false);
+    }
+
+    // readsFromPrimary — вызывающий должен видеть свои записи (SessionRouter.isPinnedToPrimary). Отметка записи живёт
+    // в его потоке, поэтому такое чтение идёт сразу в delegate мимо склейки: поток загрузчика или чужая загрузка
+    // прочитали бы с реплики
+    public CoalescingUserDao(UserLookupDao delegate, CoalescingSettings settings, BooleanSupplier readsFromPrimary) {
+        this.delegate = delegate;
+        this.views = UserViewDao.of(delegate);
+        this.settings = settings;
+        this.readsFromPrimary = readsFromPrimary;
+        if (settings.batching()) {
+            this.loaders = Executors.newVirtualThreadPerTaskExecutor();
+            this.dispatcher = Thread.ofPlatform().name("user-find-batcher").daemon().start(this::runDispatcher);
+        } else {
+            this.loaders = null;
+            this.dispatcher = null;
+        }
+    }
+
+    @Override
+    public void save(User user) {
+        delegate.save(user);
+    }
+
+    @Override
+    public void saveAll(List<User> users) {
+        delegate.saveAll(users);
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        if (readsFromPrimary.getAsBoolean()) {
+            loads.increment();
+            return delegate.findById(id);
+        }
+        CompletableFuture<Optional<User>> call = new CompletableFuture<>();
+        CompletableFuture<Optional<User>> shared = inFlight.putIfAbsent(id, call);
+        if (shared != null) {
+            coalesced.increment();
+            return copyOf(await(shared));
+        }
+        if (settings.batching()) {
+            enqueue(id, call);
+        } else {
+            loads.increment();
+            try {
+                Optional<User> user = delegate.findById(id);
+                inFlight.remove(id, call);
+                call.complete(user);
+            } catch (RuntimeException e) {
+                inFlight.remove(id, call);
+                call.completeExceptionally(e);
+            }
+        }
+        return copyOf(await(call));
+    }
+
+    @Override
+    public List<User> findAllById(Collection<Long> ids) {
+        return delegate.findAllById(ids);
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        return delegate.findByEmail(email);
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return delegate.existsById(id);
+    }
+
+    @Override
+    public boolean existsByEmail(String email) {
+        return delegate.existsByEmail(email);
+    }
+
+    @Override
+    public List<User> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Page<User> findPage(String cursor, int size) {
+        return delegate.findPage(cursor, size);
+    }
+
+    @Override
+    public List<User> findByFilter(UserFilter filter) {
+        return delegate.findByFilter(filter);
+    }
+
+    @Override
+    public Stream<User> streamAll(int fetchSize) {
+        return delegate.streamAll(fetchSize);
+    }
+
+    // Проекция по ID строится из склеенного findById, иначе горячие ключи обходили бы склейку
+    @Override
+    public Optional<UserView> findViewById(Long id) {
+        return findById(id).map(UserView::of);
+    }
+
+    @Override
+    public List<UserView> findAllViews() {
+        return views.findAllViews();
+    }
+
+    @Override
+    public Page<UserView> findViewPage(String cursor, int size) {
+        return views.findViewPage(cursor, size);
+    }
+
+    @Override
+    public List<UserView> findViewsByFilter(UserFilter filter) {
+        return views.findViewsByFilter(filter);
+    }
+
+    @Override
+    public boolean update(User user) {
+        try {
+            return delegate.update(user);
+        } finally {
+            forget(user.getId());
+        }
+    }
+
+    @Override
+    public CompletableFuture<Boolean> updateAsync(User user) {
+        return delegate.updateAsync(user).whenComplete((updated, e) -> forget(user.getId()));
+    }
+
+    @Override
+    public void updateAll(List<User> users) {
+        try {
+            delegate.updateAll(users);
+        } finally {
+            users.forEach(user -> forget(user.getId()));
+        }
+    }
+
+    @Override
+    public boolean delete(User user) {
+        try {
+            return delegate.delete(user);
+        } finally {
+            forget(user.getId());
+        }
+    }
+
+    @Override
+    public boolean deleteById(Long id) {
+        try {
+            return delegate.deleteById(id);
+        } finally {
+            forget(id);
+        }
+    }
+
+    @Override
+    public void deleteAllById(List<Long> ids) {
+        try {
+            delegate.deleteAllById(ids);
+        } finally {
+            ids.forEach(this::forget);
+        }
+    }
+
+    public long getLoadCount() {
+        return loads.sum();
+    }
+
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    @Override
+    public void close() {
+        if (dispatcher == null) return;
+        lock.lock();
+        try {
+            if (closed) return;
+            closed = true;
+            batchDue.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            dispatcher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        loaders.close();
+    }
+
+    private void enqueue(Long id, CompletableFuture<Optional<User>> call) {
+        lock.lock();
+        try {
+            if (closed) {
+                IllegalStateException e = new IllegalStateException("Пакетная загрузка пользователей остановлена");
+                // К этому вызову уже могли присоединиться другие потоки
+                inFlight.remove(id, call);
+                call.completeExceptionally(e);
+                throw e;
+            }
+            if (batch.isEmpty()) {
+                batchOpenedAt = System.nanoTime();
+            }
+            batch.put(id, call);
+            if (batch.size() == 1 || batch.size() >= settings.maxBatchSize()) {
+                batchDue.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void runDispatcher() {
+        long windowNanos = settings.batchWindow().toNanos();
+        while (true) {
+            Map<Long, CompletableFuture<Optional<User>>> ready;
+            lock.lock();
+            try {
+                while (batch.isEmpty() && !closed) {
+                    batchDue.await();
+                }
+                if (batch.isEmpty()) return;
+                // Окно отсчитывается от первого запроса пакета, а не от пробуждения диспетчера
+                long remaining = batchOpenedAt + windowNanos - System.nanoTime();
+                while (remaining > 0 && batch.size() < settings.maxBatchSize() && !closed) {
+                    remaining = batchDue.awaitNanos(remaining);
+                }
+                ready = new LinkedHashMap<>(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                lock.unlock();
+            }
+            loaders.execute(() -> load(ready));
+        }
+    }
+
+    private void load(Map<Long, CompletableFuture<Optional<User>>> ready) {
+        loads.increment();
+        try {
+            Map<Long, User> found = delegate.findAllById(ready.keySet()).stream()
+                    .collect(Collectors.toMap(User::getId, Function.identity()));
+            ready.forEach((id, call) -> {
+                inFlight.remove(id, call);
+                call.complete(Optional.ofNullable(found.get(id)));
+            });
+        } catch (RuntimeException e) {
+            ready.forEach((id, call) -> {
+                inFlight.remove(id, call);
+                call.completeExceptionally(e);
+            });
+        }
+    }
+
+    // Запись делает текущую загрузку устаревшей: следующие читатели не должны к ней присоединяться
+    private void forget(Long id) {
+        if (id != null) {
+            inFlight.remove(id);
+        }
+    }
+
+    private static Optional<User> await(CompletableFuture<Optional<User>> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+
+    // Каждый вызывающий получает свою копию: общий экземпляр могли бы изменить из другого потока
+    private static Optional<User> copyOf(Optional<User> user) {
+        return user.map(User::new);
+    }
+}
@@ -0,0 +1,58 @@
+package by.task.dao.impl;
+
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+// Класс ошибки PostgreSQL по SQLSTATE: можно ли повторить операцию и говорит ли ошибка о проблемах самой БД
+enum DatabaseFailure {
+    // Ошибка приложения или данных: БД ответила, повторять бессмысленно
+    NONE,
+    // 40001 serialization_failure, 40P01 deadlock_detected: транзакция откатана целиком
+    CONFLICT,
+    // Соединение не установлено (08001, 08004, 53300, 57P03): операция не начиналась
+    CONNECT,
+    // Соединение потеряно во время операции (08xxx, 57P01, 57P02): запись могла успеть зафиксироваться
+    CONNECTION_LOST,
+    // 57014 statement_timeout, 55P03 lock_timeout или нет свободного соединения в пуле
+    TIMEOUT;
+
+    static DatabaseFailure of(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (!(cause instanceof SQLException sql)) continue;
+            String state = sql.getSQLState();
+            if (state == null) {
+                // Hikari не дождался соединения из пула
+                if (sql instanceof SQLTransientConnectionException) return TIMEOUT;
+                continue;
+            }
+            switch (state) {
+                case "40001", "40P01" -> {
+                    return CONFLICT;
+                }
+                case "08001", "08004", "53300", "57P03" -> {
+                    return CONNECT;
+                }
+                case "57P01", "57P02" -> {
+                    return CONNECTION_LOST;
+                }
+                case "57014", "55P03" -> {
+                    return TIMEOUT;
+                }
+                default -> {
+                    if (state.startsWith("08")) return CONNECTION_LOST;
+                    return NONE;
+                }
+            }
+        }
+        return NONE;
+    }
+
+    boolean retryable(boolean idempotent) {
+        return this == CONFLICT || this == CONNECT || (this == CONNECTION_LOST && idempotent);
+    }
+
+    // Конфликт транзакций — нормальная работа БД, автомат отключения его не учитывает
+    boolean outage() {
+        return this == CONNECT || this == CONNECTION_LOST || this == TIMEOUT;
+    }
+}
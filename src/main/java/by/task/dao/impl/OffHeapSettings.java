@@ -0,0 +1,14 @@
+package by.task.dao.impl;
+
+import java.time.Duration;
+
+public record OffHeapSettings(Duration refreshInterval, int feedBatchSize, int warmupFetchSize, int chunkBytes) {
+    public static final OffHeapSettings DEFAULTS = new OffHeapSettings(Duration.ofSeconds(1), 1000, 1000, 64 << 20);
+
+    public OffHeapSettings {
+        if (refreshInterval.isNegative() || refreshInterval.isZero() || feedBatchSize <= 0 || warmupFetchSize <= 0
+                || chunkBytes < 64 << 10) {
+            throw new IllegalArgumentException("Некорректные параметры хранилища пользователей вне кучи");
+        }
+    }
+}
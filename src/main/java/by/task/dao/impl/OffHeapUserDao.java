@@ -0,0 +1,328 @@
+package by.task.dao.impl;
+
+import by.task.dao.Page;
+import by.task.dao.UserFilter;
+import by.task.dao.UserLookupDao;
+import by.task.dao.UserViewDao;
+import by.task.models.ChangeType;
+import by.task.models.User;
+import by.task.models.UserView;
+import by.task.outbox.OutboxEvents;
+import by.task.outbox.UserChange;
+import by.task.outbox.UserChangeFeed;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+// Поиск по ID и email обслуживается из памяти, остальные чтения и все записи идут в delegate.
+// Состояние догоняет БД по ленте изменений (outbox), поэтому где-то должен работать OutboxRelay.
+// Загрузка таблицы и обновление из ленты запускаются start() в фоне; до окончания загрузки поиск идёт в delegate
+public class OffHeapUserDao implements UserLookupDao, UserViewDao, AutoCloseable {
+    private static final Logger log = LogManager.getLogger(OffHeapUserDao.class);
+
+    private final UserLookupDao delegate;
+    private final UserViewDao views;
+    private final UserChangeFeed feed;
+    private final OffHeapSettings settings;
+    private final OffHeapUserStore store;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition stopped = lock.newCondition();
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private final CompletableFuture<Void> loaded = new CompletableFuture<>();
+    private Thread refresher;
+    private long feedPosition;
+    private boolean closed;
+
+    public OffHeapUserDao(UserLookupDao delegate, UserChangeFeed feed) {
+        this(delegate, feed, OffHeapSettings.DEFAULTS);
+    }
+
+    public OffHeapUserDao(UserLookupDao delegate, UserChangeFeed feed, OffHeapSettings settings) {
+        this.delegate = delegate;
+        this.views = UserViewDao.of(delegate);
+        this.feed = feed;
+        this.settings = settings;
+        this.store = new OffHeapUserStore(settings.chunkBytes());
+    }
+
+    // Завершается, когда вся таблица загружена в память, или с ошибкой загрузки (тогда поиск так и идёт в delegate)
+    public CompletableFuture<Void> start() {
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Хранилище пользователей в памяти закрыто");
+            }
+            if (refresher == null) {
+                refresher = Thread.ofPlatform().name("user-offheap-refresh").daemon().start(this::run);
+            }
+            return loaded;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void save(User user) {
+        delegate.save(user);
+        store.put(user);
+    }
+
+    @Override
+    public void saveAll(List<User> users) {
+        delegate.saveAll(users);
+        users.forEach(store::put);
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        if (!isLoaded()) return delegate.findById(id);
+        return Optional.ofNullable(store.get(id));
+    }
+
+    @Override
+    public List<User> findAllById(Collection<Long> ids) {
+        if (!isLoaded()) return delegate.findAllById(ids);
+        List<User> found = new ArrayList<>(ids.size());
+        for (Long id : new LinkedHashSet<>(ids)) {
+            User user = store.get(id);
+            if (user != null) found.add(user);
+        }
+        return found;
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        if (!isLoaded()) return delegate.findByEmail(email);
+        return Optional.ofNullable(store.findByEmail(email));
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        if (!isLoaded()) return delegate.existsById(id);
+        return store.contains(id);
+    }
+
+    @Override
+    public boolean existsByEmail(String email) {
+        if (!isLoaded()) return delegate.existsByEmail(email);
+        return store.containsEmail(email);
+    }
+
+    @Override
+    public List<User> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Page<User> findPage(String cursor, int size) {
+        return delegate.findPage(cursor, size);
+    }
+
+    @Override
+    public List<User> findByFilter(UserFilter filter) {
+        return delegate.findByFilter(filter);
+    }
+
+    @Override
+    public Stream<User> streamAll(int fetchSize) {
+        return delegate.streamAll(fetchSize);
+    }
+
+    @Override
+    public Optional<UserView> findViewById(Long id) {
+        return findById(id).map(UserView::of);
+    }
+
+    @Override
+    public List<UserView> findAllViews() {
+        return views.findAllViews();
+    }
+
+    @Override
+    public Page<UserView> findViewPage(String cursor, int size) {
+        return views.findViewPage(cursor, size);
+    }
+
+    @Override
+    public List<UserView> findViewsByFilter(UserFilter filter) {
+        return views.findViewsByFilter(filter);
+    }
+
+    @Override
+    public boolean update(User user) {
+        boolean updated = delegate.update(user);
+        if (updated) {
+            remember(user);
+        }
+        return updated;
+    }
+
+    @Override
+    public void updateAll(List<User> users) {
+        delegate.updateAll(users);
+        users.forEach(this::remember);
+    }
+
+    @Override
+    public boolean delete(User user) {
+        boolean deleted = delegate.delete(user);
+        if (deleted) store.remove(user.getId(), null);
+        return deleted;
+    }
+
+    @Override
+    public boolean deleteById(Long id) {
+        boolean deleted = delegate.deleteById(id);
+        if (deleted) store.remove(id, null);
+        return deleted;
+    }
+
+    @Override
+    public void deleteAllById(List<Long> ids) {
+        delegate.deleteAllById(ids);
+        ids.forEach(id -> store.remove(id, null));
+    }
+
+    // Применяет новые события ленты; возвращает их количество. До загрузки таблицы применять нечего
+    public int refresh() {
+        refreshLock.lock();
+        try {
+            if (!isLoaded()) return 0;
+            int applied = 0;
+            List<UserChange> changes;
+            do {
+                changes = feed.readFrom(feedPosition, settings.feedBatchSize());
+                for (UserChange change : changes) {
+                    apply(change);
+                    feedPosition = change.position();
+                }
+                applied += changes.size();
+            } while (changes.size() == settings.feedBatchSize());
+            if (store.compactIfNeeded()) {
+                log.info("Хранилище пользователей уплотнено: {} байт вне кучи", store.offHeapBytes());
+            }
+            return applied;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    public boolean isLoaded() {
+        return loaded.isDone() && !loaded.isCompletedExceptionally();
+    }
+
+    public int size() {
+        return store.size();
+    }
+
+    public long getOffHeapBytes() {
+        return store.offHeapBytes();
+    }
+
+    public long getFeedPosition() {
+        refreshLock.lock();
+        try {
+            return feedPosition;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        Thread started;
+        lock.lock();
+        try {
+            if (closed) return;
+            closed = true;
+            stopped.signalAll();
+            started = refresher;
+        } finally {
+            lock.unlock();
+        }
+        if (started == null) return;
+        try {
+            started.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        try {
+            warmUp();
+        } catch (RuntimeException e) {
+            log.error("Не удалось загрузить пользователей в память, поиск остаётся за БД", e);
+            loaded.completeExceptionally(e);
+            return;
+        }
+        loaded.complete(null);
+        runRefresher();
+    }
+
+    private void warmUp() {
+        long started = System.nanoTime();
+        refreshLock.lock();
+        try {
+            // Позиция берётся до чтения таблицы: изменения, попавшие и в снимок, и в ленту, отсеются по версии
+            feedPosition = feed.lastPosition();
+            try (Stream<User> users = delegate.streamAll(settings.warmupFetchSize())) {
+                users.forEach(store::put);
+            }
+        } finally {
+            refreshLock.unlock();
+        }
+        log.info("Загружено пользователей в память: {}, {} байт вне кучи за {} мс", store.size(), store.offHeapBytes(),
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private void apply(UserChange change) {
+        User snapshot = OutboxEvents.readSnapshot(change.payload());
+        if (change.type() == ChangeType.DELETED) {
+            store.remove(change.userId(), snapshot.getVersion());
+        } else {
+            store.put(snapshot);
+        }
+    }
+
+    private void remember(User user) {
+        // created_at не меняется при обновлении, но в переданном объекте его может не быть
+        if (user.getCreatedAt() != null) {
+            store.put(user);
+        } else {
+            delegate.findById(user.getId()).ifPresent(store::put);
+        }
+    }
+
+    private void runRefresher() {
+        long intervalNanos = settings.refreshInterval().toNanos();
+        while (true) {
+            lock.lock();
+            try {
+                if (!closed) {
+                    stopped.awaitNanos(intervalNanos);
+                }
+                if (closed) return;
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                lock.unlock();
+            }
+            try {
+                refresh();
+            } catch (RuntimeException e) {
+                log.warn("Не удалось обновить пользователей из ленты изменений", e);
+            }
+        }
+    }
+}
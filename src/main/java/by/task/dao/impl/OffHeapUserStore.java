@@ -0,0 +1,400 @@
+package by.task.dao.impl;
+
+import by.task.models.User;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+// Пользователи хранятся вне кучи: записи дописываются в прямые буферы, старая версия записи становится мусором
+// до уплотнения. Индексы — массивы примитивов с открытой адресацией, поэтому на каждого пользователя
+// в куче не приходится ни одного объекта. Писатель один (под write-блокировкой), читатели работают
+// по оптимистичному штампу StampedLock и берут read-блокировку, только если штамп не прошёл проверку.
+class OffHeapUserStore {
+    private static final int NO_NANOS = -1;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    // Заголовок записи: длина, id, version, age, created_at (секунды UTC и наносекунды), длины name и email
+    private static final int LENGTH = 0;
+    private static final int ID = 4;
+    private static final int VERSION = 12;
+    private static final int AGE = 20;
+    private static final int CREATED_SECONDS = 24;
+    private static final int CREATED_NANOS = 32;
+    private static final int NAME_LENGTH = 36;
+    private static final int NAME = 38;
+
+    private final StampedLock lock = new StampedLock();
+    private final int chunkBytes;
+
+    // ID -> адрес записи; ID пользователей положительные, 0 — пустой слот
+    private LongTable byId = new LongTable(INITIAL_CAPACITY, true);
+    // Хэш email -> ID; хэши могут совпасть, поэтому email сверяется с записью
+    private LongTable byEmail = new LongTable(INITIAL_CAPACITY, false);
+
+    private ByteBuffer[] chunks = new ByteBuffer[0];
+    private int writeOffset;
+    private long liveBytes;
+    private long garbageBytes;
+
+    OffHeapUserStore(int chunkBytes) {
+        this.chunkBytes = chunkBytes;
+    }
+
+    User get(long id) {
+        return read(() -> {
+            long address = byId.get(id);
+            return address < 0 ? null : decode(chunks, address);
+        });
+    }
+
+    boolean contains(long id) {
+        return read(() -> byId.get(id) >= 0);
+    }
+
+    User findByEmail(String email) {
+        byte[] encoded = email.getBytes(StandardCharsets.UTF_8);
+        long hash = hash(encoded);
+        return read(() -> {
+            long address = addressByEmail(encoded, hash);
+            return address < 0 ? null : decode(chunks, address);
+        });
+    }
+
+    boolean containsEmail(String email) {
+        byte[] encoded = email.getBytes(StandardCharsets.UTF_8);
+        long hash = hash(encoded);
+        return read(() -> addressByEmail(encoded, hash) >= 0);
+    }
+
+    // Более старая версия, чем уже сохранённая, игнорируется: события ленты могут прийти повторно или не по порядку
+    boolean put(User user) {
+        long id = user.getId();
+        if (id <= 0) {
+            throw new IllegalArgumentException("ID пользователя должен быть положительным: " + id);
+        }
+        byte[] name = user.getName().getBytes(StandardCharsets.UTF_8);
+        byte[] email = user.getEmail().getBytes(StandardCharsets.UTF_8);
+        long stamp = lock.writeLock();
+        try {
+            long existing = byId.get(id);
+            if (existing >= 0) {
+                long stored = chunk(chunks, existing).getLong(offset(existing) + VERSION);
+                if (stored >= user.getVersion()) {
+                    return false;
+                }
+                byEmail.remove(emailHash(existing), id);
+                retire(existing);
+            }
+            long address = append(user, name, email);
+            byId = byId.put(id, address);
+            byEmail = byEmail.put(hash(email), id);
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // version == null удаляет запись независимо от версии
+    boolean remove(long id, Long version) {
+        long stamp = lock.writeLock();
+        try {
+            long existing = byId.get(id);
+            if (existing < 0) return false;
+            long stored = chunk(chunks, existing).getLong(offset(existing) + VERSION);
+            if (version != null && stored > version) {
+                return false;
+            }
+            byEmail.remove(emailHash(existing), id);
+            byId.remove(id, existing);
+            retire(existing);
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    int size() {
+        return read(() -> byId.size);
+    }
+
+    long liveBytes() {
+        return read(() -> liveBytes);
+    }
+
+    long garbageBytes() {
+        return read(() -> garbageBytes);
+    }
+
+    long offHeapBytes() {
+        return read(() -> (long) chunks.length * chunkBytes);
+    }
+
+    // Переписывает живые записи в новые буферы; старые освобождаются сборщиком вместе с объектами ByteBuffer.
+    // Читатели на время уплотнения ждут read-блокировку, поэтому уплотнение запускается только при заметном мусоре.
+    boolean compactIfNeeded() {
+        long stamp = lock.writeLock();
+        try {
+            if (garbageBytes <= liveBytes || garbageBytes < chunkBytes) {
+                return false;
+            }
+            ByteBuffer[] source = chunks;
+            chunks = new ByteBuffer[0];
+            writeOffset = 0;
+            long[] keys = byId.keys;
+            long[] values = byId.values;
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (keys[slot] == LongTable.EMPTY) continue;
+                long address = values[slot];
+                ByteBuffer from = chunk(source, address);
+                int length = from.getInt(offset(address) + LENGTH);
+                long target = reserve(length);
+                chunk(chunks, target).put(offset(target), from, offset(address), length);
+                values[slot] = target;
+            }
+            garbageBytes = 0;
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private <R> R read(Supplier<R> reader) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                R result = reader.get();
+                if (lock.validate(stamp)) {
+                    return result;
+                }
+            } catch (RuntimeException ignored) {
+                // Несогласованный снимок из-за параллельной записи: повторяем под read-блокировкой
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return reader.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private long addressByEmail(byte[] email, long hash) {
+        long[] keys = byEmail.keys;
+        long[] values = byEmail.values;
+        int mask = keys.length - 1;
+        for (int slot = LongTable.home(hash, mask), probes = 0; probes <= mask; slot = (slot + 1) & mask, probes++) {
+            long key = keys[slot];
+            if (key == LongTable.EMPTY) return -1;
+            if (key == hash) {
+                long address = byId.get(values[slot]);
+                if (address >= 0 && emailEquals(address, email)) return address;
+            }
+        }
+        return -1;
+    }
+
+    private boolean emailEquals(long address, byte[] email) {
+        ByteBuffer chunk = chunk(chunks, address);
+        int offset = offset(address);
+        int nameLength = Short.toUnsignedInt(chunk.getShort(offset + NAME_LENGTH));
+        int emailOffset = offset + NAME + nameLength;
+        if (Short.toUnsignedInt(chunk.getShort(emailOffset)) != email.length) return false;
+        for (int i = 0; i < email.length; i++) {
+            if (chunk.get(emailOffset + 2 + i) != email[i]) return false;
+        }
+        return true;
+    }
+
+    private long emailHash(long address) {
+        ByteBuffer chunk = chunk(chunks, address);
+        int offset = offset(address);
+        int nameLength = Short.toUnsignedInt(chunk.getShort(offset + NAME_LENGTH));
+        int emailOffset = offset + NAME + nameLength;
+        byte[] email = new byte[Short.toUnsignedInt(chunk.getShort(emailOffset))];
+        chunk.get(emailOffset + 2, email);
+        return hash(email);
+    }
+
+    private long append(User user, byte[] name, byte[] email) {
+        int length = NAME + name.length + 2 + email.length;
+        long address = reserve(length);
+        ByteBuffer chunk = chunk(chunks, address);
+        int offset = offset(address);
+        LocalDateTime createdAt = user.getCreatedAt();
+        chunk.putInt(offset + LENGTH, length)
+                .putLong(offset + ID, user.getId())
+                .putLong(offset + VERSION, user.getVersion())
+                .putInt(offset + AGE, user.getAge())
+                .putLong(offset + CREATED_SECONDS, createdAt == null ? 0 : createdAt.toEpochSecond(ZoneOffset.UTC))
+                .putInt(offset + CREATED_NANOS, createdAt == null ? NO_NANOS : createdAt.getNano())
+                .putShort(offset + NAME_LENGTH, (short) name.length)
+                .put(offset + NAME, name)
+                .putShort(offset + NAME + name.length, (short) email.length)
+                .put(offset + NAME + name.length + 2, email);
+        liveBytes += length;
+        return address;
+    }
+
+    private long reserve(int length) {
+        if (length > chunkBytes) {
+            throw new IllegalArgumentException("Запись пользователя не помещается в буфер: " + length + " байт");
+        }
+        if (chunks.length == 0 || writeOffset + length > chunkBytes) {
+            // Новый массив, а не изменение старого: читатель со старой ссылкой видит согласованный набор буферов
+            chunks = Arrays.copyOf(chunks, chunks.length + 1);
+            chunks[chunks.length - 1] = ByteBuffer.allocateDirect(chunkBytes);
+            writeOffset = 0;
+        }
+        long address = ((long) (chunks.length - 1) << 32) | writeOffset;
+        writeOffset += length;
+        return address;
+    }
+
+    private void retire(long address) {
+        int length = chunk(chunks, address).getInt(offset(address) + LENGTH);
+        liveBytes -= length;
+        garbageBytes += length;
+    }
+
+    private static User decode(ByteBuffer[] chunks, long address) {
+        ByteBuffer chunk = chunk(chunks, address);
+        int offset = offset(address);
+        long version = chunk.getLong(offset + VERSION);
+        int nanos = chunk.getInt(offset + CREATED_NANOS);
+        byte[] name = new byte[Short.toUnsignedInt(chunk.getShort(offset + NAME_LENGTH))];
+        chunk.get(offset + NAME, name);
+        int emailOffset = offset + NAME + name.length;
+        byte[] email = new byte[Short.toUnsignedInt(chunk.getShort(emailOffset))];
+        chunk.get(emailOffset + 2, email);
+        return new User(
+                chunk.getLong(offset + ID),
+                new String(name, StandardCharsets.UTF_8),
+                new String(email, StandardCharsets.UTF_8),
+                chunk.getInt(offset + AGE),
+                nanos == NO_NANOS ? null : LocalDateTime.ofEpochSecond(chunk.getLong(offset + CREATED_SECONDS), nanos, ZoneOffset.UTC),
+                version);
+    }
+
+    private static ByteBuffer chunk(ByteBuffer[] chunks, long address) {
+        return chunks[(int) (address >>> 32)];
+    }
+
+    private static int offset(long address) {
+        return (int) address;
+    }
+
+    // FNV-1a с финальным перемешиванием; 0 зарезервирован под пустой слот
+    private static long hash(byte[] bytes) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : bytes) {
+            hash = (hash ^ (b & 0xff)) * 0x100000001b3L;
+        }
+        hash = LongTable.mix(hash);
+        return hash == LongTable.EMPTY ? 1 : hash;
+    }
+
+    // Открытая адресация с линейным пробированием и удалением сдвигом, без надгробий
+    private static final class LongTable {
+        static final long EMPTY = 0;
+        private static final int MAX_LOAD_PERCENT = 60;
+
+        final long[] keys;
+        final long[] values;
+        // Ключ индекса ID уникален; в индексе email запись определяется парой хэш-ID
+        private final boolean uniqueKeys;
+        int size;
+
+        LongTable(int capacity, boolean uniqueKeys) {
+            this.keys = new long[capacity];
+            this.values = new long[capacity];
+            this.uniqueKeys = uniqueKeys;
+        }
+
+        long get(long key) {
+            long[] keys = this.keys;
+            int mask = keys.length - 1;
+            for (int slot = home(key, mask), probes = 0; probes <= mask; slot = (slot + 1) & mask, probes++) {
+                long current = keys[slot];
+                if (current == key) return values[slot];
+                if (current == EMPTY) return -1;
+            }
+            return -1;
+        }
+
+        LongTable put(long key, long value) {
+            int mask = keys.length - 1;
+            for (int slot = home(key, mask); ; slot = (slot + 1) & mask) {
+                if (keys[slot] == key && (uniqueKeys || values[slot] == value)) {
+                    values[slot] = value;
+                    return this;
+                }
+                if (keys[slot] == EMPTY) {
+                    if ((size + 1) * 100L > (long) keys.length * MAX_LOAD_PERCENT) {
+                        return grow().put(key, value);
+                    }
+                    keys[slot] = key;
+                    values[slot] = value;
+                    size++;
+                    return this;
+                }
+            }
+        }
+
+        void remove(long key, long value) {
+            int mask = keys.length - 1;
+            for (int slot = home(key, mask), probes = 0; probes <= mask; slot = (slot + 1) & mask, probes++) {
+                if (keys[slot] == EMPTY) return;
+                if (keys[slot] == key && (uniqueKeys || values[slot] == value)) {
+                    shiftBack(slot, mask);
+                    size--;
+                    return;
+                }
+            }
+        }
+
+        private void shiftBack(int gap, int mask) {
+            for (int slot = (gap + 1) & mask; keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+                int home = home(keys[slot], mask);
+                // Элемент можно перенести в дыру, если его домашний слот не лежит между дырой и ним самим
+                if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+                    keys[gap] = keys[slot];
+                    values[gap] = values[slot];
+                    gap = slot;
+                }
+            }
+            keys[gap] = EMPTY;
+            values[gap] = 0;
+        }
+
+        private LongTable grow() {
+            LongTable grown = new LongTable(keys.length * 2, uniqueKeys);
+            int mask = grown.keys.length - 1;
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] == EMPTY) continue;
+                int slot = home(keys[i], mask);
+                while (grown.keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                grown.keys[slot] = keys[i];
+                grown.values[slot] = values[i];
+            }
+            grown.size = size;
+            return grown;
+        }
+
+        static int home(long key, int mask) {
+            return (int) mix(key) & mask;
+        }
+
+        static long mix(long key) {
+            key = (key ^ (key >>> 33)) * 0xff51afd7ed558ccdL;
+            key = (key ^ (key >>> 33)) * 0xc4ceb33fa5e2a36bL;
+            return key ^ (key >>> 33);
+        }
+    }
+}
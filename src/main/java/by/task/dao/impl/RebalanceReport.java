@@ -0,0 +1,7 @@
+package by.task.dao.impl;
+
+import java.time.Duration;
+
+public record RebalanceReport(int firstBucket, int lastBucket, int targetShard,
+                              long copiedRows, long removedRows, Duration writesBlocked) {
+}
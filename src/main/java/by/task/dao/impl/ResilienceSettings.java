@@ -0,0 +1,20 @@
+package by.task.dao.impl;
+
+import java.time.Duration;
+
+public record ResilienceSettings(int maxAttempts, Duration initialBackoff, Duration maxBackoff, Duration operationTimeout,
+                                 int breakerWindow, int breakerMinimumCalls, double breakerFailureRate,
+                                 Duration breakerOpenDuration, int breakerProbes) {
+    public static final ResilienceSettings DEFAULTS = new ResilienceSettings(3, Duration.ofMillis(20), Duration.ofMillis(500),
+            Duration.ofSeconds(10), 50, 20, 0.5, Duration.ofSeconds(5), 3);
+
+    public ResilienceSettings {
+        if (maxAttempts <= 0 || initialBackoff.isNegative() || maxBackoff.compareTo(initialBackoff) < 0
+                || operationTimeout.isNegative() || operationTimeout.isZero()
+                || breakerWindow <= 0 || breakerMinimumCalls <= 0 || breakerMinimumCalls > breakerWindow
+                || breakerFailureRate <= 0 || breakerFailureRate > 1
+                || breakerOpenDuration.isNegative() || breakerOpenDuration.isZero() || breakerProbes <= 0) {
+            throw new IllegalArgumentException("Некорректные параметры повторов и автомата отключения");
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package by.task.dao.impl;
+
+import by.task.dao.Page;
+import by.task.dao.UserFilter;
+import by.task.dao.UserLookupDao;
+import by.task.dao.UserViewDao;
+import by.task.exceptions.dao.DaoUnavailableException;
+import by.task.metrics.MetricsRegistry;
+import by.task.models.User;
+import by.task.models.UserView;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+// Повторы с экспоненциальной паузой и случайным разбросом для временных ошибок БД и автомат отключения,
+// который при перегрузке БД сразу отклоняет вызовы вместо того, чтобы копить потоки в ожидании соединений.
+// Таймауты отдельных запросов задаёт сам PostgreSQL (statement_timeout, lock_timeout в hibernate.cfg.xml),
+// здесь ограничено общее время операции вместе с повторами
+public class ResilientUserDao implements UserLookupDao, UserViewDao {
+    public static final String METRICS_PREFIX = "dao.resilience";
+
+    private final UserLookupDao delegate;
+    private final UserViewDao views;
+    private final ResilienceSettings settings;
+    private final MetricsRegistry metrics;
+    private final CircuitBreaker breaker;
+    private final LongSupplier nanoClock;
+
+    public ResilientUserDao(UserLookupDao delegate) {
+        this(delegate, ResilienceSettings.DEFAULTS, new MetricsRegistry());
+    }
+
+    public ResilientUserDao(UserLookupDao delegate, ResilienceSettings settings, MetricsRegistry metrics) {
+        this(delegate, settings, metrics, System::nanoTime);
+    }
+
+    ResilientUserDao(UserLookupDao delegate, ResilienceSettings settings, MetricsRegistry metrics, LongSupplier nanoClock) {
+        this.delegate = delegate;
+        this.views = UserViewDao.of(delegate);
+        this.settings = settings;
+        this.metrics = metrics;
+        this.breaker = new CircuitBreaker(settings, nanoClock);
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    public void save(User user) {
+        write("save", List.of(user), false, () -> {
+            delegate.save(user);
+            return null;
+        });
+    }
+
+    @Override
+    public void saveAll(List<User> users) {
+        write("saveAll", users, false, () -> {
+            delegate.saveAll(users);
+            return null;
+        });
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        return read("findById", () -> delegate.findById(id));
+    }
+
+    @Override
+    public List<User> findAllById(Collection<Long> ids) {
+        return read("findAllById", () -> delegate.findAllById(ids));
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        return read("findByEmail", () -> delegate.findByEmail(email));
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return read("existsById", () -> delegate.existsById(id));
+    }
+
+    @Override
+    public boolean existsByEmail(String email) {
+        return read("existsByEmail", () -> delegate.existsByEmail(email));
+    }
+
+    @Override
+    public List<User> findAll() {
+        return read("findAll", delegate::findAll);
+    }
+
+    @Override
+    public Page<User> findPage(String cursor, int size) {
+        return read("findPage", () -> delegate.findPage(cursor, size));
+    }
+
+    @Override
+    public List<User> findByFilter(UserFilter filter) {
+        return read("findByFilter", () -> delegate.findByFilter(filter));
+    }
+
+    @Override
+    public Stream<User> streamAll(int fetchSize) {
+        // Повторяется только открытие курсора: ошибку посреди потока вызывающий код уже частично обработал
+        return read("streamAll", () -> delegate.streamAll(fetchSize));
+    }
+
+    @Override
+    public boolean update(User user) {
+        return write("update", List.of(user), false, () -> delegate.update(user));
+    }
+
+    @Override
+    public void updateAll(List<User> users) {
+        write("updateAll", users, false, () -> {
+            delegate.updateAll(users);
+            return null;
+        });
+    }
+
+    @Override
+    public boolean delete(User user) {
+        return write("delete", List.of(user), false, () -> delegate.delete(user));
+    }
+
+    @Override
+    public boolean deleteById(Long id) {
+        return write("deleteById", List.of(), false, () -> delegate.deleteById(id));
+    }
+
+    @Override
+    public void deleteAllById(List<Long> ids) {
+        // Повторное удаление тех же ID ничего не меняет, поэтому его можно повторить и после обрыва соединения
+        write("deleteAllById", List.of(), true, () -> {
+            delegate.deleteAllById(ids);
+            return null;
+        });
+    }
+
+    @Override
+    public Optional<UserView> findViewById(Long id) {
+        return read("findViewById", () -> views.findViewById(id));
+    }
+
+    @Override
+    public List<UserView> findAllViews() {
+        return read("findAllViews", views::findAllViews);
+    }
+
+    @Override
+    public Page<UserView> findViewPage(String cursor, int size) {
+        return read("findViewPage", () -> views.findViewPage(cursor, size));
+    }
+
+    @Override
+    public List<UserView> findViewsByFilter(UserFilter filter) {
+        return read("findViewsByFilter", () -> views.findViewsByFilter(filter));
+    }
+
+    public CircuitBreaker.State getCircuitState() {
+        return breaker.getState();
+    }
+
+    private <R> R read(String operation, Supplier<R> action) {
+        return call(operation, true, action, () -> {
+        });
+    }
+
+    // Неудачная попытка могла назначить ID и версию (persist, merge); перед повтором они возвращаются к исходным
+    private <R> R write(String operation, List<User> users, boolean idempotent, Supplier<R> action) {
+        Long[] ids = new Long[users.size()];
+        Long[] versions = new Long[users.size()];
+        for (int i = 0; i < users.size(); i++) {
+            ids[i] = users.get(i).getId();
+            versions[i] = users.get(i).getVersion();
+        }
+        return call(operation, idempotent, action, () -> {
+            for (int i = 0; i < users.size(); i++) {
+                users.get(i).setId(ids[i]);
+                users.get(i).setVersion(versions[i]);
+            }
+        });
+    }
+
+    private <R> R call(String operation, boolean idempotent, Supplier<R> action, Runnable resetBeforeRetry) {
+        long deadline = nanoClock.getAsLong() + settings.operationTimeout().toNanos();
+        RuntimeException lastFailure = null;
+        for (int attempt = 1; ; attempt++) {
+            if (!breaker.tryAcquire()) {
+                // Автомат разомкнулся между попытками: вызывающий получает настоящую причину, а не отказ автомата
+                if (lastFailure != null) throw lastFailure;
+                metrics.increment(METRICS_PREFIX + ".rejected");
+                throw new DaoUnavailableException("База данных перегружена, операция " + operation + " отклонена",
+                        breaker.getRemainingOpen());
+            }
+            try {
+                R result = action.get();
+                breaker.onSuccess();
+                return result;
+            } catch (RuntimeException e) {
+                DatabaseFailure failure = DatabaseFailure.of(e);
+                if (!failure.outage()) {
+                    breaker.onSuccess();
+                } else if (breaker.onFailure()) {
+                    metrics.increment(METRICS_PREFIX + ".breakerOpened");
+                }
+                long pause = backoffNanos(attempt);
+                if (attempt >= settings.maxAttempts() || !failure.retryable(idempotent)
+                        || nanoClock.getAsLong() + pause - deadline > 0) {
+                    throw e;
+                }
+                metrics.increment(METRICS_PREFIX + ".retries");
+                metrics.increment(METRICS_PREFIX + ".retries." + operation);
+                resetBeforeRetry.run();
+                if (!pause(pause)) throw e;
+                lastFailure = e;
+            }
+        }
+    }
+
+    // Полный разброс: случайная пауза от нуля до экспоненциально растущего предела, чтобы повторы не шли волной
+    private long backoffNanos(int attempt) {
+        long ceiling = settings.initialBackoff().toNanos() << Math.min(attempt - 1, 30);
+        ceiling = Math.min(Math.max(ceiling, 0), settings.maxBackoff().toNanos());
+        return ceiling == 0 ? 0 : ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private static boolean pause(long nanos) {
+        if (nanos == 0) return true;
+        try {
+            Thread.sleep(Duration.ofNanos(nanos));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package by.task.dao.impl;
+
+import by.task.exceptions.dao.UserPersistenceException;
+import by.task.exceptions.dao.UserQueryException;
+import by.task.models.ShardRange;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+// Карта шардов хранится в таблице user_shard_ranges первого шарда, её версия — в user_shard_epoch.
+// Строка user_shard_epoch есть на каждом шарде: запись берёт её FOR SHARE и сверяет с версией своей карты,
+// смена карты обновляет её на всех шардах, поэтому записи всех процессов ждут конца переключения
+final class ShardCatalog {
+    // Сериализует запись карты между процессами
+    private static final long LOCK_KEY = 0x7573_6572_7368_6172L;
+    private static final String SELECT_EPOCH = "select epoch from user_shard_epoch where id = 1";
+
+    private ShardCatalog() {
+        throw new UnsupportedOperationException("Это утилитарный класс, экземпляры создавать нельзя!");
+    }
+
+    static ShardMap load(SessionFactory catalog, int shardCount) {
+        // Версия читается до диапазонов: если карту сменят между двумя запросами, новые диапазоны получат старую
+        // версию, и первая же запись перечитает карту. Наоборот было бы опасно
+        long epoch = epoch(catalog);
+        List<ShardRange> ranges = read(catalog);
+        if (!ranges.isEmpty()) {
+            return ShardMap.of(ranges, shardCount, epoch);
+        }
+        // Первый запуск: бакеты делятся поровну, и это распределение фиксируется в каталоге
+        Transaction transaction = null;
+        try (Session session = catalog.openSession()) {
+            transaction = session.beginTransaction();
+            lock(session);
+            ranges = session.createSelectionQuery("from ShardRange r order by r.firstBucket", ShardRange.class)
+                    .getResultList();
+            ShardMap map;
+            if (ranges.isEmpty()) {
+                map = ShardMap.of(ShardMap.evenlySplit(shardCount).ranges(), shardCount, readEpoch(session));
+                map.ranges().forEach(session::persist);
+            } else {
+                map = ShardMap.of(ranges, shardCount, readEpoch(session));
+            }
+            transaction.commit();
+            return map;
+        } catch (IllegalArgumentException e) {
+            rollbackQuietly(transaction);
+            throw e;
+        } catch (Exception e) {
+            rollbackQuietly(transaction);
+            throw new UserPersistenceException("Ошибка при создании карты шардов", e);
+        }
+    }
+
+    // Строки версии создаёт миграция; здесь они досоздаются для схем, построенных без Flyway
+    static void ensureEpochs(List<SessionFactory> shards) {
+        for (SessionFactory shard : shards) {
+            Transaction transaction = null;
+            try (Session session = shard.openSession()) {
+                transaction = session.beginTransaction();
+                session.createNativeMutationQuery(
+                                "insert into user_shard_epoch (id, epoch) values (1, 0) on conflict (id) do nothing")
+                        .executeUpdate();
+                transaction.commit();
+            } catch (Exception e) {
+                rollbackQuietly(transaction);
+                throw new UserPersistenceException("Ошибка при создании версии карты шардов", e);
+            }
+        }
+    }
+
+    static long epoch(SessionFactory shard) {
+        try (StatelessSession session = shard.openStatelessSession()) {
+            Long epoch = session.createNativeQuery(SELECT_EPOCH, Long.class).getSingleResultOrNull();
+            return epoch == null ? 0 : epoch;
+        } catch (Exception e) {
+            throw new UserQueryException("Ошибка при чтении версии карты шардов", e);
+        }
+    }
+
+    // Вызывается в транзакции записи до изменения строк. Блокировка FOR SHARE не даёт смене карты завершиться,
+    // пока запись не закоммичена, а запись, начатая после смены, видит новую версию и повторяется по новой карте
+    static void checkEpoch(Session session, long mapEpoch) {
+        Long epoch = session.createNativeQuery(SELECT_EPOCH + " for share", Long.class).getSingleResultOrNull();
+        if (epoch == null) {
+            throw new IllegalStateException("На шарде нет версии карты шардов (user_shard_epoch)");
+        }
+        // Версия шарда меньше версии карты только после прерванного переключения: каталог при этом уже обновлён
+        if (epoch > mapEpoch) {
+            throw new StaleMapException(mapEpoch, epoch);
+        }
+    }
+
+    // Переключение на карту next. Строки версии на всех шардах блокируются до коммита: записи всех процессов ждут,
+    // пока выполняется lastSync и сохраняется карта. Каталог коммитится первым, чтобы шард с новой версией
+    // никогда не отсылал запись к старой карте
+    static long switchTo(List<SessionFactory> shards, ShardMap current, ShardMap next, LongSupplier lastSync) {
+        List<Session> sessions = new ArrayList<>(shards.size());
+        List<Transaction> transactions = new ArrayList<>(shards.size());
+        try {
+            for (SessionFactory shard : shards) {
+                Session session = shard.openSession();
+                sessions.add(session);
+                transactions.add(session.beginTransaction());
+            }
+            Session catalog = sessions.get(0);
+            lock(catalog);
+            int updated = catalog.createNativeMutationQuery(
+                            "update user_shard_epoch set epoch = :next where id = 1 and epoch = :current")
+                    .setParameter("next", next.epoch())
+                    .setParameter("current", current.epoch())
+                    .executeUpdate();
+            if (updated == 0) {
+                throw new IllegalStateException("Карта шардов изменена другим процессом: ожидалась версия "
+                        + current.epoch() + ", перенос отменён");
+            }
+            for (Session session : sessions.subList(1, sessions.size())) {
+                session.createNativeMutationQuery(
+                                "update user_shard_epoch set epoch = greatest(epoch, :next) where id = 1")
+                        .setParameter("next", next.epoch())
+                        .executeUpdate();
+            }
+            long synced = lastSync.getAsLong();
+            catalog.createMutationQuery("delete from ShardRange").executeUpdate();
+            next.ranges().forEach(catalog::persist);
+            for (Transaction transaction : transactions) {
+                transaction.commit();
+            }
+            return synced;
+        } catch (IllegalStateException | UserPersistenceException e) {
+            transactions.forEach(ShardCatalog::rollbackQuietly);
+            throw e;
+        } catch (Exception e) {
+            transactions.forEach(ShardCatalog::rollbackQuietly);
+            throw new UserPersistenceException("Ошибка при смене карты шардов", e);
+        } finally {
+            sessions.forEach(Session::close);
+        }
+    }
+
+    private static List<ShardRange> read(SessionFactory catalog) {
+        try (StatelessSession session = catalog.openStatelessSession()) {
+            return session.createSelectionQuery("from ShardRange r order by r.firstBucket", ShardRange.class)
+                    .getResultList();
+        } catch (Exception e) {
+            throw new UserQueryException("Ошибка при чтении карты шардов", e);
+        }
+    }
+
+    private static long readEpoch(Session session) {
+        Long epoch = session.createNativeQuery(SELECT_EPOCH, Long.class).getSingleResultOrNull();
+        return epoch == null ? 0 : epoch;
+    }
+
+    private static void lock(Session session) {
+        session.createNativeQuery("select 1 from pg_advisory_xact_lock(:key)", Integer.class)
+                .setParameter("key", LOCK_KEY)
+                .getSingleResult();
+    }
+
+    private static void rollbackQuietly(Transaction transaction) {
+        if (transaction != null && transaction.isActive()) {
+            try {
+                transaction.rollback();
+            } catch (RuntimeException ignored) {
+            }
+        }
+    }
+
+    // Запись пришла на шард по устаревшей карте; её нужно повторить после перечитывания каталога
+    static final class StaleMapException extends RuntimeException {
+        StaleMapException(long mapEpoch, long shardEpoch) {
+            super("Карта шардов устарела: версия " + mapEpoch + ", на шарде " + shardEpoch);
+        }
+    }
+}
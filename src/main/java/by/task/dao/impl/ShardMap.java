@@ -0,0 +1,113 @@
+package by.task.dao.impl;
+
+import by.task.models.ShardRange;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Неизменяемое отображение бакет -> шард. Старые ID из последовательности тоже попадают в бакеты по младшим битам.
+// epoch — версия карты в каталоге, каждый перенос бакетов увеличивает её на единицу
+public final class ShardMap {
+    public static final int BUCKETS = 1 << ShardedIdGenerator.BUCKET_BITS;
+
+    private final int[] shardOfBucket;
+    private final int shardCount;
+    private final long epoch;
+
+    private ShardMap(int[] shardOfBucket, int shardCount, long epoch) {
+        this.shardOfBucket = shardOfBucket;
+        this.shardCount = shardCount;
+        this.epoch = epoch;
+    }
+
+    public static ShardMap evenlySplit(int shardCount) {
+        if (shardCount <= 0 || shardCount > BUCKETS) {
+            throw new IllegalArgumentException("Количество шардов должно быть в диапазоне 1-" + BUCKETS + ": " + shardCount);
+        }
+        int[] shards = new int[BUCKETS];
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            shards[bucket] = (int) ((long) bucket * shardCount / BUCKETS);
+        }
+        return new ShardMap(shards, shardCount, 0);
+    }
+
+    public static ShardMap of(List<ShardRange> ranges, int shardCount) {
+        return of(ranges, shardCount, 0);
+    }
+
+    public static ShardMap of(List<ShardRange> ranges, int shardCount, long epoch) {
+        int[] shards = new int[BUCKETS];
+        Arrays.fill(shards, -1);
+        for (ShardRange range : ranges) {
+            checkRange(range.getFirstBucket(), range.getLastBucket());
+            checkShard(range.getShard(), shardCount);
+            Arrays.fill(shards, range.getFirstBucket(), range.getLastBucket() + 1, range.getShard());
+        }
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            if (shards[bucket] < 0) {
+                throw new IllegalArgumentException("Бакет " + bucket + " не закреплён ни за одним шардом");
+            }
+        }
+        return new ShardMap(shards, shardCount, epoch);
+    }
+
+    public int shardCount() {
+        return shardCount;
+    }
+
+    public long epoch() {
+        return epoch;
+    }
+
+    public int shardOf(long id) {
+        return shardOfBucket[ShardedIdGenerator.bucketOf(id)];
+    }
+
+    public int shardOfBucket(int bucket) {
+        return shardOfBucket[bucket];
+    }
+
+    // Домашний бакет email: новый пользователь получает ID из этого бакета, поэтому поиск по email идёт в один шард
+    public static int bucketOf(String email) {
+        return (email.hashCode() * 0x9E3779B9) >>> (Integer.SIZE - ShardedIdGenerator.BUCKET_BITS);
+    }
+
+    public int shardOf(String email) {
+        return shardOfBucket[bucketOf(email)];
+    }
+
+    // Следующая версия карты: диапазон закреплён за шардом shard
+    public ShardMap withRange(int firstBucket, int lastBucket, int shard) {
+        checkRange(firstBucket, lastBucket);
+        checkShard(shard, shardCount);
+        int[] shards = shardOfBucket.clone();
+        Arrays.fill(shards, firstBucket, lastBucket + 1, shard);
+        return new ShardMap(shards, shardCount, epoch + 1);
+    }
+
+    // Соседние бакеты одного шарда сворачиваются в один диапазон
+    public List<ShardRange> ranges() {
+        List<ShardRange> ranges = new ArrayList<>();
+        int first = 0;
+        for (int bucket = 1; bucket <= BUCKETS; bucket++) {
+            if (bucket == BUCKETS || shardOfBucket[bucket] != shardOfBucket[first]) {
+                ranges.add(new ShardRange(first, bucket - 1, shardOfBucket[first]));
+                first = bucket;
+            }
+        }
+        return ranges;
+    }
+
+    static void checkRange(int firstBucket, int lastBucket) {
+        if (firstBucket < 0 || lastBucket >= BUCKETS || firstBucket > lastBucket) {
+            throw new IllegalArgumentException("Некорректный диапазон бакетов: " + firstBucket + "-" + lastBucket);
+        }
+    }
+
+    private static void checkShard(int shard, int shardCount) {
+        if (shard < 0 || shard >= shardCount) {
+            throw new IllegalArgumentException("Некорректный номер шарда: " + shard);
+        }
+    }
+}
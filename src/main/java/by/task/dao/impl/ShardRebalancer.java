@@ -0,0 +1,373 @@
+package by.task.dao.impl;
+
+import by.task.exceptions.dao.UserPersistenceException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.Lock;
+
+// Переносит диапазон бакетов на другой шард без остановки записи:
+// копирование -> отметка outbox и догоняющая синхронизация -> короткая блокировка записей, перенос изменённых
+// после отметки строк и смена карты -> удаление с источника.
+// Записи других процессов блокирует строка версии карты на каждом шарде (см. ShardCatalog.switchTo), после смены
+// они перечитывают карту. Каждая запись UserDao оставляет событие в outbox своего шарда, поэтому под блокировкой
+// читаются только события после отметки, а не весь диапазон. Сам перенос идёт в обход outbox: события при этом
+// не публикуются. Запросы переноса идут со своим statement_timeout: полные проходы по диапазону дольше
+// таймаута обычных запросов из настроек пула
+public class ShardRebalancer {
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+    public static final Duration DEFAULT_STATEMENT_TIMEOUT = Duration.ofMinutes(10);
+    private static final Logger log = LogManager.getLogger(ShardRebalancer.class);
+
+    private static final String COLUMNS = "id, name, email, age, created_at, version";
+    private static final String IN_RANGE = "mod(id, " + ShardMap.BUCKETS + ") between ? and ?";
+    private static final String SELECT_CHUNK =
+            "select " + COLUMNS + " from users where " + IN_RANGE + " and id > ? order by id limit ?";
+    private static final String SELECT_BY_IDS = "select " + COLUMNS + " from users where id = any(?)";
+    private static final String SELECT_VERSIONS = "select id, version from users where " + IN_RANGE;
+    private static final String SELECT_IDS = "select id from users where " + IN_RANGE + " and id > ? order by id limit ?";
+    private static final String SELECT_CHANGED_IDS = "select distinct user_id from user_outbox where id > ? and "
+            + "mod(user_id, " + ShardMap.BUCKETS + ") between ? and ?";
+    // Каждая запись держит строку версии карты FOR SHARE до коммита (ShardCatalog.checkEpoch): FOR UPDATE дожидается
+    // начатых записей, а новые получат ID событий уже после отметки
+    private static final String DRAIN_WRITES = "select epoch from user_shard_epoch where id = 1 for update";
+    private static final String SELECT_OUTBOX_MARK = "select coalesce(max(id), 0) from user_outbox";
+    private static final String UPSERT = "insert into users (" + COLUMNS + ") values (?, ?, ?, ?, ?, ?) "
+            + "on conflict (id) do update set name = excluded.name, email = excluded.email, age = excluded.age, "
+            + "created_at = excluded.created_at, version = excluded.version";
+    private static final String DELETE_BY_IDS = "delete from users where id = any(?)";
+
+    private final ShardedUserDao dao;
+    private final int chunkSize;
+    private final Duration statementTimeout;
+    private final Runnable beforeSwitch;
+
+    public ShardRebalancer(ShardedUserDao dao) {
+        this(dao, DEFAULT_CHUNK_SIZE);
+    }
+
+    public ShardRebalancer(ShardedUserDao dao, int chunkSize) {
+        this(dao, chunkSize, DEFAULT_STATEMENT_TIMEOUT);
+    }
+
+    public ShardRebalancer(ShardedUserDao dao, int chunkSize, Duration statementTimeout) {
+        this(dao, chunkSize, statementTimeout, () -> {
+        });
+    }
+
+    // beforeSwitch выполняется между догоняющей синхронизацией и блокировкой записей
+    ShardRebalancer(ShardedUserDao dao, int chunkSize, Duration statementTimeout, Runnable beforeSwitch) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Размер пакета переноса должен быть положительным: " + chunkSize);
+        }
+        if (statementTimeout.isNegative()) {
+            throw new IllegalArgumentException("Таймаут запросов переноса не может быть отрицательным: " + statementTimeout);
+        }
+        this.dao = dao;
+        this.chunkSize = chunkSize;
+        this.statementTimeout = statementTimeout;
+        this.beforeSwitch = beforeSwitch;
+    }
+
+    public RebalanceReport move(int firstBucket, int lastBucket, int targetShard) {
+        ShardMap.checkRange(firstBucket, lastBucket);
+        List<SessionFactory> shards = dao.shardFactories();
+        if (targetShard < 0 || targetShard >= shards.size()) {
+            throw new IllegalArgumentException("Некорректный номер шарда: " + targetShard);
+        }
+        Lock rebalance = dao.rebalanceLock();
+        rebalance.lock();
+        try {
+            dao.reloadIfStale();
+            ShardMap current = dao.shardMap();
+            Set<Integer> sources = new TreeSet<>();
+            for (int bucket = firstBucket; bucket <= lastBucket; bucket++) {
+                if (current.shardOfBucket(bucket) != targetShard) sources.add(current.shardOfBucket(bucket));
+            }
+            if (sources.isEmpty()) {
+                return new RebalanceReport(firstBucket, lastBucket, targetShard, 0, 0, Duration.ZERO);
+            }
+            long started = System.nanoTime();
+            SessionFactory target = shards.get(targetShard);
+            long copied = 0;
+            for (int source : sources) {
+                copied += copy(current, source, shards.get(source), target, firstBucket, lastBucket);
+            }
+            // Догоняем изменения, сделанные во время копирования; всё, что закоммичено до отметки, к концу прохода уже на цели
+            Map<Integer, Long> marks = new HashMap<>();
+            for (int source : sources) {
+                marks.put(source, outboxMark(shards.get(source)));
+                copied += sync(current, source, shards.get(source), target, firstBucket, lastBucket);
+            }
+            beforeSwitch.run();
+
+            Duration writesBlocked;
+            Lock fence = dao.writeFence();
+            fence.lock();
+            long fenced = System.nanoTime();
+            try {
+                ShardMap next = current.withRange(firstBucket, lastBucket, targetShard);
+                copied += ShardCatalog.switchTo(shards, current, next, () -> {
+                    long synced = 0;
+                    for (int source : sources) {
+                        synced += syncChanged(current, source, shards.get(source), target, firstBucket, lastBucket,
+                                marks.get(source));
+                    }
+                    return synced;
+                });
+                dao.switchMap(next);
+            } finally {
+                fence.unlock();
+                writesBlocked = Duration.ofNanos(System.nanoTime() - fenced);
+            }
+
+            long removed = 0;
+            for (int source : sources) {
+                removed += purge(shards.get(source), firstBucket, lastBucket);
+            }
+            // Строки менялись в обход Hibernate: кэш второго уровня и кэш запросов могут хранить старые данные
+            for (int source : sources) {
+                shards.get(source).getCache().evictAllRegions();
+            }
+            target.getCache().evictAllRegions();
+
+            RebalanceReport report = new RebalanceReport(firstBucket, lastBucket, targetShard, copied, removed, writesBlocked);
+            log.info("Бакеты {}-{} перенесены на шард {}: скопировано {}, удалено {}, записи заблокированы на {} мс, всего {} мс",
+                    firstBucket, lastBucket, targetShard, copied, removed, writesBlocked.toMillis(),
+                    (System.nanoTime() - started) / 1_000_000);
+            return report;
+        } finally {
+            rebalance.unlock();
+        }
+    }
+
+    // Переносятся только строки, которыми источник владеет по карте: остатки прерванных переносов не затирают чужие данные
+    private long copy(ShardMap map, int sourceShard, SessionFactory source, SessionFactory target,
+                      int firstBucket, int lastBucket) {
+        long copied = 0;
+        long afterId = Long.MIN_VALUE;
+        while (true) {
+            long after = afterId;
+            List<Object[]> rows = inTransaction(source, connection -> {
+                try (PreparedStatement select = connection.prepareStatement(SELECT_CHUNK)) {
+                    select.setInt(1, firstBucket);
+                    select.setInt(2, lastBucket);
+                    select.setLong(3, after);
+                    select.setInt(4, chunkSize);
+                    return readRows(select);
+                }
+            });
+            if (rows.isEmpty()) return copied;
+            afterId = (Long) rows.get(rows.size() - 1)[0];
+            List<Object[]> owned = rows.stream().filter(row -> map.shardOf((Long) row[0]) == sourceShard).toList();
+            if (!owned.isEmpty()) {
+                inTransaction(target, connection -> upsert(connection, owned));
+            }
+            copied += owned.size();
+        }
+    }
+
+    // Приводит диапазон на целевом шарде к состоянию источника по парам (id, version)
+    private long sync(ShardMap map, int sourceShard, SessionFactory source, SessionFactory target,
+                      int firstBucket, int lastBucket) {
+        Map<Long, Long> sourceVersions = inTransaction(source, connection -> versions(connection, firstBucket, lastBucket));
+        Map<Long, Long> targetVersions = inTransaction(target, connection -> versions(connection, firstBucket, lastBucket));
+        // Сравниваются только бакеты этого источника: строки других источников и самой цели не трогаются
+        sourceVersions.keySet().removeIf(id -> map.shardOf(id) != sourceShard);
+        targetVersions.keySet().removeIf(id -> map.shardOf(id) != sourceShard);
+        List<Long> changed = new ArrayList<>();
+        sourceVersions.forEach((id, version) -> {
+            if (!version.equals(targetVersions.get(id))) changed.add(id);
+        });
+        List<Long> removed = new ArrayList<>();
+        for (Long id : targetVersions.keySet()) {
+            if (!sourceVersions.containsKey(id)) removed.add(id);
+        }
+        for (List<Long> chunk : chunks(changed)) {
+            List<Object[]> rows = inTransaction(source, connection -> {
+                try (PreparedStatement select = connection.prepareStatement(SELECT_BY_IDS)) {
+                    select.setArray(1, connection.createArrayOf("bigint", chunk.toArray()));
+                    return readRows(select);
+                }
+            });
+            inTransaction(target, connection -> upsert(connection, rows));
+        }
+        for (List<Long> chunk : chunks(removed)) {
+            inTransaction(target, connection -> deleteByIds(connection, chunk));
+        }
+        return changed.size();
+    }
+
+    // Строки, изменённые на источнике после отметки outbox: под блокировкой записей читаются только они.
+    // Строки, которых на источнике уже нет, удаляются с цели
+    private long syncChanged(ShardMap map, int sourceShard, SessionFactory source, SessionFactory target,
+                             int firstBucket, int lastBucket, long mark) {
+        List<Long> changed = inTransaction(source, connection -> {
+            try (PreparedStatement select = connection.prepareStatement(SELECT_CHANGED_IDS)) {
+                select.setLong(1, mark);
+                select.setInt(2, firstBucket);
+                select.setInt(3, lastBucket);
+                return readIds(select);
+            }
+        });
+        changed.removeIf(id -> map.shardOf(id) != sourceShard);
+        for (List<Long> chunk : chunks(changed)) {
+            List<Object[]> rows = inTransaction(source, connection -> {
+                try (PreparedStatement select = connection.prepareStatement(SELECT_BY_IDS)) {
+                    select.setArray(1, connection.createArrayOf("bigint", chunk.toArray()));
+                    return readRows(select);
+                }
+            });
+            Set<Long> found = new HashSet<>();
+            rows.forEach(row -> found.add((Long) row[0]));
+            List<Long> removed = chunk.stream().filter(id -> !found.contains(id)).toList();
+            inTransaction(target, connection -> {
+                upsert(connection, rows);
+                return deleteByIds(connection, removed);
+            });
+        }
+        return changed.size();
+    }
+
+    // Последний ID события outbox на источнике, до которого все записи уже закоммичены
+    private long outboxMark(SessionFactory source) {
+        return inTransaction(source, connection -> {
+            try (PreparedStatement drain = connection.prepareStatement(DRAIN_WRITES);
+                 PreparedStatement select = connection.prepareStatement(SELECT_OUTBOX_MARK)) {
+                drain.executeQuery().close();
+                try (ResultSet rs = select.executeQuery()) {
+                    rs.next();
+                    return rs.getLong(1);
+                }
+            }
+        });
+    }
+
+    // По ID, как и копирование: каждый пакет продолжает обход индекса, а не просматривает таблицу заново
+    private long purge(SessionFactory source, int firstBucket, int lastBucket) {
+        long removed = 0;
+        long afterId = Long.MIN_VALUE;
+        while (true) {
+            long after = afterId;
+            List<Long> ids = inTransaction(source, connection -> {
+                try (PreparedStatement select = connection.prepareStatement(SELECT_IDS)) {
+                    select.setInt(1, firstBucket);
+                    select.setInt(2, lastBucket);
+                    select.setLong(3, after);
+                    select.setInt(4, chunkSize);
+                    return readIds(select);
+                }
+            });
+            if (ids.isEmpty()) return removed;
+            afterId = ids.get(ids.size() - 1);
+            removed += inTransaction(source, connection -> deleteByIds(connection, ids));
+        }
+    }
+
+    private static List<Long> readIds(PreparedStatement select) throws SQLException {
+        List<Long> ids = new ArrayList<>();
+        try (ResultSet rs = select.executeQuery()) {
+            while (rs.next()) ids.add(rs.getLong(1));
+        }
+        return ids;
+    }
+
+    private static List<Object[]> readRows(PreparedStatement select) throws SQLException {
+        List<Object[]> rows = new ArrayList<>();
+        try (ResultSet rs = select.executeQuery()) {
+            while (rs.next()) {
+                rows.add(new Object[]{
+                        rs.getLong(1), rs.getString(2), rs.getString(3), rs.getObject(4, Integer.class),
+                        rs.getTimestamp(5), rs.getLong(6)
+                });
+            }
+        }
+        return rows;
+    }
+
+    private static int upsert(Connection connection, List<Object[]> rows) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(UPSERT)) {
+            for (Object[] row : rows) {
+                insert.setLong(1, (Long) row[0]);
+                insert.setString(2, (String) row[1]);
+                insert.setString(3, (String) row[2]);
+                insert.setObject(4, row[3], Types.INTEGER);
+                insert.setTimestamp(5, (Timestamp) row[4]);
+                insert.setLong(6, (Long) row[5]);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+            return rows.size();
+        }
+    }
+
+    private static int deleteByIds(Connection connection, List<Long> ids) throws SQLException {
+        if (ids.isEmpty()) return 0;
+        try (PreparedStatement delete = connection.prepareStatement(DELETE_BY_IDS)) {
+            delete.setArray(1, connection.createArrayOf("bigint", ids.toArray()));
+            return delete.executeUpdate();
+        }
+    }
+
+    private static Map<Long, Long> versions(Connection connection, int firstBucket, int lastBucket) throws SQLException {
+        Map<Long, Long> versions = new HashMap<>();
+        try (PreparedStatement select = connection.prepareStatement(SELECT_VERSIONS)) {
+            select.setInt(1, firstBucket);
+            select.setInt(2, lastBucket);
+            try (ResultSet rs = select.executeQuery()) {
+                while (rs.next()) versions.put(rs.getLong(1), rs.getLong(2));
+            }
+        }
+        return versions;
+    }
+
+    private List<List<Long>> chunks(List<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            chunks.add(ids.subList(from, Math.min(from + chunkSize, ids.size())));
+        }
+        return chunks;
+    }
+
+    private <R> R inTransaction(SessionFactory factory, JdbcWork<R> work) {
+        Transaction transaction = null;
+        try (StatelessSession session = factory.openStatelessSession()) {
+            transaction = session.beginTransaction();
+            R result = session.doReturningWork(connection -> {
+                // SET LOCAL действует до конца транзакции и не переходит к следующему владельцу соединения из пула
+                try (Statement timeout = connection.createStatement()) {
+                    timeout.execute("set local statement_timeout = " + statementTimeout.toMillis());
+                }
+                return work.execute(connection);
+            });
+            transaction.commit();
+            return result;
+        } catch (Exception e) {
+            if (transaction != null && transaction.isActive()) transaction.rollback();
+            throw new UserPersistenceException("Ошибка при переносе пользователей между шардами", e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface JdbcWork<R> {
+        R execute(Connection connection) throws SQLException;
+    }
+}
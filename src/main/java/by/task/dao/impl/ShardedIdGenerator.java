@@ -0,0 +1,56 @@
+package by.task.dao.impl;
+
+import java.util.function.LongSupplier;
+
+// ID в духе Snowflake: 41 бит миллисекунд от EPOCH | 5 бит узла | 7 бит счётчика | 10 бит бакета.
+// Бакет лежит в младших битах, поэтому шард определяется по самому ID без обращения к каталогу
+public class ShardedIdGenerator {
+    static final int BUCKET_BITS = 10;
+    static final int WORKER_BITS = 5;
+    static final int SEQUENCE_BITS = 7;
+    static final long EPOCH_MILLIS = 1_704_067_200_000L; // 2024-01-01T00:00:00Z
+    public static final int MAX_WORKER_ID = (1 << WORKER_BITS) - 1;
+
+    private static final int SEQUENCE_MASK = (1 << SEQUENCE_BITS) - 1;
+    private static final int BUCKET_MASK = (1 << BUCKET_BITS) - 1;
+
+    private final long workerId;
+    private final LongSupplier clock;
+    private long lastTick = -1;
+    private int sequence;
+
+    public ShardedIdGenerator(int workerId) {
+        this(workerId, System::currentTimeMillis);
+    }
+
+    ShardedIdGenerator(int workerId, LongSupplier clock) {
+        if (workerId < 0 || workerId > MAX_WORKER_ID) {
+            throw new IllegalArgumentException("Номер узла должен быть в диапазоне 0-" + MAX_WORKER_ID + ": " + workerId);
+        }
+        this.workerId = workerId;
+        this.clock = clock;
+    }
+
+    public synchronized long next(int bucket) {
+        if (bucket < 0 || bucket > BUCKET_MASK) {
+            throw new IllegalArgumentException("Некорректный бакет: " + bucket);
+        }
+        // Часы, ушедшие назад, и исчерпанный счётчик не блокируют: время продолжается от последнего тика
+        long tick = Math.max(clock.getAsLong() - EPOCH_MILLIS, lastTick);
+        if (tick == lastTick) {
+            sequence = (sequence + 1) & SEQUENCE_MASK;
+            if (sequence == 0) tick++;
+        } else {
+            sequence = 0;
+        }
+        lastTick = tick;
+        return tick << (SEQUENCE_BITS + WORKER_BITS + BUCKET_BITS)
+                | (long) sequence << (WORKER_BITS + BUCKET_BITS)
+                | workerId << BUCKET_BITS
+                | bucket;
+    }
+
+    static int bucketOf(long id) {
+        return (int) (id & BUCKET_MASK);
+    }
+}
@@ -0,0 +1,541 @@
+package by.task.dao.impl;
+
+import by.task.dao.Page;
+import by.task.dao.UserFilter;
+import by.task.dao.UserLookupDao;
+import by.task.dao.UserViewDao;
+import by.task.exceptions.dao.UserPersistenceException;
+import by.task.exceptions.dao.UserQueryException;
+import by.task.models.User;
+import by.task.models.UserView;
+import org.hibernate.SessionFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// Пользователи распределены по шардам по бакету ID (младшие биты), каждый шард — отдельная БД со своим UserDao.
+// Пакетные операции над несколькими шардами не атомарны: каждый шард коммитит свою часть отдельно.
+// Карту может сменить перенос бакетов в другом процессе: запись сверяет версию карты с версией шарда в своей транзакции
+// и при расхождении повторяется по перечитанной карте, чтения перечитывают карту после промаха или выборки по всем шардам
+public class ShardedUserDao implements UserLookupDao, UserViewDao, AutoCloseable {
+    private static final Comparator<User> PAGE_ORDER =
+            Comparator.comparing(User::getCreatedAt).thenComparing(User::getId);
+    private static final int MAX_MAP_RELOADS = 3;
+
+    private final Supplier<List<SessionFactory>> shardSource;
+    private final ShardedIdGenerator ids;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    // Записи держат read lock, перебалансировка берёт write lock на время переключения карты
+    private final ReentrantReadWriteLock writeFence = new ReentrantReadWriteLock();
+    private final ReentrantLock initLock = new ReentrantLock();
+    private final ReentrantLock rebalanceLock = new ReentrantLock();
+    private volatile List<SessionFactory> factories;
+    private volatile List<UserDao> shards;
+    private volatile ShardMap map;
+
+    public ShardedUserDao(List<SessionFactory> shards, int workerId) {
+        this(() -> shards, workerId);
+    }
+
+    public ShardedUserDao(Supplier<List<SessionFactory>> shardSource, int workerId) {
+        // Шарды и карта запрашиваются при первом обращении к БД, а не при создании DAO
+        this.shardSource = shardSource;
+        this.ids = new ShardedIdGenerator(workerId);
+    }
+
+    @Override
+    public void save(User user) {
+        withWriteFence(() -> {
+            assignId(user);
+            shardOf(user.getId()).save(user);
+            return null;
+        });
+    }
+
+    @Override
+    public void saveAll(List<User> users) {
+        users.forEach(this::assignId);
+        writeByShard(users, User::getId, UserDao::saveAll);
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        Optional<User> found = shardOf(id).findById(id);
+        return found.isEmpty() && reloadIfStale() ? shardOf(id).findById(id) : found;
+    }
+
+    @Override
+    public List<User> findAllById(Collection<Long> ids) {
+        List<Long> distinct = List.copyOf(new LinkedHashSet<>(ids));
+        List<User> found = findAllByDistinctId(distinct);
+        return found.size() < distinct.size() && reloadIfStale() ? findAllByDistinctId(distinct) : found;
+    }
+
+    private List<User> findAllByDistinctId(List<Long> distinct) {
+        Map<Long, User> found = new HashMap<>(distinct.size() * 2);
+        for (List<User> users : onShards(groupByShard(distinct, Function.identity()), UserDao::findAllById)) {
+            users.forEach(user -> found.put(user.getId(), user));
+        }
+        List<User> ordered = new ArrayList<>(found.size());
+        for (Long id : distinct) {
+            User user = found.get(id);
+            if (user != null) ordered.add(user);
+        }
+        return ordered;
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        Optional<User> found = findByEmailOnShards(email);
+        return found.isEmpty() && reloadIfStale() ? findByEmailOnShards(email) : found;
+    }
+
+    private Optional<User> findByEmailOnShards(String email) {
+        // Email, изменённый после создания, и пользователи со старыми ID лежат не в домашнем шарде
+        int home = shardMap().shardOf(email);
+        Optional<User> found = shards().get(home).findByEmail(email);
+        if (found.isPresent()) return found;
+        return onOtherShards(home, (shard, dao) -> dao.findByEmail(email).filter(user -> owns(shard, user))).stream()
+                .flatMap(Optional::stream)
+                .findFirst();
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return shardOf(id).existsById(id) || reloadIfStale() && shardOf(id).existsById(id);
+    }
+
+    @Override
+    public boolean existsByEmail(String email) {
+        int home = shardMap().shardOf(email);
+        return shards().get(home).existsByEmail(email)
+                || onOtherShards(home, (shard, dao) -> dao.existsByEmail(email)).contains(true);
+    }
+
+    @Override
+    public List<User> findAll() {
+        return readFresh(() -> {
+            List<User> all = new ArrayList<>();
+            onAllShards((shard, dao) -> owned(shard, dao.findAll())).forEach(all::addAll);
+            return all;
+        });
+    }
+
+    @Override
+    public Page<User> findPage(String cursor, int size) {
+        return readFresh(() -> findPageOnShards(cursor, size));
+    }
+
+    private Page<User> findPageOnShards(String cursor, int size) {
+        List<Page<User>> pages = onAllShards((shard, dao) -> ownedPage(shard, dao, cursor, size));
+        List<User> merged = new ArrayList<>();
+        boolean hasMore = false;
+        for (Page<User> page : pages) {
+            merged.addAll(page.items());
+            hasMore |= page.hasNext();
+        }
+        merged.sort(PAGE_ORDER);
+        if (merged.isEmpty() || !hasMore && merged.size() <= size) {
+            return new Page<>(merged, null);
+        }
+        List<User> items = List.copyOf(merged.subList(0, Math.min(size, merged.size())));
+        return new Page<>(items, UserCursor.of(items.get(items.size() - 1)).encode());
+    }
+
+    @Override
+    public List<User> findByFilter(UserFilter filter) {
+        // Каждый шард отдаёт свои первые limit строк, глобальные первые limit — среди них.
+        // Строки сравниваются по Unicode, а не по правилам сортировки БД
+        return readFresh(() -> {
+            List<User> merged = new ArrayList<>();
+            onAllShards((shard, dao) -> ownedByFilter(shard, dao, filter)).forEach(merged::addAll);
+            merged.sort(filterOrder(filter));
+            return List.copyOf(merged.subList(0, Math.min(filter.limit(), merged.size())));
+        });
+    }
+
+    @Override
+    public Stream<User> streamAll(int fetchSize) {
+        // Потоки шардов упорядочены по (created_at, id), слияние сохраняет этот порядок.
+        // Поток фильтрует строки по карте на момент открытия и после смены карты не перечитывает её
+        List<Stream<User>> streams = new ArrayList<>();
+        PriorityQueue<ShardHead> heads = new PriorityQueue<>(Comparator.comparing(ShardHead::user, PAGE_ORDER));
+        try {
+            List<UserDao> daos = shards();
+            for (int shard = 0; shard < daos.size(); shard++) {
+                int owner = shard;
+                Stream<User> stream = daos.get(shard).streamAll(fetchSize);
+                streams.add(stream);
+                Iterator<User> iterator = stream.filter(user -> owns(owner, user)).iterator();
+                if (iterator.hasNext()) heads.add(new ShardHead(iterator.next(), iterator));
+            }
+        } catch (RuntimeException e) {
+            streams.forEach(Stream::close);
+            throw e;
+        }
+        Iterator<User> merged = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return !heads.isEmpty();
+            }
+
+            @Override
+            public User next() {
+                ShardHead head = heads.remove();
+                if (head.rest().hasNext()) heads.add(new ShardHead(head.rest().next(), head.rest()));
+                return head.user();
+            }
+        };
+        Stream<User> result = StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(merged, Spliterator.ORDERED | Spliterator.NONNULL), false);
+        return result.onClose(() -> streams.forEach(Stream::close));
+    }
+
+    @Override
+    public Optional<UserView> findViewById(Long id) {
+        Optional<UserView> found = shardOf(id).findViewById(id);
+        return found.isEmpty() && reloadIfStale() ? shardOf(id).findViewById(id) : found;
+    }
+
+    // Слияние страниц и выборок по шардам написано для сущностей, проекции получаются из его результата
+    @Override
+    public List<UserView> findAllViews() {
+        return findAll().stream().map(UserView::of).toList();
+    }
+
+    @Override
+    public Page<UserView> findViewPage(String cursor, int size) {
+        return findPage(cursor, size).map(UserView::of);
+    }
+
+    @Override
+    public List<UserView> findViewsByFilter(UserFilter filter) {
+        return findByFilter(filter).stream().map(UserView::of).toList();
+    }
+
+    @Override
+    public boolean update(User user) {
+        return withWriteFence(() -> shardOf(user.getId()).update(user));
+    }
+
+    @Override
+    public void updateAll(List<User> users) {
+        writeByShard(users, User::getId, UserDao::updateAll);
+    }
+
+    @Override
+    public boolean delete(User user) {
+        return withWriteFence(() -> shardOf(user.getId()).delete(user));
+    }
+
+    @Override
+    public boolean deleteById(Long id) {
+        return withWriteFence(() -> shardOf(id).deleteById(id));
+    }
+
+    @Override
+    public void deleteAllById(List<Long> ids) {
+        writeByShard(ids, Function.identity(), UserDao::deleteAllById);
+    }
+
+    public int getShardCount() {
+        return shards().size();
+    }
+
+    public ShardMap getShardMap() {
+        return shardMap();
+    }
+
+    @Override
+    public void close() {
+        executor.close();
+    }
+
+    List<SessionFactory> shardFactories() {
+        shards();
+        return factories;
+    }
+
+    ShardMap shardMap() {
+        shards();
+        return map;
+    }
+
+    Lock writeFence() {
+        return writeFence.writeLock();
+    }
+
+    ReentrantLock rebalanceLock() {
+        return rebalanceLock;
+    }
+
+    // Вызывается под writeFence(): ни одна запись не идёт по старой карте
+    void switchMap(ShardMap next) {
+        map = next;
+    }
+
+    // true, если каталог уже хранит другую версию карты и она перечитана
+    boolean reloadIfStale() {
+        shards();
+        long epoch = map.epoch();
+        if (ShardCatalog.epoch(factories.get(0)) == epoch) return false;
+        reloadMap(epoch);
+        return true;
+    }
+
+    // Перечитывает карту, если её ещё не обновил другой поток. Записи этого процесса на это время приостанавливаются
+    private void reloadMap(long staleEpoch) {
+        Lock fence = writeFence.writeLock();
+        fence.lock();
+        try {
+            if (map.epoch() == staleEpoch) {
+                map = ShardCatalog.load(factories.get(0), factories.size());
+            }
+        } finally {
+            fence.unlock();
+        }
+    }
+
+    private List<UserDao> shards() {
+        List<UserDao> current = shards;
+        if (current != null) return current;
+        initLock.lock();
+        try {
+            if (shards == null) {
+                List<SessionFactory> shardFactories = List.copyOf(shardSource.get());
+                if (shardFactories.isEmpty()) {
+                    throw new IllegalArgumentException("Не задано ни одного шарда");
+                }
+                ShardCatalog.ensureEpochs(shardFactories);
+                map = ShardCatalog.load(shardFactories.get(0), shardFactories.size());
+                factories = shardFactories;
+                // Запись идёт под writeFence, поэтому карта, по которой выбран шард, не меняется до конца транзакции
+                shards = shardFactories.stream()
+                        .map(factory -> new UserDao(factory, session -> ShardCatalog.checkEpoch(session, map.epoch())))
+                        .toList();
+            }
+            return shards;
+        } finally {
+            initLock.unlock();
+        }
+    }
+
+    // Во время перебалансировки строки диапазона есть и на старом, и на новом шарде; учитывается только владелец по карте
+    private boolean owns(int shard, User user) {
+        return map.shardOf(user.getId()) == shard;
+    }
+
+    private List<User> owned(int shard, List<User> users) {
+        return users.stream().filter(user -> owns(shard, user)).toList();
+    }
+
+    // Чужие строки не должны занимать место своих: страница шарда дочитывается, пока не наберётся size своих строк
+    private Page<User> ownedPage(int shard, UserDao dao, String cursor, int size) {
+        List<User> items = new ArrayList<>();
+        String next = cursor;
+        do {
+            Page<User> page = dao.findPage(next, size);
+            items.addAll(owned(shard, page.items()));
+            next = page.nextCursor();
+        } while (items.size() < size && next != null);
+        return new Page<>(items, next);
+    }
+
+    // У выборки по фильтру нет курсора, поэтому при нехватке своих строк лимит запроса к шарду удваивается
+    private List<User> ownedByFilter(int shard, UserDao dao, UserFilter filter) {
+        UserFilter request = filter;
+        while (true) {
+            List<User> rows = dao.findByFilter(request);
+            List<User> owned = owned(shard, rows);
+            if (owned.size() >= filter.limit() || rows.size() < request.limit() || request.limit() > Integer.MAX_VALUE / 2) {
+                return owned;
+            }
+            request = request.withLimit(request.limit() * 2);
+        }
+    }
+
+    private UserDao shardOf(Long id) {
+        if (id == null) {
+            throw new IllegalArgumentException("ID пользователя не задан");
+        }
+        return shards().get(shardMap().shardOf(id));
+    }
+
+    private void assignId(User user) {
+        if (user.getId() != null) return;
+        int bucket = user.getEmail() == null
+                ? ThreadLocalRandom.current().nextInt(ShardMap.BUCKETS)
+                : ShardMap.bucketOf(user.getEmail());
+        user.setId(ids.next(bucket));
+    }
+
+    private <T> Map<Integer, List<T>> groupByShard(Collection<T> items, Function<T, Long> idOf) {
+        ShardMap current = shardMap();
+        Map<Integer, List<T>> groups = new TreeMap<>();
+        for (T item : items) {
+            Long id = idOf.apply(item);
+            if (id == null) {
+                throw new IllegalArgumentException("ID пользователя не задан");
+            }
+            groups.computeIfAbsent(current.shardOf(id), shard -> new ArrayList<>()).add(item);
+        }
+        return groups;
+    }
+
+    private <T, R> List<R> onShards(Map<Integer, List<T>> groups, ShardCall<T, R> call) {
+        List<UserDao> daos = shards();
+        List<Future<R>> futures = new ArrayList<>(groups.size());
+        groups.forEach((shard, items) -> futures.add(executor.submit(() -> call.apply(daos.get(shard), items))));
+        return awaitAll(futures);
+    }
+
+    private <R> List<R> onAllShards(ShardQuery<R> call) {
+        return onOtherShards(-1, call);
+    }
+
+    private <R> List<R> onOtherShards(int skipped, ShardQuery<R> call) {
+        List<UserDao> daos = shards();
+        List<Future<R>> futures = new ArrayList<>(daos.size());
+        for (int shard = 0; shard < daos.size(); shard++) {
+            if (shard == skipped) continue;
+            int index = shard;
+            futures.add(executor.submit(() -> call.apply(index, daos.get(index))));
+        }
+        return awaitAll(futures);
+    }
+
+    private static <R> List<R> awaitAll(List<Future<R>> futures) {
+        List<R> results = new ArrayList<>(futures.size());
+        try {
+            for (Future<R> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new UserQueryException("Ожидание ответа шардов прервано", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw new UserQueryException("Ошибка при обращении к шарду", e.getCause());
+        }
+    }
+
+    private <R> R withWriteFence(Supplier<R> write) {
+        shards();
+        for (int reloads = 0; ; reloads++) {
+            Lock fence = writeFence.readLock();
+            fence.lock();
+            long epoch = map.epoch();
+            try {
+                return write.get();
+            } catch (RuntimeException e) {
+                if (!isStaleMap(e)) throw e;
+                if (reloads == MAX_MAP_RELOADS) {
+                    throw new UserPersistenceException("Карта шардов меняется слишком часто, запись не выполнена", e);
+                }
+            } finally {
+                fence.unlock();
+            }
+            reloadMap(epoch);
+        }
+    }
+
+    // Группы шардов коммитятся по отдельности, поэтому после смены карты повторяются только группы,
+    // отклонённые по устаревшей карте: уже закоммиченные не выполняются второй раз
+    private <T> void writeByShard(List<T> items, Function<T, Long> idOf, ShardAction<T> action) {
+        shards();
+        List<T> pending = items;
+        for (int reloads = 0; ; reloads++) {
+            List<T> batch = pending;
+            Lock fence = writeFence.readLock();
+            fence.lock();
+            long epoch = map.epoch();
+            List<List<T>> rejected;
+            try {
+                rejected = onShards(groupByShard(batch, idOf), (dao, group) -> {
+                    try {
+                        action.accept(dao, group);
+                        return List.<T>of();
+                    } catch (RuntimeException e) {
+                        if (!isStaleMap(e)) throw e;
+                        return group;
+                    }
+                });
+            } finally {
+                fence.unlock();
+            }
+            pending = rejected.stream().flatMap(List::stream).toList();
+            if (pending.isEmpty()) return;
+            if (reloads == MAX_MAP_RELOADS) {
+                throw new UserPersistenceException("Карта шардов меняется слишком часто, запись не выполнена", null);
+            }
+            reloadMap(epoch);
+        }
+    }
+
+    // Выборка по всем шардам фильтрует строки по карте; если карта за это время сменилась, выборка повторяется
+    private <R> R readFresh(Supplier<R> read) {
+        R result = read.get();
+        return reloadIfStale() ? read.get() : result;
+    }
+
+    private static boolean isStaleMap(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ShardCatalog.StaleMapException) return true;
+        }
+        return false;
+    }
+
+    private static Comparator<User> filterOrder(UserFilter filter) {
+        Comparator<User> order = switch (filter.sortBy()) {
+            case CREATED_AT -> Comparator.comparing(User::getCreatedAt);
+            case NAME -> Comparator.comparing(User::getName);
+            case EMAIL -> Comparator.comparing(User::getEmail);
+            case AGE -> Comparator.comparing(User::getAge);
+        };
+        order = order.thenComparing(User::getId);
+        return filter.descending() ? order.reversed() : order;
+    }
+
+    @FunctionalInterface
+    private interface ShardQuery<R> {
+        R apply(int shard, UserDao dao);
+    }
+
+    @FunctionalInterface
+    private interface ShardCall<T, R> {
+        R apply(UserDao dao, List<T> items);
+    }
+
+    @FunctionalInterface
+    private interface ShardAction<T> {
+        void accept(UserDao dao, List<T> items);
+    }
+
+    private record ShardHead(User user, Iterator<User> rest) {
+    }
+}
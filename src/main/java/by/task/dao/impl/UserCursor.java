@@ -0,0 +1,38 @@
+package by.task.dao.impl;
+
+import by.task.models.User;
+import by.task.models.UserView;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+record UserCursor(LocalDateTime createdAt, Long id) {
+    private static final String SEPARATOR = "|";
+
+    static UserCursor of(User user) {
+        return new UserCursor(user.getCreatedAt(), user.getId());
+    }
+
+    static UserCursor of(UserView view) {
+        return new UserCursor(view.createdAt(), view.id());
+    }
+
+    static UserCursor decode(String token) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = value.lastIndexOf(SEPARATOR);
+            return new UserCursor(
+                    LocalDateTime.parse(value.substring(0, separator)),
+                    Long.parseLong(value.substring(separator + 1))
+            );
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Некорректный курсор страницы: " + token, e);
+        }
+    }
+
+    String encode() {
+        String value = createdAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
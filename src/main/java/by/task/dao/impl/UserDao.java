@@ -1,85 +1,679 @@
 package by.task.dao.impl;
 
-import by.task.dao.Dao;
+import by.task.dao.Page;
+import by.task.dao.UserFilter;
+import by.task.dao.UserLookupDao;
+import by.task.dao.UserViewDao;
+import by.task.exceptions.dao.UserConcurrentModificationException;
 import by.task.exceptions.dao.UserPersistenceException;
 import by.task.exceptions.dao.UserQueryException;
 import by.task.models.User;
+import by.task.models.UserView;
+import by.task.models.User_;
+import by.task.outbox.OutboxEvents;
 import by.task.util.HibernateUtil;
+import by.task.util.SessionRouter;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.SharedSessionContract;
+import org.hibernate.StaleObjectStateException;
+import org.hibernate.StaleStateException;
+import org.hibernate.StatelessSession;
 import org.hibernate.Transaction;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.exception.JDBCConnectionException;
 
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-public class UserDao implements Dao<User, Long> {
-    private final SessionFactory sessionFactory;
+public class UserDao implements UserLookupDao, UserViewDao {
+    public static final int DEFAULT_BATCH_SIZE = 50;
+    public static final int DEFAULT_MULTI_LOAD_BATCH_SIZE = 500;
+    public static final String FIND_ALL_CACHE_REGION = "users.findAll";
+    private static final char LIKE_ESCAPE = '\\';
+    private static final Consumer<Session> NO_GUARD = session -> {
+    };
+
+    private final Supplier<SessionRouter> routerSource;
+    private final int batchSize;
+    private final Consumer<Session> writeGuard;
+    private volatile int multiLoadBatchSize;
+    private volatile SessionRouter resolvedRouter;
 
     public UserDao() {
-        this(HibernateUtil.getSessionFactory());
+        // SessionFactory запрашивается при первом обращении к БД, а не при создании DAO
+        this(HibernateUtil::getSessionRouter, DEFAULT_BATCH_SIZE, NO_GUARD);
     }
 
     public UserDao(SessionFactory sessionFactory) {
-        this.sessionFactory = sessionFactory;
+        this(sessionFactory, DEFAULT_BATCH_SIZE);
+    }
+
+    public UserDao(SessionFactory sessionFactory, int batchSize) {
+        this(new SessionRouter(sessionFactory), batchSize);
+    }
+
+    public UserDao(SessionRouter router) {
+        this(router, DEFAULT_BATCH_SIZE);
+    }
+
+    public UserDao(SessionRouter router, int batchSize) {
+        this(router, batchSize, NO_GUARD);
+    }
+
+    // writeGuard выполняется в начале каждой пишущей транзакции, до изменения строк; исключение из него откатывает запись
+    UserDao(SessionFactory sessionFactory, Consumer<Session> writeGuard) {
+        this(new SessionRouter(sessionFactory), DEFAULT_BATCH_SIZE, writeGuard);
+    }
+
+    private UserDao(SessionRouter router, int batchSize, Consumer<Session> writeGuard) {
+        this(() -> router, batchSize, writeGuard);
+        router();
+    }
+
+    private UserDao(Supplier<SessionRouter> routerSource, int batchSize, Consumer<Session> writeGuard) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Размер пакета должен быть положительным: " + batchSize);
+        }
+        this.routerSource = routerSource;
+        this.batchSize = batchSize;
+        this.writeGuard = writeGuard;
     }
 
     @Override
     public void save(User user) {
         Transaction transaction = null;
-        try (Session session = sessionFactory.openSession()) {
+        try (Session session = router().primary().openSession()) {
             transaction = session.beginTransaction();
+            writeGuard.accept(session);
             session.persist(user);
+            // Событие фиксируется той же транзакцией, что и сама запись; версия уже назначена при persist
+            session.persist(OutboxEvents.created(user));
             transaction.commit();
+            router().markWrite();
         } catch (Exception e) {
-            if (transaction != null) transaction.rollback();
+            rollbackQuietly(transaction);
             throw new UserPersistenceException("Ошибка при сохранении пользователя", e);
         }
     }
 
+    @Override
+    public void saveAll(List<User> users) {
+        Transaction transaction = null;
+        try (Session session = openBatchSession()) {
+            transaction = session.beginTransaction();
+            writeGuard.accept(session);
+            for (int i = 0; i < users.size(); i++) {
+                User user = users.get(i);
+                session.persist(user);
+                session.persist(OutboxEvents.created(user));
+                flushChunk(session, i + 1);
+            }
+            transaction.commit();
+            router().markWrite();
+        } catch (Exception e) {
+            rollbackQuietly(transaction);
+            throw new UserPersistenceException("Ошибка при пакетном сохранении пользователей", e);
+        }
+    }
+
     @Override
     public Optional<User> findById(Long id) {
-        try (Session session = sessionFactory.openSession()) {
-            return Optional.ofNullable(session.find(User.class, id));
+        try {
+            return read(session -> Optional.ofNullable(session.find(User.class, id)));
         } catch (Exception e) {
             throw new UserQueryException("Ошибка при поиске пользователя по ID: " + id, e);
         }
     }
 
+    @Override
+    public List<User> findAllById(Collection<Long> ids) {
+        // Порядок входного списка сохраняется, повторяющиеся ID загружаются один раз
+        List<Long> distinct = List.copyOf(new LinkedHashSet<>(ids));
+        if (distinct.isEmpty()) {
+            return List.of();
+        }
+        try {
+            return read(session -> session.byMultipleIds(User.class)
+                    // В БД идут только ID, которых нет в контексте персистентности и кэше второго уровня;
+                    // они разбиваются на пакеты, в PostgreSQL каждый пакет — один параметр-массив
+                    .enableSessionCheck(true)
+                    // Без явного CacheMode multi-load не заглядывает в кэш второго уровня
+                    .with(CacheMode.NORMAL)
+                    .enableOrderedReturn(true)
+                    .withBatchSize(multiLoadBatchSize)
+                    .withReadOnly(true)
+                    .multiLoad(distinct).stream()
+                    .filter(Objects::nonNull)
+                    .toList());
+        } catch (Exception e) {
+            throw new UserQueryException("Ошибка при поиске пользователей по списку ID", e);
+        }
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        try {
+            return read(session -> session.bySimpleNaturalId(User.class).loadOptional(email));
+        } catch (Exception e) {
+            throw new UserQueryException("Ошибка при поиске пользователя по email: " + email, e);
+        }
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        try {
+            // После удаления в регионе READ_WRITE остаётся мягкая блокировка, и containsEntity видит её как запись;
+            // find берёт из кэша только действующие записи, а на блокировке идёт в БД
+            if (router().primary().getCache().containsEntity(User.class, id)) {
+                return read(session -> session.find(User.class, id) != null);
+            }
+            return read(session -> session.createSelectionQuery("select u.id from User u where u.id = :id", Long.class)
+                    .setParameter("id", id)
+                    .setMaxResults(1)
+                    .uniqueResultOptional()
+                    .isPresent());
+        } catch (Exception e) {
+            throw new UserQueryException("Ошибка при проверке существования пользователя по ID: " + id, e);
+        }
+    }
+
+    @Override
+    public boolean existsByEmail(String email) {
+        try {
+            // getReference разрешает email в ID через кэш natural id или запрос только по ID, без загрузки сущности
+            return read(session -> session.bySimpleNaturalId(User.class).getReference(email) != null);
+        } catch (Exception e) {
+            throw new UserQueryException("Ошибка при проверке существования пользователя по email: " + email, e);
+        }
+    }
+
     @Override
     public List<User> findAll() {
-        try (Session session = sessionFactory.openSession()) {
-            CriteriaQuery<User> cq = session.getCriteriaBuilder().createQuery(User.class);
-            cq.from(User.class);
-            return session.createQuery(cq).getResultList();
+        try {
+            return read(session -> {
+                CriteriaQuery<User> cq = session.getCriteriaBuilder().createQuery(User.class);
+                cq.from(User.class);
+                return session.createQuery(cq)
+                        .setCacheable(true)
+                        .setCacheRegion(FIND_ALL_CACHE_REGION)
+                        .getResultList();
+            });
         } catch (Exception e) {
             throw new UserQueryException("Ошибка при получении списка пользователей", e);
         }
     }
 
     @Override
-    public void update(User user) {
+    public Page<User> findPage(String cursor, int size) {
+        UserCursor after = cursor == null ? null : UserCursor.decode(cursor);
+        try {
+            List<User> users = read(session -> session
+                    .createQuery(pageQuery(session.getCriteriaBuilder(), User.class, after, root -> root))
+                    .setMaxResults(size + 1)
+                    .setReadOnly(true)
+                    .getResultList());
+            return toPage(users, size, UserCursor::of);
+        } catch (Exception e) {
+            throw new UserQueryException("Ошибка при получении страницы пользователей", e);
+        }
+    }
+
+    @Override
+    public List<User> findByFilter(UserFilter filter) {
+        try {
+            return read(session -> session
+                    .createQuery(filterQuery(session.getCriteriaBuilder(), User.class, filter, root -> root))
+                    .setMaxResults(filter.limit())
+                    .setReadOnly(true)
+                    .getResultList());
+        } catch (Exception e) {
+            throw new UserQueryException("Ошибка при поиске пользователей по фильтру", e);
+        }
+    }
+
+    @Override
+    public Optional<UserView> findViewById(Long id) {
+        try {
+            return readStateless(session -> {
+                CriteriaBuilder cb = session.getCriteriaBuilder();
+                CriteriaQuery<UserView> cq = cb.createQuery(UserView.class);
+                Root<User> root = cq.from(User.class);
+                cq.select(viewOf(cb, root)).where(cb.equal(root.get(User_.id), id));
+                return session.createQuery(cq).uniqueResultOptional();
+            });
+        } catch (Exception e) {
+            throw new UserQueryException("Ошибка при поиске пользователя по ID: " + id, e);
+        }
+    }
+
+    @Override
+    public List<UserView> findAllViews() {
+        try {
+            return readStateless(session -> {
+                CriteriaBuilder cb = session.getCriteriaBuilder();
+                CriteriaQuery<UserView> cq = cb.createQuery(UserView.class);
+                cq.select(viewOf(cb, cq.from(User.class)));
+                return session.createQuery(cq).getResultList();
+            });
+        } catch (Exception e) {
+            throw new UserQueryException("Ошибка при получении списка пользователей", e);
+        }
+    }
+
+    @Override
+    public Page<UserView> findViewPage(String cursor, int size) {
+        UserCursor after = cursor == null ? null : UserCursor.decode(cursor);
+        try {
+            List<UserView> views = readStateless(session -> {
+                CriteriaBuilder cb = session.getCriteriaBuilder();
+                return session.createQuery(pageQuery(cb, UserView.class, after, root -> viewOf(cb, root)))
+                        .setMaxResults(size + 1)
+                        .getResultList();
+            });
+            return toPage(views, size, UserCursor::of);
+        } catch (Exception e) {
+            throw new UserQueryException("Ошибка при получении страницы пользователей", e);
+        }
+    }
+
+    @Override
+    public Stream<User> streamAll(int fetchSize) {
+        StatelessSession session = router().forRead().openStatelessSession();
+        try {
+            // Курсор на стороне PostgreSQL работает только внутри транзакции
+            Transaction transaction = session.beginTransaction();
+            CriteriaBuilder cb = session.getCriteriaBuilder();
+            CriteriaQuery<User> cq = cb.createQuery(User.class);
+            Root<User> root = cq.from(User.class);
+            cq.orderBy(cb.asc(root.get(User_.createdAt)), cb.asc(root.get(User_.id)));
+
+            ScrollableResults<User> results = session.createQuery(cq)
+                    .setFetchSize(fetchSize)
+                    .scroll(ScrollMode.FORWARD_ONLY);
+            Spliterator<User> spliterator = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+                @Override
+                public boolean tryAdvance(Consumer<? super User> action) {
+                    try {
+                        if (!results.next()) return false;
+                    } catch (Exception e) {
+                        throw new UserQueryException("Ошибка при потоковом чтении пользователей", e);
+                    }
+                    action.accept(results.get());
+                    return true;
+                }
+            };
+            return StreamSupport.stream(spliterator, false).onClose(() -> {
+                try {
+                    results.close();
+                    transaction.commit();
+                } finally {
+                    session.close();
+                }
+            });
+        } catch (Exception e) {
+            session.close();
+            throw new UserQueryException("Ошибка при потоковом чтении пользователей", e);
+        }
+    }
+
+    @Override
+    public boolean update(User user) {
         Transaction transaction = null;
-        try (Session session = sessionFactory.openSession()) {
+        try (Session session = router().primary().openSession()) {
             transaction = session.beginTransaction();
-            session.merge(user);
+            writeGuard.accept(session);
+            User merged = mergeExisting(session, user);
+            if (merged == null) {
+                transaction.rollback();
+                return false;
+            }
+            // flush увеличивает версию, и событие несёт состояние уже после изменения
+            session.flush();
+            session.persist(OutboxEvents.updated(merged));
             transaction.commit();
+            router().markWrite();
+            user.setVersion(merged.getVersion());
+            return true;
         } catch (Exception e) {
-            if (transaction != null) transaction.rollback();
-            throw new UserPersistenceException("Ошибка при обновлении пользователя", e);
+            rollbackQuietly(transaction);
+            throw writeFailure("Ошибка при обновлении пользователя", e);
         }
     }
 
     @Override
-    public void delete(User user) {
+    public void updateAll(List<User> users) {
         Transaction transaction = null;
-        try (Session session = sessionFactory.openSession()) {
+        try (Session session = openBatchSession()) {
             transaction = session.beginTransaction();
-            session.remove(user);
+            writeGuard.accept(session);
+            Long[] versions = new Long[users.size()];
+            for (int from = 0; from < users.size(); from += batchSize) {
+                List<User> chunk = users.subList(from, Math.min(from + batchSize, users.size()));
+                List<User> merged = new ArrayList<>(chunk.size());
+                for (User user : chunk) {
+                    User managed = mergeExisting(session, user);
+                    if (managed == null) {
+                        throw new IllegalStateException("Пользователь с ID " + user.getId() + " не найден");
+                    }
+                    merged.add(managed);
+                }
+                // События пакета пишутся после flush, когда версии уже увеличены
+                session.flush();
+                for (int i = 0; i < merged.size(); i++) {
+                    User managed = merged.get(i);
+                    session.persist(OutboxEvents.updated(managed));
+                    versions[from + i] = managed.getVersion();
+                }
+                session.flush();
+                session.clear();
+            }
             transaction.commit();
+            router().markWrite();
+            for (int i = 0; i < users.size(); i++) {
+                users.get(i).setVersion(versions[i]);
+            }
         } catch (Exception e) {
-            if (transaction != null) transaction.rollback();
-            throw new UserPersistenceException("Ошибка при удалении пользователя", e);
+            rollbackQuietly(transaction);
+            throw writeFailure("Ошибка при пакетном обновлении пользователей", e);
+        }
+    }
+
+    @Override
+    public boolean delete(User user) {
+        return delete(user.getId(), user.getVersion());
+    }
+
+    @Override
+    public boolean deleteById(Long id) {
+        return delete(id, null);
+    }
+
+    @Override
+    public void deleteAllById(List<Long> ids) {
+        Transaction transaction = null;
+        try (Session session = openBatchSession()) {
+            transaction = session.beginTransaction();
+            writeGuard.accept(session);
+            for (int from = 0; from < ids.size(); from += batchSize) {
+                List<Long> chunk = ids.subList(from, Math.min(from + batchSize, ids.size()));
+                // Блокировка строк гарантирует, что события пишутся ровно для тех пользователей, которых удалит запрос ниже
+                List<Object[]> existing = session.createSelectionQuery(
+                                "select u.id, u.version from User u where u.id in :ids", Object[].class)
+                        .setParameterList("ids", chunk)
+                        .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                        .getResultList();
+                session.createMutationQuery("delete from User u where u.id in :ids")
+                        .setParameterList("ids", chunk)
+                        .executeUpdate();
+                for (Object[] row : existing) {
+                    session.persist(OutboxEvents.deleted((Long) row[0], (Long) row[1]));
+                }
+                session.flush();
+                session.clear();
+            }
+            transaction.commit();
+            router().markWrite();
+        } catch (Exception e) {
+            rollbackQuietly(transaction);
+            throw new UserPersistenceException("Ошибка при пакетном удалении пользователей", e);
+        }
+    }
+
+    private boolean delete(Long id, Long expectedVersion) {
+        Transaction transaction = null;
+        try (Session session = router().primary().openSession()) {
+            transaction = session.beginTransaction();
+            writeGuard.accept(session);
+            User managed = session.find(User.class, id);
+            if (managed == null) {
+                transaction.rollback();
+                return false;
+            }
+            if (expectedVersion != null && !expectedVersion.equals(managed.getVersion())) {
+                throw new StaleObjectStateException(User.class.getName(), id);
+            }
+            session.remove(managed);
+            // ID события выдаётся только после того, как DELETE заблокировал строку
+            session.flush();
+            session.persist(OutboxEvents.deleted(id, managed.getVersion()));
+            transaction.commit();
+            router().markWrite();
+            return true;
+        } catch (Exception e) {
+            rollbackQuietly(transaction);
+            throw writeFailure("Ошибка при удалении пользователя", e);
+        }
+    }
+
+    private User mergeExisting(Session session, User user) {
+        if (user.getId() == null) {
+            return null;
+        }
+        User managed = session.find(User.class, user.getId());
+        if (managed == null) {
+            return null;
+        }
+        if (user.getVersion() == null) {
+            user.setVersion(managed.getVersion());
+        }
+        return session.merge(user);
+    }
+
+    @Override
+    public List<UserView> findViewsByFilter(UserFilter filter) {
+        try {
+            return readStateless(session -> {
+                CriteriaBuilder cb = session.getCriteriaBuilder();
+                return session.createQuery(filterQuery(cb, UserView.class, filter, root -> viewOf(cb, root)))
+                        .setMaxResults(filter.limit())
+                        .getResultList();
+            });
+        } catch (Exception e) {
+            throw new UserQueryException("Ошибка при поиске пользователей по фильтру", e);
+        }
+    }
+
+    private <R> R read(Function<Session, R> query) {
+        return read(SessionFactory::openSession, query);
+    }
+
+    private <R> R readStateless(Function<StatelessSession, R> query) {
+        // Проекции не попадают в контекст персистентности, поэтому сессия без него дешевле
+        return read(SessionFactory::openStatelessSession, query);
+    }
+
+    private <S extends SharedSessionContract, R> R read(Function<SessionFactory, S> opener, Function<S, R> query) {
+        SessionRouter sessionRouter = router();
+        SessionFactory factory = sessionRouter.forRead();
+        try (S session = opener.apply(factory)) {
+            return query.apply(session);
+        } catch (RuntimeException e) {
+            if (factory == sessionRouter.primary() || !isConnectionFailure(e)) throw e;
+            // Реплика недоступна: исключаем её на время и повторяем чтение на primary
+            sessionRouter.reportFailure(factory);
+        }
+        try (S session = opener.apply(sessionRouter.primary())) {
+            return query.apply(session);
+        }
+    }
+
+    private static int multiLoadBatchSize(SessionFactory sessionFactory) {
+        Object configured = sessionFactory.getProperties().get(AvailableSettings.DEFAULT_BATCH_FETCH_SIZE);
+        int size = configured == null ? 0 : Integer.parseInt(configured.toString().trim());
+        return size > 0 ? size : DEFAULT_MULTI_LOAD_BATCH_SIZE;
+    }
+
+    private static <R> CriteriaQuery<R> pageQuery(CriteriaBuilder cb, Class<R> type, UserCursor after,
+                                                  Function<Root<User>, Selection<? extends R>> selection) {
+        CriteriaQuery<R> cq = cb.createQuery(type);
+        Root<User> root = cq.from(User.class);
+        cq.select(selection.apply(root));
+        if (after != null) {
+            cq.where(cb.or(
+                    cb.greaterThan(root.get(User_.createdAt), after.createdAt()),
+                    cb.and(
+                            cb.equal(root.get(User_.createdAt), after.createdAt()),
+                            cb.greaterThan(root.get(User_.id), after.id())
+                    )
+            ));
+        }
+        cq.orderBy(cb.asc(root.get(User_.createdAt)), cb.asc(root.get(User_.id)));
+        return cq;
+    }
+
+    private static <R> CriteriaQuery<R> filterQuery(CriteriaBuilder cb, Class<R> type, UserFilter filter,
+                                                    Function<Root<User>, Selection<? extends R>> selection) {
+        CriteriaQuery<R> cq = cb.createQuery(type);
+        Root<User> root = cq.from(User.class);
+        cq.select(selection.apply(root));
+
+        // Выражения совпадают с индексами из V2__add_user_search_indexes.sql, иначе PostgreSQL их не использует
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter.namePrefix() != null) {
+            predicates.add(cb.like(cb.lower(root.get(User_.name)),
+                    escapeLike(filter.namePrefix().toLowerCase(Locale.ROOT)) + "%", LIKE_ESCAPE));
+        }
+        if (filter.emailDomain() != null) {
+            predicates.add(cb.like(cb.lower(root.get(User_.email)),
+                    "%@" + escapeLike(filter.emailDomain().toLowerCase(Locale.ROOT)), LIKE_ESCAPE));
+        }
+        if (filter.minAge() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(root.get(User_.age), filter.minAge()));
+        }
+        if (filter.maxAge() != null) {
+            predicates.add(cb.lessThanOrEqualTo(root.get(User_.age), filter.maxAge()));
+        }
+        if (filter.createdFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(root.get(User_.createdAt), filter.createdFrom()));
+        }
+        if (filter.createdTo() != null) {
+            predicates.add(cb.lessThan(root.get(User_.createdAt), filter.createdTo()));
+        }
+        cq.where(predicates.toArray(Predicate[]::new));
+
+        Expression<?> sortKey = switch (filter.sortBy()) {
+            case CREATED_AT -> root.get(User_.createdAt);
+            case NAME -> root.get(User_.name);
+            case EMAIL -> root.get(User_.email);
+            case AGE -> root.get(User_.age);
+        };
+        // ID в конце сортировки делает порядок детерминированным при равных значениях
+        cq.orderBy(order(cb, sortKey, filter.descending()), order(cb, root.get(User_.id), filter.descending()));
+        return cq;
+    }
+
+    private static Order order(CriteriaBuilder cb, Expression<?> expression, boolean descending) {
+        return descending ? cb.desc(expression) : cb.asc(expression);
+    }
+
+    static String escapeLike(String value) {
+        StringBuilder escaped = new StringBuilder(value.length() + 4);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                escaped.append(LIKE_ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+
+    private static Selection<UserView> viewOf(CriteriaBuilder cb, Root<User> root) {
+        return cb.construct(UserView.class,
+                root.get(User_.id),
+                root.get(User_.name),
+                root.get(User_.email),
+                root.get(User_.age),
+                root.get(User_.createdAt));
+    }
+
+    private static <R> Page<R> toPage(List<R> rows, int size, Function<R, UserCursor> cursorOf) {
+        if (rows.size() <= size) {
+            return new Page<>(rows, null);
+        }
+        List<R> items = rows.subList(0, size);
+        return new Page<>(List.copyOf(items), cursorOf.apply(items.get(size - 1)).encode());
+    }
+
+    private static boolean isConnectionFailure(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof JDBCConnectionException || cause instanceof SQLTransientConnectionException) {
+                return true;
+            }
+            if (cause instanceof SQLException sql && sql.getSQLState() != null && sql.getSQLState().startsWith("08")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void rollbackQuietly(Transaction transaction) {
+        // Сессия к этому моменту уже закрыта, незавершённую транзакцию откатывает пул при возврате соединения
+        if (transaction == null || !transaction.isActive()) return;
+        try {
+            transaction.rollback();
+        } catch (RuntimeException ignored) {
+        }
+    }
+
+    private RuntimeException writeFailure(String message, Exception e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof OptimisticLockException || cause instanceof StaleStateException) {
+                return new UserConcurrentModificationException("Пользователь был изменён другой транзакцией", e);
+            }
+        }
+        return new UserPersistenceException(message, e);
+    }
+
+    // Маршрутизатор не меняется после загрузки, поэтому источник опрашивается только до первого успешного ответа;
+    // тогда же из настроек читается размер пакета multi-load. DAO с готовым маршрутизатором делает это в конструкторе
+    private SessionRouter router() {
+        SessionRouter router = resolvedRouter;
+        if (router == null) {
+            router = routerSource.get();
+            multiLoadBatchSize = multiLoadBatchSize(router.primary());
+            resolvedRouter = router;
+        }
+        return router;
+    }
+
+    private Session openBatchSession() {
+        Session session = router().primary().openSession();
+        session.setJdbcBatchSize(batchSize);
+        return session;
+    }
+
+    private void flushChunk(Session session, int processed) {
+        if (processed % batchSize == 0) {
+            session.flush();
+            session.clear();
         }
     }
-}
\ No newline at end of file
+}
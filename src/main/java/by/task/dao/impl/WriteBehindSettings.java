@@ -0,0 +1,13 @@
+package by.task.dao.impl;
+
+import java.time.Duration;
+
+public record WriteBehindSettings(int capacity, int flushSize, Duration flushInterval) {
+    public static final WriteBehindSettings DEFAULTS = new WriteBehindSettings(10_000, UserDao.DEFAULT_BATCH_SIZE * 10, Duration.ofMillis(200));
+
+    public WriteBehindSettings {
+        if (capacity <= 0 || flushSize <= 0 || flushInterval.isNegative() || flushInterval.isZero()) {
+            throw new IllegalArgumentException("Некорректные параметры отложенной записи");
+        }
+    }
+}
@@ -0,0 +1,352 @@
+package by.task.dao.impl;
+
+import by.task.dao.Page;
+import by.task.dao.UserFilter;
+import by.task.dao.UserLookupDao;
+import by.task.dao.UserViewDao;
+import by.task.exceptions.dao.UserConcurrentModificationException;
+import by.task.models.User;
+import by.task.models.UserView;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+// Обновления копятся в буфере и пишутся пакетами; изменения без версии накладываются на уже ожидающее изменение
+// того же пользователя и пишутся одной записью. Оптимистическая проверка сохраняется: запись идёт с версией,
+// ожидаемой первым изменением в буфере, а второе изменение с версией получает конфликт, как и без буфера
+public class WriteBehindUserDao implements UserLookupDao, UserViewDao, AutoCloseable {
+    private final UserLookupDao delegate;
+    private final UserViewDao views;
+    private final WriteBehindSettings settings;
+    private final Map<Long, Pending> pending = new LinkedHashMap<>();
+    private final Map<Long, User> inFlight = new ConcurrentHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final Condition flushDue = lock.newCondition();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private Thread flusher;
+    private boolean closed;
+
+    public WriteBehindUserDao(UserLookupDao delegate) {
+        this(delegate, WriteBehindSettings.DEFAULTS);
+    }
+
+    public WriteBehindUserDao(UserLookupDao delegate, WriteBehindSettings settings) {
+        this.delegate = delegate;
+        this.views = UserViewDao.of(delegate);
+        this.settings = settings;
+    }
+
+    public void start() {
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Буфер отложенной записи закрыт");
+            }
+            if (flusher == null) {
+                flusher = Thread.ofPlatform().name("user-write-behind").daemon().start(this::runFlusher);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void save(User user) {
+        delegate.save(user);
+    }
+
+    @Override
+    public void saveAll(List<User> users) {
+        delegate.saveAll(users);
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        User buffered = buffered(id);
+        return buffered != null ? Optional.of(buffered) : delegate.findById(id);
+    }
+
+    @Override
+    public List<User> findAllById(Collection<Long> ids) {
+        return delegate.findAllById(ids).stream()
+                .map(user -> {
+                    User buffered = buffered(user.getId());
+                    return buffered != null ? buffered : user;
+                })
+                .toList();
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        return delegate.findByEmail(email);
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return delegate.existsById(id);
+    }
+
+    @Override
+    public boolean existsByEmail(String email) {
+        return delegate.existsByEmail(email);
+    }
+
+    @Override
+    public List<User> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Page<User> findPage(String cursor, int size) {
+        return delegate.findPage(cursor, size);
+    }
+
+    @Override
+    public List<User> findByFilter(UserFilter filter) {
+        return delegate.findByFilter(filter);
+    }
+
+    @Override
+    public Stream<User> streamAll(int fetchSize) {
+        return delegate.streamAll(fetchSize);
+    }
+
+    // Как и findById, видит изменения из буфера
+    @Override
+    public Optional<UserView> findViewById(Long id) {
+        return findById(id).map(UserView::of);
+    }
+
+    @Override
+    public List<UserView> findAllViews() {
+        return views.findAllViews();
+    }
+
+    @Override
+    public Page<UserView> findViewPage(String cursor, int size) {
+        return views.findViewPage(cursor, size);
+    }
+
+    @Override
+    public List<UserView> findViewsByFilter(UserFilter filter) {
+        return views.findViewsByFilter(filter);
+    }
+
+    // Ждёт, пока изменение будет записано вместе с ближайшим пакетом: вызывающий получает те же
+    // «не найден» и конфликт версий, что и без буфера. Не дожидаться записи позволяет updateAsync
+    @Override
+    public boolean update(User user) {
+        try {
+            return updateAsync(user).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+
+    @Override
+    public CompletableFuture<Boolean> updateAsync(User user) {
+        CompletableFuture<Boolean> ack = new CompletableFuture<>();
+        User snapshot = new User(user);
+
+        lock.lock();
+        try {
+            if (flusher == null && !closed) {
+                throw new IllegalStateException("Буфер отложенной записи не запущен");
+            }
+            Pending entry = pending.get(user.getId());
+            while (entry == null && pending.size() >= settings.capacity() && !closed) {
+                notFull.await();
+                entry = pending.get(user.getId());
+            }
+            if (closed) {
+                throw new IllegalStateException("Буфер отложенной записи закрыт");
+            }
+            if (entry == null) {
+                entry = new Pending();
+                pending.put(user.getId(), entry);
+            } else if (snapshot.getVersion() == null) {
+                // Без версии изменение не проверяется и просто накладывается на ожидаемую версию буфера
+                snapshot.setVersion(entry.user.getVersion());
+            } else {
+                // Ожидаемую версию уже заняло изменение в буфере: после его записи версия в БД станет другой
+                ack.completeExceptionally(new UserConcurrentModificationException(
+                        "Пользователь был изменён другой транзакцией", null));
+                return ack;
+            }
+            entry.user = snapshot;
+            entry.acks.add(ack);
+            entry.callers.add(user);
+            if (pending.size() >= settings.flushSize()) {
+                flushDue.signal();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            ack.completeExceptionally(e);
+        } finally {
+            lock.unlock();
+        }
+        return ack;
+    }
+
+    @Override
+    public void updateAll(List<User> users) {
+        delegate.updateAll(users);
+    }
+
+    @Override
+    public boolean delete(User user) {
+        discard(user.getId());
+        return delegate.delete(user);
+    }
+
+    @Override
+    public boolean deleteById(Long id) {
+        discard(id);
+        return delegate.deleteById(id);
+    }
+
+    @Override
+    public void deleteAllById(List<Long> ids) {
+        ids.forEach(this::discard);
+        delegate.deleteAllById(ids);
+    }
+
+    public int getPendingCount() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void flush() {
+        writeLock.lock();
+        try {
+            write(drain());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        Thread started;
+        lock.lock();
+        try {
+            if (closed) return;
+            closed = true;
+            flushDue.signal();
+            notFull.signalAll();
+            started = flusher;
+        } finally {
+            lock.unlock();
+        }
+        if (started != null) {
+            try {
+                started.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+    }
+
+    private void runFlusher() {
+        long intervalNanos = settings.flushInterval().toNanos();
+        while (true) {
+            lock.lock();
+            try {
+                if (!closed && pending.size() < settings.flushSize()) {
+                    flushDue.awaitNanos(intervalNanos);
+                }
+                if (closed && pending.isEmpty()) return;
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                lock.unlock();
+            }
+            flush();
+        }
+    }
+
+    private List<Pending> drain() {
+        lock.lock();
+        try {
+            List<Pending> batch = new ArrayList<>(pending.values());
+            batch.forEach(entry -> inFlight.put(entry.user.getId(), entry.user));
+            pending.clear();
+            notFull.signalAll();
+            return batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void write(List<Pending> batch) {
+        if (batch.isEmpty()) return;
+        try {
+            delegate.updateAll(batch.stream().map(entry -> entry.user).toList());
+            batch.forEach(entry -> entry.complete(true));
+        } catch (RuntimeException batchFailure) {
+            // Пакет откатился целиком: пишем по одному, чтобы ошибка одной записи не задела остальные
+            for (Pending entry : batch) {
+                try {
+                    entry.complete(delegate.update(entry.user));
+                } catch (RuntimeException e) {
+                    entry.acks.forEach(ack -> ack.completeExceptionally(e));
+                }
+            }
+        } finally {
+            batch.forEach(entry -> inFlight.remove(entry.user.getId(), entry.user));
+        }
+    }
+
+    private User buffered(Long id) {
+        User user;
+        lock.lock();
+        try {
+            Pending entry = pending.get(id);
+            user = entry != null ? entry.user : inFlight.get(id);
+        } finally {
+            lock.unlock();
+        }
+        return user == null ? null : new User(user);
+    }
+
+    private void discard(Long id) {
+        Pending entry;
+        lock.lock();
+        try {
+            entry = pending.remove(id);
+            if (entry != null) notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        if (entry != null) entry.complete(false);
+    }
+
+    private static final class Pending {
+        private User user;
+        private final List<CompletableFuture<Boolean>> acks = new ArrayList<>(1);
+        private final List<User> callers = new ArrayList<>(1);
+
+        // Как и после UserDao.update, у записанных объектов вызывающих — новая версия строки
+        private void complete(boolean written) {
+            if (written) callers.forEach(caller -> caller.setVersion(user.getVersion()));
+            acks.forEach(ack -> ack.complete(written));
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package by.task.exceptions.dao;
+
+import java.time.Duration;
+
+public class DaoUnavailableException extends DaoException {
+    private final Duration retryAfter;
+
+    public DaoUnavailableException(String message, Duration retryAfter) {
+        super(message, null);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
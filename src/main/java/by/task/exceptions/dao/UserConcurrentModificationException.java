@@ -0,0 +1,7 @@
+package by.task.exceptions.dao;
+
+public class UserConcurrentModificationException extends DaoException {
+    public UserConcurrentModificationException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,7 @@
+package by.task.exceptions.outbox;
+
+public class ChangeDeliveryException extends RuntimeException {
+    public ChangeDeliveryException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,7 @@
+package by.task.exceptions.services;
+
+public class UserAlreadyExistsException extends UserServiceException {
+    public UserAlreadyExistsException(String email) {
+        super("Пользователь с email " + email + " уже существует");
+    }
+}
\ No newline at end of file
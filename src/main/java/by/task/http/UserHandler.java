@@ -0,0 +1,237 @@
+package by.task.http;
+
+import by.task.dao.UserFilter;
+import by.task.exceptions.dao.DaoUnavailableException;
+import by.task.exceptions.dao.UserConcurrentModificationException;
+import by.task.exceptions.services.InvalidUserException;
+import by.task.exceptions.services.UserAlreadyExistsException;
+import by.task.exceptions.services.UserNotFoundException;
+import by.task.models.User;
+import by.task.services.UserService;
+import by.task.util.LastWriteScope;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+class UserHandler implements HttpHandler {
+    static final String BASE_PATH = "/users";
+    // Момент последней записи клиента (мс от эпохи): возвращается в ответах, клиент передаёт его в следующих запросах,
+    // чтобы в течение db.readYourWritesMillis читать с primary, а не с отстающей реплики
+    static final String LAST_WRITE_HEADER = "X-Last-Write";
+    static final long MAX_LAST_WRITE_SKEW_MILLIS = 5_000;
+    private static final int DEFAULT_PAGE_SIZE = 20;
+
+    private final UserService userService;
+
+    UserHandler(UserService userService) {
+        this.userService = userService;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try (exchange; LastWriteScope ignored = LastWriteScope.open(lastWrite(exchange))) {
+            try {
+                route(exchange);
+            } catch (InvalidUserException e) {
+                send(exchange, 400, UserJson.error(e.getMessage()));
+            } catch (UserNotFoundException e) {
+                send(exchange, 404, UserJson.error(e.getMessage()));
+            } catch (UserAlreadyExistsException | UserConcurrentModificationException e) {
+                send(exchange, 409, UserJson.error(e.getMessage()));
+            } catch (DaoUnavailableException e) {
+                // Автомат отключения разомкнут: клиенту сообщается, когда имеет смысл повторить запрос
+                long seconds = Math.max(1, (e.getRetryAfter().toMillis() + 999) / 1000);
+                exchange.getResponseHeaders().set("Retry-After", String.valueOf(seconds));
+                send(exchange, 503, UserJson.error(e.getMessage()));
+            } catch (RuntimeException e) {
+                send(exchange, 500, UserJson.error(e.getMessage()));
+            }
+        }
+    }
+
+    private void route(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getPath();
+        if (!path.equals(BASE_PATH) && !path.startsWith(BASE_PATH + "/")) {
+            send(exchange, 404, UserJson.error("Ресурс " + path + " не найден"));
+            return;
+        }
+        String rest = path.length() > BASE_PATH.length() ? path.substring(BASE_PATH.length() + 1) : "";
+
+        if (rest.isEmpty()) {
+            switch (method) {
+                case "GET" -> getPage(exchange);
+                case "POST" -> create(exchange);
+                default -> methodNotAllowed(exchange, "GET, POST");
+            }
+        } else if (rest.equals("search")) {
+            if (method.equals("GET")) {
+                search(exchange);
+            } else {
+                methodNotAllowed(exchange, "GET");
+            }
+        } else if (rest.equals("bulk")) {
+            if (method.equals("POST")) {
+                createAll(exchange);
+            } else {
+                methodNotAllowed(exchange, "POST");
+            }
+        } else {
+            Long id = parseId(rest);
+            switch (method) {
+                case "GET" -> get(exchange, id);
+                case "PUT" -> update(exchange, id);
+                case "DELETE" -> delete(exchange, id);
+                default -> methodNotAllowed(exchange, "GET, PUT, DELETE");
+            }
+        }
+    }
+
+    private void get(HttpExchange exchange, Long id) throws IOException {
+        User user = userService.getUserById(id).orElseThrow(() -> new UserNotFoundException(id));
+        send(exchange, 200, UserJson.user(user));
+    }
+
+    private void getPage(HttpExchange exchange) throws IOException {
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        int size = query.containsKey("size") ? parseInt(query.get("size"), "size") : DEFAULT_PAGE_SIZE;
+        send(exchange, 200, UserJson.page(userService.getUsersPage(query.get("cursor"), size)));
+    }
+
+    private void search(HttpExchange exchange) throws IOException {
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        send(exchange, 200, UserJson.views(userService.findUserViews(parseFilter(query))));
+    }
+
+    private void create(HttpExchange exchange) throws IOException {
+        User user;
+        try (InputStream body = exchange.getRequestBody()) {
+            user = UserJson.newUser(UserJson.readObject(body));
+        }
+        userService.saveUser(user);
+        exchange.getResponseHeaders().set("Location", BASE_PATH + "/" + user.getId());
+        send(exchange, 201, UserJson.user(user));
+    }
+
+    private void createAll(HttpExchange exchange) throws IOException {
+        List<User> users;
+        try (InputStream body = exchange.getRequestBody()) {
+            users = UserJson.readUsers(body);
+        }
+        userService.saveUsers(users);
+        send(exchange, 201, UserJson.saved(users));
+    }
+
+    private void update(HttpExchange exchange, Long id) throws IOException {
+        JsonNode changes;
+        try (InputStream body = exchange.getRequestBody()) {
+            changes = UserJson.readObject(body);
+        }
+        User user = userService.getUserById(id).orElseThrow(() -> new UserNotFoundException(id));
+        UserJson.applyChanges(changes, user);
+        userService.updateUser(user);
+        send(exchange, 200, UserJson.user(user));
+    }
+
+    private void delete(HttpExchange exchange, Long id) throws IOException {
+        userService.deleteUserById(id);
+        setLastWrite(exchange);
+        exchange.sendResponseHeaders(204, -1);
+    }
+
+    private void methodNotAllowed(HttpExchange exchange, String allowed) throws IOException {
+        exchange.getResponseHeaders().set("Allow", allowed);
+        send(exchange, 405, UserJson.error("Метод " + exchange.getRequestMethod() + " не поддерживается"));
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        setLastWrite(exchange);
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    // Некорректный токен не мешает ответить на запрос: чтение просто не привязывается к primary
+    // Токен из будущего (дальше допустимого расхождения часов) не принимается: иначе он возвращался бы клиенту
+    // в каждом ответе и перекрывал отметки его настоящих записей
+    private static long lastWrite(HttpExchange exchange) {
+        String value = exchange.getRequestHeaders().getFirst(LAST_WRITE_HEADER);
+        if (value == null) return 0;
+        try {
+            long lastWrite = Long.parseLong(value.trim());
+            return lastWrite > 0 && lastWrite <= System.currentTimeMillis() + MAX_LAST_WRITE_SKEW_MILLIS ? lastWrite : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static void setLastWrite(HttpExchange exchange) {
+        long lastWrite = LastWriteScope.currentLastWrite();
+        if (lastWrite > 0) {
+            exchange.getResponseHeaders().set(LAST_WRITE_HEADER, String.valueOf(lastWrite));
+        }
+    }
+
+    private static Long parseId(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new InvalidUserException("Некорректный ID пользователя: " + value);
+        }
+    }
+
+    private static int parseInt(String value, String name) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new InvalidUserException("Некорректное значение параметра " + name + ": " + value);
+        }
+    }
+
+    private static UserFilter parseFilter(Map<String, String> query) {
+        try {
+            UserFilter.SortField sortBy = query.containsKey("sort")
+                    ? UserFilter.SortField.valueOf(query.get("sort").toUpperCase(Locale.ROOT))
+                    : UserFilter.SortField.CREATED_AT;
+            return new UserFilter(
+                    query.get("name"),
+                    query.get("emailDomain"),
+                    query.containsKey("minAge") ? parseInt(query.get("minAge"), "minAge") : null,
+                    query.containsKey("maxAge") ? parseInt(query.get("maxAge"), "maxAge") : null,
+                    query.containsKey("createdFrom") ? LocalDateTime.parse(query.get("createdFrom")) : null,
+                    query.containsKey("createdTo") ? LocalDateTime.parse(query.get("createdTo")) : null,
+                    sortBy,
+                    "desc".equalsIgnoreCase(query.get("order")),
+                    query.containsKey("limit") ? parseInt(query.get("limit"), "limit") : UserFilter.DEFAULT_LIMIT
+            );
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidUserException("Некорректный фильтр: " + e.getMessage());
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) return params;
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            params.put(key, value);
+        }
+        return params;
+    }
+}
@@ -0,0 +1,41 @@
+package by.task.http;
+
+import by.task.services.UserService;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class UserHttpServer implements AutoCloseable {
+    public static final int DEFAULT_PORT = 8080;
+    public static final int DEFAULT_BACKLOG = 1024;
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public UserHttpServer(UserService userService, int port) throws IOException {
+        this(userService, new InetSocketAddress(port), DEFAULT_BACKLOG);
+    }
+
+    public UserHttpServer(UserService userService, InetSocketAddress address, int backlog) throws IOException {
+        this.server = HttpServer.create(address, backlog);
+        this.server.createContext(UserHandler.BASE_PATH, new UserHandler(userService));
+        this.server.setExecutor(executor);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+    }
+}
@@ -0,0 +1,188 @@
+package by.task.http;
+
+import by.task.dao.Page;
+import by.task.exceptions.services.InvalidUserException;
+import by.task.models.User;
+import by.task.models.UserView;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+final class UserJson {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final JsonFactory FACTORY = MAPPER.getFactory();
+    private static final int USER_SIZE_HINT = 160;
+
+    private UserJson() {
+        throw new UnsupportedOperationException("Это утилитарный класс, экземпляры создавать нельзя!");
+    }
+
+    static byte[] user(User user) {
+        return write(USER_SIZE_HINT, generator -> writeUser(generator, user));
+    }
+
+    static byte[] page(Page<User> page) {
+        return write(USER_SIZE_HINT * (page.items().size() + 1), generator -> {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("items");
+            for (User user : page.items()) {
+                writeUser(generator, user);
+            }
+            generator.writeEndArray();
+            generator.writeStringField("nextCursor", page.nextCursor());
+            generator.writeEndObject();
+        });
+    }
+
+    static byte[] views(List<UserView> views) {
+        return write(USER_SIZE_HINT * (views.size() + 1), generator -> {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("items");
+            for (UserView view : views) {
+                generator.writeStartObject();
+                writeNumber(generator, "id", view.id());
+                generator.writeStringField("name", view.name());
+                generator.writeStringField("email", view.email());
+                writeNumber(generator, "age", view.age());
+                generator.writeStringField("created_at", view.createdAt() == null ? null : view.createdAt().toString());
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        });
+    }
+
+    static byte[] saved(List<User> users) {
+        return write(32 + users.size() * 12, generator -> {
+            generator.writeStartObject();
+            generator.writeNumberField("saved", users.size());
+            generator.writeArrayFieldStart("ids");
+            for (User user : users) {
+                if (user.getId() == null) {
+                    generator.writeNull();
+                } else {
+                    generator.writeNumber(user.getId());
+                }
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        });
+    }
+
+    static byte[] error(String message) {
+        return write(64, generator -> {
+            generator.writeStartObject();
+            generator.writeStringField("error", message);
+            generator.writeEndObject();
+        });
+    }
+
+    static JsonNode readObject(InputStream body) throws IOException {
+        JsonNode node = readTree(body);
+        if (!node.isObject()) {
+            throw new InvalidUserException("Ожидался JSON-объект пользователя");
+        }
+        return node;
+    }
+
+    static List<User> readUsers(InputStream body) throws IOException {
+        JsonNode node = readTree(body);
+        if (!node.isArray()) {
+            throw new InvalidUserException("Ожидался JSON-массив пользователей");
+        }
+        List<User> users = new ArrayList<>(node.size());
+        for (JsonNode item : node) {
+            if (!item.isObject()) {
+                throw new InvalidUserException("Ожидался JSON-объект пользователя");
+            }
+            users.add(newUser(item));
+        }
+        return users;
+    }
+
+    static User newUser(JsonNode node) {
+        return new User(textOf(node, "name"), textOf(node, "email"), ageOf(node));
+    }
+
+    static void applyChanges(JsonNode node, User user) {
+        if (node.hasNonNull("name")) user.setName(node.get("name").asText());
+        if (node.hasNonNull("email")) user.setEmail(node.get("email").asText());
+        if (node.hasNonNull("age")) user.setAge(ageOf(node));
+        if (node.hasNonNull("version")) {
+            JsonNode version = node.get("version");
+            if (!version.canConvertToLong()) {
+                throw new InvalidUserException("Некорректная версия: " + version);
+            }
+            user.setVersion(version.longValue());
+        }
+    }
+
+    private static void writeUser(JsonGenerator generator, User user) throws IOException {
+        generator.writeStartObject();
+        writeNumber(generator, "id", user.getId());
+        generator.writeStringField("name", user.getName());
+        generator.writeStringField("email", user.getEmail());
+        writeNumber(generator, "age", user.getAge());
+        generator.writeStringField("created_at", user.getCreatedAt() == null ? null : user.getCreatedAt().toString());
+        writeNumber(generator, "version", user.getVersion());
+        generator.writeEndObject();
+    }
+
+    private static void writeNumber(JsonGenerator generator, String field, Number value) throws IOException {
+        if (value == null) {
+            generator.writeNullField(field);
+        } else {
+            generator.writeNumberField(field, value.longValue());
+        }
+    }
+
+    private static Integer ageOf(JsonNode node) {
+        JsonNode age = node.get("age");
+        if (age == null || age.isNull()) return null;
+        if (!age.canConvertToInt()) {
+            throw new InvalidUserException("Некорректный возраст: " + age);
+        }
+        return age.intValue();
+    }
+
+    private static String textOf(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    private static JsonNode readTree(InputStream body) throws IOException {
+        try {
+            JsonNode node = MAPPER.readTree(body);
+            if (node == null || node.isMissingNode()) {
+                throw new InvalidUserException("Пустое тело запроса");
+            }
+            return node;
+        } catch (JsonProcessingException e) {
+            throw new InvalidUserException("Некорректный JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private static byte[] write(int sizeHint, JsonBody body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(sizeHint);
+        try (JsonGenerator generator = FACTORY.createGenerator(out)) {
+            body.write(generator);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    @FunctionalInterface
+    private interface JsonBody {
+        void write(JsonGenerator generator) throws IOException;
+    }
+}
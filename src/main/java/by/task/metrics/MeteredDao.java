@@ -0,0 +1,47 @@
+package by.task.metrics;
+
+import by.task.dao.Dao;
+import org.apache.commons.lang3.ClassUtils;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.stream.Stream;
+
+public final class MeteredDao {
+    private MeteredDao() {
+        throw new UnsupportedOperationException("Это утилитарный класс, экземпляры создавать нельзя!");
+    }
+
+    // D — интерфейс DAO (например, UserLookupDao), а не класс реализации: прокси реализует только интерфейсы
+    @SuppressWarnings("unchecked")
+    public static <D extends Dao<?, ?>> D wrap(D target, MetricsRegistry registry, String prefix) {
+        return (D) Proxy.newProxyInstance(
+                Dao.class.getClassLoader(),
+                // Прокси сохраняет все интерфейсы цели, чтобы не терять, например, UserViewDao
+                ClassUtils.getAllInterfaces(target.getClass()).toArray(Class<?>[]::new),
+                (proxy, method, args) -> {
+                    if (method.getDeclaringClass() == Object.class) {
+                        return method.invoke(target, args);
+                    }
+                    String operation = prefix + "." + method.getName();
+                    if (method.getReturnType() == Stream.class) {
+                        return registry.timeStream(operation, () -> (Stream<Object>) invoke(target, method, args));
+                    }
+                    return registry.time(operation, () -> invoke(target, method, args));
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) throw runtime;
+            if (cause instanceof Error error) throw error;
+            throw new IllegalStateException(cause);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package by.task.metrics;
+
+import by.task.dao.Page;
+import by.task.dao.UserFilter;
+import by.task.dao.UserLookupDao;
+import by.task.models.User;
+import by.task.models.UserView;
+import by.task.services.FoundUsers;
+import by.task.services.UserService;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+public class MeteredUserService extends UserService {
+    private final MetricsRegistry registry;
+
+    public MeteredUserService(UserLookupDao userDao, MetricsRegistry registry) {
+        super(userDao);
+        this.registry = registry;
+    }
+
+    @Override
+    public void saveUser(User user) {
+        registry.run("service.saveUser", () -> super.saveUser(user));
+    }
+
+    @Override
+    public void saveUsers(List<User> users) {
+        registry.run("service.saveUsers", () -> super.saveUsers(users));
+    }
+
+    @Override
+    public Optional<User> getUserById(Long id) {
+        return registry.time("service.getUserById", () -> super.getUserById(id));
+    }
+
+    @Override
+    public FoundUsers getUsersByIds(Collection<Long> ids) {
+        return registry.time("service.getUsersByIds", () -> super.getUsersByIds(ids));
+    }
+
+    @Override
+    public Optional<User> getUserByEmail(String email) {
+        return registry.time("service.getUserByEmail", () -> super.getUserByEmail(email));
+    }
+
+    @Override
+    public Optional<UserView> getUserViewById(Long id) {
+        return registry.time("service.getUserViewById", () -> super.getUserViewById(id));
+    }
+
+    @Override
+    public List<User> getAllUsers() {
+        return registry.time("service.getAllUsers", super::getAllUsers);
+    }
+
+    @Override
+    public Page<User> getUsersPage(String cursor, int size) {
+        return registry.time("service.getUsersPage", () -> super.getUsersPage(cursor, size));
+    }
+
+    @Override
+    public List<UserView> getAllUserViews() {
+        return registry.time("service.getAllUserViews", super::getAllUserViews);
+    }
+
+    @Override
+    public Page<UserView> getUserViewsPage(String cursor, int size) {
+        return registry.time("service.getUserViewsPage", () -> super.getUserViewsPage(cursor, size));
+    }
+
+    @Override
+    public List<User> findUsers(UserFilter filter) {
+        return registry.time("service.findUsers", () -> super.findUsers(filter));
+    }
+
+    @Override
+    public List<UserView> findUserViews(UserFilter filter) {
+        return registry.time("service.findUserViews", () -> super.findUserViews(filter));
+    }
+
+    @Override
+    public Stream<User> streamAllUsers(int fetchSize) {
+        return registry.timeStream("service.streamAllUsers", () -> super.streamAllUsers(fetchSize));
+    }
+
+    @Override
+    public void updateUser(User user) {
+        registry.run("service.updateUser", () -> super.updateUser(user));
+    }
+
+    @Override
+    public CompletableFuture<Void> updateUserAsync(User user) {
+        return registry.time("service.updateUserAsync", () -> super.updateUserAsync(user));
+    }
+
+    @Override
+    public void deleteUser(User user) {
+        registry.run("service.deleteUser", () -> super.deleteUser(user));
+    }
+
+    @Override
+    public void deleteUserById(Long id) {
+        registry.run("service.deleteUserById", () -> super.deleteUserById(id));
+    }
+}
@@ -0,0 +1,151 @@
+package by.task.metrics;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+public class MetricsRegistry {
+    private static final Logger log = LogManager.getLogger(MetricsRegistry.class);
+
+    private final String jmxDomain;
+    private final Map<String, OperationMetrics> operations = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+
+    public MetricsRegistry() {
+        this(null);
+    }
+
+    public MetricsRegistry(String jmxDomain) {
+        this.jmxDomain = jmxDomain;
+    }
+
+    public <T> T time(String operation, Supplier<T> action) {
+        long statementsBefore = SqlStatementCounter.current();
+        long start = System.nanoTime();
+        Throwable error = null;
+        try {
+            return action.get();
+        } catch (RuntimeException | Error e) {
+            error = e;
+            throw e;
+        } finally {
+            record(operation, System.nanoTime() - start, SqlStatementCounter.current() - statementsBefore, error);
+        }
+    }
+
+    // Поток измеряется целиком: от открытия до close(), вместе с чтением строк; ошибка при чтении тоже засчитывается
+    public <T> Stream<T> timeStream(String operation, Supplier<Stream<T>> open) {
+        long statementsBefore = SqlStatementCounter.current();
+        long start = System.nanoTime();
+        Stream<T> stream;
+        try {
+            stream = open.get();
+        } catch (RuntimeException | Error e) {
+            record(operation, System.nanoTime() - start, SqlStatementCounter.current() - statementsBefore, e);
+            throw e;
+        }
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        Spliterator<T> source = stream.spliterator();
+        Spliterator<T> observed = new Spliterators.AbstractSpliterator<>(source.estimateSize(),
+                source.characteristics() & ~(Spliterator.SIZED | Spliterator.SUBSIZED)) {
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                try {
+                    return source.tryAdvance(action);
+                } catch (RuntimeException | Error e) {
+                    error.compareAndSet(null, e);
+                    throw e;
+                }
+            }
+        };
+        return StreamSupport.stream(observed, false)
+                .onClose(stream::close)
+                .onClose(() -> record(operation, System.nanoTime() - start,
+                        SqlStatementCounter.current() - statementsBefore, error.get()));
+    }
+
+    public void run(String operation, Runnable action) {
+        time(operation, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public void record(String operation, long elapsedNanos, long statementCount, Throwable error) {
+        get(operation).record(elapsedNanos, statementCount, error);
+    }
+
+    public void increment(String counter) {
+        counters.computeIfAbsent(counter, name -> new LongAdder()).increment();
+    }
+
+    public long getCounter(String counter) {
+        LongAdder value = counters.get(counter);
+        return value == null ? 0 : value.sum();
+    }
+
+    public OperationMetrics get(String operation) {
+        return operations.computeIfAbsent(operation, this::create);
+    }
+
+    public Collection<OperationMetrics> getAll() {
+        return List.copyOf(operations.values());
+    }
+
+    public String snapshot() {
+        StringBuilder sb = new StringBuilder("Метрики операций:");
+        operations.values().stream()
+                .sorted((a, b) -> a.getName().compareTo(b.getName()))
+                .forEach(metrics -> sb.append(System.lineSeparator()).append("  ").append(metrics));
+        counters.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(counter -> sb.append(System.lineSeparator()).append("  ")
+                        .append(counter.getKey()).append(": ").append(counter.getValue().sum()));
+        return sb.toString();
+    }
+
+    public void close() {
+        if (jmxDomain == null) return;
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (String operation : operations.keySet()) {
+            try {
+                ObjectName name = objectName(operation);
+                if (server.isRegistered(name)) server.unregisterMBean(name);
+            } catch (JMException e) {
+                log.warn("Не удалось снять с регистрации MBean для операции {}", operation, e);
+            }
+        }
+    }
+
+    private OperationMetrics create(String operation) {
+        OperationMetrics metrics = new OperationMetrics(operation);
+        if (jmxDomain != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, objectName(operation));
+            } catch (JMException e) {
+                log.warn("Не удалось зарегистрировать MBean для операции {}", operation, e);
+            }
+        }
+        return metrics;
+    }
+
+    private ObjectName objectName(String operation) throws JMException {
+        return new ObjectName(jmxDomain + ":type=OperationMetrics,name=" + ObjectName.quote(operation));
+    }
+}
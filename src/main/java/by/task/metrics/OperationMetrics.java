@@ -0,0 +1,101 @@
+package by.task.metrics;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+public class OperationMetrics implements OperationMetricsMXBean {
+    private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final String name;
+    private final Histogram latency = new ConcurrentHistogram(3);
+    private final LongAdder statements = new LongAdder();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+    public OperationMetrics(String name) {
+        this.name = name;
+    }
+
+    public void record(long elapsedNanos, long statementCount, Throwable error) {
+        latency.recordValue(Math.max(elapsedNanos, 0));
+        statements.add(statementCount);
+        if (error != null) {
+            errors.computeIfAbsent(error.getClass().getSimpleName(), type -> new LongAdder()).increment();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getCount() {
+        return latency.getTotalCount();
+    }
+
+    @Override
+    public double getP50Millis() {
+        return percentileMillis(50.0);
+    }
+
+    @Override
+    public double getP99Millis() {
+        return percentileMillis(99.0);
+    }
+
+    @Override
+    public double getP999Millis() {
+        return percentileMillis(99.9);
+    }
+
+    @Override
+    public double getMaxMillis() {
+        return latency.getMaxValue() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public long getErrorCount() {
+        return errors.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    @Override
+    public Map<String, Long> getErrorsByType() {
+        Map<String, Long> result = new TreeMap<>();
+        errors.forEach((type, count) -> result.put(type, count.sum()));
+        return result;
+    }
+
+    @Override
+    public long getStatementCount() {
+        return statements.sum();
+    }
+
+    @Override
+    public double getStatementsPerCall() {
+        long count = getCount();
+        return count == 0 ? 0 : (double) getStatementCount() / count;
+    }
+
+    @Override
+    public void reset() {
+        latency.reset();
+        statements.reset();
+        errors.clear();
+    }
+
+    private double percentileMillis(double percentile) {
+        return latency.getValueAtPercentile(percentile) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: count=%d, p50=%.3fms, p99=%.3fms, p999=%.3fms, max=%.3fms, sql/call=%.2f, errors=%s",
+                name, getCount(), getP50Millis(), getP99Millis(), getP999Millis(), getMaxMillis(),
+                getStatementsPerCall(), getErrorsByType());
+    }
+}
@@ -0,0 +1,25 @@
+package by.task.metrics;
+
+import java.util.Map;
+
+public interface OperationMetricsMXBean {
+    long getCount();
+
+    double getP50Millis();
+
+    double getP99Millis();
+
+    double getP999Millis();
+
+    double getMaxMillis();
+
+    long getErrorCount();
+
+    Map<String, Long> getErrorsByType();
+
+    long getStatementCount();
+
+    double getStatementsPerCall();
+
+    void reset();
+}
@@ -0,0 +1,18 @@
+package by.task.models;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Последовательность с пулом ID, как @SequenceGenerator, но заранее присвоенный ID сохраняется как есть
+@IdGeneratorType(AssignableSequenceGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface AssignableSequence {
+    String name();
+
+    int allocationSize() default 50;
+}
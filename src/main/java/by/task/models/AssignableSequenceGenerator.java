@@ -0,0 +1,34 @@
+package by.task.models;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.GeneratorCreationContext;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+import java.lang.reflect.Member;
+import java.util.Properties;
+
+public class AssignableSequenceGenerator extends SequenceStyleGenerator {
+    private final AssignableSequence config;
+
+    public AssignableSequenceGenerator(AssignableSequence config, Member member, GeneratorCreationContext context) {
+        this.config = config;
+    }
+
+    @Override
+    public void configure(GeneratorCreationContext context, Properties parameters) {
+        parameters.setProperty(SEQUENCE_PARAM, config.name());
+        parameters.setProperty(INCREMENT_PARAM, String.valueOf(config.allocationSize()));
+        super.configure(context, parameters);
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        Object assigned = session.getEntityPersister(null, object).getIdentifier(object, session);
+        return assigned != null ? assigned : super.generate(session, object);
+    }
+
+    @Override
+    public boolean allowAssignedIdentifiers() {
+        return true;
+    }
+}
@@ -0,0 +1,7 @@
+package by.task.models;
+
+public enum ChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
@@ -0,0 +1,89 @@
+package by.task.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "user_outbox")
+public class OutboxEvent {
+    // Без заранее выбранных диапазонов: ID запрашивается при persist события, который идёт после блокировки строки
+    // пользователя, поэтому у событий одного пользователя ID растут в порядке коммитов (по нему сортирует OutboxRelay)
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_outbox_seq")
+    @SequenceGenerator(name = "user_outbox_seq", sequenceName = "user_outbox_seq", allocationSize = 1)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false, updatable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, updatable = false, length = 16)
+    private ChangeType type;
+
+    @Column(nullable = false, updatable = false, columnDefinition = "text")
+    private String payload;
+
+    @Column(name = "occurred_at", nullable = false, updatable = false)
+    private LocalDateTime occurredAt;
+
+    // Позиция в ленте изменений; пока событие не передано relay, она не назначена
+    @Column(name = "feed_position", unique = true)
+    private Long position;
+
+    protected OutboxEvent() {
+    }
+
+    public OutboxEvent(Long userId, ChangeType type, String payload) {
+        this.userId = userId;
+        this.type = type;
+        this.payload = payload;
+        this.occurredAt = LocalDateTime.now();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public ChangeType getType() {
+        return type;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+
+    public Long getPosition() {
+        return position;
+    }
+
+    public void setPosition(Long position) {
+        this.position = position;
+    }
+
+    @Override
+    public String toString() {
+        return "OutboxEvent{" +
+                "id=" + id +
+                ", userId=" + userId +
+                ", type=" + type +
+                ", position=" + position +
+                '}';
+    }
+}
@@ -0,0 +1,28 @@
+package by.task.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+// Версия карты шардов, с которой согласован этот шард. Единственная строка с id = 1
+@Entity
+@Table(name = "user_shard_epoch")
+public class ShardEpoch {
+    @Id
+    private Short id;
+
+    @Column(nullable = false)
+    private Long epoch;
+
+    protected ShardEpoch() {
+    }
+
+    public Short getId() {
+        return id;
+    }
+
+    public Long getEpoch() {
+        return epoch;
+    }
+}
@@ -0,0 +1,42 @@
+package by.task.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+// Диапазон бакетов ID [firstBucket, lastBucket], который хранится на шарде shard
+@Entity
+@Table(name = "user_shard_ranges")
+public class ShardRange {
+    @Id
+    @Column(name = "first_bucket")
+    private Integer firstBucket;
+
+    @Column(name = "last_bucket", nullable = false)
+    private Integer lastBucket;
+
+    @Column(nullable = false)
+    private Integer shard;
+
+    protected ShardRange() {
+    }
+
+    public ShardRange(int firstBucket, int lastBucket, int shard) {
+        this.firstBucket = firstBucket;
+        this.lastBucket = lastBucket;
+        this.shard = shard;
+    }
+
+    public int getFirstBucket() {
+        return firstBucket;
+    }
+
+    public int getLastBucket() {
+        return lastBucket;
+    }
+
+    public int getShard() {
+        return shard;
+    }
+}
@@ -0,0 +1,9 @@
+package by.task.models;
+
+import java.time.LocalDateTime;
+
+public record UserView(Long id, String name, String email, Integer age, LocalDateTime createdAt) {
+    public static UserView of(User user) {
+        return new UserView(user.getId(), user.getName(), user.getEmail(), user.getAge(), user.getCreatedAt());
+    }
+}
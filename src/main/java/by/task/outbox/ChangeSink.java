@@ -0,0 +1,10 @@
+package by.task.outbox;
+
+import java.util.List;
+
+@FunctionalInterface
+public interface ChangeSink {
+    // Пакет упорядочен по позиции. Доставка «хотя бы один раз»: после исключения события придут снова,
+    // повтор распознаётся по eventId
+    void publish(List<UserChange> changes) throws Exception;
+}
@@ -0,0 +1,53 @@
+package by.task.outbox;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+public class FileChangeSink implements ChangeSink, AutoCloseable {
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    private final FileChannel channel;
+
+    public FileChangeSink(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public synchronized void publish(List<UserChange> changes) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(changes.size() * 256);
+        try (JsonGenerator generator = FACTORY.createGenerator(buffer)) {
+            generator.setRootValueSeparator(null);
+            for (UserChange change : changes) {
+                generator.writeStartObject();
+                generator.writeNumberField("position", change.position());
+                generator.writeNumberField("event_id", change.eventId());
+                generator.writeNumberField("user_id", change.userId());
+                generator.writeStringField("type", change.type().name());
+                generator.writeStringField("occurred_at", String.valueOf(change.occurredAt()));
+                generator.writeFieldName("user");
+                generator.writeRawValue(change.payload());
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            }
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        // Позиции фиксируются в БД только после возврата из publish, поэтому пакет должен дойти до диска раньше
+        channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
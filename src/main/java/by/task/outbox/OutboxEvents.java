@@ -0,0 +1,105 @@
+package by.task.outbox;
+
+import by.task.models.ChangeType;
+import by.task.models.OutboxEvent;
+import by.task.models.User;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+
+public final class OutboxEvents {
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    private OutboxEvents() {
+    }
+
+    public static OutboxEvent created(User user) {
+        return new OutboxEvent(user.getId(), ChangeType.CREATED, snapshot(user));
+    }
+
+    public static OutboxEvent updated(User user) {
+        return new OutboxEvent(user.getId(), ChangeType.UPDATED, snapshot(user));
+    }
+
+    public static OutboxEvent deleted(Long id, Long version) {
+        return new OutboxEvent(id, ChangeType.DELETED, json(generator -> {
+            generator.writeNumberField("id", id);
+            writeVersion(generator, version);
+        }));
+    }
+
+    // Обратное преобразование снимка; у события удаления заполнены только id и version
+    public static User readSnapshot(String payload) {
+        Long id = null;
+        String name = null;
+        String email = null;
+        Integer age = null;
+        LocalDateTime createdAt = null;
+        Long version = null;
+        try (JsonParser parser = FACTORY.createParser(payload)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("Снимок пользователя должен быть JSON-объектом: " + payload);
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (value == JsonToken.VALUE_NULL) continue;
+                switch (field) {
+                    case "id" -> id = parser.getLongValue();
+                    case "name" -> name = parser.getText();
+                    case "email" -> email = parser.getText();
+                    case "age" -> age = parser.getIntValue();
+                    case "created_at" -> createdAt = "null".equals(parser.getText()) ? null : LocalDateTime.parse(parser.getText());
+                    case "version" -> version = parser.getLongValue();
+                    default -> parser.skipChildren();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new User(id, name, email, age, createdAt, version);
+    }
+
+    private static String snapshot(User user) {
+        // Версия в снимке позволяет потребителю отбросить устаревшее событие по тому же пользователю
+        return json(generator -> {
+            generator.writeNumberField("id", user.getId());
+            generator.writeStringField("name", user.getName());
+            generator.writeStringField("email", user.getEmail());
+            generator.writeNumberField("age", user.getAge());
+            generator.writeStringField("created_at", String.valueOf(user.getCreatedAt()));
+            writeVersion(generator, user.getVersion());
+        });
+    }
+
+    private static void writeVersion(JsonGenerator generator, Long version) throws IOException {
+        if (version == null) {
+            generator.writeNullField("version");
+        } else {
+            generator.writeNumberField("version", version);
+        }
+    }
+
+    private static String json(Fields fields) {
+        StringWriter writer = new StringWriter(128);
+        try (JsonGenerator generator = FACTORY.createGenerator(writer)) {
+            generator.writeStartObject();
+            fields.write(generator);
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return writer.toString();
+    }
+
+    @FunctionalInterface
+    private interface Fields {
+        void write(JsonGenerator generator) throws IOException;
+    }
+}
@@ -0,0 +1,162 @@
+package by.task.outbox;
+
+import by.task.exceptions.outbox.ChangeDeliveryException;
+import by.task.models.OutboxEvent;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+public class OutboxRelay implements AutoCloseable {
+    private static final Logger log = LogManager.getLogger(OutboxRelay.class);
+    // Ключ advisory-блокировки: позиции в ленте назначает один relay, даже если приложение запущено в нескольких экземплярах
+    static final long LOCK_KEY = 0x7573_6572_6f75_7462L;
+
+    private final Supplier<SessionFactory> sessionFactorySource;
+    private final ChangeSink sink;
+    private final OutboxSettings settings;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition stopped = lock.newCondition();
+    private final AtomicLong publishedCount = new AtomicLong();
+    private Thread worker;
+    private boolean closed;
+
+    public OutboxRelay(SessionFactory sessionFactory, ChangeSink sink) {
+        this(() -> sessionFactory, sink, OutboxSettings.DEFAULTS);
+    }
+
+    public OutboxRelay(Supplier<SessionFactory> sessionFactorySource, ChangeSink sink, OutboxSettings settings) {
+        this.sessionFactorySource = sessionFactorySource;
+        this.sink = sink;
+        this.settings = settings;
+    }
+
+    public OutboxRelay start() {
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Передача событий outbox уже остановлена");
+            }
+            if (worker == null) {
+                worker = Thread.ofPlatform().name("user-outbox-relay").daemon().start(this::run);
+            }
+            return this;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int relayOnce() {
+        Transaction transaction = null;
+        try (Session session = sessionFactorySource.get().openSession()) {
+            session.setJdbcBatchSize(settings.batchSize());
+            transaction = session.beginTransaction();
+            boolean acquired = session.createNativeQuery("select pg_try_advisory_xact_lock(:key)", Boolean.class)
+                    .setParameter("key", LOCK_KEY)
+                    .getSingleResult();
+            if (!acquired) {
+                transaction.rollback();
+                return 0;
+            }
+            // Порядок ID у событий одного пользователя совпадает с порядком коммитов (см. OutboxEvent.id);
+            // между разными пользователями порядок задают только позиции, которые назначает этот relay
+            List<OutboxEvent> events = session.createSelectionQuery(
+                            "from OutboxEvent e where e.position is null order by e.id", OutboxEvent.class)
+                    .setMaxResults(settings.batchSize())
+                    .getResultList();
+            if (events.isEmpty()) {
+                transaction.commit();
+                return 0;
+            }
+            long position = session.createSelectionQuery(
+                            "select coalesce(max(e.position), 0) from OutboxEvent e", Long.class)
+                    .getSingleResult();
+            List<UserChange> changes = new ArrayList<>(events.size());
+            for (OutboxEvent event : events) {
+                event.setPosition(++position);
+                changes.add(UserChange.of(event));
+            }
+            try {
+                sink.publish(changes);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ChangeDeliveryException("Передача событий outbox прервана", e);
+            } catch (Exception e) {
+                throw new ChangeDeliveryException("Приёмник не принял пакет изменений пользователей", e);
+            }
+            // Если коммит не пройдёт, пакет уже у приёмника и будет передан ещё раз
+            transaction.commit();
+            publishedCount.addAndGet(events.size());
+            return events.size();
+        } catch (RuntimeException e) {
+            rollbackQuietly(transaction);
+            throw e;
+        }
+    }
+
+    public long getPublishedCount() {
+        return publishedCount.get();
+    }
+
+    @Override
+    public void close() {
+        Thread running;
+        lock.lock();
+        try {
+            if (closed) return;
+            closed = true;
+            running = worker;
+            stopped.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        if (running == null) return;
+        try {
+            running.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        long intervalNanos = settings.pollInterval().toNanos();
+        while (true) {
+            int relayed;
+            try {
+                relayed = relayOnce();
+            } catch (RuntimeException e) {
+                log.warn("Не удалось передать события outbox, повтор через {}", settings.pollInterval(), e);
+                relayed = 0;
+            }
+            lock.lock();
+            try {
+                // Полный пакет — вероятно, очередь не разобрана до конца, поэтому следующий берётся сразу
+                if (!closed && relayed < settings.batchSize()) {
+                    stopped.awaitNanos(intervalNanos);
+                }
+                if (closed) return;
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private static void rollbackQuietly(Transaction transaction) {
+        if (transaction == null || !transaction.isActive()) return;
+        try {
+            transaction.rollback();
+        } catch (RuntimeException ignored) {
+        }
+    }
+}
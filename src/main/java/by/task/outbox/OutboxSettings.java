@@ -0,0 +1,13 @@
+package by.task.outbox;
+
+import java.time.Duration;
+
+public record OutboxSettings(int batchSize, Duration pollInterval) {
+    public static final OutboxSettings DEFAULTS = new OutboxSettings(500, Duration.ofMillis(200));
+
+    public OutboxSettings {
+        if (batchSize <= 0 || pollInterval.isNegative() || pollInterval.isZero()) {
+            throw new IllegalArgumentException("Некорректные параметры передачи событий outbox");
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package by.task.outbox;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+
+public class QueueChangeSink implements ChangeSink {
+    private final BlockingQueue<UserChange> queue;
+
+    public QueueChangeSink(BlockingQueue<UserChange> queue) {
+        this.queue = queue;
+    }
+
+    @Override
+    public void publish(List<UserChange> changes) throws InterruptedException {
+        // put ждёт место в ограниченной очереди: медленный потребитель притормаживает relay, а не теряет события
+        for (UserChange change : changes) {
+            queue.put(change);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package by.task.outbox;
+
+import by.task.models.ChangeType;
+import by.task.models.OutboxEvent;
+
+import java.time.LocalDateTime;
+
+public record UserChange(long position, long eventId, long userId, ChangeType type, String payload, LocalDateTime occurredAt) {
+    public static UserChange of(OutboxEvent event) {
+        return new UserChange(event.getPosition(), event.getId(), event.getUserId(), event.getType(), event.getPayload(), event.getOccurredAt());
+    }
+}
@@ -0,0 +1,70 @@
+package by.task.outbox;
+
+import by.task.exceptions.dao.UserPersistenceException;
+import by.task.exceptions.dao.UserQueryException;
+import by.task.models.OutboxEvent;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+public class UserChangeFeed {
+    private final Supplier<SessionFactory> sessionFactorySource;
+
+    public UserChangeFeed(SessionFactory sessionFactory) {
+        this(() -> sessionFactory);
+    }
+
+    public UserChangeFeed(Supplier<SessionFactory> sessionFactorySource) {
+        this.sessionFactorySource = sessionFactorySource;
+    }
+
+    public List<UserChange> readFrom(long afterPosition, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Количество событий должно быть положительным: " + limit);
+        }
+        try (StatelessSession session = sessionFactorySource.get().openStatelessSession()) {
+            return session.createSelectionQuery(
+                            "from OutboxEvent e where e.position > :after order by e.position", OutboxEvent.class)
+                    .setParameter("after", afterPosition)
+                    .setMaxResults(limit)
+                    .getResultList().stream()
+                    .map(UserChange::of)
+                    .toList();
+        } catch (Exception e) {
+            throw new UserQueryException("Ошибка при чтении ленты изменений пользователей с позиции " + afterPosition, e);
+        }
+    }
+
+    public long lastPosition() {
+        try (StatelessSession session = sessionFactorySource.get().openStatelessSession()) {
+            return session.createSelectionQuery("select coalesce(max(e.position), 0) from OutboxEvent e", Long.class)
+                    .getSingleResult();
+        } catch (Exception e) {
+            throw new UserQueryException("Ошибка при чтении позиции ленты изменений пользователей", e);
+        }
+    }
+
+    public int purgePublished(LocalDateTime before) {
+        Transaction transaction = null;
+        try (Session session = sessionFactorySource.get().openSession()) {
+            transaction = session.beginTransaction();
+            // Последнее переданное событие остаётся: от него relay продолжает нумерацию позиций
+            int purged = session.createMutationQuery("""
+                            delete from OutboxEvent e
+                            where e.position is not null and e.occurredAt < :before
+                              and e.position < (select max(o.position) from OutboxEvent o)""")
+                    .setParameter("before", before)
+                    .executeUpdate();
+            transaction.commit();
+            return purged;
+        } catch (Exception e) {
+            if (transaction != null && transaction.isActive()) transaction.rollback();
+            throw new UserPersistenceException("Ошибка при очистке ленты изменений пользователей", e);
+        }
+    }
+}
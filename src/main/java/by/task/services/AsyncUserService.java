@@ -0,0 +1,178 @@
+package by.task.services;
+
+import by.task.dao.AsyncUserLookupDao;
+import by.task.dao.Page;
+import by.task.dao.UserFilter;
+import by.task.exceptions.services.EmptyUserListException;
+import by.task.exceptions.services.InvalidUserException;
+import by.task.exceptions.services.UserAlreadyExistsException;
+import by.task.exceptions.services.UserNotFoundException;
+import by.task.models.User;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
+// Те же правила, что в UserService, но без блокировки потока: ошибки проверки тоже приходят через CompletionStage
+public class AsyncUserService {
+    private final AsyncUserLookupDao userDao;
+
+    public AsyncUserService(AsyncUserLookupDao userDao) {
+        this.userDao = userDao;
+    }
+
+    public CompletionStage<Void> saveUser(User user) {
+        return checked(() -> {
+            validateUser(user);
+            if (user.getEmail() == null) {
+                return userDao.save(user);
+            }
+            return userDao.existsByEmail(user.getEmail()).thenCompose(exists -> {
+                if (exists) throw new UserAlreadyExistsException(user.getEmail());
+                return userDao.save(user);
+            });
+        });
+    }
+
+    public CompletionStage<Void> saveUsers(List<User> users) {
+        return checked(() -> {
+            users.forEach(this::validateUser);
+            return userDao.saveAll(users);
+        });
+    }
+
+    public CompletionStage<Optional<User>> getUserById(Long id) {
+        return checked(() -> {
+            validateId(id);
+            return userDao.findById(id);
+        });
+    }
+
+    public CompletionStage<FoundUsers> getUsersByIds(Collection<Long> ids) {
+        return checked(() -> {
+            if (ids == null) {
+                throw new InvalidUserException("Список ID не может быть null");
+            }
+            for (Long id : ids) {
+                if (id == null || id <= 0) {
+                    throw new InvalidUserException("Некорректный ID пользователя: " + id);
+                }
+            }
+            return userDao.findAllById(ids).thenApply(users -> {
+                Set<Long> found = new HashSet<>(users.size() * 2);
+                users.forEach(user -> found.add(user.getId()));
+                List<Long> missing = new LinkedHashSet<>(ids).stream().filter(id -> !found.contains(id)).toList();
+                return new FoundUsers(users, missing);
+            });
+        });
+    }
+
+    public CompletionStage<Optional<User>> getUserByEmail(String email) {
+        return checked(() -> {
+            if (StringUtils.isBlank(email)) {
+                throw new InvalidUserException("Email пользователя обязателен");
+            }
+            return userDao.findByEmail(email);
+        });
+    }
+
+    public CompletionStage<List<User>> getAllUsers() {
+        return userDao.findAll().thenApply(users -> {
+            if (users.isEmpty()) throw new EmptyUserListException();
+            return users;
+        });
+    }
+
+    public CompletionStage<Page<User>> getUsersPage(String cursor, int size) {
+        return checked(() -> {
+            if (size <= 0 || size > UserService.MAX_PAGE_SIZE) {
+                throw new InvalidUserException("Размер страницы должен быть от 1 до " + UserService.MAX_PAGE_SIZE);
+            }
+            return userDao.findPage(cursor, size).exceptionallyCompose(e -> {
+                Throwable cause = unwrap(e);
+                return CompletableFuture.failedStage(cause instanceof IllegalArgumentException
+                        ? new InvalidUserException(cause.getMessage())
+                        : cause);
+            });
+        });
+    }
+
+    public CompletionStage<List<User>> findUsers(UserFilter filter) {
+        return checked(() -> {
+            if (filter == null) {
+                throw new InvalidUserException("Фильтр не может быть null");
+            }
+            if (filter.limit() > UserService.MAX_PAGE_SIZE) {
+                throw new InvalidUserException("Лимит выборки должен быть от 1 до " + UserService.MAX_PAGE_SIZE);
+            }
+            return userDao.findByFilter(filter);
+        });
+    }
+
+    public CompletionStage<Void> updateUser(User user) {
+        return checked(() -> {
+            validateUser(user);
+            if (user.getId() == null) {
+                throw new UserNotFoundException(null);
+            }
+            return userDao.update(user).thenAccept(updated -> {
+                if (!updated) throw new UserNotFoundException(user.getId());
+            });
+        });
+    }
+
+    public CompletionStage<Void> deleteUser(User user) {
+        return checked(() -> {
+            if (user.getId() == null) {
+                throw new UserNotFoundException(null);
+            }
+            return userDao.delete(user).thenAccept(deleted -> {
+                if (!deleted) throw new UserNotFoundException(user.getId());
+            });
+        });
+    }
+
+    public CompletionStage<Void> deleteUserById(Long id) {
+        return checked(() -> {
+            validateId(id);
+            return userDao.deleteById(id).thenAccept(deleted -> {
+                if (!deleted) throw new UserNotFoundException(id);
+            });
+        });
+    }
+
+    private void validateId(Long id) {
+        if (id == null || id <= 0) {
+            throw new InvalidUserException("Некорректный ID пользователя");
+        }
+    }
+
+    private void validateUser(User user) {
+        if (user == null) {
+            throw new InvalidUserException("Пользователь не может быть null");
+        }
+        if (StringUtils.isBlank(user.getName())) {
+            throw new InvalidUserException("Имя пользователя обязательно");
+        }
+    }
+
+    private static <T> CompletionStage<T> checked(Supplier<CompletionStage<T>> call) {
+        try {
+            return call.get();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedStage(e);
+        }
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+}
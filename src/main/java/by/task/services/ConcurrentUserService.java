@@ -0,0 +1,106 @@
+package by.task.services;
+
+import by.task.dao.Page;
+import by.task.models.User;
+import by.task.util.HibernateUtil;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+public class ConcurrentUserService implements AutoCloseable {
+    private final UserService userService;
+    private final int maxConcurrentCalls;
+    private final Semaphore permits;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public ConcurrentUserService() {
+        this(new UserService(), HibernateUtil.getMaximumPoolSize());
+    }
+
+    public ConcurrentUserService(UserService userService, int maxConcurrentCalls) {
+        if (maxConcurrentCalls <= 0) {
+            throw new IllegalArgumentException("Лимит одновременных обращений к БД должен быть положительным: " + maxConcurrentCalls);
+        }
+        this.userService = userService;
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.permits = new Semaphore(maxConcurrentCalls, true);
+    }
+
+    public CompletableFuture<Void> saveUser(User user) {
+        return submit(() -> {
+            userService.saveUser(user);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> saveUsers(List<User> users) {
+        return submit(() -> {
+            userService.saveUsers(users);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Optional<User>> getUserById(Long id) {
+        return submit(() -> userService.getUserById(id));
+    }
+
+    public CompletableFuture<Page<User>> getUsersPage(String cursor, int size) {
+        return submit(() -> userService.getUsersPage(cursor, size));
+    }
+
+    public CompletableFuture<Void> updateUser(User user) {
+        return submit(() -> {
+            userService.updateUser(user);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> deleteUser(User user) {
+        return submit(() -> {
+            userService.deleteUser(user);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> deleteUserById(Long id) {
+        return submit(() -> {
+            userService.deleteUserById(id);
+            return null;
+        });
+    }
+
+    public int getInFlight() {
+        return maxConcurrentCalls - permits.availablePermits();
+    }
+
+    public int getQueued() {
+        return permits.getQueueLength();
+    }
+
+    @Override
+    public void close() {
+        executor.close();
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> operation) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(e);
+            }
+            try {
+                return operation.get();
+            } finally {
+                permits.release();
+            }
+        }, executor);
+    }
+}
@@ -0,0 +1,11 @@
+package by.task.services;
+
+import by.task.models.User;
+
+import java.util.List;
+
+public record FoundUsers(List<User> users, List<Long> missingIds) {
+    public boolean complete() {
+        return missingIds.isEmpty();
+    }
+}
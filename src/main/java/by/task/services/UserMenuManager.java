@@ -1,13 +1,21 @@
 package by.task.services;
 
+import by.task.dao.Page;
 import by.task.exceptions.dao.DaoException;
 import by.task.models.User;
+import by.task.models.UserView;
+import by.task.services.transfer.ImportReport;
+import by.task.services.transfer.UserExporter;
+import by.task.services.transfer.UserImporter;
 
-import java.util.List;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Optional;
 import java.util.Scanner;
 
 public class UserMenuManager {
+    private static final int PAGE_SIZE = 20;
+
     private final Scanner scanner;
     private final UserService userService;
     private boolean running = true;
@@ -29,6 +37,8 @@ public class UserMenuManager {
                     case 3 -> findAllUsers();
                     case 4 -> updateUser();
                     case 5 -> deleteUser();
+                    case 6 -> importUsers();
+                    case 7 -> exportUsers();
                     case 0 -> running = false;
                     default -> System.out.println("Неверный выбор, попробуйте снова.");
                 }
@@ -45,6 +55,8 @@ public class UserMenuManager {
         System.out.println("3. Показать всех пользователей");
         System.out.println("4. Обновить пользователя");
         System.out.println("5. Удалить пользователя");
+        System.out.println("6. Импортировать пользователей из файла (CSV/JSONL)");
+        System.out.println("7. Экспортировать пользователей в файл (CSV/JSONL)");
         System.out.println("0. Выход");
         System.out.print("Выберите действие: ");
     }
@@ -80,7 +92,7 @@ public class UserMenuManager {
         System.out.print("Введите ID пользователя: ");
         Long id = getLongInput();
 
-        Optional<User> user = userService.getUserById(id);
+        Optional<UserView> user = userService.getUserViewById(id);
         user.ifPresentOrElse(
                 u -> System.out.println("Найден пользователь: " + u),
                 () -> System.out.println("Пользователь с ID " + id + " не найден")
@@ -88,12 +100,20 @@ public class UserMenuManager {
     }
 
     private void findAllUsers() {
-        List<User> users = userService.getAllUsers();
-        if (users.isEmpty()) {
+        Page<UserView> page = userService.getUserViewsPage(null, PAGE_SIZE);
+        if (page.items().isEmpty()) {
             System.out.println("Список пользователей пуст");
-        } else {
-            System.out.println("Список пользователей:");
-            users.forEach(System.out::println);
+            return;
+        }
+        System.out.println("Список пользователей:");
+        page.items().forEach(System.out::println);
+        while (page.hasNext()) {
+            System.out.print("Показать следующую страницу? (y/n): ");
+            if (!scanner.nextLine().trim().equalsIgnoreCase("y")) {
+                return;
+            }
+            page = userService.getUserViewsPage(page.nextCursor(), PAGE_SIZE);
+            page.items().forEach(System.out::println);
         }
     }
 
@@ -130,13 +150,26 @@ public class UserMenuManager {
         System.out.print("Введите ID пользователя для удаления: ");
         Long id = getLongInput();
 
-        Optional<User> user = userService.getUserById(id);
-        user.ifPresentOrElse(
-                u -> {
-                    userService.deleteUser(u);
-                    System.out.println("Пользователь удалён: " + u);
-                },
-                () -> System.out.println("Пользователь с ID " + id + " не найден")
-        );
+        userService.deleteUserById(id);
+        System.out.println("Пользователь с ID " + id + " удалён");
+    }
+
+    private void importUsers() throws IOException {
+        System.out.print("Введите путь к файлу: ");
+        Path file = Path.of(scanner.nextLine().trim());
+
+        ImportReport report = new UserImporter(userService).importFile(file, (imported, rejected) ->
+                System.out.println("Импортировано: " + imported + ", отклонено: " + rejected));
+        System.out.println("Импорт завершён: " + report);
+        report.rejected().forEach(rejected ->
+                System.out.println("Строка " + rejected.line() + ": " + rejected.reason()));
+    }
+
+    private void exportUsers() throws IOException {
+        System.out.print("Введите путь к файлу: ");
+        Path file = Path.of(scanner.nextLine().trim());
+
+        long exported = new UserExporter(userService).exportFile(file);
+        System.out.println("Экспортировано пользователей: " + exported);
     }
-}
\ No newline at end of file
+}
@@ -1,32 +1,59 @@
 package by.task.services;
 
 import by.task.dao.Dao;
+import by.task.dao.Page;
+import by.task.dao.UserFilter;
+import by.task.dao.UserLookupDao;
+import by.task.dao.UserViewDao;
 import by.task.dao.impl.UserDao;
 import by.task.exceptions.services.EmptyUserListException;
 import by.task.exceptions.services.InvalidUserException;
+import by.task.exceptions.services.UserAlreadyExistsException;
 import by.task.exceptions.services.UserNotFoundException;
 import by.task.models.User;
+import by.task.models.UserView;
 import org.apache.commons.lang3.StringUtils;
 
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 public class UserService {
-    private final Dao<User, Long> userDao;
+    public static final int MAX_PAGE_SIZE = 1000;
+    public static final int DEFAULT_FETCH_SIZE = 500;
+
+    private final UserLookupDao userDao;
+    private final UserViewDao userViewDao;
 
     public UserService() {
-        this.userDao = new UserDao();
+        this(new UserDao());
     }
 
     public UserService(Dao<User, Long> userDao) {
-        this.userDao = userDao;
+        // Обычный Dao без поиска по email и фильтру обслуживается перебором пользователей
+        this.userDao = UserLookupDao.of(userDao);
+        // DAO без проекций обслуживается через сущности
+        this.userViewDao = UserViewDao.of(this.userDao);
     }
 
     public void saveUser(User user) {
         validateUser(user);
+        if (user.getEmail() != null && userDao.existsByEmail(user.getEmail())) {
+            throw new UserAlreadyExistsException(user.getEmail());
+        }
         userDao.save(user);
     }
 
+    public void saveUsers(List<User> users) {
+        users.forEach(this::validateUser);
+        userDao.saveAll(users);
+    }
+
     public Optional<User> getUserById(Long id) {
         if (id == null || id <= 0) {
             throw new InvalidUserException("Некорректный ID пользователя");
@@ -34,6 +61,36 @@ public class UserService {
         return userDao.findById(id);
     }
 
+    public FoundUsers getUsersByIds(Collection<Long> ids) {
+        if (ids == null) {
+            throw new InvalidUserException("Список ID не может быть null");
+        }
+        for (Long id : ids) {
+            if (id == null || id <= 0) {
+                throw new InvalidUserException("Некорректный ID пользователя: " + id);
+            }
+        }
+        List<User> users = userDao.findAllById(ids);
+        Set<Long> found = new HashSet<>(users.size() * 2);
+        users.forEach(user -> found.add(user.getId()));
+        List<Long> missing = new LinkedHashSet<>(ids).stream().filter(id -> !found.contains(id)).toList();
+        return new FoundUsers(users, missing);
+    }
+
+    public Optional<User> getUserByEmail(String email) {
+        if (StringUtils.isBlank(email)) {
+            throw new InvalidUserException("Email пользователя обязателен");
+        }
+        return userDao.findByEmail(email);
+    }
+
+    public Optional<UserView> getUserViewById(Long id) {
+        if (id == null || id <= 0) {
+            throw new InvalidUserException("Некорректный ID пользователя");
+        }
+        return userViewDao.findViewById(id);
+    }
+
     public List<User> getAllUsers() {
         List<User> users = userDao.findAll();
         if (users.isEmpty()) {
@@ -42,22 +99,101 @@ public class UserService {
         return users;
     }
 
+    public Page<User> getUsersPage(String cursor, int size) {
+        if (size <= 0 || size > MAX_PAGE_SIZE) {
+            throw new InvalidUserException("Размер страницы должен быть от 1 до " + MAX_PAGE_SIZE);
+        }
+        try {
+            return userDao.findPage(cursor, size);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidUserException(e.getMessage());
+        }
+    }
+
+    public List<UserView> getAllUserViews() {
+        List<UserView> views = userViewDao.findAllViews();
+        if (views.isEmpty()) {
+            throw new EmptyUserListException();
+        }
+        return views;
+    }
+
+    public Page<UserView> getUserViewsPage(String cursor, int size) {
+        if (size <= 0 || size > MAX_PAGE_SIZE) {
+            throw new InvalidUserException("Размер страницы должен быть от 1 до " + MAX_PAGE_SIZE);
+        }
+        try {
+            return userViewDao.findViewPage(cursor, size);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidUserException(e.getMessage());
+        }
+    }
+
+    public List<User> findUsers(UserFilter filter) {
+        validateFilter(filter);
+        return userDao.findByFilter(filter);
+    }
+
+    public List<UserView> findUserViews(UserFilter filter) {
+        validateFilter(filter);
+        return userViewDao.findViewsByFilter(filter);
+    }
+
+    public Stream<User> streamAllUsers() {
+        return streamAllUsers(DEFAULT_FETCH_SIZE);
+    }
+
+    public Stream<User> streamAllUsers(int fetchSize) {
+        if (fetchSize <= 0) {
+            throw new InvalidUserException("Размер выборки должен быть положительным");
+        }
+        return userDao.streamAll(fetchSize);
+    }
+
     public void updateUser(User user) {
         validateUser(user);
-        if (userNotExist(user.getId())) {
+        if (user.getId() == null || !userDao.update(user)) {
             throw new UserNotFoundException(user.getId());
         }
-        userDao.update(user);
+    }
+
+    public CompletableFuture<Void> updateUserAsync(User user) {
+        validateUser(user);
+        if (user.getId() == null) {
+            throw new UserNotFoundException(null);
+        }
+        return userDao.updateAsync(user).thenAccept(updated -> {
+            if (!updated) {
+                throw new UserNotFoundException(user.getId());
+            }
+        });
     }
 
     public void deleteUser(User user) {
-        if (userNotExist(user.getId())) {
+        if (user.getId() == null || !userDao.delete(user)) {
             throw new UserNotFoundException(user.getId());
         }
-        userDao.delete(user);
     }
 
-    private void validateUser(User user) {
+    public void deleteUserById(Long id) {
+        if (id == null || id <= 0) {
+            throw new InvalidUserException("Некорректный ID пользователя");
+        }
+        if (!userDao.deleteById(id)) {
+            throw new UserNotFoundException(id);
+        }
+    }
+
+    private void validateFilter(UserFilter filter) {
+        if (filter == null) {
+            throw new InvalidUserException("Фильтр не может быть null");
+        }
+        if (filter.limit() > MAX_PAGE_SIZE) {
+            throw new InvalidUserException("Лимит выборки должен быть от 1 до " + MAX_PAGE_SIZE);
+        }
+    }
+
+    public void validateUser(User user) {
         if (user == null) {
             throw new InvalidUserException("Пользователь не может быть null");
         }
@@ -65,8 +201,4 @@ public class UserService {
             throw new InvalidUserException("Имя пользователя обязательно");
         }
     }
-
-    private boolean userNotExist(Long id) {
-        return id == null || userDao.findById(id).isEmpty();
-    }
 }
\ No newline at end of file
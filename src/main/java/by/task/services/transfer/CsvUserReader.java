@@ -0,0 +1,113 @@
+package by.task.services.transfer;
+
+import by.task.models.User;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+class CsvUserReader implements UserRecordReader {
+    private final BufferedReader reader;
+    private final int nameColumn;
+    private final int emailColumn;
+    private final int ageColumn;
+    private long line = 1;
+
+    CsvUserReader(BufferedReader reader) throws IOException {
+        this.reader = reader;
+        String header = reader.readLine();
+        if (header == null) {
+            throw new IOException("CSV-файл пуст: отсутствует заголовок");
+        }
+        List<String> columns = parseLine(header).stream()
+                .map(column -> column.trim().toLowerCase(Locale.ROOT))
+                .toList();
+        this.nameColumn = requireColumn(columns, "name");
+        this.emailColumn = requireColumn(columns, "email");
+        this.ageColumn = requireColumn(columns, "age");
+    }
+
+    @Override
+    public ParsedRecord next() throws IOException {
+        String text;
+        do {
+            text = reader.readLine();
+            line++;
+            if (text == null) return null;
+        } while (text.isBlank());
+        long start = line;
+
+        // Поле в кавычках может содержать перевод строки (так его пишет CsvUserWriter): запись продолжается,
+        // пока кавычки не закроются. Экранированная кавычка "" не меняет чётность
+        StringBuilder record = new StringBuilder(text);
+        long quotes = countQuotes(text);
+        while (quotes % 2 != 0) {
+            String continuation = reader.readLine();
+            if (continuation == null) {
+                return ParsedRecord.invalid(start, "Незакрытые кавычки до конца файла");
+            }
+            line++;
+            record.append('\n').append(continuation);
+            quotes += countQuotes(continuation);
+        }
+
+        List<String> fields = parseLine(record.toString());
+        int required = Math.max(nameColumn, Math.max(emailColumn, ageColumn));
+        if (fields.size() <= required) {
+            return ParsedRecord.invalid(start, "Недостаточно колонок: " + fields.size());
+        }
+        try {
+            int age = Integer.parseInt(fields.get(ageColumn).trim());
+            return ParsedRecord.valid(start, new User(fields.get(nameColumn), fields.get(emailColumn), age));
+        } catch (NumberFormatException e) {
+            return ParsedRecord.invalid(start, "Некорректный возраст: " + fields.get(ageColumn));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    static List<String> parseLine(String text) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static long countQuotes(String text) {
+        return text.chars().filter(c -> c == '"').count();
+    }
+
+    private static int requireColumn(List<String> columns, String name) throws IOException {
+        int index = columns.indexOf(name);
+        if (index < 0) {
+            throw new IOException("В заголовке CSV нет колонки " + name);
+        }
+        return index;
+    }
+}
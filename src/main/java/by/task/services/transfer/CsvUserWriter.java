@@ -0,0 +1,47 @@
+package by.task.services.transfer;
+
+import by.task.models.User;
+
+import java.io.IOException;
+import java.io.Writer;
+
+class CsvUserWriter implements UserRecordWriter {
+    static final String HEADER = "id,name,email,age,created_at";
+
+    private final Writer writer;
+
+    CsvUserWriter(Writer writer) throws IOException {
+        this.writer = writer;
+        writer.write(HEADER);
+        writer.write('\n');
+    }
+
+    @Override
+    public void write(User user) throws IOException {
+        writer.write(String.valueOf(user.getId()));
+        writer.write(',');
+        writeField(user.getName());
+        writer.write(',');
+        writeField(user.getEmail());
+        writer.write(',');
+        writer.write(String.valueOf(user.getAge()));
+        writer.write(',');
+        writer.write(String.valueOf(user.getCreatedAt()));
+        writer.write('\n');
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    private void writeField(String value) throws IOException {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
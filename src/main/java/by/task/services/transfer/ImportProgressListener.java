@@ -0,0 +1,9 @@
+package by.task.services.transfer;
+
+@FunctionalInterface
+public interface ImportProgressListener {
+    ImportProgressListener NONE = (imported, rejected) -> {
+    };
+
+    void onChunkCommitted(long imported, long rejected);
+}
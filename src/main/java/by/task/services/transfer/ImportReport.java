@@ -0,0 +1,22 @@
+package by.task.services.transfer;
+
+import java.time.Duration;
+import java.util.List;
+
+public record ImportReport(long read, long imported, long rejectedCount, List<RejectedRecord> rejected, Duration elapsed) {
+    public double rowsPerSecond() {
+        long millis = elapsed.toMillis();
+        return millis == 0 ? read : read * 1000.0 / millis;
+    }
+
+    @Override
+    public String toString() {
+        return "ImportReport{" +
+                "read=" + read +
+                ", imported=" + imported +
+                ", rejected=" + rejectedCount +
+                ", elapsed=" + elapsed.toMillis() + "ms" +
+                ", rowsPerSecond=" + String.format("%.0f", rowsPerSecond()) +
+                '}';
+    }
+}
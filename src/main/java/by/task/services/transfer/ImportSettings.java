@@ -0,0 +1,11 @@
+package by.task.services.transfer;
+
+public record ImportSettings(int chunkSize, int workers, int queueCapacity, int maxReportedRejects) {
+    public static final ImportSettings DEFAULTS = new ImportSettings(1000, Runtime.getRuntime().availableProcessors(), 10_000, 1000);
+
+    public ImportSettings {
+        if (chunkSize <= 0 || workers <= 0 || queueCapacity <= 0 || maxReportedRejects < 0) {
+            throw new IllegalArgumentException("Некорректные параметры импорта");
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package by.task.services.transfer;
+
+import by.task.models.User;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+class JsonLinesUserReader implements UserRecordReader {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final BufferedReader reader;
+    private long line;
+
+    JsonLinesUserReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public ParsedRecord next() throws IOException {
+        String text;
+        do {
+            text = reader.readLine();
+            line++;
+            if (text == null) return null;
+        } while (text.isBlank());
+
+        try {
+            JsonNode node = MAPPER.readTree(text);
+            JsonNode age = node.get("age");
+            if (age == null || !age.canConvertToInt()) {
+                return ParsedRecord.invalid(line, "Некорректный возраст: " + age);
+            }
+            return ParsedRecord.valid(line, new User(textOf(node, "name"), textOf(node, "email"), age.intValue()));
+        } catch (JsonProcessingException e) {
+            return ParsedRecord.invalid(line, "Некорректный JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private static String textOf(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+}
@@ -0,0 +1,36 @@
+package by.task.services.transfer;
+
+import by.task.models.User;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.Writer;
+
+class JsonLinesUserWriter implements UserRecordWriter {
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    private final JsonGenerator generator;
+
+    JsonLinesUserWriter(Writer writer) throws IOException {
+        this.generator = FACTORY.createGenerator(writer);
+        this.generator.setRootValueSeparator(null);
+    }
+
+    @Override
+    public void write(User user) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", user.getId());
+        generator.writeStringField("name", user.getName());
+        generator.writeStringField("email", user.getEmail());
+        generator.writeNumberField("age", user.getAge());
+        generator.writeStringField("created_at", String.valueOf(user.getCreatedAt()));
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.close();
+    }
+}
@@ -0,0 +1,17 @@
+package by.task.services.transfer;
+
+import by.task.models.User;
+
+record ParsedRecord(long line, User user, String error) {
+    static ParsedRecord valid(long line, User user) {
+        return new ParsedRecord(line, user, null);
+    }
+
+    static ParsedRecord invalid(long line, String error) {
+        return new ParsedRecord(line, null, error);
+    }
+
+    boolean isValid() {
+        return error == null;
+    }
+}
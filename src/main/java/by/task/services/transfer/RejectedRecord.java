@@ -0,0 +1,4 @@
+package by.task.services.transfer;
+
+public record RejectedRecord(long line, String reason) {
+}
@@ -0,0 +1,44 @@
+package by.task.services.transfer;
+
+import by.task.models.User;
+import by.task.services.UserService;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+public class UserExporter {
+    private final UserService userService;
+    private final int fetchSize;
+
+    public UserExporter(UserService userService) {
+        this(userService, UserService.DEFAULT_FETCH_SIZE);
+    }
+
+    public UserExporter(UserService userService, int fetchSize) {
+        this.userService = userService;
+        this.fetchSize = fetchSize;
+    }
+
+    public long exportFile(Path file) throws IOException {
+        return exportTo(UserFileFormat.of(file), Files.newBufferedWriter(file, StandardCharsets.UTF_8));
+    }
+
+    public long exportTo(UserFileFormat format, Writer target) throws IOException {
+        try (Writer output = target;
+             UserRecordWriter writer = UserRecordWriter.of(format, output);
+             Stream<User> users = userService.streamAllUsers(fetchSize)) {
+            long exported = 0;
+            Iterator<User> iterator = users.iterator();
+            while (iterator.hasNext()) {
+                writer.write(iterator.next());
+                exported++;
+            }
+            return exported;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package by.task.services.transfer;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+public enum UserFileFormat {
+    CSV,
+    JSON_LINES;
+
+    public static UserFileFormat of(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            return CSV;
+        }
+        if (name.endsWith(".jsonl") || name.endsWith(".ndjson")) {
+            return JSON_LINES;
+        }
+        throw new IllegalArgumentException("Неподдерживаемый формат файла: " + file.getFileName());
+    }
+}
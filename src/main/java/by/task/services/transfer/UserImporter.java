@@ -0,0 +1,213 @@
+package by.task.services.transfer;
+
+import by.task.models.User;
+import by.task.services.UserService;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class UserImporter {
+    private static final ParsedRecord END = ParsedRecord.invalid(-1, "END");
+    private static final long FAILURE_CHECK_MILLIS = 100;
+
+    private final UserService userService;
+    private final ImportSettings settings;
+
+    public UserImporter(UserService userService) {
+        this(userService, ImportSettings.DEFAULTS);
+    }
+
+    public UserImporter(UserService userService, ImportSettings settings) {
+        this.userService = userService;
+        this.settings = settings;
+    }
+
+    public ImportReport importFile(Path file, ImportProgressListener listener) throws IOException {
+        return importFrom(UserFileFormat.of(file), Files.newBufferedReader(file, StandardCharsets.UTF_8), listener);
+    }
+
+    public ImportReport importFrom(UserFileFormat format, Reader source, ImportProgressListener listener) throws IOException {
+        try (BufferedReader buffered = source instanceof BufferedReader br ? br : new BufferedReader(source);
+             UserRecordReader reader = UserRecordReader.of(format, buffered)) {
+            return run(reader, listener);
+        }
+    }
+
+    private ImportReport run(UserRecordReader reader, ImportProgressListener listener) throws IOException {
+        long started = System.nanoTime();
+        BlockingQueue<ParsedRecord> parsed = new ArrayBlockingQueue<>(settings.queueCapacity());
+        BlockingQueue<ParsedRecord> validated = new ArrayBlockingQueue<>(settings.queueCapacity());
+        Rejects rejects = new Rejects(settings.maxReportedRejects());
+
+        ExecutorService executor = Executors.newFixedThreadPool(settings.workers() + 1);
+        try {
+            List<Future<?>> tasks = new ArrayList<>(settings.workers() + 1);
+            for (int i = 0; i < settings.workers(); i++) {
+                tasks.add(executor.submit(() -> validate(parsed, validated, rejects)));
+            }
+            Future<Long> writer = executor.submit(() -> write(validated, rejects, listener));
+            tasks.add(writer);
+
+            long read = 0;
+            for (ParsedRecord record = reader.next(); record != null; record = reader.next()) {
+                read++;
+                put(parsed, record, tasks);
+            }
+            for (int i = 0; i < settings.workers(); i++) {
+                put(parsed, END, tasks);
+            }
+
+            long imported = await(writer, tasks);
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+            return new ImportReport(read, imported, rejects.count(), rejects.list(), elapsed);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Импорт прерван");
+        } catch (ExecutionException e) {
+            throw new IOException("Ошибка записи пользователей при импорте", e.getCause());
+        } finally {
+            // Прерывает потоки, ждущие места в очередях, если импорт завершился ошибкой
+            executor.shutdownNow();
+        }
+    }
+
+    // Упавшая задача больше не разбирает свою очередь, и ожидание места в ней зависло бы навсегда;
+    // поэтому ожидание идёт короткими отрезками с проверкой, не завершилась ли какая-то задача с ошибкой
+    private static void put(BlockingQueue<ParsedRecord> queue, ParsedRecord record, List<Future<?>> tasks)
+            throws InterruptedException, ExecutionException {
+        while (!queue.offer(record, FAILURE_CHECK_MILLIS, TimeUnit.MILLISECONDS)) {
+            rethrowFailure(tasks);
+        }
+    }
+
+    private static long await(Future<Long> writer, List<Future<?>> tasks) throws InterruptedException, ExecutionException {
+        while (true) {
+            try {
+                return writer.get(FAILURE_CHECK_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                rethrowFailure(tasks);
+            }
+        }
+    }
+
+    private static void rethrowFailure(List<Future<?>> tasks) throws InterruptedException, ExecutionException {
+        for (Future<?> task : tasks) {
+            if (task.isDone()) {
+                task.get();
+            }
+        }
+    }
+
+    private Void validate(BlockingQueue<ParsedRecord> parsed, BlockingQueue<ParsedRecord> validated, Rejects rejects)
+            throws InterruptedException {
+        while (true) {
+            ParsedRecord record = parsed.take();
+            if (record == END) {
+                validated.put(END);
+                return null;
+            }
+            if (!record.isValid()) {
+                rejects.add(record.line(), record.error());
+                continue;
+            }
+            try {
+                userService.validateUser(record.user());
+                validated.put(record);
+            } catch (RuntimeException e) {
+                rejects.add(record.line(), e.getMessage());
+            }
+        }
+    }
+
+    private long write(BlockingQueue<ParsedRecord> validated, Rejects rejects, ImportProgressListener listener)
+            throws InterruptedException {
+        List<ParsedRecord> chunk = new ArrayList<>(settings.chunkSize());
+        long imported = 0;
+        int finishedWorkers = 0;
+        while (finishedWorkers < settings.workers()) {
+            ParsedRecord record = validated.take();
+            if (record == END) {
+                finishedWorkers++;
+                continue;
+            }
+            chunk.add(record);
+            if (chunk.size() == settings.chunkSize()) {
+                imported += commit(chunk, rejects);
+                listener.onChunkCommitted(imported, rejects.count());
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            imported += commit(chunk, rejects);
+            listener.onChunkCommitted(imported, rejects.count());
+        }
+        return imported;
+    }
+
+    private long commit(List<ParsedRecord> chunk, Rejects rejects) {
+        List<User> users = chunk.stream().map(ParsedRecord::user).toList();
+        try {
+            userService.saveUsers(users);
+            return users.size();
+        } catch (RuntimeException chunkFailure) {
+            // Пакет откатился целиком: сохраняем построчно, чтобы отсеять только проблемные записи
+            long saved = 0;
+            for (ParsedRecord record : chunk) {
+                User user = record.user();
+                user.setId(null);
+                user.setVersion(null);
+                try {
+                    userService.saveUser(user);
+                    saved++;
+                } catch (RuntimeException e) {
+                    rejects.add(record.line(), e.getMessage());
+                }
+            }
+            return saved;
+        }
+    }
+
+    private static class Rejects {
+        private final int limit;
+        private final AtomicLong count = new AtomicLong();
+        private final ConcurrentLinkedQueue<RejectedRecord> records = new ConcurrentLinkedQueue<>();
+
+        Rejects(int limit) {
+            this.limit = limit;
+        }
+
+        void add(long line, String reason) {
+            if (count.incrementAndGet() <= limit) {
+                records.add(new RejectedRecord(line, reason));
+            }
+        }
+
+        long count() {
+            return count.get();
+        }
+
+        List<RejectedRecord> list() {
+            return records.stream()
+                    .sorted((a, b) -> Long.compare(a.line(), b.line()))
+                    .toList();
+        }
+    }
+}
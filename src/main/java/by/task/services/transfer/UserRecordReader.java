@@ -0,0 +1,18 @@
+package by.task.services.transfer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+interface UserRecordReader extends AutoCloseable {
+    ParsedRecord next() throws IOException;
+
+    @Override
+    void close() throws IOException;
+
+    static UserRecordReader of(UserFileFormat format, BufferedReader reader) throws IOException {
+        return switch (format) {
+            case CSV -> new CsvUserReader(reader);
+            case JSON_LINES -> new JsonLinesUserReader(reader);
+        };
+    }
+}
@@ -0,0 +1,20 @@
+package by.task.services.transfer;
+
+import by.task.models.User;
+
+import java.io.IOException;
+import java.io.Writer;
+
+interface UserRecordWriter extends AutoCloseable {
+    void write(User user) throws IOException;
+
+    @Override
+    void close() throws IOException;
+
+    static UserRecordWriter of(UserFileFormat format, Writer writer) throws IOException {
+        return switch (format) {
+            case CSV -> new CsvUserWriter(writer);
+            case JSON_LINES -> new JsonLinesUserWriter(writer);
+        };
+    }
+}
@@ -0,0 +1,46 @@
+package by.task.util;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Set;
+
+public record CacheStatistics(String region, long hits, long misses, long puts, long evictions) {
+    private static final String JCACHE_STATISTICS_PATTERN = "javax.cache:type=CacheStatistics,Cache=%s,*";
+
+    public static CacheStatistics of(SessionFactory sessionFactory, String region) {
+        CacheRegionStatistics statistics = sessionFactory.getStatistics().getCacheRegionStatistics(region);
+        if (statistics == null) {
+            return new CacheStatistics(region, 0, 0, 0, jcacheEvictions(region));
+        }
+        return new CacheStatistics(
+                region,
+                statistics.getHitCount(),
+                statistics.getMissCount(),
+                statistics.getPutCount(),
+                jcacheEvictions(region)
+        );
+    }
+
+    public double hitRatio() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    private static long jcacheEvictions(String region) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            Set<ObjectName> names = server.queryNames(new ObjectName(String.format(JCACHE_STATISTICS_PATTERN, region)), null);
+            long evictions = 0;
+            for (ObjectName name : names) {
+                evictions += (Long) server.getAttribute(name, "CacheEvictions");
+            }
+            return evictions;
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package by.task.util;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+
+import java.util.Properties;
+
+public class DataSourceFactory {
+    public static final String POOL_PREFIX = "hibernate.hikari.";
+
+    private DataSourceFactory() {
+        throw new UnsupportedOperationException("Это утилитарный класс, экземпляры создавать нельзя!");
+    }
+
+    public static HikariDataSource create(Properties settings, MetricsTrackerFactory metricsTrackerFactory) {
+        Properties poolSettings = new Properties();
+        settings.stringPropertyNames().stream()
+                .filter(key -> key.startsWith(POOL_PREFIX))
+                .forEach(key -> poolSettings.setProperty(key.substring(POOL_PREFIX.length()), settings.getProperty(key)));
+
+        HikariConfig config = new HikariConfig(poolSettings);
+        config.setMetricsTrackerFactory(metricsTrackerFactory);
+        return new HikariDataSource(config);
+    }
+}
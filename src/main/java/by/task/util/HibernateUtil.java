@@ -1,32 +1,257 @@
 package by.task.util;
 
+import com.zaxxer.hikari.HikariDataSource;
 import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
 import org.hibernate.cfg.Configuration;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+
 public class HibernateUtil {
-    private static final SessionFactory sessionFactory = buildSessionFactory();
+    public static final String REPLICA_URLS_PROPERTY = "db.replicas";
+    public static final String READ_YOUR_WRITES_PROPERTY = "db.readYourWritesMillis";
+    public static final String SHARD_URLS_PROPERTY = "db.shards";
+    public static final String PROFILE_PROPERTY = "app.profile";
+    public static final String DEFAULT_PROFILE = "development";
+
+    private static final PoolMetrics poolMetrics = new PoolMetrics();
+    private static final List<HikariDataSource> replicaDataSources = new ArrayList<>();
+    private static final List<HikariDataSource> shardDataSources = new ArrayList<>();
+    private static final List<AutoCloseable> shutdownHooks = new CopyOnWriteArrayList<>();
+    private static HikariDataSource dataSource;
+    private static SessionFactory sessionFactory;
+    private static SessionRouter sessionRouter;
+    private static List<SessionFactory> shardSessionFactories;
+    private static volatile CompletableFuture<Void> bootstrap;
 
     private HibernateUtil() {
         throw new UnsupportedOperationException("Это утилитарный класс, экземпляры создавать нельзя!");
     }
 
+    public static CompletableFuture<Void> initializeAsync() {
+        // Быстрый путь без монитора: после старта загрузки каждое обращение к DAO лишь читает volatile-поле
+        CompletableFuture<Void> started = bootstrap;
+        if (started != null) {
+            return started;
+        }
+        synchronized (HibernateUtil.class) {
+            if (bootstrap == null) {
+                bootstrap = CompletableFuture.runAsync(HibernateUtil::initialize,
+                        task -> Thread.ofPlatform().name("hibernate-bootstrap").daemon().start(task));
+            }
+            return bootstrap;
+        }
+    }
+
+    private static void awaitInitialized() {
+        try {
+            initializeAsync().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw new IllegalStateException("SessionFactory не инициализирована", e.getCause());
+        }
+    }
+
+    private static void initialize() {
+        sessionFactory = buildSessionFactory();
+        sessionRouter = buildSessionRouter();
+    }
+
     private static SessionFactory buildSessionFactory() {
         try {
-            Configuration configuration = new Configuration();
-            configuration.configure("hibernate.cfg.xml");
-            configuration.addAnnotatedClass(by.task.models.User.class);
+            Configuration configuration = baseConfiguration();
+            dataSource = DataSourceFactory.create(configuration.getProperties(), poolMetrics);
+            configuration.getProperties().put(AvailableSettings.JAKARTA_NON_JTA_DATASOURCE, dataSource);
             return configuration.buildSessionFactory();
         } catch (Throwable ex) {
             System.err.println("Ошибка инициализации SessionFactory: " + ex);
-            throw new ExceptionInInitializerError(ex);
+            if (dataSource != null) dataSource.close();
+            throw new IllegalStateException("Ошибка инициализации SessionFactory", ex);
+        }
+    }
+
+    private static SessionRouter buildSessionRouter() {
+        List<SessionFactory> replicas = new ArrayList<>();
+        try {
+            for (String url : System.getProperty(REPLICA_URLS_PROPERTY, "").split(",")) {
+                if (!url.isBlank()) {
+                    replicas.add(buildReplicaSessionFactory(url.trim(), replicas.size() + 1));
+                }
+            }
+        } catch (Throwable ex) {
+            System.err.println("Ошибка инициализации SessionFactory реплики: " + ex);
+            replicas.forEach(SessionFactory::close);
+            replicaDataSources.forEach(HikariDataSource::close);
+            sessionFactory.close();
+            dataSource.close();
+            throw new IllegalStateException("Ошибка инициализации SessionFactory реплики", ex);
         }
+        Duration readYourWritesWindow = Duration.ofMillis(Long.getLong(READ_YOUR_WRITES_PROPERTY,
+                SessionRouter.DEFAULT_READ_YOUR_WRITES_WINDOW.toMillis()));
+        return new SessionRouter(sessionFactory, replicas, readYourWritesWindow, SessionRouter.DEFAULT_FAILURE_COOLDOWN);
+    }
+
+    private static SessionFactory buildReplicaSessionFactory(String jdbcUrl, int index) {
+        Configuration configuration = baseConfiguration();
+        configuration.setProperty("hibernate.hikari.jdbcUrl", jdbcUrl);
+        configuration.setProperty("hibernate.hikari.poolName", "user-service-replica-" + index);
+        configuration.setProperty("hibernate.hikari.readOnly", "true");
+        // Схемой управляет только primary; кэш второго уровня реплики не узнал бы об изменениях на primary
+        configuration.setProperty(AvailableSettings.HBM2DDL_AUTO, "none");
+        configuration.setProperty(AvailableSettings.USE_SECOND_LEVEL_CACHE, "false");
+        configuration.setProperty(AvailableSettings.USE_QUERY_CACHE, "false");
+        HikariDataSource replicaDataSource = DataSourceFactory.create(configuration.getProperties(), new PoolMetrics());
+        replicaDataSources.add(replicaDataSource);
+        configuration.getProperties().put(AvailableSettings.JAKARTA_NON_JTA_DATASOURCE, replicaDataSource);
+        return configuration.buildSessionFactory();
+    }
+
+    private static SessionFactory buildShardSessionFactory(String jdbcUrl, int index) {
+        Configuration configuration = baseConfiguration();
+        configuration.setProperty("hibernate.hikari.jdbcUrl", jdbcUrl);
+        configuration.setProperty("hibernate.hikari.poolName", "user-service-shard-" + index);
+        HikariDataSource shardDataSource = DataSourceFactory.create(configuration.getProperties(), new PoolMetrics());
+        shardDataSources.add(shardDataSource);
+        configuration.getProperties().put(AvailableSettings.JAKARTA_NON_JTA_DATASOURCE, shardDataSource);
+        return configuration.buildSessionFactory();
+    }
+
+    private static Configuration baseConfiguration() {
+        Configuration configuration = new Configuration();
+        configuration.configure("hibernate.cfg.xml");
+        applyProfile(configuration, getProfile());
+        applySlowQueryThreshold(configuration, System.getProperties());
+        configuration.addAnnotatedClass(by.task.models.User.class);
+        configuration.addAnnotatedClass(by.task.models.OutboxEvent.class);
+        configuration.addAnnotatedClass(by.task.models.ShardRange.class);
+        configuration.addAnnotatedClass(by.task.models.ShardEpoch.class);
+        return configuration;
+    }
+
+    public static String getProfile() {
+        return System.getProperty(PROFILE_PROPERTY, DEFAULT_PROFILE);
+    }
+
+    // Профиль development — сам hibernate.cfg.xml, остальные переопределяют его свойствами из hibernate-<профиль>.properties
+    public static Configuration applyProfile(Configuration configuration, String profile) {
+        if (DEFAULT_PROFILE.equals(profile)) {
+            return configuration;
+        }
+        String resource = "hibernate-" + profile + ".properties";
+        try (InputStream in = HibernateUtil.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalArgumentException("Неизвестный профиль конфигурации: " + profile);
+            }
+            Properties overrides = new Properties();
+            try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+                overrides.load(reader);
+            }
+            return configuration.addProperties(overrides);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Порог медленных запросов (мс) из hibernate.cfg.xml можно поменять без пересборки: -Dhibernate.log_slow_query=...
+    static Configuration applySlowQueryThreshold(Configuration configuration, Properties systemProperties) {
+        String threshold = systemProperties.getProperty(AvailableSettings.LOG_SLOW_QUERY);
+        if (threshold != null) {
+            configuration.setProperty(AvailableSettings.LOG_SLOW_QUERY, threshold.trim());
+        }
+        return configuration;
     }
 
     public static SessionFactory getSessionFactory() {
+        awaitInitialized();
         return sessionFactory;
     }
 
+    public static SessionRouter getSessionRouter() {
+        awaitInitialized();
+        return sessionRouter;
+    }
+
+    // Шард 0 — основная БД (в ней же карта шардов), остальные перечислены в db.shards
+    public static synchronized List<SessionFactory> getShardSessionFactories() {
+        if (shardSessionFactories == null) {
+            List<SessionFactory> shards = new ArrayList<>();
+            shards.add(getSessionFactory());
+            try {
+                for (String url : getShardUrls()) {
+                    shards.add(buildShardSessionFactory(url, shards.size()));
+                }
+            } catch (Throwable ex) {
+                System.err.println("Ошибка инициализации SessionFactory шарда: " + ex);
+                shards.subList(1, shards.size()).forEach(SessionFactory::close);
+                shardDataSources.forEach(HikariDataSource::close);
+                shardDataSources.clear();
+                throw new IllegalStateException("Ошибка инициализации SessionFactory шарда", ex);
+            }
+            shardSessionFactories = List.copyOf(shards);
+        }
+        return shardSessionFactories;
+    }
+
+    public static List<String> getShardUrls() {
+        List<String> urls = new ArrayList<>();
+        for (String url : System.getProperty(SHARD_URLS_PROPERTY, "").split(",")) {
+            if (!url.isBlank()) urls.add(url.trim());
+        }
+        return urls;
+    }
+
+    public static PoolMetrics getPoolMetrics() {
+        return poolMetrics;
+    }
+
+    public static int getMaximumPoolSize() {
+        awaitInitialized();
+        return dataSource.getMaximumPoolSize();
+    }
+
+    public static CacheStatistics getCacheStatistics(String region) {
+        return CacheStatistics.of(getSessionFactory(), region);
+    }
+
+    public static void registerBeforeShutdown(AutoCloseable hook) {
+        shutdownHooks.add(hook);
+    }
+
     public static void shutdown() {
-        getSessionFactory().close();
+        // Сначала дописываем отложенные изменения, пока SessionFactory ещё открыта
+        for (int i = shutdownHooks.size() - 1; i >= 0; i--) {
+            try {
+                shutdownHooks.get(i).close();
+            } catch (Exception e) {
+                System.err.println("Ошибка при завершении работы: " + e);
+            }
+        }
+        shutdownHooks.clear();
+        synchronized (HibernateUtil.class) {
+            if (bootstrap == null) return;
+        }
+        awaitInitialized();
+        synchronized (HibernateUtil.class) {
+            if (shardSessionFactories != null) {
+                shardSessionFactories.subList(1, shardSessionFactories.size()).forEach(SessionFactory::close);
+                shardDataSources.forEach(HikariDataSource::close);
+            }
+        }
+        sessionRouter.replicas().forEach(SessionFactory::close);
+        replicaDataSources.forEach(HikariDataSource::close);
+        sessionFactory.close();
+        dataSource.close();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,49 @@
+package by.task.util;
+
+// Момент последней записи клиента (мс от эпохи) на время одного его запроса. HTTP-запрос обрабатывает новый
+// виртуальный поток, поэтому отметка SessionRouter в потоке не доживает до следующего запроса: клиент получает
+// этот момент в ответе и передаёт его в следующих запросах, а обработчик открывает с ним область
+public final class LastWriteScope implements AutoCloseable {
+    private static final ThreadLocal<LastWriteScope> CURRENT = new ThreadLocal<>();
+
+    private final LastWriteScope previous;
+    private volatile long lastWriteMillis;
+
+    private LastWriteScope(LastWriteScope previous, long lastWriteMillis) {
+        this.previous = previous;
+        this.lastWriteMillis = lastWriteMillis;
+    }
+
+    // 0 — клиент ещё ничего не записывал
+    public static LastWriteScope open(long lastWriteMillis) {
+        LastWriteScope scope = new LastWriteScope(CURRENT.get(), lastWriteMillis);
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    // Момент последней записи в области текущего потока или 0, если области нет
+    public static long currentLastWrite() {
+        LastWriteScope scope = CURRENT.get();
+        return scope == null ? 0 : scope.lastWriteMillis;
+    }
+
+    static void markWrite(long nowMillis) {
+        LastWriteScope scope = CURRENT.get();
+        if (scope != null && nowMillis > scope.lastWriteMillis) {
+            scope.lastWriteMillis = nowMillis;
+        }
+    }
+
+    public long getLastWriteMillis() {
+        return lastWriteMillis;
+    }
+
+    @Override
+    public void close() {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package by.task.util;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.output.MigrateResult;
+import org.hibernate.cfg.Configuration;
+
+import java.util.Map;
+import java.util.Properties;
+
+public class SchemaMigrator {
+    public static final String MIGRATIONS_LOCATION = "classpath:db/migration";
+
+    private SchemaMigrator() {
+        throw new UnsupportedOperationException("Это утилитарный класс, экземпляры создавать нельзя!");
+    }
+
+    public static MigrateResult migrate() {
+        return migrate(new Configuration().configure("hibernate.cfg.xml").getProperties());
+    }
+
+    // Миграции шарда: настройки основной БД с другим адресом
+    public static MigrateResult migrate(String jdbcUrl) {
+        Properties settings = new Configuration().configure("hibernate.cfg.xml").getProperties();
+        settings.setProperty(DataSourceFactory.POOL_PREFIX + "jdbcUrl", jdbcUrl);
+        return migrate(settings);
+    }
+
+    public static MigrateResult migrate(Properties settings) {
+        return Flyway.configure()
+                .dataSource(
+                        settings.getProperty(DataSourceFactory.POOL_PREFIX + "jdbcUrl"),
+                        settings.getProperty(DataSourceFactory.POOL_PREFIX + "username"),
+                        settings.getProperty(DataSourceFactory.POOL_PREFIX + "password"))
+                .locations(MIGRATIONS_LOCATION)
+                // Базы, созданные hbm2ddl до появления миграций, принимаются как есть и доводятся V1 (IF NOT EXISTS)
+                .baselineOnMigrate(true)
+                .baselineVersion("0")
+                // Транзакционная advisory-блокировка Flyway держит открытую транзакцию,
+                // и CREATE INDEX CONCURRENTLY ждал бы её завершения бесконечно
+                .configuration(Map.of("flyway.postgresql.transactional.lock", "false"))
+                .load()
+                .migrate();
+    }
+}
@@ -0,0 +1,131 @@
+package by.task.util;
+
+import org.hibernate.SessionFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+public class SessionRouter {
+    public static final Duration DEFAULT_READ_YOUR_WRITES_WINDOW = Duration.ofSeconds(1);
+    public static final Duration DEFAULT_FAILURE_COOLDOWN = Duration.ofSeconds(30);
+
+    private final SessionFactory primary;
+    private final List<Replica> replicas;
+    private final long readYourWritesNanos;
+    private final long readYourWritesMillis;
+    private final long failureCooldownNanos;
+    private final LongSupplier clock;
+    private final LongSupplier wallClock;
+    private final AtomicInteger next = new AtomicInteger();
+    private final ThreadLocal<Long> lastWrite = new ThreadLocal<>();
+
+    public SessionRouter(SessionFactory primary) {
+        this(primary, List.of(), Duration.ZERO, DEFAULT_FAILURE_COOLDOWN);
+    }
+
+    public SessionRouter(SessionFactory primary, List<SessionFactory> replicas,
+                         Duration readYourWritesWindow, Duration failureCooldown) {
+        this(primary, replicas, readYourWritesWindow, failureCooldown, System::nanoTime);
+    }
+
+    SessionRouter(SessionFactory primary, List<SessionFactory> replicas,
+                  Duration readYourWritesWindow, Duration failureCooldown, LongSupplier clock) {
+        this(primary, replicas, readYourWritesWindow, failureCooldown, clock, System::currentTimeMillis);
+    }
+
+    // clock — монотонные наносекунды для отметок внутри процесса, wallClock — миллисекунды от эпохи для токена клиента,
+    // который может прийти с момента записи на другом экземпляре приложения
+    SessionRouter(SessionFactory primary, List<SessionFactory> replicas, Duration readYourWritesWindow,
+                  Duration failureCooldown, LongSupplier clock, LongSupplier wallClock) {
+        this.primary = primary;
+        this.replicas = new ArrayList<>(replicas.size());
+        replicas.forEach(factory -> this.replicas.add(new Replica(factory)));
+        this.readYourWritesNanos = readYourWritesWindow.toNanos();
+        this.readYourWritesMillis = readYourWritesWindow.toMillis();
+        this.failureCooldownNanos = failureCooldown.toNanos();
+        this.clock = clock;
+        this.wallClock = wallClock;
+    }
+
+    public SessionFactory primary() {
+        return primary;
+    }
+
+    public List<SessionFactory> replicas() {
+        return replicas.stream().map(Replica::factory).toList();
+    }
+
+    public SessionFactory forRead() {
+        if (replicas.isEmpty() || isPinnedToPrimary()) {
+            return primary;
+        }
+        long now = clock.getAsLong();
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (replica.isAvailable(now)) {
+                return replica.factory();
+            }
+        }
+        return primary;
+    }
+
+    public void markWrite() {
+        if (readYourWritesNanos > 0) {
+            lastWrite.set(clock.getAsLong());
+            LastWriteScope.markWrite(wallClock.getAsLong());
+        }
+    }
+
+    // Чтение идёт на primary после записи в этом же потоке или после записи клиента, переданной через LastWriteScope.
+    // Для токена клиента окно должно перекрывать расхождение часов между экземплярами приложения. Токен, опережающий
+    // часы больше чем на окно, не мог выдать ни один экземпляр: он игнорируется, иначе клиент читал бы с primary вечно
+    public boolean isPinnedToPrimary() {
+        long clientWrite = LastWriteScope.currentLastWrite();
+        if (clientWrite > 0) {
+            long age = wallClock.getAsLong() - clientWrite;
+            if (age < readYourWritesMillis && age > -readYourWritesMillis) return true;
+        }
+        Long writtenAt = lastWrite.get();
+        if (writtenAt == null) return false;
+        if (clock.getAsLong() - writtenAt < readYourWritesNanos) return true;
+        lastWrite.remove();
+        return false;
+    }
+
+    public void reportFailure(SessionFactory factory) {
+        long now = clock.getAsLong();
+        for (Replica replica : replicas) {
+            if (replica.factory() == factory) {
+                replica.downUntil = now + failureCooldownNanos;
+                replica.failed = true;
+            }
+        }
+    }
+
+    public int getHealthyReplicaCount() {
+        long now = clock.getAsLong();
+        return (int) replicas.stream().filter(replica -> replica.isAvailable(now)).count();
+    }
+
+    private static final class Replica {
+        private final SessionFactory factory;
+        private volatile long downUntil;
+        private volatile boolean failed;
+
+        private Replica(SessionFactory factory) {
+            this.factory = factory;
+        }
+
+        private SessionFactory factory() {
+            return factory;
+        }
+
+        private boolean isAvailable(long now) {
+            return !failed || now - downUntil >= 0;
+        }
+    }
+}
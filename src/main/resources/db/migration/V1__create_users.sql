@@ -0,0 +1,26 @@
+-- Схема, которую раньше создавал hbm2ddl.auto=update; IF NOT EXISTS — для баз, созданных до перехода на миграции
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS users
+(
+    id         BIGINT       NOT NULL PRIMARY KEY,
+    name       VARCHAR(255) NOT NULL,
+    email      VARCHAR(255) NOT NULL UNIQUE,
+    age        INTEGER      NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    version    BIGINT       NOT NULL DEFAULT 0
+);
+
+-- У строк, записанных до появления оптимистической блокировки, версии нет: без неё update и delete по версии ломаются
+ALTER TABLE users ADD COLUMN IF NOT EXISTS version BIGINT;
+UPDATE users SET version = 0 WHERE version IS NULL;
+ALTER TABLE users ALTER COLUMN version SET DEFAULT 0;
+ALTER TABLE users ALTER COLUMN version SET NOT NULL;
+
+-- hbm2ddl выдавал ID через IDENTITY, а users_seq в таких базах нет или она не знает о существующих строках.
+-- Оптимизатор pooled считает очередное значение последовательности верхней границей блока из 50 ID,
+-- поэтому она сдвигается на max(id) + 50: первый блок начнётся сразу после существующих строк
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+SELECT setval('users_seq', (SELECT COALESCE(max(id), 0) + 50 FROM users), false);
+
+CREATE INDEX IF NOT EXISTS idx_users_created_at_id ON users (created_at, id);
@@ -0,0 +1,7 @@
+-- Индексы для UserDao.findByFilter. CONCURRENTLY не блокирует запись в users,
+-- Flyway выполняет такой скрипт вне транзакции.
+-- Фильтр и сортировку по created_at уже обслуживает idx_users_created_at_id.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_age_id ON users (age, id);
+
+-- text_pattern_ops позволяет использовать индекс для lower(name) LIKE 'префикс%' при любой collation базы
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_lower_name ON users (lower(name) text_pattern_ops);
@@ -0,0 +1,15 @@
+-- Журнал изменений пользователей: строка пишется в той же транзакции, что и изменение users
+CREATE SEQUENCE IF NOT EXISTS user_outbox_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS user_outbox
+(
+    id            BIGINT       NOT NULL PRIMARY KEY,
+    user_id       BIGINT       NOT NULL,
+    event_type    VARCHAR(16)  NOT NULL,
+    payload       TEXT         NOT NULL,
+    occurred_at   TIMESTAMP(6) NOT NULL,
+    feed_position BIGINT UNIQUE
+);
+
+-- Relay выбирает ещё не переданные события; после передачи строки выпадают из индекса
+CREATE INDEX IF NOT EXISTS idx_user_outbox_pending ON user_outbox (id) WHERE feed_position IS NULL;
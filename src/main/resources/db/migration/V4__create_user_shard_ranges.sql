@@ -0,0 +1,8 @@
+-- Карта шардов: какой шард хранит диапазон бакетов ID. Читается только на первом шарде (каталоге),
+-- на остальных таблица остаётся пустой
+CREATE TABLE IF NOT EXISTS user_shard_ranges
+(
+    first_bucket INTEGER NOT NULL PRIMARY KEY,
+    last_bucket  INTEGER NOT NULL,
+    shard        INTEGER NOT NULL
+);
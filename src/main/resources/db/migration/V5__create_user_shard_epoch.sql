@@ -0,0 +1,9 @@
+-- Версия карты шардов. Строка есть на каждом шарде: запись берёт её FOR SHARE в своей транзакции и сверяет с версией
+-- своей карты, перенос бакетов увеличивает её под блокировкой на всех шардах. На первом шарде это версия каталога
+CREATE TABLE IF NOT EXISTS user_shard_epoch
+(
+    id    SMALLINT NOT NULL PRIMARY KEY CHECK (id = 1),
+    epoch BIGINT   NOT NULL
+);
+
+INSERT INTO user_shard_epoch (id, epoch) VALUES (1, 0) ON CONFLICT (id) DO NOTHING;
@@ -0,0 +1,3 @@
+-- ID события берётся из последовательности по одному, уже под блокировкой строки пользователя: у событий одного
+-- пользователя порядок ID совпадает с порядком коммитов. При шаге 50 узлы раздавали ID из заранее выбранных диапазонов
+ALTER SEQUENCE user_outbox_seq INCREMENT BY 1;
@@ -0,0 +1,106 @@
+package by.task.perf.jmh;
+
+import by.task.dao.impl.AsyncUserDao;
+import by.task.dao.impl.UserDao;
+import by.task.perf.support.EmbeddedDatabase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Пачка из concurrency одновременных findById: блокирующий UserDao (поток на запрос, пул Hikari из 10 соединений)
+// против AsyncUserDao (несколько event loop, конвейер запросов на каждом соединении). Кэш второго уровня отключён,
+// чтобы оба варианта ходили в базу
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class AsyncUserDaoBenchmark {
+    @Param({"10000"})
+    private int tableSize;
+
+    @Param({"64", "1024"})
+    private int concurrency;
+
+    private EmbeddedDatabase database;
+    private UserDao userDao;
+    private AsyncUserDao asyncDao;
+    private ExecutorService platformThreads;
+    private ExecutorService virtualThreads;
+    private List<Long> ids;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        database = EmbeddedDatabase.start(Map.of(
+                "hibernate.cache.use_second_level_cache", "false",
+                "hibernate.cache.use_query_cache", "false"));
+        ids = database.populate(tableSize);
+        userDao = new UserDao(database.sessionFactory());
+        asyncDao = new AsyncUserDao(database.jdbcUrl(), database.username(), database.password());
+        platformThreads = Executors.newFixedThreadPool(200);
+        virtualThreads = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        platformThreads.shutdownNow();
+        virtualThreads.shutdownNow();
+        asyncDao.close();
+        database.close();
+    }
+
+    // Классический сервер: фиксированный пул из 200 потоков, каждый держит соединение на время запроса
+    @Benchmark
+    public int blockingPlatformThreads() {
+        return blocking(platformThreads);
+    }
+
+    @Benchmark
+    public int blockingVirtualThreads() {
+        return blocking(virtualThreads);
+    }
+
+    @Benchmark
+    public int asyncPipelined() {
+        CompletableFuture<?>[] reads = new CompletableFuture<?>[concurrency];
+        for (int i = 0; i < concurrency; i++) {
+            reads[i] = asyncDao.findById(randomId()).toCompletableFuture();
+        }
+        CompletableFuture.allOf(reads).join();
+        return reads.length;
+    }
+
+    private int blocking(ExecutorService executor) {
+        CompletableFuture<?>[] reads = new CompletableFuture<?>[concurrency];
+        for (int i = 0; i < concurrency; i++) {
+            Long id = randomId();
+            reads[i] = CompletableFuture.supplyAsync(() -> userDao.findById(id), executor);
+        }
+        CompletableFuture.allOf(reads).join();
+        return reads.length;
+    }
+
+    private Long randomId() {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+}
@@ -0,0 +1,106 @@
+package by.task.perf.jmh;
+
+import by.task.dao.Page;
+import by.task.dao.UserFilter;
+import by.task.dao.impl.UserDao;
+import by.task.models.User;
+import by.task.perf.support.EmbeddedDatabase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Операции UserDao в профилях development и production: задержка (AverageTime) и пропускная способность (Throughput).
+// Кэш второго уровня отключён, чтобы каждая операция доходила до БД; findById — ровно один SQL-запрос,
+// поэтому его задержка — это задержка одного запроса
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.Throughput})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class ConfigurationProfileBenchmark {
+    private static final int BATCH = 100;
+
+    @Param({"development", "production"})
+    private String profile;
+
+    @Param({"10000"})
+    private int tableSize;
+
+    private final AtomicLong inserted = new AtomicLong();
+    private EmbeddedDatabase database;
+    private UserDao userDao;
+    private List<Long> ids;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        database = EmbeddedDatabase.start(profile, Map.of(
+                "hibernate.cache.use_second_level_cache", "false",
+                "hibernate.cache.use_query_cache", "false"));
+        ids = database.populate(tableSize);
+        userDao = new UserDao(database.sessionFactory());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        database.close();
+    }
+
+    @Benchmark
+    public Optional<User> findById() {
+        return userDao.findById(randomId());
+    }
+
+    @Benchmark
+    public List<User> findByFilter() {
+        int minAge = 18 + ThreadLocalRandom.current().nextInt(40);
+        return userDao.findByFilter(UserFilter.ANY.withNamePrefix("User 1").withAgeBetween(minAge, minAge + 10)
+                .sortedBy(UserFilter.SortField.AGE, false).withLimit(20));
+    }
+
+    @Benchmark
+    public Page<User> findPage() {
+        return userDao.findPage(null, 50);
+    }
+
+    @Benchmark
+    public boolean update() {
+        User user = userDao.findById(randomId()).orElseThrow();
+        user.setAge(18 + ThreadLocalRandom.current().nextInt(60));
+        return userDao.update(user);
+    }
+
+    @Benchmark
+    public List<User> saveAll() {
+        List<User> users = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            long n = inserted.incrementAndGet();
+            users.add(new User("Inserted " + n, "inserted" + n + "@bench.local", 18 + (int) (n % 60)));
+        }
+        userDao.saveAll(users);
+        return users;
+    }
+
+    private Long randomId() {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+}
@@ -0,0 +1,78 @@
+package by.task.perf.jmh;
+
+import by.task.dao.impl.OffHeapUserDao;
+import by.task.dao.impl.UserDao;
+import by.task.models.User;
+import by.task.outbox.UserChangeFeed;
+import by.task.perf.support.EmbeddedDatabase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// findById из хранилища вне кучи против UserDao с кэшем второго уровня (после прогрева — попадания в кэш)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class OffHeapUserDaoBenchmark {
+    @Param({"100000"})
+    private int tableSize;
+
+    private EmbeddedDatabase database;
+    private UserDao userDao;
+    private OffHeapUserDao offHeapDao;
+    private List<Long> ids;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        database = EmbeddedDatabase.start();
+        ids = database.populate(tableSize);
+        userDao = new UserDao(database.sessionFactory());
+        offHeapDao = new OffHeapUserDao(userDao, new UserChangeFeed(database.sessionFactory()));
+        offHeapDao.start().join();
+        ids.forEach(userDao::findById);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        offHeapDao.close();
+        database.close();
+    }
+
+    @Benchmark
+    public Optional<User> userDaoFindById() {
+        return userDao.findById(randomId());
+    }
+
+    @Benchmark
+    public Optional<User> offHeapFindById() {
+        return offHeapDao.findById(randomId());
+    }
+
+    @Benchmark
+    public Optional<User> offHeapFindByEmail() {
+        return offHeapDao.findByEmail("user" + ThreadLocalRandom.current().nextInt(tableSize) + "@bench.local");
+    }
+
+    private Long randomId() {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+}
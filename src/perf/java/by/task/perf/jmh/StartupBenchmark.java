@@ -0,0 +1,70 @@
+package by.task.perf.jmh;
+
+import by.task.perf.support.EmbeddedDatabase;
+import by.task.util.DataSourceFactory;
+import by.task.util.PoolMetrics;
+import by.task.util.SchemaMigrator;
+import com.zaxxer.hikari.HikariDataSource;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Холодный старт: одна сборка SessionFactory на свежую JVM, каждая форка — отдельный замер
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(5)
+public class StartupBenchmark {
+    @Param({"hbm2ddl-update", "migrated"})
+    private String schemaMode;
+
+    private EmbeddedPostgres postgres;
+    private Configuration configuration;
+    private HikariDataSource dataSource;
+    private SessionFactory sessionFactory;
+
+    @Setup(Level.Trial)
+    public void startDatabase() throws IOException {
+        postgres = EmbeddedPostgres.builder().start();
+        configuration = EmbeddedDatabase.configuration(postgres.getJdbcUrl("postgres", "postgres"));
+        SchemaMigrator.migrate(configuration.getProperties());
+        if (schemaMode.equals("hbm2ddl-update")) {
+            configuration.setProperty(AvailableSettings.HBM2DDL_AUTO, "update");
+            configuration.setProperty(AvailableSettings.ALLOW_METADATA_ON_BOOT, "true");
+        }
+        dataSource = DataSourceFactory.create(configuration.getProperties(), new PoolMetrics());
+        configuration.getProperties().put(AvailableSettings.JAKARTA_NON_JTA_DATASOURCE, dataSource);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopDatabase() throws IOException {
+        if (sessionFactory != null) sessionFactory.close();
+        dataSource.close();
+        postgres.close();
+    }
+
+    @Benchmark
+    public SessionFactory buildSessionFactory() {
+        sessionFactory = configuration.buildSessionFactory();
+        return sessionFactory;
+    }
+}
@@ -0,0 +1,120 @@
+package by.task.perf.jmh;
+
+import by.task.dao.Page;
+import by.task.dao.impl.UserDao;
+import by.task.models.User;
+import by.task.models.UserView;
+import by.task.perf.support.EmbeddedDatabase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class UserDaoBenchmark {
+    private static final int LISTING_PAGE_SIZE = 1000;
+
+    @Param({"1000", "100000"})
+    private int tableSize;
+
+    @Param({"true", "false"})
+    private boolean secondLevelCache;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private EmbeddedDatabase database;
+    private UserDao userDao;
+    private List<Long> ids;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        database = EmbeddedDatabase.start(Map.of(
+                "hibernate.cache.use_second_level_cache", String.valueOf(secondLevelCache),
+                "hibernate.cache.use_query_cache", String.valueOf(secondLevelCache)
+        ));
+        ids = database.populate(tableSize);
+        userDao = new UserDao(database.sessionFactory());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        database.close();
+    }
+
+    @Benchmark
+    public User save() {
+        User user = new User("Bench User", "bench" + sequence.incrementAndGet() + "@bench.local", 30);
+        userDao.save(user);
+        return user;
+    }
+
+    @Benchmark
+    public Optional<User> findById() {
+        return userDao.findById(randomId());
+    }
+
+    @Benchmark
+    public List<User> findAll() {
+        return userDao.findAll();
+    }
+
+    @Benchmark
+    public Page<User> findPage() {
+        return userDao.findPage(null, LISTING_PAGE_SIZE);
+    }
+
+    @Benchmark
+    public Page<UserView> findViewPage() {
+        return userDao.findViewPage(null, LISTING_PAGE_SIZE);
+    }
+
+    @Benchmark
+    public boolean update() {
+        int index = ThreadLocalRandom.current().nextInt(ids.size());
+        User user = new User("Updated " + index, "user" + index + "@bench.local", 18 + index % 60);
+        user.setId(ids.get(index));
+        return userDao.update(user);
+    }
+
+    @Benchmark
+    public boolean delete(DeleteState state) {
+        return userDao.deleteById(state.id);
+    }
+
+    private Long randomId() {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+
+    @State(Scope.Thread)
+    public static class DeleteState {
+        private Long id;
+
+        @Setup(Level.Invocation)
+        public void insertVictim(UserDaoBenchmark benchmark) {
+            User user = new User("Victim", "victim" + benchmark.sequence.incrementAndGet() + "@bench.local", 30);
+            benchmark.userDao.save(user);
+            id = user.getId();
+        }
+    }
+}
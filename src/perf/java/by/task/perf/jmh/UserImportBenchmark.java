@@ -0,0 +1,70 @@
+package by.task.perf.jmh;
+
+import by.task.dao.impl.UserDao;
+import by.task.models.User;
+import by.task.perf.support.EmbeddedDatabase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Threads(1)
+@Fork(1)
+public class UserImportBenchmark {
+    @Param({"10000", "100000"})
+    private int rows;
+
+    private EmbeddedDatabase database;
+    private UserDao userDao;
+    private List<User> users;
+
+    @Setup(Level.Trial)
+    public void startDatabase() throws IOException {
+        database = EmbeddedDatabase.start();
+        userDao = new UserDao(database.sessionFactory());
+    }
+
+    @Setup(Level.Iteration)
+    public void prepareRows() {
+        database.truncate();
+        users = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            users.add(new User("Imported " + i, "import" + i + "@bench.local", 18 + i % 60));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopDatabase() throws IOException {
+        database.close();
+    }
+
+    @Benchmark
+    public void saveOneByOne() {
+        users.forEach(userDao::save);
+    }
+
+    @Benchmark
+    public void saveAll() {
+        userDao.saveAll(users);
+    }
+}
@@ -0,0 +1,70 @@
+package by.task.perf.jmh;
+
+import by.task.dao.impl.UserDao;
+import by.task.models.User;
+import by.task.perf.support.EmbeddedDatabase;
+import by.task.services.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class UserServiceBenchmark {
+    @Param({"1000", "100000"})
+    private int tableSize;
+
+    private EmbeddedDatabase database;
+    private UserService userService;
+    private List<Long> ids;
+    private User validUser;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        database = EmbeddedDatabase.start();
+        ids = database.populate(tableSize);
+        userService = new UserService(new UserDao(database.sessionFactory()));
+        validUser = new User("Valid Name", "valid@bench.local", 30);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        database.close();
+    }
+
+    @Benchmark
+    public User validateUser() {
+        userService.validateUser(validUser);
+        return validUser;
+    }
+
+    @Benchmark
+    public Optional<User> existingUserLookup() {
+        return userService.getUserById(ids.get(ThreadLocalRandom.current().nextInt(ids.size())));
+    }
+
+    @Benchmark
+    public Optional<User> missingUserLookup() {
+        return userService.getUserById(Long.MAX_VALUE - ThreadLocalRandom.current().nextInt(1000));
+    }
+}
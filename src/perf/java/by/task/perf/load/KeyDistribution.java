@@ -0,0 +1,28 @@
+package by.task.perf.load;
+
+import java.util.Locale;
+import java.util.random.RandomGenerator;
+
+@FunctionalInterface
+public interface KeyDistribution {
+    // Индекс ключа в диапазоне [0, size)
+    int next(RandomGenerator random);
+
+    static KeyDistribution uniform(int size) {
+        return random -> random.nextInt(size);
+    }
+
+    static KeyDistribution zipfian(int size, double theta) {
+        return new ZipfianDistribution(size, theta);
+    }
+
+    // uniform | zipf | zipf:<theta>
+    static KeyDistribution parse(String spec, int size) {
+        String[] parts = spec.trim().toLowerCase(Locale.ROOT).split(":", 2);
+        return switch (parts[0]) {
+            case "uniform" -> uniform(size);
+            case "zipf", "zipfian" -> zipfian(size, parts.length > 1 ? Double.parseDouble(parts[1]) : ZipfianDistribution.DEFAULT_THETA);
+            default -> throw new IllegalArgumentException("Неизвестное распределение ключей: " + spec);
+        };
+    }
+}
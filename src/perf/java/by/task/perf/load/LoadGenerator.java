@@ -0,0 +1,183 @@
+package by.task.perf.load;
+
+import by.task.dao.UserFilter;
+import by.task.exceptions.dao.UserConcurrentModificationException;
+import by.task.services.UserService;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+import org.HdrHistogram.Recorder;
+
+import java.io.PrintStream;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+public class LoadGenerator {
+    private static final int LIST_PAGE_SIZE = 20;
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final UserService userService;
+    private final List<Long> ids;
+    private final PrintStream out;
+    private final HistogramLogWriter histogramLog;
+
+    // Ранги распределения отображаются на ids по порядку, поэтому ids стоит заранее перемешать,
+    // иначе горячими окажутся соседние строки одних и тех же страниц таблицы
+    public LoadGenerator(UserService userService, List<Long> ids, PrintStream out, HistogramLogWriter histogramLog) {
+        this.userService = userService;
+        this.ids = List.copyOf(ids);
+        this.out = out;
+        this.histogramLog = histogramLog;
+    }
+
+    public LoadResult run(LoadProfile profile) throws InterruptedException {
+        KeyDistribution keys = KeyDistribution.parse(profile.keys(), ids.size());
+        SplittableRandom random = new SplittableRandom();
+        Map<Operation, Recorder> intervals = new EnumMap<>(Operation.class);
+        Map<Operation, Histogram> totals = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            intervals.put(operation, new Recorder(SIGNIFICANT_DIGITS));
+            totals.put(operation, new ConcurrentHistogram(SIGNIFICANT_DIGITS));
+        }
+        LongAdder errors = new LongAdder();
+        LongAdder conflicts = new LongAdder();
+        LongAdder intervalErrors = new LongAdder();
+        LongAdder measuredCompleted = new LongAdder();
+        long[] lastCompletion = {0};
+        Semaphore inFlight = new Semaphore(profile.maxInFlight());
+
+        long start = System.nanoTime();
+        long measureFrom = start + profile.warmup().toNanos();
+        long end = measureFrom + profile.duration().toNanos();
+        double periodNanos = 1e9 / profile.rate();
+
+        out.printf("%nЧастота %.0f запросов/с, смесь %s, ключи %s, прогрев %ds, замер %ds%n", profile.rate(), profile.mix(),
+                profile.keys(), profile.warmup().toSeconds(), profile.duration().toSeconds());
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(runnable ->
+                Thread.ofPlatform().name("load-reporter").daemon().unstarted(runnable));
+        long reportMillis = profile.reportInterval().toMillis();
+        AtomicLong lastReport = new AtomicLong(start);
+        reporter.scheduleAtFixedRate(() -> report(intervals, intervalErrors, start, measureFrom, lastReport),
+                reportMillis, reportMillis, TimeUnit.MILLISECONDS);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; ; i++) {
+                // Моменты отправки заданы расписанием: если сервис тормозит, запросы копятся,
+                // а их задержка отсчитывается от запланированного момента (поправка на coordinated omission)
+                long intended = start + (long) (i * periodNanos);
+                if (intended >= end) break;
+                long delay = intended - System.nanoTime();
+                if (delay > 0) LockSupport.parkNanos(delay);
+                inFlight.acquire();
+                Operation operation = profile.mix().pick(random);
+                Long id = ids.get(keys.next(random));
+                executor.execute(() -> {
+                    boolean failed = false;
+                    try {
+                        execute(operation, id);
+                    } catch (UserConcurrentModificationException e) {
+                        conflicts.increment();
+                    } catch (RuntimeException e) {
+                        failed = true;
+                    } finally {
+                        long now = System.nanoTime();
+                        long latencyMicros = (now - intended) / 1000;
+                        intervals.get(operation).recordValue(latencyMicros);
+                        if (failed) intervalErrors.increment();
+                        if (intended >= measureFrom) {
+                            totals.get(operation).recordValue(latencyMicros);
+                            measuredCompleted.increment();
+                            if (failed) errors.increment();
+                            synchronized (lastCompletion) {
+                                lastCompletion[0] = Math.max(lastCompletion[0], now);
+                            }
+                        }
+                        inFlight.release();
+                    }
+                });
+            }
+        } finally {
+            reporter.shutdownNow();
+            reporter.awaitTermination(1, TimeUnit.SECONDS);
+        }
+        report(intervals, intervalErrors, start, measureFrom, lastReport);
+
+        Histogram latency = new Histogram(SIGNIFICANT_DIGITS);
+        totals.values().forEach(latency::add);
+        // Если сервис не успевает, последние запросы завершаются заметно позже конца окна — это и снижает пропускную способность
+        double elapsedSeconds = Math.max(end, lastCompletion[0]) - measureFrom;
+        double achieved = measuredCompleted.sum() / (elapsedSeconds / 1e9);
+        LoadResult result = new LoadResult(profile.rate(), achieved, errors.sum(), conflicts.sum(), latency, Map.copyOf(totals));
+        summarize(result);
+        return result;
+    }
+
+    private void execute(Operation operation, Long id) {
+        switch (operation) {
+            case READ -> userService.getUserById(id);
+            case WRITE -> userService.getUserById(id).ifPresent(user -> {
+                user.setAge(18 + ThreadLocalRandom.current().nextInt(60));
+                userService.updateUser(user);
+            });
+            case LIST -> {
+                int age = 18 + ThreadLocalRandom.current().nextInt(55);
+                userService.findUserViews(UserFilter.ANY
+                        .withAgeBetween(age, age + 5)
+                        .sortedBy(UserFilter.SortField.AGE, false)
+                        .withLimit(LIST_PAGE_SIZE));
+            }
+        }
+    }
+
+    private void report(Map<Operation, Recorder> intervals, LongAdder intervalErrors, long start, long measureFrom, AtomicLong lastReport) {
+        Histogram interval = new Histogram(SIGNIFICANT_DIGITS);
+        for (Map.Entry<Operation, Recorder> entry : intervals.entrySet()) {
+            Histogram histogram = entry.getValue().getIntervalHistogram();
+            if (histogramLog != null && histogram.getTotalCount() > 0) {
+                histogram.setTag(entry.getKey().name());
+                histogramLog.outputIntervalHistogram(histogram);
+            }
+            interval.add(histogram);
+        }
+        long now = System.nanoTime();
+        long elapsed = now - lastReport.getAndSet(now);
+        out.printf("%7.1fs %s %8.0f оп/с  p50 %8.2f  p99 %8.2f  p99.9 %8.2f  max %9.2f мс  ошибок %d%n",
+                (now - start) / 1e9, now < measureFrom ? "прогрев" : "замер  ",
+                interval.getTotalCount() * 1e9 / elapsed,
+                millis(interval, 50), millis(interval, 99), millis(interval, 99.9), interval.getMaxValue() / 1000.0,
+                intervalErrors.sumThenReset());
+    }
+
+    private void summarize(LoadResult result) {
+        out.printf("Итог: цель %.0f оп/с, достигнуто %.0f оп/с, ошибок %d, конфликтов версий %d%n",
+                result.targetRate(), result.achievedRate(), result.errors(), result.conflicts());
+        out.printf("  %-5s %9s %9s %9s %9s %10s%n", "", "запросов", "p50, мс", "p99, мс", "p99.9, мс", "max, мс");
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = result.byOperation().get(operation);
+            if (histogram.getTotalCount() > 0) {
+                printRow(operation.name(), histogram);
+            }
+        }
+        printRow("ALL", result.latency());
+    }
+
+    private void printRow(String label, Histogram histogram) {
+        out.printf("  %-5s %9d %9.2f %9.2f %9.2f %10.2f%n", label, histogram.getTotalCount(),
+                millis(histogram, 50), millis(histogram, 99), millis(histogram, 99.9), histogram.getMaxValue() / 1000.0);
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+}
@@ -0,0 +1,20 @@
+package by.task.perf.load;
+
+import java.time.Duration;
+
+// rate — запланированная частота запросов в секунду, не зависящая от скорости ответов (open-loop)
+public record LoadProfile(double rate, Duration warmup, Duration duration, Duration reportInterval,
+                          OperationMix mix, String keys, int maxInFlight) {
+    public LoadProfile {
+        if (rate <= 0 || maxInFlight <= 0) {
+            throw new IllegalArgumentException("Частота и число одновременных запросов должны быть положительными");
+        }
+        if (warmup.isNegative() || duration.isNegative() || duration.isZero() || reportInterval.isNegative() || reportInterval.isZero()) {
+            throw new IllegalArgumentException("Некорректные интервалы нагрузочного теста");
+        }
+    }
+
+    public LoadProfile withRate(double rate) {
+        return new LoadProfile(rate, warmup, duration, reportInterval, mix, keys, maxInFlight);
+    }
+}
@@ -0,0 +1,17 @@
+package by.task.perf.load;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+
+// Гистограммы в микросекундах, задержка считается от запланированного, а не фактического момента отправки
+public record LoadResult(double targetRate, double achievedRate, long errors, long conflicts,
+                         Histogram latency, Map<Operation, Histogram> byOperation) {
+    public double p99Millis() {
+        return latency.getValueAtPercentile(99) / 1000.0;
+    }
+
+    public boolean sustained(double minShare, double p99LimitMillis) {
+        return achievedRate >= targetRate * minShare && p99Millis() <= p99LimitMillis;
+    }
+}
@@ -0,0 +1,141 @@
+package by.task.perf.load;
+
+import by.task.dao.impl.UserDao;
+import by.task.perf.support.EmbeddedDatabase;
+import by.task.services.UserService;
+import org.HdrHistogram.HistogramLogWriter;
+import org.hibernate.Session;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+// mvn -Pbenchmark compile exec:exec@load-test -Dload.args="rates=500,1000,2000 mix=read:80,write:15,list:5 keys=zipf:0.99"
+// Параметры: db (JDBC URL, по умолчанию встроенный PostgreSQL), user, password, users, rate или rates,
+// warmup, duration, report, mix, keys (uniform | zipf[:theta]), inflight, slo (p99 в мс), hlog (файл гистограмм)
+public class LoadTest {
+    private static final double SUSTAINED_SHARE = 0.95;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Map<String, String> options = parse(args);
+        LoadProfile profile = new LoadProfile(
+                Double.parseDouble(options.getOrDefault("rate", "500")),
+                duration(options.getOrDefault("warmup", "10s")),
+                duration(options.getOrDefault("duration", "30s")),
+                duration(options.getOrDefault("report", "1s")),
+                OperationMix.parse(options.getOrDefault("mix", OperationMix.READ_HEAVY.toString())),
+                options.getOrDefault("keys", "zipf"),
+                Integer.parseInt(options.getOrDefault("inflight", "256")));
+        List<Double> rates = options.containsKey("rates")
+                ? List.of(options.get("rates").split(",")).stream().map(String::trim).map(Double::parseDouble).toList()
+                : List.of(profile.rate());
+        double sloMillis = Double.parseDouble(options.getOrDefault("slo", "50"));
+        int users = Integer.parseInt(options.getOrDefault("users", "10000"));
+
+        try (EmbeddedDatabase database = open(options);
+             HistogramLogFile histogramLog = HistogramLogFile.open(options.get("hlog"))) {
+            List<Long> ids = new ArrayList<>(prepareUsers(database, users));
+            Collections.shuffle(ids, new Random(42));
+            UserService userService = new UserService(new UserDao(database.sessionFactory()));
+            LoadGenerator generator = new LoadGenerator(userService, ids, System.out, histogramLog.writer());
+
+            Double saturation = null;
+            Double lastSustained = null;
+            for (double rate : rates) {
+                LoadResult result = generator.run(profile.withRate(rate));
+                if (!result.sustained(SUSTAINED_SHARE, sloMillis)) {
+                    saturation = rate;
+                    break;
+                }
+                lastSustained = rate;
+            }
+            if (rates.size() > 1) {
+                System.out.println(saturation == null
+                        ? String.format(Locale.ROOT, "Насыщение не достигнуто, выдержана частота %.0f оп/с", lastSustained)
+                        : String.format(Locale.ROOT, "Насыщение на %.0f оп/с (меньше %.0f%% цели или p99 выше %.0f мс), последняя выдержанная частота: %s",
+                        saturation, SUSTAINED_SHARE * 100, sloMillis, lastSustained == null ? "нет" : String.format(Locale.ROOT, "%.0f оп/с", lastSustained)));
+            }
+        }
+    }
+
+    private static EmbeddedDatabase open(Map<String, String> options) throws IOException {
+        String url = options.get("db");
+        if (url == null) {
+            return EmbeddedDatabase.start();
+        }
+        return EmbeddedDatabase.connect(url, options.getOrDefault("user", "postgres"), options.getOrDefault("password", ""));
+    }
+
+    private static List<Long> prepareUsers(EmbeddedDatabase database, int users) {
+        List<Long> existing;
+        try (Session session = database.sessionFactory().openSession()) {
+            existing = session.createSelectionQuery("select u.id from User u order by u.id", Long.class)
+                    .setMaxResults(users)
+                    .getResultList();
+        }
+        if (existing.size() == users) {
+            return existing;
+        }
+        if (!existing.isEmpty()) {
+            throw new IllegalStateException("В базе " + existing.size() + " пользователей, нужно либо 0, либо не меньше " + users);
+        }
+        System.out.println("Заполнение таблицы: " + users + " пользователей");
+        return database.populate(users);
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Ожидается параметр=значение, получено: " + arg);
+            }
+            options.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        return options;
+    }
+
+    // 500ms, 30s, 2m
+    static Duration duration(String value) {
+        String trimmed = value.trim().toLowerCase(Locale.ROOT);
+        if (trimmed.endsWith("ms")) return Duration.ofMillis(Long.parseLong(trimmed.substring(0, trimmed.length() - 2)));
+        if (trimmed.endsWith("s")) return Duration.ofSeconds(Long.parseLong(trimmed.substring(0, trimmed.length() - 1)));
+        if (trimmed.endsWith("m")) return Duration.ofMinutes(Long.parseLong(trimmed.substring(0, trimmed.length() - 1)));
+        return Duration.ofSeconds(Long.parseLong(trimmed));
+    }
+
+    private record HistogramLogFile(PrintStream stream, HistogramLogWriter writer) implements AutoCloseable {
+        static HistogramLogFile open(String path) throws IOException {
+            if (path == null) {
+                return new HistogramLogFile(null, null);
+            }
+            File file = new File(path);
+            if (file.getParentFile() != null) {
+                file.getParentFile().mkdirs();
+            }
+            PrintStream stream = new PrintStream(file);
+            HistogramLogWriter writer = new HistogramLogWriter(stream);
+            long now = System.currentTimeMillis();
+            writer.outputLogFormatVersion();
+            writer.outputStartTime(now);
+            writer.setBaseTime(now);
+            writer.outputLegend();
+            return new HistogramLogFile(stream, writer);
+        }
+
+        @Override
+        public void close() {
+            if (stream != null) {
+                stream.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package by.task.perf.load;
+
+public enum Operation {
+    // getUserById
+    READ,
+    // getUserById + updateUser: чтение-изменение-запись, как в форме редактирования
+    WRITE,
+    // findUserViews: страница проекций по диапазону возраста
+    LIST
+}
@@ -0,0 +1,44 @@
+package by.task.perf.load;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.random.RandomGenerator;
+
+public record OperationMix(int read, int write, int list) {
+    public static final OperationMix READ_HEAVY = new OperationMix(90, 5, 5);
+
+    public OperationMix {
+        if (read < 0 || write < 0 || list < 0 || read + write + list == 0) {
+            throw new IllegalArgumentException("Некорректные доли операций: " + read + "/" + write + "/" + list);
+        }
+    }
+
+    // read:80,write:15,list:5 — веса, а не обязательно проценты
+    public static OperationMix parse(String spec) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String part : spec.split(",")) {
+            String[] pair = part.trim().split(":", 2);
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Ожидается операция:вес, получено: " + part);
+            }
+            weights.put(Operation.valueOf(pair[0].trim().toUpperCase(Locale.ROOT)), Integer.parseInt(pair[1].trim()));
+        }
+        return new OperationMix(
+                weights.getOrDefault(Operation.READ, 0),
+                weights.getOrDefault(Operation.WRITE, 0),
+                weights.getOrDefault(Operation.LIST, 0));
+    }
+
+    public Operation pick(RandomGenerator random) {
+        int roll = random.nextInt(read + write + list);
+        if (roll < read) return Operation.READ;
+        if (roll < read + write) return Operation.WRITE;
+        return Operation.LIST;
+    }
+
+    @Override
+    public String toString() {
+        return "read:" + read + ",write:" + write + ",list:" + list;
+    }
+}
@@ -0,0 +1,52 @@
+package by.task.perf.load;
+
+import java.util.random.RandomGenerator;
+
+// Генератор Zipf из YCSB (Gray et al., «Quickly Generating Billion-Record Synthetic Databases»):
+// ранг 0 — самый популярный ключ, zeta(n) считается один раз при создании
+class ZipfianDistribution implements KeyDistribution {
+    static final double DEFAULT_THETA = 0.99;
+
+    private final int size;
+    private final double theta;
+    private final double zetaN;
+    private final double alpha;
+    private final double eta;
+    private final double secondThreshold;
+
+    ZipfianDistribution(int size, double theta) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Количество ключей должно быть положительным: " + size);
+        }
+        if (theta <= 0 || theta >= 1) {
+            throw new IllegalArgumentException("Параметр Zipf должен быть в интервале (0, 1): " + theta);
+        }
+        this.size = size;
+        this.theta = theta;
+        this.zetaN = zeta(size, theta);
+        this.alpha = 1.0 / (1.0 - theta);
+        this.eta = (1 - Math.pow(2.0 / size, 1 - theta)) / (1 - zeta(2, theta) / zetaN);
+        this.secondThreshold = 1 + Math.pow(0.5, theta);
+    }
+
+    @Override
+    public int next(RandomGenerator random) {
+        double u = random.nextDouble();
+        double uz = u * zetaN;
+        if (uz < 1.0) return 0;
+        if (uz < secondThreshold) return Math.min(1, size - 1);
+        return Math.min((int) (size * Math.pow(eta * u - eta + 1, alpha)), size - 1);
+    }
+
+    double theta() {
+        return theta;
+    }
+
+    private static double zeta(int n, double theta) {
+        double sum = 0;
+        for (int i = 1; i <= n; i++) {
+            sum += 1 / Math.pow(i, theta);
+        }
+        return sum;
+    }
+}
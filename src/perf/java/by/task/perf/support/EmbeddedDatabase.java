@@ -0,0 +1,138 @@
+package by.task.perf.support;
+
+import by.task.dao.impl.UserDao;
+import by.task.models.OutboxEvent;
+import by.task.models.ShardEpoch;
+import by.task.models.ShardRange;
+import by.task.models.User;
+import by.task.util.DataSourceFactory;
+import by.task.util.HibernateUtil;
+import by.task.util.PoolMetrics;
+import by.task.util.SchemaMigrator;
+import com.zaxxer.hikari.HikariDataSource;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class EmbeddedDatabase implements AutoCloseable {
+    private static final int POPULATE_CHUNK = 5000;
+
+    // null, если подключились к внешней базе через connect
+    private final EmbeddedPostgres postgres;
+    private final String jdbcUrl;
+    private final String username;
+    private final String password;
+    private final HikariDataSource dataSource;
+    private final SessionFactory sessionFactory;
+    private final PoolMetrics poolMetrics = new PoolMetrics();
+
+    private EmbeddedDatabase(EmbeddedPostgres postgres, Configuration configuration, Map<String, String> overrides) {
+        this.postgres = postgres;
+        this.jdbcUrl = configuration.getProperty("hibernate.hikari.jdbcUrl");
+        this.username = configuration.getProperty("hibernate.hikari.username");
+        this.password = configuration.getProperty("hibernate.hikari.password");
+        SchemaMigrator.migrate(configuration.getProperties());
+        overrides.forEach(configuration::setProperty);
+
+        this.dataSource = DataSourceFactory.create(configuration.getProperties(), poolMetrics);
+        configuration.getProperties().put(AvailableSettings.JAKARTA_NON_JTA_DATASOURCE, dataSource);
+        this.sessionFactory = configuration.buildSessionFactory();
+    }
+
+    public static Configuration configuration(String jdbcUrl) {
+        Configuration configuration = new Configuration();
+        configuration.configure("hibernate.cfg.xml");
+        configuration.setProperty("hibernate.hikari.jdbcUrl", jdbcUrl);
+        configuration.setProperty("hibernate.hikari.username", "postgres");
+        configuration.setProperty("hibernate.hikari.password", "");
+        configuration.setProperty("hibernate.hikari.registerMbeans", "false");
+        configuration.setProperty("hibernate.show_sql", "false");
+        configuration.addAnnotatedClass(User.class);
+        configuration.addAnnotatedClass(OutboxEvent.class);
+        configuration.addAnnotatedClass(ShardRange.class);
+        configuration.addAnnotatedClass(ShardEpoch.class);
+        return configuration;
+    }
+
+    public static EmbeddedDatabase start() throws IOException {
+        return start(Map.of());
+    }
+
+    public static EmbeddedDatabase start(Map<String, String> overrides) throws IOException {
+        return start(HibernateUtil.DEFAULT_PROFILE, overrides);
+    }
+
+    // Профиль конфигурации (hibernate-<профиль>.properties) применяется так же, как в HibernateUtil
+    public static EmbeddedDatabase start(String profile, Map<String, String> overrides) throws IOException {
+        EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+        Configuration configuration = HibernateUtil.applyProfile(configuration(postgres.getJdbcUrl("postgres", "postgres")), profile);
+        return new EmbeddedDatabase(postgres, configuration, overrides);
+    }
+
+    // Внешний PostgreSQL (контейнер, стенд): схема доводится миграциями, данные не удаляются при close
+    public static EmbeddedDatabase connect(String jdbcUrl, String username, String password) {
+        Configuration configuration = configuration(jdbcUrl);
+        configuration.setProperty("hibernate.hikari.username", username);
+        configuration.setProperty("hibernate.hikari.password", password);
+        return new EmbeddedDatabase(null, configuration, Map.of());
+    }
+
+    public SessionFactory sessionFactory() {
+        return sessionFactory;
+    }
+
+    public PoolMetrics poolMetrics() {
+        return poolMetrics;
+    }
+
+    public String jdbcUrl() {
+        return jdbcUrl;
+    }
+
+    public String username() {
+        return username;
+    }
+
+    public String password() {
+        return password;
+    }
+
+    public List<Long> populate(int count) {
+        UserDao userDao = new UserDao(sessionFactory);
+        List<Long> ids = new ArrayList<>(count);
+        for (int from = 0; from < count; from += POPULATE_CHUNK) {
+            List<User> chunk = new ArrayList<>(POPULATE_CHUNK);
+            for (int i = from; i < Math.min(from + POPULATE_CHUNK, count); i++) {
+                chunk.add(new User("User " + i, "user" + i + "@bench.local", 18 + i % 60));
+            }
+            userDao.saveAll(chunk);
+            chunk.forEach(user -> ids.add(user.getId()));
+        }
+        return ids;
+    }
+
+    public void truncate() {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            session.createNativeMutationQuery("TRUNCATE TABLE users").executeUpdate();
+            session.getTransaction().commit();
+        }
+        sessionFactory.getCache().evictAllRegions();
+    }
+
+    @Override
+    public void close() throws IOException {
+        sessionFactory.close();
+        dataSource.close();
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package by.task.dao.impl;
+
+import by.task.dao.Page;
+import by.task.dao.UserFilter;
+import by.task.exceptions.dao.UserConcurrentModificationException;
+import by.task.models.ChangeType;
+import by.task.models.OutboxEvent;
+import by.task.models.User;
+import by.task.util.TestHibernateUtil;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@TestInstance(Lifecycle.PER_CLASS)
+class AsyncUserDaoTest {
+    private SessionFactory sessionFactory;
+    private UserDao blockingDao;
+    private AsyncUserDao userDao;
+
+    @BeforeAll
+    void setup() {
+        sessionFactory = TestHibernateUtil.buildSessionFactory();
+        blockingDao = new UserDao(sessionFactory);
+        userDao = new AsyncUserDao(TestHibernateUtil.jdbcUrl(), TestHibernateUtil.username(), TestHibernateUtil.password());
+    }
+
+    @AfterAll
+    void tearDown() {
+        userDao.close();
+        sessionFactory.close();
+        TestHibernateUtil.shutdown();
+    }
+
+    @BeforeEach
+    void clearDatabase() {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            session.createNativeMutationQuery("TRUNCATE TABLE users, user_outbox").executeUpdate();
+            session.getTransaction().commit();
+        }
+        sessionFactory.getCache().evictAllRegions();
+    }
+
+    @Test
+    void shouldSaveUserAndWriteCreatedEvent_WhenSaved() {
+        User user = new User("Test User", "user@test.com", 30);
+
+        await(userDao.save(user));
+
+        User found = await(userDao.findById(user.getId())).orElseThrow();
+        assertEquals("user@test.com", found.getEmail());
+        assertEquals(0L, found.getVersion());
+        assertEquals(user.getId(), await(userDao.findByEmail("user@test.com")).orElseThrow().getId());
+        assertTrue(await(userDao.existsById(user.getId())));
+        assertTrue(await(userDao.existsByEmail("user@test.com")));
+        assertEquals(List.of(ChangeType.CREATED), eventTypes());
+        // Строка, записанная асинхронно, читается и блокирующим DAO
+        assertEquals("Test User", blockingDao.findById(user.getId()).orElseThrow().getName());
+    }
+
+    @Test
+    void shouldAssignIdsInOrder_WhenSavedInBatch() {
+        List<User> users = users(5);
+
+        await(userDao.saveAll(users));
+
+        List<Long> ids = users.stream().map(User::getId).toList();
+        List<Long> reversed = new ArrayList<>(ids).reversed();
+        assertEquals(reversed, await(userDao.findAllById(reversed)).stream().map(User::getId).toList());
+        assertEquals(5, await(userDao.findAll()).size());
+        assertEquals(5, eventTypes().size());
+    }
+
+    @Test
+    void shouldIncrementVersion_WhenUpdated() {
+        User user = new User("Test User", "user@test.com", 30);
+        await(userDao.save(user));
+        user.setName("Renamed");
+
+        assertTrue(await(userDao.update(user)));
+
+        assertEquals(1L, user.getVersion());
+        assertEquals("Renamed", await(userDao.findById(user.getId())).orElseThrow().getName());
+        assertEquals(List.of(ChangeType.CREATED, ChangeType.UPDATED), eventTypes());
+    }
+
+    @Test
+    void shouldRejectUpdate_WhenVersionIsStale() {
+        User user = new User("Test User", "user@test.com", 30);
+        await(userDao.save(user));
+        User stale = new User(user);
+        user.setName("First");
+        await(userDao.update(user));
+
+        stale.setName("Second");
+        CompletionException failure = assertThrows(CompletionException.class, () -> await(userDao.update(stale)));
+
+        assertInstanceOf(UserConcurrentModificationException.class, failure.getCause());
+        assertEquals("First", await(userDao.findById(user.getId())).orElseThrow().getName());
+        assertFalse(await(userDao.update(new User(999L, "Ghost", "ghost@test.com", 20, null, 0L))));
+    }
+
+    @Test
+    void shouldDeleteUsersAndWriteEvents_WhenDeletedByIds() {
+        List<User> users = users(4);
+        await(userDao.saveAll(users));
+
+        assertTrue(await(userDao.delete(users.get(0))));
+        assertFalse(await(userDao.deleteById(users.get(0).getId())));
+        await(userDao.deleteAllById(List.of(users.get(1).getId(), users.get(2).getId(), -1L)));
+
+        assertEquals(List.of(users.get(3).getId()), await(userDao.findAll()).stream().map(User::getId).toList());
+        assertEquals(3, eventTypes().stream().filter(type -> type == ChangeType.DELETED).count());
+    }
+
+    @Test
+    void shouldPageAndFilterLikeBlockingDao_WhenUsersExist() {
+        await(userDao.saveAll(users(7)));
+
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            Page<User> page = await(userDao.findPage(cursor, 3));
+            page.items().forEach(user -> seen.add(user.getId()));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        assertEquals(blockingDao.findPage(null, 10).items().stream().map(User::getId).toList(), seen);
+
+        UserFilter filter = UserFilter.ANY.withNamePrefix("user_").withAgeBetween(20, null)
+                .sortedBy(UserFilter.SortField.AGE, true).withLimit(3);
+        assertEquals(blockingDao.findByFilter(filter).stream().map(User::getId).toList(),
+                await(userDao.findByFilter(filter)).stream().map(User::getId).toList());
+        assertNull(await(userDao.findPage(null, 10)).nextCursor());
+    }
+
+    @Test
+    void shouldServeManyConcurrentReads_WhenPipelined() {
+        List<User> users = users(20);
+        await(userDao.saveAll(users));
+
+        List<CompletableFuture<?>> reads = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            reads.add(userDao.findById(users.get(i % users.size()).getId()).toCompletableFuture());
+        }
+
+        CompletableFuture.allOf(reads.toArray(CompletableFuture[]::new)).join();
+        assertTrue(reads.stream().allMatch(read -> read.join() != null));
+    }
+
+    private List<User> users(int count) {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            users.add(new User("User_" + i, "user" + i + "@test.com", 18 + i));
+        }
+        return users;
+    }
+
+    private List<ChangeType> eventTypes() {
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            return session.createSelectionQuery("from OutboxEvent e order by e.id", OutboxEvent.class)
+                    .getResultList().stream()
+                    .map(OutboxEvent::getType)
+                    .toList();
+        }
+    }
+
+    private static <T> T await(CompletionStage<T> stage) {
+        return stage.toCompletableFuture().join();
+    }
+}
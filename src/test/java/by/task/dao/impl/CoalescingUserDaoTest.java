@@ -0,0 +1,166 @@
+package by.task.dao.impl;
+
+import by.task.dao.UserLookupDao;
+import by.task.exceptions.dao.UserQueryException;
+import by.task.models.User;
+import by.task.util.SessionRouter;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CoalescingUserDaoTest {
+    private static final Duration NEVER = Duration.ofHours(1);
+    private static final int CALLERS = 8;
+
+    @Mock
+    private UserLookupDao userDao;
+
+    private CoalescingUserDao coalescingDao;
+    private final ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor();
+
+    @AfterEach
+    void tearDown() {
+        callers.close();
+        coalescingDao.close();
+    }
+
+    @Test
+    void findById_concurrentCallsForSameId_loadOnce() throws Exception {
+        coalescingDao = new CoalescingUserDao(userDao);
+        CountDownLatch release = new CountDownLatch(1);
+        when(userDao.findById(1L)).thenAnswer(invocation -> {
+            release.await();
+            return Optional.of(createUser(1L));
+        });
+
+        List<CompletableFuture<Optional<User>>> results = IntStream.range(0, CALLERS)
+                .mapToObj(i -> CompletableFuture.supplyAsync(() -> coalescingDao.findById(1L), callers))
+                .toList();
+        awaitCoalesced(CALLERS - 1);
+        release.countDown();
+
+        List<User> users = results.stream().map(result -> result.join().orElseThrow()).toList();
+        verify(userDao, times(1)).findById(1L);
+        assertEquals(1, coalescingDao.getLoadCount());
+        assertNotSame(users.get(0), users.get(1));
+    }
+
+    @Test
+    void findById_loadFails_failsAllWaiters() throws Exception {
+        coalescingDao = new CoalescingUserDao(userDao);
+        CountDownLatch release = new CountDownLatch(1);
+        when(userDao.findById(1L)).thenAnswer(invocation -> {
+            release.await();
+            throw new UserQueryException("Ошибка", new RuntimeException());
+        });
+
+        List<CompletableFuture<Optional<User>>> results = IntStream.range(0, CALLERS)
+                .mapToObj(i -> CompletableFuture.supplyAsync(() -> coalescingDao.findById(1L), callers))
+                .toList();
+        awaitCoalesced(CALLERS - 1);
+        release.countDown();
+
+        for (CompletableFuture<Optional<User>> result : results) {
+            CompletionException e = assertThrows(CompletionException.class, result::join);
+            assertInstanceOf(UserQueryException.class, e.getCause());
+        }
+        verify(userDao, times(1)).findById(1L);
+    }
+
+    @Test
+    void findById_distinctIdsWithinWindow_loadedInOneBatch() {
+        coalescingDao = new CoalescingUserDao(userDao, CoalescingSettings.microBatching(NEVER, 3));
+        when(userDao.findAllById(anyCollection())).thenReturn(List.of(createUser(1L), createUser(2L)));
+
+        List<CompletableFuture<Optional<User>>> results = List.of(1L, 2L, 3L).stream()
+                .map(id -> CompletableFuture.supplyAsync(() -> coalescingDao.findById(id), callers))
+                .toList();
+
+        assertEquals(1L, results.get(0).orTimeout(5, TimeUnit.SECONDS).join().orElseThrow().getId());
+        assertEquals(2L, results.get(1).orTimeout(5, TimeUnit.SECONDS).join().orElseThrow().getId());
+        assertTrue(results.get(2).orTimeout(5, TimeUnit.SECONDS).join().isEmpty());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<Long>> ids = ArgumentCaptor.forClass(Collection.class);
+        verify(userDao, times(1)).findAllById(ids.capture());
+        assertEquals(Set.of(1L, 2L, 3L), Set.copyOf(ids.getValue()));
+    }
+
+    @Test
+    void findById_windowElapsed_loadsPartialBatch() {
+        coalescingDao = new CoalescingUserDao(userDao, CoalescingSettings.microBatching(Duration.ofMillis(5), 100));
+        when(userDao.findAllById(anyCollection())).thenReturn(List.of(createUser(1L)));
+
+        assertEquals(1L, coalescingDao.findById(1L).orElseThrow().getId());
+        assertEquals(1, coalescingDao.getLoadCount());
+    }
+
+    @Test
+    void findById_callerPinnedToPrimary_readsOnOwnThreadInsteadOfBatch() {
+        SessionFactory primary = mock(SessionFactory.class);
+        SessionFactory replica = mock(SessionFactory.class);
+        SessionRouter router = new SessionRouter(primary, List.of(replica), Duration.ofMinutes(1), Duration.ofSeconds(30));
+        coalescingDao = new CoalescingUserDao(userDao, CoalescingSettings.microBatching(Duration.ofMillis(5), 100),
+                router::isPinnedToPrimary);
+        // Как UserDao: источник чтения выбирается в потоке, который выполняет запрос
+        List<SessionFactory> routes = new CopyOnWriteArrayList<>();
+        when(userDao.findById(1L)).thenAnswer(invocation -> {
+            routes.add(router.forRead());
+            return Optional.of(createUser(1L));
+        });
+        when(userDao.findAllById(anyCollection())).thenAnswer(invocation -> {
+            routes.add(router.forRead());
+            return List.of(createUser(1L));
+        });
+
+        CompletableFuture.runAsync(() -> coalescingDao.findById(1L), callers).orTimeout(5, TimeUnit.SECONDS).join();
+        router.markWrite();
+        coalescingDao.findById(1L);
+
+        assertEquals(List.of(replica, primary), routes);
+    }
+
+    private void awaitCoalesced(long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (coalescingDao.getCoalescedCount() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(expected, coalescingDao.getCoalescedCount());
+    }
+
+    private User createUser(Long id) {
+        User user = new User("Name " + id, "user" + id + "@test.com", 30);
+        user.setId(id);
+        return user;
+    }
+}
@@ -0,0 +1,143 @@
+package by.task.dao.impl;
+
+import by.task.dao.UserLookupDao;
+import by.task.exceptions.dao.UserQueryException;
+import by.task.models.ChangeType;
+import by.task.models.User;
+import by.task.outbox.UserChange;
+import by.task.outbox.UserChangeFeed;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OffHeapUserDaoTest {
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2024, 1, 1, 10, 0);
+    private static final OffHeapSettings MANUAL_REFRESH = new OffHeapSettings(Duration.ofHours(1), 100, 100, 64 << 10);
+
+    @Mock
+    private UserLookupDao userDao;
+
+    @Mock
+    private UserChangeFeed feed;
+
+    private OffHeapUserDao offHeapDao;
+
+    @BeforeEach
+    void setUp() {
+        when(feed.lastPosition()).thenReturn(10L);
+        when(userDao.streamAll(anyInt())).thenReturn(Stream.of(
+                new User(1L, "First", "first@test.com", 20, CREATED_AT, 0L),
+                new User(2L, "Second", "second@test.com", 30, CREATED_AT, 0L)));
+        lenient().when(feed.readFrom(anyLong(), anyInt())).thenReturn(List.of());
+        offHeapDao = new OffHeapUserDao(userDao, feed, MANUAL_REFRESH);
+        offHeapDao.start().join();
+    }
+
+    @AfterEach
+    void tearDown() {
+        offHeapDao.close();
+    }
+
+    @Test
+    void lookups_afterWarmUp_areServedFromMemory() {
+        assertEquals("First", offHeapDao.findById(1L).orElseThrow().getName());
+        assertEquals(2L, offHeapDao.findByEmail("second@test.com").orElseThrow().getId());
+        assertTrue(offHeapDao.existsById(2L));
+        assertFalse(offHeapDao.existsByEmail("missing@test.com"));
+        assertEquals(List.of(2L, 1L), offHeapDao.findAllById(List.of(2L, 3L, 1L, 2L)).stream().map(User::getId).toList());
+
+        verify(userDao, never()).findById(anyLong());
+    }
+
+    @Test
+    void lookups_beforeStart_goToDelegate() {
+        OffHeapUserDao notStarted = new OffHeapUserDao(userDao, feed, MANUAL_REFRESH);
+        when(userDao.findById(1L)).thenReturn(Optional.empty());
+
+        assertTrue(notStarted.findById(1L).isEmpty());
+        assertEquals(0, notStarted.refresh());
+
+        verify(userDao).findById(1L);
+        notStarted.close();
+    }
+
+    @Test
+    void start_warmUpFails_lookupsStayOnDelegate() {
+        OffHeapUserDao failing = new OffHeapUserDao(userDao, feed, MANUAL_REFRESH);
+        when(userDao.streamAll(anyInt())).thenThrow(new UserQueryException("таблицы нет", null));
+        when(userDao.existsByEmail("first@test.com")).thenReturn(true);
+
+        assertThrows(CompletionException.class, () -> failing.start().join());
+
+        assertFalse(failing.isLoaded());
+        assertTrue(failing.existsByEmail("first@test.com"));
+        failing.close();
+    }
+
+    @Test
+    void refresh_appliesFeedChangesFromWarmUpPosition() {
+        when(feed.readFrom(10L, 100)).thenReturn(List.of(
+                change(11, 2L, ChangeType.UPDATED, "{\"id\":2,\"name\":\"Renamed\",\"email\":\"second@test.com\",\"age\":31,\"created_at\":\"2024-01-01T10:00\",\"version\":1}"),
+                change(12, 1L, ChangeType.DELETED, "{\"id\":1,\"version\":0}"),
+                change(13, 3L, ChangeType.CREATED, "{\"id\":3,\"name\":\"Third\",\"email\":\"third@test.com\",\"age\":40,\"created_at\":\"2024-01-02T10:00\",\"version\":0}")));
+
+        assertEquals(3, offHeapDao.refresh());
+
+        assertEquals("Renamed", offHeapDao.findById(2L).orElseThrow().getName());
+        assertFalse(offHeapDao.existsById(1L));
+        assertEquals(CREATED_AT.plusDays(1), offHeapDao.findById(3L).orElseThrow().getCreatedAt());
+        assertEquals(13L, offHeapDao.getFeedPosition());
+    }
+
+    @Test
+    void writes_goToDelegateAndUpdateMemory() {
+        User user = new User(5L, "Fifth", "fifth@test.com", 50, CREATED_AT, 0L);
+        offHeapDao.save(user);
+        when(userDao.deleteById(1L)).thenReturn(true);
+
+        offHeapDao.deleteById(1L);
+
+        verify(userDao).save(user);
+        assertTrue(offHeapDao.existsByEmail("fifth@test.com"));
+        assertFalse(offHeapDao.existsById(1L));
+    }
+
+    @Test
+    void update_withoutCreatedAt_reloadsUserFromDelegate() {
+        User changed = new User(2L, "Changed", "second@test.com", 33, null, 1L);
+        when(userDao.update(changed)).thenReturn(true);
+        when(userDao.findById(2L)).thenReturn(Optional.of(new User(2L, "Changed", "second@test.com", 33, CREATED_AT, 1L)));
+
+        assertTrue(offHeapDao.update(changed));
+
+        User found = offHeapDao.findById(2L).orElseThrow();
+        assertEquals("Changed", found.getName());
+        assertEquals(CREATED_AT, found.getCreatedAt());
+    }
+
+    private static UserChange change(long position, long userId, ChangeType type, String payload) {
+        return new UserChange(position, position, userId, type, payload, CREATED_AT);
+    }
+}
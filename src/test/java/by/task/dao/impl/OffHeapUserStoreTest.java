@@ -0,0 +1,139 @@
+package by.task.dao.impl;
+
+import by.task.models.User;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OffHeapUserStoreTest {
+    private static final int SMALL_CHUNK = 64 << 10;
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123_456_789);
+
+    private final OffHeapUserStore store = new OffHeapUserStore(SMALL_CHUNK);
+
+    @Test
+    void put_thenGet_returnsAllFields() {
+        store.put(new User(7L, "Пётр Иванов", "petr@test.com", 42, CREATED_AT, 3L));
+
+        User found = store.get(7L);
+
+        assertEquals(7L, found.getId());
+        assertEquals("Пётр Иванов", found.getName());
+        assertEquals("petr@test.com", found.getEmail());
+        assertEquals(42, found.getAge());
+        assertEquals(CREATED_AT, found.getCreatedAt());
+        assertEquals(3L, found.getVersion());
+        assertNull(store.get(8L));
+    }
+
+    @Test
+    void put_olderVersion_isIgnored() {
+        store.put(new User(1L, "New", "user@test.com", 30, CREATED_AT, 5L));
+
+        assertFalse(store.put(new User(1L, "Old", "user@test.com", 20, CREATED_AT, 4L)));
+
+        assertEquals("New", store.get(1L).getName());
+    }
+
+    @Test
+    void put_changedEmail_reindexesEmail() {
+        store.put(new User(1L, "User", "old@test.com", 30, CREATED_AT, 0L));
+
+        store.put(new User(1L, "User", "new@test.com", 30, CREATED_AT, 1L));
+
+        assertNull(store.findByEmail("old@test.com"));
+        assertFalse(store.containsEmail("old@test.com"));
+        assertEquals(1L, store.findByEmail("new@test.com").getId());
+    }
+
+    @Test
+    void remove_newerStoredVersion_keepsUser() {
+        store.put(new User(1L, "User", "user@test.com", 30, CREATED_AT, 2L));
+
+        assertFalse(store.remove(1L, 1L));
+        assertTrue(store.remove(1L, 2L));
+
+        assertFalse(store.contains(1L));
+        assertNull(store.findByEmail("user@test.com"));
+    }
+
+    @Test
+    void manyUsers_growIndexesAndSurviveRemovals() {
+        int count = 20_000;
+        for (long id = 1; id <= count; id++) {
+            store.put(new User(id, "User " + id, "user" + id + "@test.com", 20, CREATED_AT, 0L));
+        }
+        for (long id = 1; id <= count; id += 2) {
+            store.remove(id, null);
+        }
+
+        assertEquals(count / 2, store.size());
+        for (long id = 1; id <= count; id++) {
+            boolean kept = id % 2 == 0;
+            assertEquals(kept, store.contains(id), "ID " + id);
+            assertEquals(kept, store.containsEmail("user" + id + "@test.com"), "email " + id);
+        }
+    }
+
+    @Test
+    void compactIfNeeded_dropsGarbageAndKeepsLiveRecords() {
+        for (long version = 0; version < 50; version++) {
+            for (long id = 1; id <= 500; id++) {
+                store.put(new User(id, "User " + id + " v" + version, "user" + id + "@test.com", 20, CREATED_AT, version));
+            }
+        }
+        long before = store.offHeapBytes();
+
+        assertTrue(store.compactIfNeeded());
+
+        assertEquals(0, store.garbageBytes());
+        assertTrue(store.offHeapBytes() < before);
+        assertEquals("User 250 v49", store.get(250L).getName());
+        assertEquals(250L, store.findByEmail("user250@test.com").getId());
+    }
+
+    @Test
+    void concurrentReadsDuringWrites_neverSeeMissingOrTornUsers() throws Exception {
+        int users = 2_000;
+        for (long id = 1; id <= users; id++) {
+            store.put(new User(id, "v0", "user" + id + "@test.com", 0, CREATED_AT, 0L));
+        }
+        AtomicBoolean writing = new AtomicBoolean(true);
+        try (ExecutorService readers = Executors.newFixedThreadPool(4)) {
+            Future<?>[] results = new Future<?>[4];
+            for (int r = 0; r < results.length; r++) {
+                results[r] = readers.submit(() -> {
+                    long id = 1;
+                    while (writing.get()) {
+                        User user = store.get(id);
+                        assertNotNull(user);
+                        // Имя и возраст пишутся вместе с версией: расхождение означало бы разорванную запись
+                        assertEquals("v" + user.getVersion(), user.getName());
+                        assertEquals(user.getVersion().intValue(), user.getAge());
+                        id = id % users + 1;
+                    }
+                });
+            }
+            for (int version = 1; version <= 30; version++) {
+                for (long id = 1; id <= users; id++) {
+                    store.put(new User(id, "v" + version, "user" + id + "@test.com", version, CREATED_AT, (long) version));
+                }
+                store.compactIfNeeded();
+            }
+            writing.set(false);
+            for (Future<?> result : results) {
+                result.get();
+            }
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package by.task.dao.impl;
+
+import by.task.dao.UserLookupDao;
+import by.task.dao.UserViewDao;
+import by.task.exceptions.dao.DaoUnavailableException;
+import by.task.exceptions.dao.UserConcurrentModificationException;
+import by.task.exceptions.dao.UserPersistenceException;
+import by.task.exceptions.dao.UserQueryException;
+import by.task.metrics.MetricsRegistry;
+import by.task.models.User;
+import by.task.models.UserView;
+import org.hibernate.exception.JDBCConnectionException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+@ExtendWith(MockitoExtension.class)
+class ResilientUserDaoTest {
+    private static final ResilienceSettings SETTINGS = new ResilienceSettings(3, Duration.ZERO, Duration.ZERO,
+            Duration.ofSeconds(10), 10, 4, 0.5, Duration.ofSeconds(5), 2);
+
+    @Mock
+    private UserLookupDao userDao;
+
+    private final AtomicLong clock = new AtomicLong();
+    private final MetricsRegistry metrics = new MetricsRegistry();
+    private ResilientUserDao resilientDao;
+
+    @BeforeEach
+    void setUp() {
+        resilientDao = new ResilientUserDao(userDao, SETTINGS, metrics, clock::get);
+    }
+
+    @Test
+    void findById_transientFailures_retriedUntilSuccess() {
+        User user = new User("Test User", "user@test.com", 30);
+        when(userDao.findById(1L))
+                .thenThrow(readFailure("40001"))
+                .thenThrow(readFailure("08006"))
+                .thenReturn(Optional.of(user));
+
+        assertEquals(Optional.of(user), resilientDao.findById(1L));
+
+        verify(userDao, times(3)).findById(1L);
+        assertEquals(2, metrics.getCounter(ResilientUserDao.METRICS_PREFIX + ".retries"));
+        assertEquals(2, metrics.getCounter(ResilientUserDao.METRICS_PREFIX + ".retries.findById"));
+    }
+
+    @Test
+    void findById_persistentFailure_givesUpAfterMaxAttempts() {
+        when(userDao.findById(1L)).thenThrow(readFailure("40P01"));
+
+        assertThrows(UserQueryException.class, () -> resilientDao.findById(1L));
+
+        verify(userDao, times(3)).findById(1L);
+    }
+
+    @Test
+    void findById_statementTimeout_notRetried() {
+        when(userDao.findById(1L)).thenThrow(readFailure("57014"));
+
+        assertThrows(UserQueryException.class, () -> resilientDao.findById(1L));
+
+        verify(userDao).findById(1L);
+    }
+
+    @Test
+    void findById_statementTimeouts_notRetriedButCountedAsOutage() {
+        when(userDao.findById(1L)).thenThrow(readFailure("57014"));
+        for (int i = 0; i < 4; i++) {
+            assertThrows(UserQueryException.class, () -> resilientDao.findById(1L));
+        }
+
+        verify(userDao, times(4)).findById(1L);
+        assertEquals(0, metrics.getCounter(ResilientUserDao.METRICS_PREFIX + ".retries"));
+        assertEquals(CircuitBreaker.State.OPEN, resilientDao.getCircuitState());
+        assertEquals(1, metrics.getCounter(ResilientUserDao.METRICS_PREFIX + ".breakerOpened"));
+    }
+
+    @Test
+    void findViewById_delegateWithProjections_retriedOnViewQuery() {
+        UserLookupDao viewDao = mock(UserLookupDao.class, withSettings().extraInterfaces(UserViewDao.class));
+        UserView view = UserView.of(new User(1L, "Test User", "user@test.com", 30, null, 0L));
+        when(((UserViewDao) viewDao).findViewById(1L))
+                .thenThrow(readFailure("40001"))
+                .thenReturn(Optional.of(view));
+        resilientDao = new ResilientUserDao(viewDao, SETTINGS, metrics, clock::get);
+
+        assertEquals(Optional.of(view), resilientDao.findViewById(1L));
+
+        verify(viewDao, never()).findById(any());
+        assertEquals(1, metrics.getCounter(ResilientUserDao.METRICS_PREFIX + ".retries.findViewById"));
+    }
+
+    @Test
+    void update_concurrentModification_notRetried() {
+        User user = new User(1L, "Test User", "user@test.com", 30, null, 0L);
+        when(userDao.update(user)).thenThrow(new UserConcurrentModificationException("конфликт", null));
+
+        assertThrows(UserConcurrentModificationException.class, () -> resilientDao.update(user));
+
+        verify(userDao).update(user);
+    }
+
+    @Test
+    void save_connectionLostDuringWrite_notRetried() {
+        User user = new User("Test User", "user@test.com", 30);
+        doAnswer(invocation -> {
+            throw writeFailure("08006");
+        }).when(userDao).save(user);
+
+        assertThrows(UserPersistenceException.class, () -> resilientDao.save(user));
+
+        verify(userDao).save(user);
+    }
+
+    @Test
+    void save_serializationFailure_retriedWithOriginalIdAndVersion() {
+        User user = new User("Test User", "user@test.com", 30);
+        List<Long> idsSeen = new ArrayList<>();
+        doAnswer(invocation -> {
+            idsSeen.add(user.getId());
+            // Как persist: ID и версия назначаются до того, как транзакция откатится
+            user.setId(100L + idsSeen.size());
+            user.setVersion(0L);
+            if (idsSeen.size() == 1) throw writeFailure("40001");
+            return null;
+        }).when(userDao).save(user);
+
+        resilientDao.save(user);
+
+        assertEquals(2, idsSeen.size());
+        assertNull(idsSeen.get(1));
+        assertEquals(102L, user.getId());
+    }
+
+    @Test
+    void findById_manyOutages_opensBreakerAndRejectsWithoutCallingDao() {
+        when(userDao.findById(1L)).thenThrow(new UserQueryException("пул исчерпан",
+                new SQLTransientConnectionException("Connection is not available, request timed out")));
+        for (int i = 0; i < 4; i++) {
+            assertThrows(UserQueryException.class, () -> resilientDao.findById(1L));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, resilientDao.getCircuitState());
+
+        DaoUnavailableException rejected = assertThrows(DaoUnavailableException.class, () -> resilientDao.findById(1L));
+
+        assertEquals(Duration.ofSeconds(5), rejected.getRetryAfter());
+        verify(userDao, times(4)).findById(1L);
+        assertEquals(1, metrics.getCounter(ResilientUserDao.METRICS_PREFIX + ".breakerOpened"));
+        assertEquals(1, metrics.getCounter(ResilientUserDao.METRICS_PREFIX + ".rejected"));
+    }
+
+    @Test
+    void findById_breakerPauseElapsed_closesAfterSuccessfulProbes() {
+        when(userDao.existsById(1L)).thenThrow(readFailure("57P03"));
+        for (int i = 0; i < 2; i++) {
+            // 57P03 повторяется: каждый вызов — три отказа подряд
+            assertThrows(UserQueryException.class, () -> resilientDao.existsById(1L));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, resilientDao.getCircuitState());
+        clock.addAndGet(Duration.ofSeconds(5).toNanos());
+        when(userDao.findById(2L)).thenReturn(Optional.empty());
+
+        resilientDao.findById(2L);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, resilientDao.getCircuitState());
+        resilientDao.findById(2L);
+
+        assertEquals(CircuitBreaker.State.CLOSED, resilientDao.getCircuitState());
+        verify(userDao, times(2)).findById(2L);
+    }
+
+    @Test
+    void findById_probeFails_reopensBreaker() {
+        when(userDao.findById(1L)).thenThrow(readFailure("57014"));
+        for (int i = 0; i < 4; i++) {
+            assertThrows(UserQueryException.class, () -> resilientDao.findById(1L));
+        }
+        clock.addAndGet(Duration.ofSeconds(5).toNanos());
+
+        assertThrows(UserQueryException.class, () -> resilientDao.findById(1L));
+
+        assertEquals(CircuitBreaker.State.OPEN, resilientDao.getCircuitState());
+        assertThrows(DaoUnavailableException.class, () -> resilientDao.findById(1L));
+        verify(userDao, times(5)).findById(1L);
+        verifyNoMoreInteractions(userDao);
+    }
+
+    @Test
+    void findById_retryWouldExceedOperationTimeout_givesUp() {
+        resilientDao = new ResilientUserDao(userDao, new ResilienceSettings(5, Duration.ZERO, Duration.ZERO,
+                Duration.ofMillis(100), 10, 4, 0.5, Duration.ofSeconds(5), 2), metrics, clock::get);
+        when(userDao.findById(1L)).thenAnswer(invocation -> {
+            clock.addAndGet(Duration.ofMillis(60).toNanos());
+            throw readFailure("40001");
+        });
+
+        assertThrows(UserQueryException.class, () -> resilientDao.findById(1L));
+
+        verify(userDao, times(2)).findById(1L);
+        assertEquals(1, metrics.getCounter(ResilientUserDao.METRICS_PREFIX + ".retries"));
+    }
+
+    private static UserQueryException readFailure(String sqlState) {
+        return new UserQueryException("Ошибка чтения", new JDBCConnectionException("ошибка JDBC", new SQLException("сбой", sqlState)));
+    }
+
+    private static UserPersistenceException writeFailure(String sqlState) {
+        return new UserPersistenceException("Ошибка записи", new JDBCConnectionException("ошибка JDBC", new SQLException("сбой", sqlState)));
+    }
+}
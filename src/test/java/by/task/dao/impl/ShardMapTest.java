@@ -0,0 +1,62 @@
+package by.task.dao.impl;
+
+import by.task.models.ShardRange;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShardMapTest {
+
+    @Test
+    void shouldSplitBucketsIntoContiguousRanges_WhenCreatedEvenly() {
+        List<ShardRange> ranges = ShardMap.evenlySplit(3).ranges();
+
+        assertEquals(3, ranges.size());
+        assertEquals(0, ranges.get(0).getFirstBucket());
+        assertEquals(341, ranges.get(0).getLastBucket());
+        assertEquals(ShardMap.BUCKETS - 1, ranges.get(2).getLastBucket());
+        assertEquals(2, ranges.get(2).getShard());
+    }
+
+    @Test
+    void shouldRestoreSameRouting_WhenRebuiltFromRanges() {
+        ShardMap map = ShardMap.evenlySplit(3).withRange(100, 199, 2);
+
+        ShardMap restored = ShardMap.of(map.ranges(), 3);
+
+        for (int bucket = 0; bucket < ShardMap.BUCKETS; bucket++) {
+            assertEquals(map.shardOfBucket(bucket), restored.shardOfBucket(bucket));
+        }
+        assertEquals(2, restored.shardOf(1024L * 7 + 150));
+        assertEquals(5, map.ranges().size());
+    }
+
+    @Test
+    void shouldRejectMap_WhenBucketsAreNotCovered() {
+        assertThrows(IllegalArgumentException.class, () -> ShardMap.of(List.of(new ShardRange(0, 500, 0)), 2));
+        assertThrows(IllegalArgumentException.class, () -> ShardMap.of(List.of(new ShardRange(0, 1023, 3)), 2));
+        assertThrows(IllegalArgumentException.class, () -> ShardMap.evenlySplit(2).withRange(10, 5, 1));
+    }
+
+    @Test
+    void shouldEncodeBucketAndStayUnique_WhenIdsGeneratedWithinOneMillisecond() {
+        ShardedIdGenerator generator = new ShardedIdGenerator(3, () -> ShardedIdGenerator.EPOCH_MILLIS + 1000);
+        Set<Long> ids = new HashSet<>();
+        long previous = 0;
+
+        for (int i = 0; i < 1000; i++) {
+            long id = generator.next(i % ShardMap.BUCKETS);
+            assertEquals(i % ShardMap.BUCKETS, ShardedIdGenerator.bucketOf(id));
+            assertTrue(id > previous);
+            previous = id;
+            ids.add(id);
+        }
+        assertEquals(1000, ids.size());
+    }
+}
@@ -0,0 +1,356 @@
+package by.task.dao.impl;
+
+import by.task.dao.Page;
+import by.task.dao.UserFilter;
+import by.task.models.User;
+import by.task.util.TestHibernateUtil;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@TestInstance(Lifecycle.PER_CLASS)
+class ShardedUserDaoTest {
+    private static final int SHARDS = 3;
+
+    private List<SessionFactory> shards;
+    private ShardedUserDao userDao;
+
+    @BeforeAll
+    void setup() {
+        shards = TestHibernateUtil.buildShardSessionFactories(SHARDS);
+    }
+
+    @AfterAll
+    void tearDown() {
+        shards.forEach(SessionFactory::close);
+        TestHibernateUtil.shutdown();
+    }
+
+    @BeforeEach
+    void clearDatabases() {
+        for (SessionFactory shard : shards) {
+            try (Session session = shard.openSession()) {
+                session.beginTransaction();
+                session.createNativeMutationQuery("TRUNCATE TABLE users, user_outbox, user_shard_ranges, user_shard_epoch").executeUpdate();
+                session.getTransaction().commit();
+            }
+            shard.getCache().evictAllRegions();
+        }
+        userDao = new ShardedUserDao(shards, 1);
+    }
+
+    @AfterEach
+    void closeDao() {
+        userDao.close();
+    }
+
+    @Test
+    void shouldStoreUserOnEmailHomeShard_WhenSaved() {
+        User user = new User("Test User", "user@test.com", 30);
+
+        userDao.save(user);
+
+        assertEquals(ShardMap.bucketOf("user@test.com"), ShardedIdGenerator.bucketOf(user.getId()));
+        int home = userDao.getShardMap().shardOf("user@test.com");
+        for (int shard = 0; shard < SHARDS; shard++) {
+            assertEquals(shard == home ? 1 : 0, countUsers(shard));
+        }
+        assertEquals("Test User", userDao.findById(user.getId()).orElseThrow().getName());
+        assertEquals(user.getId(), userDao.findByEmail("user@test.com").orElseThrow().getId());
+        assertTrue(userDao.existsById(user.getId()));
+    }
+
+    @Test
+    void shouldFindUserOnOtherShard_WhenEmailChangedAfterCreation() {
+        User user = new User("Test User", "user@test.com", 30);
+        userDao.save(user);
+        String movedEmail = emailWithHomeOtherThan(userDao.getShardMap().shardOf(user.getId()));
+
+        user.setEmail(movedEmail);
+        userDao.update(user);
+
+        assertEquals(user.getId(), userDao.findByEmail(movedEmail).orElseThrow().getId());
+        assertTrue(userDao.existsByEmail(movedEmail));
+        assertFalse(userDao.existsByEmail("user@test.com"));
+    }
+
+    @Test
+    void shouldKeepRequestedOrder_WhenUsersAreFoundOnDifferentShards() {
+        List<User> users = saveUsers(12);
+        List<Long> ids = new ArrayList<>(users.stream().map(User::getId).toList());
+        Collections.reverse(ids);
+        ids.add(2, ids.get(0));
+
+        List<User> found = userDao.findAllById(ids);
+
+        assertEquals(ids.stream().distinct().toList(), found.stream().map(User::getId).toList());
+    }
+
+    @Test
+    void shouldWalkAllShardsInCreationOrder_WhenPaging() {
+        List<User> users = saveUsers(10);
+        assertTrue(users.stream().map(user -> userDao.getShardMap().shardOf(user.getId())).distinct().count() > 1);
+
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            Page<User> page = userDao.findPage(cursor, 3);
+            page.items().forEach(user -> seen.add(user.getId()));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        assertEquals(users.stream().map(User::getId).toList(), seen);
+        assertEquals(10, userDao.findAll().size());
+        try (Stream<User> stream = userDao.streamAll(2)) {
+            assertEquals(seen, stream.map(User::getId).toList());
+        }
+    }
+
+    @Test
+    void shouldMergeShardResults_WhenFilterIsSortedAndLimited() {
+        List<User> users = saveUsers(12);
+
+        List<User> found = userDao.findByFilter(UserFilter.ANY.withAgeBetween(22, null)
+                .sortedBy(UserFilter.SortField.AGE, true).withLimit(4));
+
+        List<Long> expected = users.stream()
+                .filter(user -> user.getAge() >= 22)
+                .sorted(Comparator.comparing(User::getAge).thenComparing(User::getId).reversed())
+                .limit(4)
+                .map(User::getId)
+                .toList();
+        assertEquals(expected, found.stream().map(User::getId).toList());
+    }
+
+    @Test
+    void shouldNotSkipOwnedRows_WhenShardAlsoHoldsRowsBeingMoved() {
+        List<User> users = new ArrayList<>(saveUsers(12));
+        // Как в середине переноса: на шарде 1 лежат копии строк, которыми он не владеет, и часть из них
+        // владелец уже удалил
+        copyForeignRowsTo(1);
+        List<User> deleted = users.subList(0, 6).stream()
+                .filter(user -> userDao.getShardMap().shardOf(user.getId()) != 1)
+                .toList();
+        userDao.deleteAllById(deleted.stream().map(User::getId).toList());
+        users.removeAll(deleted);
+
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            Page<User> page = userDao.findPage(cursor, 2);
+            page.items().forEach(user -> seen.add(user.getId()));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        List<User> filtered = userDao.findByFilter(UserFilter.ANY.withLimit(5));
+
+        assertEquals(users.stream().map(User::getId).toList(), seen);
+        assertEquals(users.subList(0, 5).stream().map(User::getId).toList(), filtered.stream().map(User::getId).toList());
+    }
+
+    @Test
+    void shouldApplyBatchOperationsOnEveryShard_WhenUsersAreSpread() {
+        List<User> users = saveUsers(12);
+        users.forEach(user -> user.setName(user.getName() + " updated"));
+
+        userDao.updateAll(users);
+        userDao.deleteAllById(users.subList(0, 6).stream().map(User::getId).toList());
+
+        assertEquals(6, userDao.findAll().size());
+        assertTrue(userDao.findAll().stream().allMatch(user -> user.getName().endsWith(" updated")));
+        assertFalse(userDao.existsById(users.get(0).getId()));
+    }
+
+    @Test
+    void shouldMoveBucketsToTargetShard_WhenRebalanced() {
+        List<User> users = saveUsers(40);
+        long onTarget = countUsers(2);
+
+        RebalanceReport report = new ShardRebalancer(userDao, 7).move(0, 341, 2);
+
+        assertEquals(0, countUsers(0));
+        assertEquals(report.copiedRows(), report.removedRows());
+        assertEquals(onTarget + report.copiedRows(), countUsers(2));
+        assertEquals(40, userDao.findAll().size());
+        for (User user : users) {
+            assertEquals(user.getEmail(), userDao.findById(user.getId()).orElseThrow().getEmail());
+            assertEquals(user.getId(), userDao.findByEmail(user.getEmail()).orElseThrow().getId());
+        }
+        // Карта сохранена в каталоге: новый экземпляр DAO маршрутизирует так же
+        try (ShardedUserDao reopened = new ShardedUserDao(shards, 2)) {
+            assertEquals(2, reopened.getShardMap().shardOfBucket(0));
+            assertEquals(1, reopened.getShardMap().shardOfBucket(342));
+        }
+        User moved = users.stream().filter(user -> ShardedIdGenerator.bucketOf(user.getId()) <= 341).findFirst().orElseThrow();
+        moved.setName("After move");
+        assertTrue(userDao.update(moved));
+        assertEquals("After move", userDao.findById(moved.getId()).orElseThrow().getName());
+    }
+
+    @Test
+    void shouldCarryWritesMadeAfterCatchUp_WhenSwitchingMap() {
+        List<User> users = saveUsers(40);
+        List<User> moving = users.stream().filter(user -> ShardedIdGenerator.bucketOf(user.getId()) <= 341).toList();
+        assertTrue(moving.size() >= 2);
+        User changed = moving.get(0);
+        User deleted = moving.get(1);
+        List<User> added = new ArrayList<>();
+
+        // Изменения после догоняющей синхронизации попадают на цель только через события outbox под блокировкой
+        new ShardRebalancer(userDao, 7, Duration.ofMinutes(1), () -> {
+            changed.setName("Changed before switch");
+            assertTrue(userDao.update(changed));
+            assertTrue(userDao.delete(deleted));
+            for (int i = 0; i < 10; i++) {
+                User user = new User("Added " + i, "added" + i + "@test.com", 30);
+                userDao.save(user);
+                added.add(user);
+            }
+        }).move(0, 341, 2);
+
+        assertEquals(0, countUsers(0));
+        assertEquals("Changed before switch", userDao.findById(changed.getId()).orElseThrow().getName());
+        assertTrue(userDao.findById(deleted.getId()).isEmpty());
+        for (User user : added) {
+            assertEquals(user.getEmail(), userDao.findById(user.getId()).orElseThrow().getEmail());
+        }
+        assertEquals(49, userDao.findAll().size());
+    }
+
+    @Test
+    void shouldKeepConcurrentWrites_WhenRebalancingOnline() throws InterruptedException {
+        List<User> users = saveUsers(60);
+        Map<Long, String> lastNames = new ConcurrentHashMap<>();
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread writer = Thread.ofPlatform().start(() -> {
+            int round = 0;
+            while (running.get()) {
+                for (User user : users) {
+                    User current = userDao.findById(user.getId()).orElseThrow();
+                    current.setName("round " + round);
+                    if (userDao.update(current)) lastNames.put(user.getId(), current.getName());
+                }
+                round++;
+            }
+        });
+
+        new ShardRebalancer(userDao, 5).move(0, 682, 2);
+        running.set(false);
+        writer.join();
+
+        assertEquals(0, countUsers(0) + countUsers(1));
+        for (User user : users) {
+            Optional<User> found = userDao.findById(user.getId());
+            assertEquals(lastNames.getOrDefault(user.getId(), user.getName()), found.orElseThrow().getName());
+        }
+        assertEquals(60, userDao.findAll().size());
+        assertNull(userDao.findPage(null, 100).nextCursor());
+    }
+
+    @Test
+    void shouldRetryWriteOnNewOwner_WhenAnotherInstanceMovedBuckets() {
+        List<User> users = saveUsers(20);
+        User moved = users.stream().filter(user -> userDao.getShardMap().shardOf(user.getId()) == 0).findFirst().orElseThrow();
+        long epoch = userDao.getShardMap().epoch();
+
+        try (ShardedUserDao other = new ShardedUserDao(shards, 2)) {
+            new ShardRebalancer(other, 7).move(0, 341, 2);
+        }
+        // Этот экземпляр ещё маршрутизирует по старой карте: шард 0 отклоняет запись по версии карты
+        assertEquals(epoch, userDao.getShardMap().epoch());
+        moved.setName("After move");
+
+        assertTrue(userDao.update(moved));
+
+        assertEquals(epoch + 1, userDao.getShardMap().epoch());
+        assertEquals(0, countUsers(0));
+        assertEquals("After move", userDao.findById(moved.getId()).orElseThrow().getName());
+        assertEquals(20, userDao.findAll().size());
+    }
+
+    @Test
+    void shouldRefuseMapSwitch_WhenCatalogVersionChanged() {
+        ShardMap current = userDao.getShardMap();
+        try (ShardedUserDao other = new ShardedUserDao(shards, 2)) {
+            new ShardRebalancer(other, 7).move(0, 10, 1);
+        }
+
+        assertThrows(IllegalStateException.class, () -> ShardCatalog.switchTo(shards, current,
+                current.withRange(0, 10, 2), () -> 0));
+        try (ShardedUserDao reopened = new ShardedUserDao(shards, 2)) {
+            assertEquals(1, reopened.getShardMap().shardOfBucket(0));
+        }
+    }
+
+    private List<User> saveUsers(int count) {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            User user = new User("User " + i, "user" + i + "@test.com", 18 + i % 10);
+            userDao.save(user);
+            users.add(user);
+        }
+        return users;
+    }
+
+    private void copyForeignRowsTo(int target) {
+        for (int shard = 0; shard < SHARDS; shard++) {
+            if (shard == target) continue;
+            List<Object[]> rows;
+            try (StatelessSession session = shards.get(shard).openStatelessSession()) {
+                rows = session.createNativeQuery("select id, name, email, age, created_at, version from users", Object[].class)
+                        .getResultList();
+            }
+            try (Session session = shards.get(target).openSession()) {
+                session.beginTransaction();
+                for (Object[] row : rows) {
+                    session.createNativeMutationQuery("insert into users (id, name, email, age, created_at, version) "
+                                    + "values (:id, :name, :email, :age, :createdAt, :version)")
+                            .setParameter("id", row[0])
+                            .setParameter("name", row[1])
+                            .setParameter("email", row[2])
+                            .setParameter("age", row[3])
+                            .setParameter("createdAt", row[4])
+                            .setParameter("version", row[5])
+                            .executeUpdate();
+                }
+                session.getTransaction().commit();
+            }
+        }
+    }
+
+    private long countUsers(int shard) {
+        try (StatelessSession session = shards.get(shard).openStatelessSession()) {
+            return session.createNativeQuery("select count(*) from users", Long.class).getSingleResult();
+        }
+    }
+
+    private String emailWithHomeOtherThan(int shard) {
+        for (int i = 0; ; i++) {
+            String email = "moved" + i + "@test.com";
+            if (userDao.getShardMap().shardOf(email) != shard) return email;
+        }
+    }
+}
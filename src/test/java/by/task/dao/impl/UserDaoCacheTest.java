@@ -0,0 +1,147 @@
+package by.task.dao.impl;
+
+import by.task.models.User;
+import by.task.util.CacheStatistics;
+import by.task.util.TestHibernateUtil;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Кэш второго уровня на настоящем ehcache.xml: чтения по ID из региона users и его сброс при записи через DAO
+@TestInstance(Lifecycle.PER_CLASS)
+class UserDaoCacheTest {
+    private SessionFactory sessionFactory;
+    private UserDao userDao;
+
+    @BeforeAll
+    void setup() {
+        sessionFactory = TestHibernateUtil.buildCachedSessionFactory();
+        userDao = new UserDao(sessionFactory);
+    }
+
+    @AfterAll
+    void tearDown() {
+        sessionFactory.close();
+        TestHibernateUtil.shutdown();
+    }
+
+    @BeforeEach
+    void clearDatabase() {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            session.createNativeQuery("TRUNCATE TABLE users RESTART IDENTITY CASCADE").executeUpdate();
+            session.getTransaction().commit();
+        }
+        sessionFactory.getCache().evictAllRegions();
+        sessionFactory.getStatistics().clear();
+    }
+
+    @Test
+    void shouldStartWithRegionsFromEhcacheXml() {
+        List<String> regions = List.of(sessionFactory.getStatistics().getSecondLevelCacheRegionNames());
+
+        assertTrue(regions.containsAll(List.of(User.CACHE_REGION, User.NATURAL_ID_CACHE_REGION)));
+        assertEquals("true", String.valueOf(sessionFactory.getProperties().get(AvailableSettings.USE_QUERY_CACHE)));
+    }
+
+    @Test
+    void shouldServeFindByIdFromUsersRegion_WhenUserWasReadBefore() {
+        User user = saveUser("cached@test.com");
+        sessionFactory.getCache().evictAllRegions();
+        Statistics statistics = sessionFactory.getStatistics();
+        statistics.clear();
+
+        assertTrue(userDao.findById(user.getId()).isPresent());
+        long statementsAfterMiss = statistics.getPrepareStatementCount();
+        assertTrue(userDao.findById(user.getId()).isPresent());
+
+        assertEquals(statementsAfterMiss, statistics.getPrepareStatementCount());
+        CacheStatistics cache = CacheStatistics.of(sessionFactory, User.CACHE_REGION);
+        assertEquals(1, cache.hits());
+        assertEquals(1, cache.misses());
+        assertEquals(1, cache.puts());
+        assertEquals(0.5, cache.hitRatio());
+    }
+
+    @Test
+    void shouldPutSavedUserIntoUsersRegion_WhenTransactionCommits() {
+        User user = saveUser("saved@test.com");
+
+        assertTrue(sessionFactory.getCache().containsEntity(User.class, user.getId()));
+        assertTrue(userDao.findById(user.getId()).isPresent());
+        assertEquals(1, CacheStatistics.of(sessionFactory, User.CACHE_REGION).hits());
+    }
+
+    @Test
+    void shouldReturnUpdatedUser_WhenCachedUserWasUpdated() {
+        User user = saveUser("before@test.com");
+        userDao.findById(user.getId());
+
+        user.setName("Updated User");
+        assertTrue(userDao.update(user));
+        Optional<User> found = userDao.findById(user.getId());
+
+        assertTrue(found.isPresent());
+        assertEquals("Updated User", found.get().getName());
+        assertEquals(user.getVersion(), found.get().getVersion());
+    }
+
+    @Test
+    void shouldNotReturnCachedUser_WhenDeleted() {
+        User user = saveUser("deleted@test.com");
+        userDao.findById(user.getId());
+
+        assertTrue(userDao.delete(user));
+
+        assertTrue(userDao.findById(user.getId()).isEmpty());
+        assertTrue(userDao.findByEmail("deleted@test.com").isEmpty());
+    }
+
+    @Test
+    void shouldReportDeletedUserAsMissing_WhenItWasCached() {
+        User user = saveUser("exists@test.com");
+        assertTrue(userDao.existsById(user.getId()));
+        long hitsBeforeDelete = CacheStatistics.of(sessionFactory, User.CACHE_REGION).hits();
+
+        assertTrue(userDao.deleteById(user.getId()));
+
+        assertFalse(userDao.existsById(user.getId()));
+        assertFalse(userDao.existsByEmail("exists@test.com"));
+        assertEquals(1, hitsBeforeDelete);
+    }
+
+    @Test
+    void shouldEvictUsersFromUsersRegion_WhenDeletedByIdList() {
+        User first = saveUser("first@test.com");
+        User second = saveUser("second@test.com");
+        userDao.findAllById(List.of(first.getId(), second.getId()));
+
+        userDao.deleteAllById(List.of(first.getId(), second.getId()));
+
+        // Массовый DELETE сбрасывает весь регион users
+        assertFalse(sessionFactory.getCache().containsEntity(User.class, first.getId()));
+        assertFalse(sessionFactory.getCache().containsEntity(User.class, second.getId()));
+        assertTrue(userDao.findById(first.getId()).isEmpty());
+        assertTrue(userDao.findAllById(List.of(first.getId(), second.getId())).isEmpty());
+    }
+
+    private User saveUser(String email) {
+        User user = new User("Test User", email, 30);
+        userDao.save(user);
+        return user;
+    }
+}
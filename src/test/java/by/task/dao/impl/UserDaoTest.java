@@ -1,7 +1,11 @@
 package by.task.dao.impl;
 
-import by.task.dao.Dao;
+import by.task.dao.Page;
+import by.task.dao.UserFilter;
+import by.task.dao.UserLookupDao;
+import by.task.exceptions.dao.UserConcurrentModificationException;
 import by.task.models.User;
+import by.task.models.UserView;
 import by.task.util.TestHibernateUtil;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
@@ -13,12 +17,16 @@ import org.junit.jupiter.api.TestInstance;
 import org.junit.jupiter.api.TestInstance.Lifecycle;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @TestInstance(Lifecycle.PER_CLASS)
@@ -31,7 +39,7 @@ class UserDaoTest {
     private static final int ALT_AGE = 20;
 
     private SessionFactory sessionFactory;
-    private Dao<User, Long> userDao;
+    private UserLookupDao userDao;
 
     @BeforeAll
     void setup() {
@@ -110,12 +118,93 @@ class UserDaoTest {
         assertFalse(deleted.isPresent());
     }
 
+    @Test
+    void shouldReportNotFound_WhenUpdatingOrDeletingMissingUser() {
+        User user = new User(TEST_NAME, TEST_EMAIL, TEST_AGE);
+        user.setId(999L);
+
+        assertFalse(userDao.update(user));
+        assertFalse(userDao.delete(user));
+        assertFalse(userDao.deleteById(999L));
+    }
+
+    @Test
+    void shouldRejectStaleUpdate_WhenUserWasModifiedConcurrently() {
+        User user = new User(TEST_NAME, TEST_EMAIL, TEST_AGE);
+        userDao.save(user);
+        User first = userDao.findById(user.getId()).orElseThrow();
+        User second = userDao.findById(user.getId()).orElseThrow();
+
+        first.setName(ALT_NAME);
+        assertTrue(userDao.update(first));
+
+        second.setAge(ALT_AGE);
+        assertThrows(UserConcurrentModificationException.class, () -> userDao.update(second));
+        assertEquals(TEST_AGE, userDao.findById(user.getId()).orElseThrow().getAge());
+    }
+
     @Test
     void shouldReturnEmptyOptional_WhenUserNotFoundById() {
         Optional<User> result = userDao.findById(999L);
         assertTrue(result.isEmpty());
     }
 
+    @Test
+    void shouldLoadUsersByIdsInInputOrder_SkippingMissingAndDuplicates() {
+        List<User> users = createUsers(3);
+        userDao.saveAll(users);
+        Long first = users.get(0).getId();
+        Long third = users.get(2).getId();
+
+        List<User> found = userDao.findAllById(List.of(third, 999L, first, third));
+
+        assertEquals(List.of(third, first), found.stream().map(User::getId).toList());
+    }
+
+    @Test
+    void shouldLoadAllUsersByIds_WhenListExceedsMultiLoadBatchSize() {
+        List<User> users = createUsers(UserDao.DEFAULT_MULTI_LOAD_BATCH_SIZE * 2 + 7);
+        userDao.saveAll(users);
+        List<Long> ids = users.stream().map(User::getId).toList().reversed();
+
+        assertEquals(ids, userDao.findAllById(ids).stream().map(User::getId).toList());
+    }
+
+    @Test
+    void shouldFindUserByEmail_WhenEmailExists() {
+        User user = new User(TEST_NAME, TEST_EMAIL, TEST_AGE);
+        userDao.save(user);
+
+        Optional<User> found = userDao.findByEmail(TEST_EMAIL);
+        assertTrue(found.isPresent());
+        assertEquals(user.getId(), found.get().getId());
+        assertTrue(userDao.findByEmail(ALT_EMAIL).isEmpty());
+    }
+
+    @Test
+    void shouldReportExistence_ByIdAndEmail() {
+        User user = new User(TEST_NAME, TEST_EMAIL, TEST_AGE);
+        userDao.save(user);
+
+        assertTrue(userDao.existsById(user.getId()));
+        assertTrue(userDao.existsByEmail(TEST_EMAIL));
+        assertFalse(userDao.existsById(999L));
+        assertFalse(userDao.existsByEmail(ALT_EMAIL));
+    }
+
+    @Test
+    void shouldResolveNewEmail_WhenEmailWasUpdated() {
+        User user = new User(TEST_NAME, TEST_EMAIL, TEST_AGE);
+        userDao.save(user);
+        assertTrue(userDao.existsByEmail(TEST_EMAIL));
+
+        user.setEmail(ALT_EMAIL);
+        assertTrue(userDao.update(user));
+
+        assertFalse(userDao.existsByEmail(TEST_EMAIL));
+        assertEquals(user.getId(), userDao.findByEmail(ALT_EMAIL).orElseThrow().getId());
+    }
+
     @Test
     void shouldSetCreatedAtAutomatically_WhenNewUserIsSaved() {
         LocalDateTime beforeTest = LocalDateTime.now().minusSeconds(1);
@@ -128,4 +217,143 @@ class UserDaoTest {
         assertNotNull(found.get().getCreatedAt());
         assertTrue(found.get().getCreatedAt().isAfter(beforeTest));
     }
+
+    @Test
+    void shouldSaveAllUsersInBatches_WhenListExceedsBatchSize() {
+        List<User> users = createUsers(UserDao.DEFAULT_BATCH_SIZE * 2 + 7);
+
+        userDao.saveAll(users);
+
+        assertEquals(users.size(), userDao.findAll().size());
+        users.forEach(user -> assertNotNull(user.getId()));
+    }
+
+    @Test
+    void shouldUpdateAllUsers_WhenUsersExist() {
+        List<User> users = createUsers(UserDao.DEFAULT_BATCH_SIZE + 3);
+        userDao.saveAll(users);
+
+        users.forEach(user -> user.setAge(ALT_AGE));
+        userDao.updateAll(users);
+
+        assertTrue(userDao.findAll().stream().allMatch(user -> user.getAge() == ALT_AGE));
+    }
+
+    @Test
+    void shouldDeleteAllUsersById_WhenIdsExist() {
+        List<User> users = createUsers(UserDao.DEFAULT_BATCH_SIZE + 3);
+        userDao.saveAll(users);
+
+        List<Long> ids = users.stream().map(User::getId).toList();
+        userDao.deleteAllById(ids.subList(1, ids.size()));
+
+        List<User> remaining = userDao.findAll();
+        assertEquals(1, remaining.size());
+        assertEquals(ids.get(0), remaining.get(0).getId());
+    }
+
+    @Test
+    void shouldWalkAllPagesInOrder_WhenFollowingCursor() {
+        List<User> users = createUsers(25);
+        userDao.saveAll(users);
+
+        List<Long> seen = new ArrayList<>();
+        Page<User> page = userDao.findPage(null, 10);
+        page.items().forEach(user -> seen.add(user.getId()));
+        while (page.hasNext()) {
+            page = userDao.findPage(page.nextCursor(), 10);
+            page.items().forEach(user -> seen.add(user.getId()));
+        }
+
+        assertEquals(users.stream().map(User::getId).toList(), seen);
+    }
+
+    @Test
+    void shouldReturnLastPageWithoutCursor_WhenNoMoreUsers() {
+        userDao.saveAll(createUsers(3));
+
+        Page<User> page = userDao.findPage(null, 3);
+
+        assertEquals(3, page.items().size());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void shouldStreamAllUsers_WhenFetchSizeIsSmallerThanTable() {
+        userDao.saveAll(createUsers(30));
+
+        try (Stream<User> users = userDao.streamAll(7)) {
+            assertEquals(30, users.count());
+        }
+    }
+
+    @Test
+    void shouldReturnProjections_MatchingEntities() {
+        User user = new User(TEST_NAME, TEST_EMAIL, TEST_AGE);
+        userDao.save(user);
+        UserDao dao = (UserDao) userDao;
+
+        UserView view = dao.findViewById(user.getId()).orElseThrow();
+
+        assertEquals(user.getId(), view.id());
+        assertEquals(TEST_NAME, view.name());
+        assertEquals(TEST_EMAIL, view.email());
+        assertEquals(TEST_AGE, view.age());
+        assertNotNull(view.createdAt());
+        assertTrue(dao.findViewById(999L).isEmpty());
+        assertEquals(List.of(view), dao.findAllViews());
+    }
+
+    @Test
+    void shouldWalkViewPagesInSameOrderAsEntityPages() {
+        List<User> users = createUsers(25);
+        userDao.saveAll(users);
+        UserDao dao = (UserDao) userDao;
+
+        List<Long> seen = new ArrayList<>();
+        Page<UserView> page = dao.findViewPage(null, 10);
+        page.items().forEach(view -> seen.add(view.id()));
+        while (page.hasNext()) {
+            page = dao.findViewPage(page.nextCursor(), 10);
+            page.items().forEach(view -> seen.add(view.id()));
+        }
+
+        assertEquals(users.stream().map(User::getId).toList(), seen);
+    }
+
+    @Test
+    void shouldFilterAndSortUsers_WhenFilterIsCombined() {
+        userDao.save(new User("Ivan", "ivan@corp.com", 25));
+        userDao.save(new User("ivanna", "ivanna@mail.com", 35));
+        userDao.save(new User("Igor", "igor@corp.com", 40));
+        userDao.save(new User("Ivo", "ivo@corp.com", 50));
+
+        UserFilter filter = UserFilter.ANY
+                .withNamePrefix("IV")
+                .withAgeBetween(20, 45)
+                .sortedBy(UserFilter.SortField.AGE, true);
+
+        assertEquals(List.of("ivanna", "Ivan"), userDao.findByFilter(filter).stream().map(User::getName).toList());
+        assertEquals(List.of("Ivan"), ((UserDao) userDao).findViewsByFilter(filter.withEmailDomain("@CORP.com"))
+                .stream().map(UserView::name).toList());
+        assertEquals(1, userDao.findByFilter(UserFilter.ANY.withLimit(1)).size());
+    }
+
+    @Test
+    void shouldTreatLikeWildcardsLiterally_WhenFilteringByNamePrefix() {
+        userDao.save(new User("50% off", "promo@test.com", TEST_AGE));
+        userDao.save(new User("500 club", "club@test.com", TEST_AGE));
+
+        List<User> found = userDao.findByFilter(UserFilter.ANY.withNamePrefix("50%"));
+
+        assertEquals(List.of("50% off"), found.stream().map(User::getName).toList());
+    }
+
+    private List<User> createUsers(int count) {
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            users.add(new User(TEST_NAME + i, i + TEST_EMAIL, TEST_AGE));
+        }
+        return users;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,227 @@
+package by.task.dao.impl;
+
+import by.task.dao.UserLookupDao;
+import by.task.exceptions.dao.UserConcurrentModificationException;
+import by.task.exceptions.dao.UserPersistenceException;
+import by.task.models.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class WriteBehindUserDaoTest {
+    private static final Duration NEVER = Duration.ofHours(1);
+
+    @Mock
+    private UserLookupDao userDao;
+
+    private WriteBehindUserDao writeBehindDao;
+
+    @AfterEach
+    void tearDown() {
+        writeBehindDao.close();
+    }
+
+    @Test
+    void updateAsync_unversionedChangeOfBufferedUser_coalescesIntoOneWrite() {
+        writeBehindDao = started(new WriteBehindSettings(100, 100, NEVER));
+        User first = createUser(1L, "First");
+        User second = createUser(1L, "Second");
+        second.setVersion(null);
+
+        CompletableFuture<Boolean> firstAck = writeBehindDao.updateAsync(first);
+        CompletableFuture<Boolean> secondAck = writeBehindDao.updateAsync(second);
+        assertEquals(1, writeBehindDao.getPendingCount());
+        verifyNoInteractions(userDao);
+
+        writeBehindDao.flush();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<User>> batch = ArgumentCaptor.forClass(List.class);
+        verify(userDao).updateAll(batch.capture());
+        assertEquals(1, batch.getValue().size());
+        assertEquals("Second", batch.getValue().get(0).getName());
+        assertEquals(3L, batch.getValue().get(0).getVersion());
+        assertTrue(firstAck.join());
+        assertTrue(secondAck.join());
+    }
+
+    @Test
+    void updateAsync_sameVersionAsBufferedChange_failsWithConflictAndKeepsFirstChange() {
+        writeBehindDao = started(new WriteBehindSettings(100, 100, NEVER));
+        CompletableFuture<Boolean> firstAck = writeBehindDao.updateAsync(createUser(1L, "First"));
+
+        CompletableFuture<Boolean> secondAck = writeBehindDao.updateAsync(createUser(1L, "Second"));
+
+        CompletionException failure = assertThrows(CompletionException.class, secondAck::join);
+        assertInstanceOf(UserConcurrentModificationException.class, failure.getCause());
+        writeBehindDao.flush();
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<User>> batch = ArgumentCaptor.forClass(List.class);
+        verify(userDao).updateAll(batch.capture());
+        assertEquals("First", batch.getValue().get(0).getName());
+        assertTrue(firstAck.join());
+    }
+
+    @Test
+    void updateAsync_versionDiffersFromBufferedOne_failsWithConflictWithoutBuffering() {
+        writeBehindDao = started(new WriteBehindSettings(100, 100, NEVER));
+        writeBehindDao.updateAsync(createUser(1L, "First"));
+        User stale = createUser(1L, "Stale");
+        stale.setVersion(2L);
+
+        CompletableFuture<Boolean> ack = writeBehindDao.updateAsync(stale);
+
+        CompletionException failure = assertThrows(CompletionException.class, ack::join);
+        assertInstanceOf(UserConcurrentModificationException.class, failure.getCause());
+        assertEquals("First", writeBehindDao.findById(1L).orElseThrow().getName());
+    }
+
+    @Test
+    void update_conflictOnFlush_throwsToCaller() {
+        writeBehindDao = started(new WriteBehindSettings(100, 1, NEVER));
+        UserConcurrentModificationException conflict = new UserConcurrentModificationException("конфликт", null);
+        doThrow(new UserPersistenceException("Ошибка", conflict)).when(userDao).updateAll(anyList());
+        when(userDao.update(any())).thenThrow(conflict);
+
+        assertThrows(UserConcurrentModificationException.class, () -> writeBehindDao.update(createUser(1L, "Stale")));
+    }
+
+    @Test
+    void update_missingUser_returnsFalseAfterFlush() {
+        writeBehindDao = started(new WriteBehindSettings(100, 1, NEVER));
+        doThrow(new UserPersistenceException("Ошибка", new RuntimeException())).when(userDao).updateAll(anyList());
+        when(userDao.update(any())).thenReturn(false);
+
+        assertFalse(writeBehindDao.update(createUser(1L, "Missing")));
+    }
+
+    @Test
+    void updateAsync_notStarted_throwsIllegalStateException() {
+        writeBehindDao = new WriteBehindUserDao(userDao, new WriteBehindSettings(100, 100, NEVER));
+
+        assertThrows(IllegalStateException.class, () -> writeBehindDao.updateAsync(createUser(1L, "First")));
+    }
+
+    @Test
+    void updateAsync_flushSizeReached_flushesInBackground() {
+        writeBehindDao = started(new WriteBehindSettings(100, 2, NEVER));
+
+        writeBehindDao.updateAsync(createUser(1L, "First"));
+        CompletableFuture<Boolean> ack = writeBehindDao.updateAsync(createUser(2L, "Second"));
+
+        assertTrue(ack.orTimeout(5, TimeUnit.SECONDS).join());
+        verify(userDao).updateAll(anyList());
+    }
+
+    @Test
+    void updateAsync_batchFails_retriesEachUserSeparately() {
+        writeBehindDao = started(new WriteBehindSettings(100, 100, NEVER));
+        User existing = createUser(1L, "Existing");
+        User missing = createUser(2L, "Missing");
+        doThrow(new UserPersistenceException("Ошибка", new RuntimeException())).when(userDao).updateAll(anyList());
+        when(userDao.update(any())).thenAnswer(invocation -> invocation.<User>getArgument(0).getId() == 1L);
+
+        CompletableFuture<Boolean> existingAck = writeBehindDao.updateAsync(existing);
+        CompletableFuture<Boolean> missingAck = writeBehindDao.updateAsync(missing);
+        writeBehindDao.flush();
+
+        assertTrue(existingAck.join());
+        assertFalse(missingAck.join());
+    }
+
+    @Test
+    void updateAsync_bufferFull_blocksUntilFlushed() throws InterruptedException {
+        writeBehindDao = started(new WriteBehindSettings(1, 100, NEVER));
+        writeBehindDao.updateAsync(createUser(1L, "First"));
+
+        Thread blocked = Thread.ofVirtual().start(() -> writeBehindDao.updateAsync(createUser(2L, "Second")));
+        blocked.join(200);
+        assertTrue(blocked.isAlive());
+        assertEquals(1, writeBehindDao.getPendingCount());
+
+        writeBehindDao.flush();
+        blocked.join(5000);
+        assertFalse(blocked.isAlive());
+        assertEquals(1, writeBehindDao.getPendingCount());
+    }
+
+    @Test
+    void findById_pendingUpdate_returnsBufferedState() {
+        writeBehindDao = started(new WriteBehindSettings(100, 100, NEVER));
+        writeBehindDao.updateAsync(createUser(1L, "Buffered"));
+
+        assertEquals("Buffered", writeBehindDao.findById(1L).orElseThrow().getName());
+        verify(userDao, never()).findById(1L);
+    }
+
+    @Test
+    void findAllById_pendingUpdate_overlaysBufferedState() {
+        writeBehindDao = started(new WriteBehindSettings(100, 100, NEVER));
+        writeBehindDao.updateAsync(createUser(2L, "Buffered"));
+        when(userDao.findAllById(List.of(1L, 2L))).thenReturn(List.of(createUser(1L, "Stored"), createUser(2L, "Stale")));
+
+        List<User> users = writeBehindDao.findAllById(List.of(1L, 2L));
+
+        assertEquals(List.of("Stored", "Buffered"), users.stream().map(User::getName).toList());
+    }
+
+    @Test
+    void deleteById_pendingUpdate_discardsIt() {
+        writeBehindDao = started(new WriteBehindSettings(100, 100, NEVER));
+        CompletableFuture<Boolean> ack = writeBehindDao.updateAsync(createUser(1L, "Deleted"));
+        when(userDao.deleteById(1L)).thenReturn(true);
+
+        assertTrue(writeBehindDao.deleteById(1L));
+
+        assertFalse(ack.join());
+        assertEquals(0, writeBehindDao.getPendingCount());
+    }
+
+    @Test
+    void close_pendingUpdates_flushesBeforeStopping() {
+        writeBehindDao = started(new WriteBehindSettings(100, 100, NEVER));
+        CompletableFuture<Boolean> ack = writeBehindDao.updateAsync(createUser(1L, "Pending"));
+
+        writeBehindDao.close();
+
+        verify(userDao, timeout(5000)).updateAll(anyList());
+        assertTrue(ack.join());
+    }
+
+    private WriteBehindUserDao started(WriteBehindSettings settings) {
+        WriteBehindUserDao dao = new WriteBehindUserDao(userDao, settings);
+        dao.start();
+        return dao;
+    }
+
+    private User createUser(Long id, String name) {
+        User user = new User(name, name.toLowerCase() + "@test.com", 30);
+        user.setId(id);
+        user.setVersion(3L);
+        return user;
+    }
+}
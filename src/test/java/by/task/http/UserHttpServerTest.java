@@ -0,0 +1,252 @@
+package by.task.http;
+
+import by.task.dao.Page;
+import by.task.dao.UserFilter;
+import by.task.exceptions.dao.DaoUnavailableException;
+import by.task.exceptions.services.UserAlreadyExistsException;
+import by.task.exceptions.services.UserNotFoundException;
+import by.task.models.User;
+import by.task.models.UserView;
+import by.task.services.UserService;
+import by.task.util.LastWriteScope;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserHttpServerTest {
+
+    @Mock
+    private UserService userService;
+
+    private UserHttpServer server;
+    private HttpClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new UserHttpServer(userService, new InetSocketAddress("localhost", 0), 0);
+        server.start();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        server.close();
+    }
+
+    @Test
+    void getUser_existingId_returnsJson() throws Exception {
+        User user = createUser(1L);
+        when(userService.getUserById(1L)).thenReturn(Optional.of(user));
+
+        HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/users/1")).GET());
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().contains("\"id\":1"));
+        assertTrue(response.body().contains("\"email\":\"email@test.com\""));
+    }
+
+    @Test
+    void getUser_missingId_returnsNotFound() throws Exception {
+        when(userService.getUserById(999L)).thenReturn(Optional.empty());
+
+        HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/users/999")).GET());
+
+        assertEquals(404, response.statusCode());
+    }
+
+    @Test
+    void getUser_invalidId_returnsBadRequest() throws Exception {
+        HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/users/abc")).GET());
+
+        assertEquals(400, response.statusCode());
+    }
+
+    @Test
+    void getUser_databaseOverloaded_returnsServiceUnavailableWithRetryAfter() throws Exception {
+        when(userService.getUserById(1L)).thenThrow(new DaoUnavailableException("База данных перегружена", Duration.ofMillis(2500)));
+
+        HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/users/1")).GET());
+
+        assertEquals(503, response.statusCode());
+        assertEquals("3", response.headers().firstValue("Retry-After").orElseThrow());
+    }
+
+    @Test
+    void getUser_lastWriteHeader_visibleToServiceAndReturned() throws Exception {
+        List<Long> seen = new ArrayList<>();
+        when(userService.getUserById(1L)).thenAnswer(invocation -> {
+            seen.add(LastWriteScope.currentLastWrite());
+            return Optional.of(createUser(1L));
+        });
+
+        HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/users/1"))
+                .header("X-Last-Write", "1700000000000").GET());
+
+        assertEquals(200, response.statusCode());
+        assertEquals(List.of(1700000000000L), seen);
+        assertEquals("1700000000000", response.headers().firstValue("X-Last-Write").orElseThrow());
+        assertEquals(0, LastWriteScope.currentLastWrite());
+    }
+
+    @Test
+    void getUser_lastWriteHeaderFromFuture_ignored() throws Exception {
+        List<Long> seen = new ArrayList<>();
+        when(userService.getUserById(1L)).thenAnswer(invocation -> {
+            seen.add(LastWriteScope.currentLastWrite());
+            return Optional.of(createUser(1L));
+        });
+
+        HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/users/1"))
+                .header("X-Last-Write", "9999999999999").GET());
+
+        assertEquals(200, response.statusCode());
+        assertEquals(List.of(0L), seen);
+        assertTrue(response.headers().firstValue("X-Last-Write").isEmpty());
+    }
+
+    @Test
+    void getPage_withCursor_returnsItemsAndNextCursor() throws Exception {
+        when(userService.getUsersPage("abc", 1)).thenReturn(new Page<>(List.of(createUser(1L)), "next"));
+
+        HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/users?cursor=abc&size=1")).GET());
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().contains("\"nextCursor\":\"next\""));
+    }
+
+    @Test
+    void searchUsers_queryParameters_passedAsFilter() throws Exception {
+        UserFilter expected = UserFilter.ANY
+                .withNamePrefix("ив")
+                .withAgeBetween(18, null)
+                .sortedBy(UserFilter.SortField.AGE, true)
+                .withLimit(20);
+        when(userService.findUserViews(expected)).thenReturn(List.of(UserView.of(createUser(1L))));
+
+        HttpResponse<String> response = send(HttpRequest.newBuilder(
+                uri("/users/search?name=%D0%B8%D0%B2&minAge=18&sort=age&order=desc&limit=20")).GET());
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().contains("\"id\":1"));
+    }
+
+    @Test
+    void searchUsers_unknownSortField_returnsBadRequest() throws Exception {
+        HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/users/search?sort=password")).GET());
+
+        assertEquals(400, response.statusCode());
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void createUser_validBody_returnsCreated() throws Exception {
+        doAnswer(invocation -> {
+            invocation.<User>getArgument(0).setId(5L);
+            return null;
+        }).when(userService).saveUser(any());
+
+        HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/users"))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"name\":\"Name\",\"email\":\"email@test.com\",\"age\":30}")));
+
+        assertEquals(201, response.statusCode());
+        assertEquals("/users/5", response.headers().firstValue("Location").orElseThrow());
+    }
+
+    @Test
+    void createUser_duplicateEmail_returnsConflict() throws Exception {
+        doThrow(new UserAlreadyExistsException("email@test.com")).when(userService).saveUser(any());
+
+        HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/users"))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"name\":\"Name\",\"email\":\"email@test.com\",\"age\":30}")));
+
+        assertEquals(409, response.statusCode());
+    }
+
+    @Test
+    void createUsers_bulkBody_savesAll() throws Exception {
+        doAnswer(invocation -> {
+            List<User> users = invocation.getArgument(0);
+            for (int i = 0; i < users.size(); i++) {
+                users.get(i).setId(i + 1L);
+            }
+            return null;
+        }).when(userService).saveUsers(anyList());
+
+        HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/users/bulk"))
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "[{\"name\":\"A\",\"email\":\"a@test.com\",\"age\":1},{\"name\":\"B\",\"email\":\"b@test.com\",\"age\":2}]")));
+
+        assertEquals(201, response.statusCode());
+        assertTrue(response.body().contains("\"saved\":2,\"ids\":[1,2]"));
+    }
+
+    @Test
+    void updateUser_partialBody_appliesChanges() throws Exception {
+        User user = createUser(1L);
+        when(userService.getUserById(1L)).thenReturn(Optional.of(user));
+
+        HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/users/1"))
+                .PUT(HttpRequest.BodyPublishers.ofString("{\"age\":31}")));
+
+        assertEquals(200, response.statusCode());
+        assertEquals(31, user.getAge());
+        verify(userService).updateUser(user);
+    }
+
+    @Test
+    void deleteUser_missingId_returnsNotFound() throws Exception {
+        doThrow(new UserNotFoundException(999L)).when(userService).deleteUserById(999L);
+
+        HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/users/999")).DELETE());
+
+        assertEquals(404, response.statusCode());
+    }
+
+    @Test
+    void createUser_malformedJson_returnsBadRequest() throws Exception {
+        HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/users"))
+                .POST(HttpRequest.BodyPublishers.ofString("{")));
+
+        assertEquals(400, response.statusCode());
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + server.getPort() + path);
+    }
+
+    private User createUser(Long id) {
+        User user = new User("Name", "email@test.com", 30);
+        user.setId(id);
+        return user;
+    }
+}
@@ -0,0 +1,94 @@
+package by.task.metrics;
+
+import by.task.dao.UserLookupDao;
+import by.task.exceptions.dao.UserQueryException;
+import by.task.models.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MeteredDaoTest {
+
+    @Mock
+    private UserLookupDao userDao;
+
+    private MetricsRegistry registry;
+    private UserLookupDao meteredDao;
+
+    @BeforeEach
+    void setUp() {
+        registry = new MetricsRegistry();
+        meteredDao = MeteredDao.wrap(userDao, registry, "dao");
+    }
+
+    @Test
+    void findById_success_recordsLatencyWithoutErrors() {
+        User user = new User("Name", "email@test.com", 30);
+        when(userDao.findById(1L)).thenReturn(Optional.of(user));
+
+        assertSame(user, meteredDao.findById(1L).orElseThrow());
+        meteredDao.findById(1L);
+
+        OperationMetrics metrics = registry.get("dao.findById");
+        assertEquals(2, metrics.getCount());
+        assertEquals(0, metrics.getErrorCount());
+        assertTrue(metrics.getP99Millis() >= metrics.getP50Millis());
+    }
+
+    @Test
+    void findById_daoThrows_rethrowsOriginalAndCountsByType() {
+        UserQueryException error = new UserQueryException("Ошибка", new RuntimeException());
+        when(userDao.findById(1L)).thenThrow(error);
+
+        assertSame(error, assertThrows(UserQueryException.class, () -> meteredDao.findById(1L)));
+
+        OperationMetrics metrics = registry.get("dao.findById");
+        assertEquals(1, metrics.getCount());
+        assertEquals(Map.of("UserQueryException", 1L), metrics.getErrorsByType());
+    }
+
+    @Test
+    void streamAll_recordedOnCloseIncludingReadErrors() {
+        UserQueryException error = new UserQueryException("Ошибка чтения", new RuntimeException());
+        when(userDao.streamAll(10)).thenReturn(Stream.of(1L, 2L).map(id -> {
+            if (id == 2L) throw error;
+            return new User(id, "Name", "email@test.com", 30, null, 0L);
+        }));
+
+        Stream<User> users = meteredDao.streamAll(10);
+        assertThrows(UserQueryException.class, () -> users.forEach(user -> {
+        }));
+        assertEquals(0, registry.get("dao.streamAll").getCount());
+        users.close();
+
+        OperationMetrics metrics = registry.get("dao.streamAll");
+        assertEquals(1, metrics.getCount());
+        assertEquals(Map.of("UserQueryException", 1L), metrics.getErrorsByType());
+    }
+
+    @Test
+    void time_statementsExecuted_countsStatementsPerOperation() {
+        SqlStatementCounter counter = new SqlStatementCounter();
+
+        registry.run("dao.save", () -> {
+            counter.inspect("select nextval('users_seq')");
+            counter.inspect("insert into users values (?)");
+        });
+
+        assertEquals(2, registry.get("dao.save").getStatementCount());
+        assertEquals(2.0, registry.get("dao.save").getStatementsPerCall());
+    }
+}
@@ -0,0 +1,214 @@
+package by.task.outbox;
+
+import by.task.dao.UserLookupDao;
+import by.task.dao.impl.AsyncUserDao;
+import by.task.dao.impl.UserDao;
+import by.task.exceptions.dao.UserPersistenceException;
+import by.task.exceptions.outbox.ChangeDeliveryException;
+import by.task.models.ChangeType;
+import by.task.models.User;
+import by.task.util.TestHibernateUtil;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@TestInstance(Lifecycle.PER_CLASS)
+class OutboxRelayTest {
+    private static final OutboxSettings SMALL_BATCHES = new OutboxSettings(2, Duration.ofMillis(20));
+
+    private SessionFactory sessionFactory;
+    private UserLookupDao userDao;
+    private UserChangeFeed feed;
+
+    @BeforeAll
+    void setup() {
+        sessionFactory = TestHibernateUtil.buildSessionFactory();
+        userDao = new UserDao(sessionFactory);
+        feed = new UserChangeFeed(sessionFactory);
+    }
+
+    @AfterAll
+    void tearDown() {
+        sessionFactory.close();
+        TestHibernateUtil.shutdown();
+    }
+
+    @BeforeEach
+    void clearDatabase() {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            session.createNativeQuery("TRUNCATE TABLE users, user_outbox RESTART IDENTITY CASCADE").executeUpdate();
+            session.getTransaction().commit();
+        }
+    }
+
+    @Test
+    void shouldRelayUserChangesInOrderAndInBatches() {
+        User user = new User("Test User", "user@test.com", 30);
+        userDao.save(user);
+        user.setAge(31);
+        userDao.update(user);
+        userDao.delete(user);
+        List<UserChange> published = new ArrayList<>();
+        OutboxRelay relay = new OutboxRelay(() -> sessionFactory, published::addAll, SMALL_BATCHES);
+
+        assertEquals(2, relay.relayOnce());
+        assertEquals(1, relay.relayOnce());
+        assertEquals(0, relay.relayOnce());
+
+        assertEquals(List.of(ChangeType.CREATED, ChangeType.UPDATED, ChangeType.DELETED),
+                published.stream().map(UserChange::type).toList());
+        assertEquals(List.of(1L, 2L, 3L), published.stream().map(UserChange::position).toList());
+        assertTrue(published.stream().allMatch(change -> change.userId() == user.getId()));
+        assertTrue(published.get(1).payload().contains("\"age\":31"));
+        assertTrue(published.get(1).payload().contains("\"version\":1"));
+        assertEquals(3, relay.getPublishedCount());
+    }
+
+    @Test
+    void shouldRelayOneUsersChangesInCommitOrder_WhenWrittenFromDifferentNodes() {
+        User user = new User("Test User", "user@test.com", 30);
+        userDao.save(user);
+        // Второй узел с собственным соединением к той же базе
+        try (AsyncUserDao otherNode = new AsyncUserDao(TestHibernateUtil.jdbcUrl(), TestHibernateUtil.username(),
+                TestHibernateUtil.password())) {
+            user.setAge(31);
+            assertTrue(otherNode.update(user).toCompletableFuture().join());
+        }
+        // AsyncUserDao пишет в обход кэша второго уровня
+        sessionFactory.getCache().evictAllRegions();
+        user.setAge(32);
+        userDao.update(user);
+        List<UserChange> published = new ArrayList<>();
+
+        new OutboxRelay(() -> sessionFactory, published::addAll, OutboxSettings.DEFAULTS).relayOnce();
+
+        assertEquals(List.of(0L, 1L, 2L),
+                published.stream().map(change -> OutboxEvents.readSnapshot(change.payload()).getVersion()).toList());
+    }
+
+    @Test
+    void shouldWriteEventsForBatchOperations() {
+        List<User> users = List.of(
+                new User("First", "first@test.com", 20),
+                new User("Second", "second@test.com", 21),
+                new User("Third", "third@test.com", 22));
+        userDao.saveAll(users);
+        users.forEach(user -> user.setAge(user.getAge() + 10));
+        userDao.updateAll(users);
+        userDao.deleteAllById(List.of(users.get(0).getId(), users.get(1).getId()));
+        List<UserChange> published = new ArrayList<>();
+
+        new OutboxRelay(() -> sessionFactory, published::addAll, OutboxSettings.DEFAULTS).relayOnce();
+
+        assertEquals(8, published.size());
+        assertEquals(3, published.stream().filter(change -> change.type() == ChangeType.CREATED).count());
+        assertEquals(3, published.stream().filter(change -> change.type() == ChangeType.UPDATED).count());
+        assertEquals(2, published.stream().filter(change -> change.type() == ChangeType.DELETED).count());
+        assertEquals(1L, users.get(2).getVersion());
+    }
+
+    @Test
+    void shouldNotWriteEvent_WhenUserWriteIsRolledBack() {
+        userDao.save(new User("Test User", "user@test.com", 30));
+
+        assertThrows(UserPersistenceException.class, () -> userDao.save(new User("Other", "user@test.com", 40)));
+
+        List<UserChange> published = new ArrayList<>();
+        new OutboxRelay(() -> sessionFactory, published::addAll, OutboxSettings.DEFAULTS).relayOnce();
+        assertEquals(1, published.size());
+    }
+
+    @Test
+    void shouldRedeliverSameBatch_WhenSinkFails() {
+        userDao.save(new User("First", "first@test.com", 20));
+        userDao.save(new User("Second", "second@test.com", 21));
+        List<UserChange> rejected = new ArrayList<>();
+        OutboxRelay failing = new OutboxRelay(() -> sessionFactory, changes -> {
+            rejected.addAll(changes);
+            throw new IllegalStateException("приёмник недоступен");
+        }, OutboxSettings.DEFAULTS);
+
+        assertThrows(ChangeDeliveryException.class, failing::relayOnce);
+        assertEquals(0, feed.lastPosition());
+
+        List<UserChange> published = new ArrayList<>();
+        assertEquals(2, new OutboxRelay(() -> sessionFactory, published::addAll, OutboxSettings.DEFAULTS).relayOnce());
+        assertEquals(rejected, published);
+    }
+
+    @Test
+    void shouldResumeFeedFromPosition() {
+        for (int i = 0; i < 5; i++) {
+            userDao.save(new User("User " + i, "user" + i + "@test.com", 20 + i));
+        }
+        new OutboxRelay(() -> sessionFactory, changes -> { }, OutboxSettings.DEFAULTS).relayOnce();
+
+        List<UserChange> resumed = feed.readFrom(3, 10);
+
+        assertEquals(List.of(4L, 5L), resumed.stream().map(UserChange::position).toList());
+        assertEquals(5, feed.lastPosition());
+    }
+
+    @Test
+    void shouldKeepLastPosition_WhenPurgingPublishedEvents() {
+        userDao.save(new User("First", "first@test.com", 20));
+        userDao.save(new User("Second", "second@test.com", 21));
+        OutboxRelay relay = new OutboxRelay(() -> sessionFactory, changes -> { }, OutboxSettings.DEFAULTS);
+        relay.relayOnce();
+
+        assertEquals(1, feed.purgePublished(LocalDateTime.now().plusMinutes(1)));
+
+        userDao.save(new User("Third", "third@test.com", 22));
+        relay.relayOnce();
+        assertEquals(List.of(2L, 3L), feed.readFrom(0, 10).stream().map(UserChange::position).toList());
+    }
+
+    @Test
+    void shouldDeliverChangesInBackground() throws InterruptedException {
+        LinkedBlockingQueue<UserChange> queue = new LinkedBlockingQueue<>();
+        try (OutboxRelay relay = new OutboxRelay(() -> sessionFactory, new QueueChangeSink(queue), SMALL_BATCHES).start()) {
+            userDao.save(new User("Test User", "user@test.com", 30));
+
+            UserChange change = queue.poll(5, TimeUnit.SECONDS);
+
+            assertNotNull(change);
+            assertEquals(ChangeType.CREATED, change.type());
+        }
+    }
+
+    @Test
+    void shouldAppendChangesToFile(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("changes.jsonl");
+        userDao.save(new User("Test User", "user@test.com", 30));
+
+        try (FileChangeSink sink = new FileChangeSink(file)) {
+            new OutboxRelay(() -> sessionFactory, sink, OutboxSettings.DEFAULTS).relayOnce();
+        }
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0).startsWith("{\"position\":1,"));
+        assertTrue(lines.get(0).contains("\"user\":{\"id\":"));
+    }
+}
@@ -0,0 +1,122 @@
+package by.task.services;
+
+import by.task.dao.AsyncUserLookupDao;
+import by.task.exceptions.services.EmptyUserListException;
+import by.task.exceptions.services.InvalidUserException;
+import by.task.exceptions.services.UserAlreadyExistsException;
+import by.task.exceptions.services.UserNotFoundException;
+import by.task.models.User;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AsyncUserServiceTest {
+
+    @Mock
+    private AsyncUserLookupDao userDao;
+
+    @InjectMocks
+    private AsyncUserService userService;
+
+    @Test
+    void saveUser_validUser_savesAfterEmailCheck() {
+        User user = createValidUser();
+        when(userDao.existsByEmail(user.getEmail())).thenReturn(CompletableFuture.completedStage(false));
+        when(userDao.save(user)).thenReturn(CompletableFuture.completedStage(null));
+
+        await(userService.saveUser(user));
+
+        verify(userDao).save(user);
+    }
+
+    @Test
+    void saveUser_duplicateEmail_failsWithUserAlreadyExistsException() {
+        User user = createValidUser();
+        when(userDao.existsByEmail(user.getEmail())).thenReturn(CompletableFuture.completedStage(true));
+
+        assertFailsWith(UserAlreadyExistsException.class, userService.saveUser(user));
+        verify(userDao, never()).save(any());
+    }
+
+    @Test
+    void saveUser_blankName_failsWithoutCallingDao() {
+        User user = createValidUser();
+        user.setName(" ");
+
+        assertFailsWith(InvalidUserException.class, userService.saveUser(user));
+        verifyNoInteractions(userDao);
+    }
+
+    @Test
+    void getUsersByIds_someMissing_reportsMissingIds() {
+        User user = createValidUser();
+        user.setId(1L);
+        when(userDao.findAllById(List.of(1L, 2L))).thenReturn(CompletableFuture.completedStage(List.of(user)));
+
+        FoundUsers found = await(userService.getUsersByIds(List.of(1L, 2L)));
+
+        assertEquals(List.of(user), found.users());
+        assertEquals(List.of(2L), found.missingIds());
+    }
+
+    @Test
+    void getAllUsers_noUsers_failsWithEmptyUserListException() {
+        when(userDao.findAll()).thenReturn(CompletableFuture.completedStage(List.of()));
+
+        assertFailsWith(EmptyUserListException.class, userService.getAllUsers());
+    }
+
+    @Test
+    void getUsersPage_invalidCursor_failsWithInvalidUserException() {
+        when(userDao.findPage("broken", 10))
+                .thenReturn(CompletableFuture.failedStage(new IllegalArgumentException("Некорректный курсор страницы: broken")));
+
+        assertFailsWith(InvalidUserException.class, userService.getUsersPage("broken", 10));
+        assertFailsWith(InvalidUserException.class, userService.getUsersPage(null, 0));
+    }
+
+    @Test
+    void updateUser_missingUser_failsWithUserNotFoundException() {
+        User user = createValidUser();
+        user.setId(5L);
+        when(userDao.update(user)).thenReturn(CompletableFuture.completedStage(false));
+
+        assertFailsWith(UserNotFoundException.class, userService.updateUser(user));
+    }
+
+    @Test
+    void deleteUserById_invalidId_failsWithoutCallingDao() {
+        assertFailsWith(InvalidUserException.class, userService.deleteUserById(0L));
+        verifyNoInteractions(userDao);
+    }
+
+    private static User createValidUser() {
+        return new User("Test User", "user@test.com", 30);
+    }
+
+    private static <T> T await(CompletionStage<T> stage) {
+        return stage.toCompletableFuture().join();
+    }
+
+    private static void assertFailsWith(Class<? extends Throwable> expected, CompletionStage<?> stage) {
+        CompletionException failure = assertThrows(CompletionException.class, () -> await(stage));
+        assertInstanceOf(expected, failure.getCause());
+    }
+}
@@ -0,0 +1,70 @@
+package by.task.services;
+
+import by.task.exceptions.services.UserNotFoundException;
+import by.task.models.User;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ConcurrentUserServiceTest {
+    private static final int MAX_CONCURRENT_CALLS = 4;
+
+    @Mock
+    private UserService userService;
+
+    @Test
+    void getUserById_thousandsOfRequests_neverExceedsConcurrencyLimit() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(userService.getUserById(anyLong())).thenAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(1);
+            inFlight.decrementAndGet();
+            return Optional.of(new User("Name", "email@test.com", 30));
+        });
+
+        try (ConcurrentUserService service = new ConcurrentUserService(userService, MAX_CONCURRENT_CALLS)) {
+            List<CompletableFuture<Optional<User>>> futures = new ArrayList<>();
+            for (long id = 1; id <= 2000; id++) {
+                futures.add(service.getUserById(id));
+            }
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+
+            assertTrue(futures.stream().allMatch(future -> future.join().isPresent()));
+            assertTrue(maxInFlight.get() <= MAX_CONCURRENT_CALLS);
+            assertEquals(0, service.getInFlight());
+        }
+    }
+
+    @Test
+    void deleteUserById_serviceThrows_completesExceptionally() {
+        doThrow(new UserNotFoundException(999L)).when(userService).deleteUserById(999L);
+
+        try (ConcurrentUserService service = new ConcurrentUserService(userService, MAX_CONCURRENT_CALLS)) {
+            ExecutionException error = assertThrows(ExecutionException.class, () -> service.deleteUserById(999L).get());
+            assertInstanceOf(UserNotFoundException.class, error.getCause());
+        }
+    }
+
+    @Test
+    void constructor_nonPositiveLimit_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrentUserService(userService, 0));
+    }
+}
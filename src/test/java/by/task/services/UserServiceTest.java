@@ -1,25 +1,36 @@
 package by.task.services;
 
 import by.task.dao.Dao;
+import by.task.dao.Page;
+import by.task.dao.UserFilter;
+import by.task.dao.UserLookupDao;
+import by.task.dao.UserViewDao;
 import by.task.exceptions.services.EmptyUserListException;
 import by.task.exceptions.services.InvalidUserException;
+import by.task.exceptions.services.UserAlreadyExistsException;
 import by.task.exceptions.services.UserNotFoundException;
 import by.task.models.User;
+import by.task.models.UserView;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
@@ -29,7 +40,7 @@ import static org.mockito.Mockito.when;
 class UserServiceTest {
 
     @Mock
-    private Dao<User, Long> userDao;
+    private UserLookupDao userDao;
 
     @InjectMocks
     private UserService userService;
@@ -41,6 +52,15 @@ class UserServiceTest {
         verify(userDao).save(user);
     }
 
+    @Test
+    void saveUser_duplicateEmail_throwsUserAlreadyExistsException() {
+        User user = createValidUser();
+        when(userDao.existsByEmail(user.getEmail())).thenReturn(true);
+
+        assertThrows(UserAlreadyExistsException.class, () -> userService.saveUser(user));
+        verify(userDao, never()).save(any());
+    }
+
     @Test
     void saveUser_nullUser_throwsInvalidUserException() {
         assertThrows(InvalidUserException.class, () -> userService.saveUser(null));
@@ -66,6 +86,28 @@ class UserServiceTest {
         assertEquals(expectedUser, result.get());
     }
 
+    @Test
+    void getUsersByIds_someIdsMissing_reportsThemInInputOrder() {
+        User first = createValidUser();
+        first.setId(3L);
+        User second = createValidUser();
+        second.setId(1L);
+        List<Long> ids = List.of(3L, 7L, 1L, 5L, 7L);
+        when(userDao.findAllById(ids)).thenReturn(List.of(first, second));
+
+        FoundUsers result = userService.getUsersByIds(ids);
+
+        assertEquals(List.of(first, second), result.users());
+        assertEquals(List.of(7L, 5L), result.missingIds());
+        assertFalse(result.complete());
+    }
+
+    @Test
+    void getUsersByIds_invalidId_throwsInvalidUserException() {
+        assertThrows(InvalidUserException.class, () -> userService.getUsersByIds(List.of(1L, 0L)));
+        verifyNoInteractions(userDao);
+    }
+
     @Test
     void getUserById_invalidId_throwsInvalidUserException() {
         assertThrows(InvalidUserException.class, () -> userService.getUserById(0L));
@@ -81,6 +123,12 @@ class UserServiceTest {
         assertTrue(result.isEmpty());
     }
 
+    @Test
+    void getUserByEmail_blankEmail_throwsInvalidUserException() {
+        assertThrows(InvalidUserException.class, () -> userService.getUserByEmail(" "));
+        verifyNoInteractions(userDao);
+    }
+
     @Test
     void getAllUsers_nonEmptyList_returnsUsers() {
         List<User> users = List.of(createValidUser());
@@ -97,44 +145,145 @@ class UserServiceTest {
         assertThrows(EmptyUserListException.class, () -> userService.getAllUsers());
     }
 
+    @Test
+    void getUsersPage_validSize_returnsPage() {
+        Page<User> page = new Page<>(List.of(createValidUser()), "next");
+        when(userDao.findPage(null, 10)).thenReturn(page);
+
+        assertEquals(page, userService.getUsersPage(null, 10));
+    }
+
+    @Test
+    void getUsersPage_sizeOutOfRange_throwsInvalidUserException() {
+        assertThrows(InvalidUserException.class, () -> userService.getUsersPage(null, 0));
+        assertThrows(InvalidUserException.class, () -> userService.getUsersPage(null, UserService.MAX_PAGE_SIZE + 1));
+        verifyNoInteractions(userDao);
+    }
+
+    @Test
+    void getUsersPage_malformedCursor_throwsInvalidUserException() {
+        when(userDao.findPage("broken", 10)).thenThrow(new IllegalArgumentException("broken"));
+
+        assertThrows(InvalidUserException.class, () -> userService.getUsersPage("broken", 10));
+    }
+
+    @Test
+    void getUserViewsPage_daoWithoutProjections_mapsEntities() {
+        User user = createValidUser();
+        user.setId(1L);
+        when(userDao.findPage(null, 10)).thenReturn(new Page<>(List.of(user), "next"));
+
+        Page<UserView> page = userService.getUserViewsPage(null, 10);
+
+        assertEquals(List.of(UserView.of(user)), page.items());
+        assertEquals("next", page.nextCursor());
+    }
+
+    @Test
+    void getUserViewById_daoWithProjections_usesViewQuery() {
+        UserLookupDao viewDao = mock(UserLookupDao.class, withSettings().extraInterfaces(UserViewDao.class));
+        UserView view = UserView.of(createValidUser());
+        when(((UserViewDao) viewDao).findViewById(1L)).thenReturn(Optional.of(view));
+
+        assertEquals(Optional.of(view), new UserService(viewDao).getUserViewById(1L));
+        verify(viewDao, never()).findById(any());
+    }
+
+    @Test
+    void findUserViews_limitAboveMaximum_throwsInvalidUserException() {
+        UserFilter filter = UserFilter.ANY.withLimit(UserService.MAX_PAGE_SIZE + 1);
+
+        assertThrows(InvalidUserException.class, () -> userService.findUserViews(filter));
+        verifyNoInteractions(userDao);
+    }
+
+    @Test
+    void findUserViews_daoWithoutProjections_mapsFilteredEntities() {
+        User user = createValidUser();
+        UserFilter filter = UserFilter.ANY.withNamePrefix("Val");
+        when(userDao.findByFilter(filter)).thenReturn(List.of(user));
+
+        assertEquals(List.of(UserView.of(user)), userService.findUserViews(filter));
+    }
+
     @Test
     void updateUser_validUser_updatesSuccessfully() {
         User user = createValidUser();
         user.setId(1L);
-        when(userDao.findById(user.getId())).thenReturn(Optional.of(user));
+        when(userDao.update(user)).thenReturn(true);
 
         userService.updateUser(user);
         verify(userDao).update(user);
+        verify(userDao, never()).findById(any());
     }
 
     @Test
     void updateUser_nonExistentUser_throwsUserNotFoundException() {
         User user = createValidUser();
         user.setId(999L);
-        when(userDao.findById(user.getId())).thenReturn(Optional.empty());
+        when(userDao.update(user)).thenReturn(false);
 
         assertThrows(UserNotFoundException.class, () -> userService.updateUser(user));
-        verify(userDao, never()).update(any());
+    }
+
+    @Test
+    void updateUser_userWithoutId_throwsUserNotFoundException() {
+        User user = createValidUser();
+
+        assertThrows(UserNotFoundException.class, () -> userService.updateUser(user));
+        verifyNoInteractions(userDao);
     }
 
     @Test
     void deleteUser_validUser_deletesSuccessfully() {
         User user = createValidUser();
         user.setId(1L);
-        when(userDao.findById(user.getId())).thenReturn(Optional.of(user));
+        when(userDao.delete(user)).thenReturn(true);
 
         userService.deleteUser(user);
         verify(userDao).delete(user);
+        verify(userDao, never()).findById(any());
     }
 
     @Test
     void deleteUser_nonExistentUser_throwsUserNotFoundException() {
         User user = createValidUser();
         user.setId(999L);
-        when(userDao.findById(user.getId())).thenReturn(Optional.empty());
+        when(userDao.delete(user)).thenReturn(false);
 
         assertThrows(UserNotFoundException.class, () -> userService.deleteUser(user));
-        verify(userDao, never()).delete(any());
+    }
+
+    @Test
+    void deleteUserById_nonExistentId_throwsUserNotFoundException() {
+        when(userDao.deleteById(999L)).thenReturn(false);
+
+        assertThrows(UserNotFoundException.class, () -> userService.deleteUserById(999L));
+    }
+
+    @Test
+    void saveUser_plainDaoWithSameEmail_throwsUserAlreadyExistsException() {
+        @SuppressWarnings("unchecked")
+        Dao<User, Long> plainDao = mock(Dao.class);
+        User existing = new User(1L, "Existing", "valid@email.com", 40, LocalDateTime.now(), 0L);
+        when(plainDao.streamAll(anyInt())).thenReturn(Stream.of(existing));
+
+        assertThrows(UserAlreadyExistsException.class, () -> new UserService(plainDao).saveUser(createValidUser()));
+        verify(plainDao, never()).save(any());
+    }
+
+    @Test
+    void findUsers_plainDao_filtersAndSortsScannedUsers() {
+        @SuppressWarnings("unchecked")
+        Dao<User, Long> plainDao = mock(Dao.class);
+        LocalDateTime now = LocalDateTime.now();
+        User young = new User(1L, "Anna", "anna@test.com", 20, now, 0L);
+        User other = new User(2L, "Boris", "boris@other.com", 30, now, 0L);
+        User old = new User(3L, "Alex", "alex@test.com", 50, now, 0L);
+        when(plainDao.streamAll(anyInt())).thenReturn(Stream.of(young, other, old));
+        UserFilter filter = UserFilter.ANY.withEmailDomain("TEST.com").sortedBy(UserFilter.SortField.AGE, true);
+
+        assertEquals(List.of(old, young), new UserService(plainDao).findUsers(filter));
     }
 
     private User createValidUser() {
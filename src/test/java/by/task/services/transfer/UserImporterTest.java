@@ -0,0 +1,187 @@
+package by.task.services.transfer;
+
+import by.task.dao.UserLookupDao;
+import by.task.exceptions.dao.UserPersistenceException;
+import by.task.models.User;
+import by.task.services.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserImporterTest {
+    private static final ImportSettings SETTINGS = new ImportSettings(2, 3, 16, 100);
+
+    @Mock
+    private UserLookupDao userDao;
+
+    private final List<User> saved = new ArrayList<>();
+    private UserService userService;
+
+    @BeforeEach
+    void setup() {
+        userService = new UserService(userDao);
+    }
+
+    @Test
+    void importFrom_validCsv_savesAllRowsInChunks() throws IOException {
+        recordSavedChunks();
+        String csv = """
+                name,email,age
+                Alice,alice@test.com,30
+                "Smith, Bob",bob@test.com,25
+                Carol,carol@test.com,41
+                """;
+
+        List<Long> progress = new ArrayList<>();
+        ImportReport report = new UserImporter(userService, SETTINGS)
+                .importFrom(UserFileFormat.CSV, new StringReader(csv), (imported, rejected) -> progress.add(imported));
+
+        assertEquals(3, report.read());
+        assertEquals(3, report.imported());
+        assertEquals(0, report.rejectedCount());
+        assertEquals(List.of(2L, 3L), progress);
+        assertTrue(saved.stream().anyMatch(user -> user.getName().equals("Smith, Bob")));
+    }
+
+    @Test
+    void importFrom_invalidRows_reportsRejectsWithLineNumbers() throws IOException {
+        recordSavedChunks();
+        String jsonLines = """
+                {"name":"Alice","email":"alice@test.com","age":30}
+                {"name":"","email":"blank@test.com","age":30}
+                {"name":"Bob","email":"bob@test.com","age":"old"}
+                not json
+                """;
+
+        ImportReport report = new UserImporter(userService, SETTINGS)
+                .importFrom(UserFileFormat.JSON_LINES, new StringReader(jsonLines), ImportProgressListener.NONE);
+
+        assertEquals(4, report.read());
+        assertEquals(1, report.imported());
+        assertEquals(3, report.rejectedCount());
+        assertEquals(List.of(2L, 3L, 4L), report.rejected().stream().map(RejectedRecord::line).toList());
+    }
+
+    @Test
+    void importFrom_chunkFails_fallsBackToRowByRowAndRejectsOnlyFailingRows() throws IOException {
+        doThrow(new UserPersistenceException("duplicate", null)).when(userDao).saveAll(anyList());
+        doAnswer(invocation -> {
+            User user = invocation.getArgument(0);
+            if (user.getEmail().equals("dup@test.com")) {
+                throw new UserPersistenceException("duplicate email", null);
+            }
+            saved.add(user);
+            return null;
+        }).when(userDao).save(any());
+        String csv = """
+                name,email,age
+                Alice,alice@test.com,30
+                Dup,dup@test.com,30
+                """;
+
+        ImportReport report = new UserImporter(userService, SETTINGS)
+                .importFrom(UserFileFormat.CSV, new StringReader(csv), ImportProgressListener.NONE);
+
+        assertEquals(1, report.imported());
+        assertEquals(List.of(new RejectedRecord(3, "duplicate email")), report.rejected());
+    }
+
+    @Test
+    void exportTo_csv_writesHeaderAndEscapedRows() throws IOException {
+        User user = new User("Smith, Bob", "bob@test.com", 25);
+        user.setId(7L);
+        when(userDao.streamAll(UserService.DEFAULT_FETCH_SIZE)).thenReturn(Stream.of(user));
+
+        StringWriter output = new StringWriter();
+        long exported = new UserExporter(userService).exportTo(UserFileFormat.CSV, output);
+
+        assertEquals(1, exported);
+        String[] lines = output.toString().split("\n");
+        assertEquals(CsvUserWriter.HEADER, lines[0]);
+        assertTrue(lines[1].startsWith("7,\"Smith, Bob\",bob@test.com,25,"));
+    }
+
+    @Test
+    void importFrom_listenerFails_stopsInsteadOfBlockingOnFullQueues() {
+        recordSavedChunks();
+        StringBuilder csv = new StringBuilder("name,email,age\n");
+        for (int i = 0; i < 500; i++) {
+            csv.append("User").append(i).append(",user").append(i).append("@test.com,30\n");
+        }
+        ImportProgressListener failing = (imported, rejected) -> {
+            throw new IllegalStateException("отказ слушателя");
+        };
+
+        IOException failure = assertTimeoutPreemptively(Duration.ofSeconds(10), () -> assertThrows(IOException.class,
+                () -> new UserImporter(userService, SETTINGS)
+                        .importFrom(UserFileFormat.CSV, new StringReader(csv.toString()), failing)));
+
+        assertInstanceOf(IllegalStateException.class, failure.getCause());
+    }
+
+    @Test
+    void exportThenImport_csvWithMultiLineQuotedName_roundTrips() throws IOException {
+        User user = new User("Smith, \"Bob\"\nJunior", "bob@test.com", 25);
+        user.setId(7L);
+        when(userDao.streamAll(UserService.DEFAULT_FETCH_SIZE)).thenReturn(Stream.of(user));
+        recordSavedChunks();
+        StringWriter output = new StringWriter();
+        new UserExporter(userService).exportTo(UserFileFormat.CSV, output);
+
+        ImportReport report = new UserImporter(userService, SETTINGS)
+                .importFrom(UserFileFormat.CSV, new StringReader(output.toString()), ImportProgressListener.NONE);
+
+        assertEquals(1, report.read());
+        assertEquals(1, report.imported());
+        assertEquals("Smith, \"Bob\"\nJunior", saved.get(0).getName());
+    }
+
+    @Test
+    void importFrom_unterminatedQuote_rejectedWithStartingLine() throws IOException {
+        recordSavedChunks();
+        String csv = """
+                name,email,age
+                Alice,alice@test.com,30
+                "Bob,bob@test.com,25
+                Carol,carol@test.com,41
+                """;
+
+        ImportReport report = new UserImporter(userService, SETTINGS)
+                .importFrom(UserFileFormat.CSV, new StringReader(csv), ImportProgressListener.NONE);
+
+        assertEquals(1, report.imported());
+        assertEquals(3L, report.rejected().get(0).line());
+    }
+
+    private void recordSavedChunks() {
+        doAnswer(invocation -> {
+            List<User> chunk = invocation.getArgument(0);
+            synchronized (saved) {
+                saved.addAll(chunk);
+            }
+            return null;
+        }).when(userDao).saveAll(anyList());
+    }
+}
@@ -0,0 +1,50 @@
+package by.task.util;
+
+import org.hibernate.cfg.Configuration;
+import org.junit.jupiter.api.Test;
+
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class HibernateUtilTest {
+
+    @Test
+    void applyProfile_production_overridesDriverAndQuerySettings() {
+        Configuration configuration = HibernateUtil.applyProfile(new Configuration().configure("hibernate.cfg.xml"), "production");
+
+        assertEquals("1", configuration.getProperty("hibernate.hikari.dataSource.prepareThreshold"));
+        assertEquals("true", configuration.getProperty("hibernate.hikari.dataSource.reWriteBatchedInserts"));
+        assertEquals("true", configuration.getProperty("hibernate.query.plan_cache_enabled"));
+        // Свойства, которых нет в профиле, берутся из hibernate.cfg.xml
+        assertEquals("50", configuration.getProperty("hibernate.jdbc.batch_size"));
+    }
+
+    @Test
+    void applyProfile_development_keepsBaseConfiguration() {
+        Configuration configuration = HibernateUtil.applyProfile(new Configuration().configure("hibernate.cfg.xml"),
+                HibernateUtil.DEFAULT_PROFILE);
+
+        assertNull(configuration.getProperty("hibernate.hikari.dataSource.prepareThreshold"));
+        assertEquals("50", configuration.getProperty("hibernate.jdbc.batch_size"));
+    }
+
+    @Test
+    void applySlowQueryThreshold_systemProperty_overridesConfigFile() {
+        Properties system = new Properties();
+        system.setProperty("hibernate.log_slow_query", "5");
+
+        Configuration configuration = HibernateUtil.applySlowQueryThreshold(new Configuration().configure("hibernate.cfg.xml"), system);
+
+        assertEquals("5", configuration.getProperty("hibernate.log_slow_query"));
+        assertEquals("200", HibernateUtil.applySlowQueryThreshold(new Configuration().configure("hibernate.cfg.xml"),
+                new Properties()).getProperty("hibernate.log_slow_query"));
+    }
+
+    @Test
+    void applyProfile_unknownProfile_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> HibernateUtil.applyProfile(new Configuration(), "staging"));
+    }
+}
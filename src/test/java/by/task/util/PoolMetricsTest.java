@@ -0,0 +1,60 @@
+package by.task.util;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.PoolStats;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PoolMetricsTest {
+
+    @Test
+    void create_poolStatsProvided_exposesPoolState() {
+        PoolMetrics metrics = new PoolMetrics();
+        metrics.create("test-pool", new FixedPoolStats(3, 2, 1));
+
+        assertEquals(3, metrics.getActiveConnections());
+        assertEquals(2, metrics.getIdleConnections());
+        assertEquals(1, metrics.getPendingThreads());
+        assertEquals(5, metrics.getTotalConnections());
+    }
+
+    @Test
+    void recordConnectionAcquiredNanos_multipleAcquires_tracksAverageAndMax() {
+        PoolMetrics metrics = new PoolMetrics();
+        IMetricsTracker tracker = metrics.create("test-pool", new FixedPoolStats(0, 0, 0));
+
+        tracker.recordConnectionAcquiredNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        tracker.recordConnectionAcquiredNanos(TimeUnit.MILLISECONDS.toNanos(3));
+        tracker.recordConnectionTimeout();
+
+        assertEquals(2, metrics.getAcquireCount());
+        assertEquals(2.0, metrics.getAverageAcquireMillis(), 0.001);
+        assertEquals(3.0, metrics.getMaxAcquireMillis(), 0.001);
+        assertEquals(1, metrics.getTimeouts());
+    }
+
+    @Test
+    void getters_poolNotStarted_returnZero() {
+        PoolMetrics metrics = new PoolMetrics();
+
+        assertEquals(0, metrics.getActiveConnections());
+        assertEquals(0, metrics.getAverageAcquireMillis(), 0.001);
+    }
+
+    private static class FixedPoolStats extends PoolStats {
+        FixedPoolStats(int active, int idle, int pending) {
+            super(0);
+            this.activeConnections = active;
+            this.idleConnections = idle;
+            this.pendingThreads = pending;
+            this.totalConnections = active + idle;
+        }
+
+        @Override
+        protected void update() {
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package by.task.util;
+
+import by.task.dao.impl.UserDao;
+import by.task.models.User;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@TestInstance(Lifecycle.PER_CLASS)
+class SchemaMigratorTest {
+    private static final int LEGACY_ROWS = 120;
+
+    private String jdbcUrl;
+
+    @BeforeAll
+    void setup() {
+        jdbcUrl = TestHibernateUtil.databaseUrl("legacy_users");
+    }
+
+    @AfterAll
+    void tearDown() {
+        TestHibernateUtil.shutdown();
+    }
+
+    @Test
+    void shouldContinueIdsAfterExistingRows_WhenMigratingSchemaCreatedByHbm2ddl() throws SQLException {
+        createLegacyTable("");
+
+        SchemaMigrator.migrate(settings());
+
+        SessionFactory sessionFactory = TestHibernateUtil.buildSessionFactory(jdbcUrl, Map.of("hibernate.hbm2ddl.auto", "none"));
+        try {
+            UserDao userDao = new UserDao(sessionFactory);
+            User first = new User("New User", "new@test.com", 30);
+            User second = new User("Next User", "next@test.com", 30);
+            userDao.save(first);
+            userDao.save(second);
+
+            assertEquals(LEGACY_ROWS + 1, first.getId());
+            assertEquals(LEGACY_ROWS + 2, second.getId());
+            assertEquals(LEGACY_ROWS + 2, userDao.findAll().size());
+        } finally {
+            sessionFactory.close();
+        }
+    }
+
+    @Test
+    void shouldUpdateAndDeleteLegacyRows_WhenTheyHadNoVersion() throws SQLException {
+        createLegacyTable(", version bigint");
+
+        SchemaMigrator.migrate(settings());
+
+        SessionFactory sessionFactory = TestHibernateUtil.buildSessionFactory(jdbcUrl, Map.of("hibernate.hbm2ddl.auto", "none"));
+        try {
+            UserDao userDao = new UserDao(sessionFactory);
+            User legacy = userDao.findById(1L).orElseThrow();
+            assertEquals(0L, legacy.getVersion());
+
+            legacy.setName("Renamed");
+            assertTrue(userDao.update(legacy));
+            assertEquals(1L, legacy.getVersion());
+            assertTrue(userDao.delete(userDao.findById(2L).orElseThrow()));
+            assertTrue(userDao.findById(2L).isEmpty());
+        } finally {
+            sessionFactory.close();
+        }
+    }
+
+    // Таблица в том виде, в каком её создавал hbm2ddl.auto=update до миграций: ID из IDENTITY, последовательности нет
+    private void createLegacyTable(String extraColumns) throws SQLException {
+        execute("drop schema public cascade", "create schema public",
+                "create table users (id bigint generated by default as identity primary key, "
+                        + "name varchar(255) not null, email varchar(255) not null unique, age integer not null, "
+                        + "created_at timestamp(6) not null" + extraColumns + ")",
+                "insert into users (name, email, age, created_at) select 'Legacy ' || n, 'legacy' || n || '@test.com', 30, "
+                        + "now() from generate_series(1, " + LEGACY_ROWS + ") n");
+    }
+
+    private Properties settings() {
+        Properties settings = new Properties();
+        settings.setProperty(DataSourceFactory.POOL_PREFIX + "jdbcUrl", jdbcUrl);
+        settings.setProperty(DataSourceFactory.POOL_PREFIX + "username", TestHibernateUtil.username());
+        settings.setProperty(DataSourceFactory.POOL_PREFIX + "password", TestHibernateUtil.password());
+        return settings;
+    }
+
+    private void execute(String... statements) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(jdbcUrl, TestHibernateUtil.username(), TestHibernateUtil.password());
+             Statement statement = connection.createStatement()) {
+            for (String sql : statements) {
+                statement.execute(sql);
+            }
+        }
+    }
+}
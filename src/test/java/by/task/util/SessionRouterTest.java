@@ -0,0 +1,126 @@
+package by.task.util;
+
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class SessionRouterTest {
+    private final AtomicLong clock = new AtomicLong();
+    private final SessionFactory primary = mock(SessionFactory.class);
+    private final SessionFactory replica1 = mock(SessionFactory.class);
+    private final SessionFactory replica2 = mock(SessionFactory.class);
+
+    private SessionRouter router;
+
+    @BeforeEach
+    void setUp() {
+        router = new SessionRouter(primary, List.of(replica1, replica2),
+                Duration.ofSeconds(1), Duration.ofSeconds(30), clock::get);
+    }
+
+    @Test
+    void forRead_healthyReplicas_alternatesBetweenReplicas() {
+        assertSame(replica1, router.forRead());
+        assertSame(replica2, router.forRead());
+        assertSame(replica1, router.forRead());
+    }
+
+    @Test
+    void forRead_afterWrite_pinsToPrimaryUntilWindowExpires() {
+        router.markWrite();
+        assertSame(primary, router.forRead());
+        assertTrue(router.isPinnedToPrimary());
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertFalse(router.isPinnedToPrimary());
+        assertSame(replica1, router.forRead());
+    }
+
+    @Test
+    void forRead_writeOnAnotherThread_doesNotPinCaller() throws InterruptedException {
+        Thread writer = new Thread(router::markWrite);
+        writer.start();
+        writer.join();
+
+        assertSame(replica1, router.forRead());
+    }
+
+    @Test
+    void forRead_clientTokenFromEarlierRequest_pinsOtherThreadToPrimary() throws InterruptedException {
+        AtomicLong wallClock = new AtomicLong(1_000_000);
+        router = new SessionRouter(primary, List.of(replica1, replica2),
+                Duration.ofSeconds(1), Duration.ofSeconds(30), clock::get, wallClock::get);
+        AtomicLong token = new AtomicLong();
+        Thread writeRequest = new Thread(() -> {
+            try (LastWriteScope scope = LastWriteScope.open(0)) {
+                router.markWrite();
+                token.set(scope.getLastWriteMillis());
+            }
+        });
+        writeRequest.start();
+        writeRequest.join();
+        assertEquals(1_000_000, token.get());
+
+        try (LastWriteScope ignored = LastWriteScope.open(token.get())) {
+            assertSame(primary, router.forRead());
+            wallClock.addAndGet(1000);
+            assertSame(replica1, router.forRead());
+        }
+        wallClock.set(token.get());
+        assertSame(replica2, router.forRead());
+    }
+
+    @Test
+    void forRead_clientTokenFromFarFuture_isIgnored() {
+        AtomicLong wallClock = new AtomicLong(1_000_000);
+        router = new SessionRouter(primary, List.of(replica1, replica2),
+                Duration.ofSeconds(1), Duration.ofSeconds(30), clock::get, wallClock::get);
+
+        try (LastWriteScope ignored = LastWriteScope.open(9_999_999_999_999L)) {
+            assertSame(replica1, router.forRead());
+        }
+        // Небольшое опережение часов другого экземпляра по-прежнему переводит чтение на primary
+        try (LastWriteScope ignored = LastWriteScope.open(wallClock.get() + 500)) {
+            assertSame(primary, router.forRead());
+        }
+    }
+
+    @Test
+    void forRead_failedReplica_skippedUntilCooldownExpires() {
+        router.reportFailure(replica1);
+        assertEquals(1, router.getHealthyReplicaCount());
+        assertSame(replica2, router.forRead());
+        assertSame(replica2, router.forRead());
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        assertEquals(2, router.getHealthyReplicaCount());
+    }
+
+    @Test
+    void forRead_allReplicasFailed_fallsBackToPrimary() {
+        router.reportFailure(replica1);
+        router.reportFailure(replica2);
+
+        assertSame(primary, router.forRead());
+    }
+
+    @Test
+    void forRead_noReplicas_usesPrimary() {
+        SessionRouter single = new SessionRouter(primary);
+        single.markWrite();
+
+        assertSame(primary, single.forRead());
+        assertFalse(single.isPinnedToPrimary());
+    }
+}
@@ -4,6 +4,14 @@ import org.hibernate.SessionFactory;
 import org.hibernate.cfg.Configuration;
 import org.testcontainers.containers.PostgreSQLContainer;
 
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
 public class TestHibernateUtil {
     private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:latest")
             .withDatabaseName("testdb")
@@ -15,15 +23,69 @@ public class TestHibernateUtil {
     }
 
     public static SessionFactory buildSessionFactory() {
+        return buildSessionFactory(postgres.getJdbcUrl());
+    }
+
+    // Кэш второго уровня как в hibernate.cfg.xml, с настоящим ehcache.xml: регион, которого там нет,
+    // не создаётся молча с настройками по умолчанию, а ломает запуск
+    public static SessionFactory buildCachedSessionFactory() {
+        return buildSessionFactory(postgres.getJdbcUrl(), Map.of(
+                "hibernate.cache.use_second_level_cache", "true",
+                "hibernate.cache.use_query_cache", "true",
+                "hibernate.cache.region.factory_class", "jcache",
+                "hibernate.javax.cache.provider", "org.ehcache.jsr107.EhcacheCachingProvider",
+                "hibernate.javax.cache.uri", "ehcache.xml",
+                "hibernate.javax.cache.missing_cache_strategy", "fail",
+                "hibernate.generate_statistics", "true"));
+    }
+
+    public static String jdbcUrl() {
+        return postgres.getJdbcUrl();
+    }
+
+    public static String username() {
+        return postgres.getUsername();
+    }
+
+    public static String password() {
+        return postgres.getPassword();
+    }
+
+    // Каждый шард — отдельная база shard_N в том же контейнере
+    public static List<SessionFactory> buildShardSessionFactories(int count) {
+        List<SessionFactory> shards = new ArrayList<>(count);
+        for (int shard = 0; shard < count; shard++) {
+            shards.add(buildSessionFactory(databaseUrl("shard_" + shard)));
+        }
+        return shards;
+    }
+
+    // Отдельная база в том же контейнере, создаётся при первом обращении
+    public static String databaseUrl(String database) {
+        createDatabaseIfMissing(database);
+        return "jdbc:postgresql://" + postgres.getHost() + ":"
+                + postgres.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT) + "/" + database;
+    }
+
+    private static SessionFactory buildSessionFactory(String jdbcUrl) {
+        return buildSessionFactory(jdbcUrl, Map.of());
+    }
+
+    // properties применяются последними и могут заменить настройки по умолчанию, например hbm2ddl.auto
+    public static SessionFactory buildSessionFactory(String jdbcUrl, Map<String, String> properties) {
         try {
             Configuration configuration = new Configuration();
             configuration.setProperty("hibernate.connection.driver_class", "org.postgresql.Driver");
-            configuration.setProperty("hibernate.connection.url", postgres.getJdbcUrl());
+            configuration.setProperty("hibernate.connection.url", jdbcUrl);
             configuration.setProperty("hibernate.connection.username", postgres.getUsername());
             configuration.setProperty("hibernate.connection.password", postgres.getPassword());
             configuration.setProperty("hibernate.dialect", "org.hibernate.dialect.PostgreSQLDialect");
             configuration.setProperty("hibernate.hbm2ddl.auto", "create-drop");
             configuration.addAnnotatedClass(by.task.models.User.class);
+            configuration.addAnnotatedClass(by.task.models.OutboxEvent.class);
+            configuration.addAnnotatedClass(by.task.models.ShardRange.class);
+            configuration.addAnnotatedClass(by.task.models.ShardEpoch.class);
+            properties.forEach(configuration::setProperty);
 
             return configuration.buildSessionFactory();
         } catch (Throwable ex) {
@@ -31,7 +93,18 @@ public class TestHibernateUtil {
         }
     }
 
+    private static void createDatabaseIfMissing(String database) {
+        try (Connection connection = DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+             Statement statement = connection.createStatement()) {
+            if (!statement.executeQuery("select 1 from pg_database where datname = '" + database + "'").next()) {
+                statement.execute("create database " + database);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Не удалось создать базу " + database, e);
+        }
+    }
+
     public static void shutdown() {
         postgres.stop();
     }
-}
\ No newline at end of file
+}